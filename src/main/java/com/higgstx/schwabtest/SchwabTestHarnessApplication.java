@@ -1,5 +1,6 @@
 package com.higgstx.schwabtest;
 
+import com.higgstx.schwabtest.config.SchwabServiceConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -11,6 +12,8 @@ import org.springframework.scheduling.annotation.*;
 public class SchwabTestHarnessApplication {
     
     public static void main(String[] args) {
-        SpringApplication.run(SchwabTestHarnessApplication.class, args);
+        SpringApplication application = new SpringApplication(SchwabTestHarnessApplication.class);
+        application.setAdditionalProfiles(SchwabServiceConfiguration.HARNESS_PROFILE);
+        application.run(args);
     }
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.higgstx.schwabtest.alerts;
+
+import com.higgstx.schwabapi.model.market.QuoteData;
+import com.higgstx.schwabtest.analytics.PriceDataFields;
+import com.higgstx.schwabtest.analytics.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Price/volume alert engine indexed by symbol.
+ * <p>
+ * Rules are compiled into one {@link SymbolRuleIndex} per symbol id. Each tick looks
+ * up the symbol's index in an array, compares against that symbol's previous price
+ * and volume, and only visits thresholds between the old and new values. The first
+ * tick for a symbol sets its baseline without firing. Ticks for different symbols
+ * may arrive on different threads; ticks for one symbol are serialized.
+ */
+public class AlertEngine {
+
+    /**
+     * Called for each rule that fires
+     */
+    @FunctionalInterface
+    public interface AlertListener {
+        void onAlert(int ruleId, int symbolId, double threshold, double value);
+    }
+
+    private static final AlertListener NO_LISTENER = (ruleId, symbolId, threshold, value) -> { };
+
+    private final SymbolTable symbols;
+    private final Map<String, List<AlertRule>> rulesBySymbol = new HashMap<>();
+    private volatile SymbolState[] states = new SymbolState[0];
+    private int ruleCount;
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder rulesExamined = new LongAdder();
+    private final LongAdder alertsFired = new LongAdder();
+    private final LongAdder evaluationNanos = new LongAdder();
+
+    private static final class SymbolState {
+        final SymbolRuleIndex index;
+        double lastPrice = Double.NaN;
+        long lastVolume = -1;
+
+        SymbolState(SymbolRuleIndex index) {
+            this.index = index;
+        }
+    }
+
+    public AlertEngine() {
+        this(SymbolTable.global());
+    }
+
+    public AlertEngine(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Adds rules and recompiles the indexes of the symbols they touch. Baselines of
+     * affected symbols are kept, so new rules only fire on later crossings.
+     */
+    public synchronized void addRules(Collection<AlertRule> rules) {
+        Map<String, Boolean> touched = new HashMap<>();
+        for (AlertRule rule : rules) {
+            rulesBySymbol.computeIfAbsent(rule.symbol(), k -> new ArrayList<>()).add(rule);
+            touched.put(rule.symbol(), Boolean.TRUE);
+            ruleCount++;
+        }
+
+        SymbolState[] current = states;
+        int maxId = current.length - 1;
+        for (String symbol : touched.keySet()) {
+            maxId = Math.max(maxId, symbols.intern(symbol));
+        }
+        SymbolState[] next = Arrays.copyOf(current, maxId + 1);
+        for (String symbol : touched.keySet()) {
+            int id = symbols.intern(symbol);
+            SymbolState previous = next[id];
+            SymbolState rebuilt = new SymbolState(new SymbolRuleIndex(rulesBySymbol.get(symbol)));
+            if (previous != null) {
+                synchronized (previous) {
+                    rebuilt.lastPrice = previous.lastPrice;
+                    rebuilt.lastVolume = previous.lastVolume;
+                }
+            }
+            next[id] = rebuilt;
+        }
+        states = next;
+    }
+
+    public void addRule(AlertRule rule) {
+        addRules(List.of(rule));
+    }
+
+    /**
+     * Evaluates a fetched quote; failed quotes are ignored
+     *
+     * @return number of rules fired
+     */
+    public int onQuote(QuoteData quote, AlertListener listener) {
+        if (quote == null || !quote.isSuccess() || quote.getSymbol() == null) {
+            return 0;
+        }
+        int id = symbols.find(quote.getSymbol());
+        if (id < 0) {
+            return 0;
+        }
+        return onTick(id, PriceDataFields.toDouble(quote.getClosePrice()),
+                PriceDataFields.toLong(quote.getTotalVolume()), listener);
+    }
+
+    /**
+     * Evaluates one tick using primitives only
+     *
+     * @return number of rules fired
+     */
+    public int onTick(int symbolId, double price, long volume, AlertListener listener) {
+        SymbolState[] current = states;
+        if (symbolId < 0 || symbolId >= current.length || current[symbolId] == null) {
+            return 0;
+        }
+        SymbolState state = current[symbolId];
+        AlertListener target = listener != null ? listener : NO_LISTENER;
+
+        long start = System.nanoTime();
+        long result = 0;
+        synchronized (state) {
+            if (!Double.isNaN(price)) {
+                if (!Double.isNaN(state.lastPrice)) {
+                    result += state.index.onPrice(symbolId, state.lastPrice, price, target);
+                }
+                state.lastPrice = price;
+            }
+            if (volume > 0) {
+                if (state.lastVolume >= 0) {
+                    result += state.index.onVolume(symbolId, state.lastVolume, volume, target);
+                }
+                state.lastVolume = volume;
+            }
+        }
+        evaluationNanos.add(System.nanoTime() - start);
+        int fired = (int) result;
+        ticks.increment();
+        rulesExamined.add(result >>> 32);
+        alertsFired.add(fired);
+        return fired;
+    }
+
+    public synchronized int getRuleCount() {
+        return ruleCount;
+    }
+
+    public synchronized int getSymbolCount() {
+        return rulesBySymbol.size();
+    }
+
+    public long getTicks() {
+        return ticks.sum();
+    }
+
+    public long getRulesExamined() {
+        return rulesExamined.sum();
+    }
+
+    public long getAlertsFired() {
+        return alertsFired.sum();
+    }
+
+    public double getMeanEvaluationNanos() {
+        long count = ticks.sum();
+        return count == 0 ? 0 : (double) evaluationNanos.sum() / count;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbols;
+    }
+}
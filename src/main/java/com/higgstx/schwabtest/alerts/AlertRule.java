@@ -0,0 +1,32 @@
+package com.higgstx.schwabtest.alerts;
+
+/**
+ * A threshold alert on one symbol.
+ *
+ * @param id        caller-assigned id reported when the rule fires
+ * @param symbol    ticker the rule watches
+ * @param type      what has to cross the threshold, and in which direction
+ * @param threshold price or cumulative volume level
+ */
+public record AlertRule(int id, String symbol, Type type, double threshold) {
+
+    public enum Type {
+        /** Price moves from below the threshold to at or above it */
+        PRICE_ABOVE,
+        /** Price moves from above the threshold to at or below it */
+        PRICE_BELOW,
+        /** Price crosses the threshold in either direction */
+        PRICE_CROSS,
+        /** Cumulative volume reaches the threshold */
+        VOLUME_ABOVE
+    }
+
+    public AlertRule {
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("Alert rule needs a symbol");
+        }
+        if (type == null || Double.isNaN(threshold)) {
+            throw new IllegalArgumentException("Alert rule needs a type and a threshold");
+        }
+    }
+}
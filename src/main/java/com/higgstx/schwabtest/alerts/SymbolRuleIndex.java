@@ -0,0 +1,128 @@
+package com.higgstx.schwabtest.alerts;
+
+import java.util.List;
+
+/**
+ * Immutable per-symbol rule index: price thresholds and volume thresholds, each in
+ * sorted primitive arrays with parallel rule ids and types. A move from p0 to p1
+ * can only fire rules whose thresholds lie between the two, which two binary
+ * searches locate, so cost depends on rules crossed, not rules defined.
+ */
+final class SymbolRuleIndex {
+
+    static final SymbolRuleIndex EMPTY = new SymbolRuleIndex(List.of());
+
+    private final double[] priceThresholds;
+    private final int[] priceRuleIds;
+    private final byte[] priceTypes;
+    private final double[] volumeThresholds;
+    private final int[] volumeRuleIds;
+
+    SymbolRuleIndex(List<AlertRule> rules) {
+        AlertRule[] price = rules.stream().filter(r -> r.type() != AlertRule.Type.VOLUME_ABOVE)
+                .sorted((a, b) -> Double.compare(a.threshold(), b.threshold()))
+                .toArray(AlertRule[]::new);
+        AlertRule[] volume = rules.stream().filter(r -> r.type() == AlertRule.Type.VOLUME_ABOVE)
+                .sorted((a, b) -> Double.compare(a.threshold(), b.threshold()))
+                .toArray(AlertRule[]::new);
+
+        priceThresholds = new double[price.length];
+        priceRuleIds = new int[price.length];
+        priceTypes = new byte[price.length];
+        for (int i = 0; i < price.length; i++) {
+            priceThresholds[i] = price[i].threshold();
+            priceRuleIds[i] = price[i].id();
+            priceTypes[i] = (byte) price[i].type().ordinal();
+        }
+        volumeThresholds = new double[volume.length];
+        volumeRuleIds = new int[volume.length];
+        for (int i = 0; i < volume.length; i++) {
+            volumeThresholds[i] = volume[i].threshold();
+            volumeRuleIds[i] = volume[i].id();
+        }
+    }
+
+    /**
+     * Fires rules crossed by a price move
+     *
+     * @return rules examined in the high 32 bits, rules fired in the low 32 bits
+     */
+    long onPrice(int symbolId, double previous, double current, AlertEngine.AlertListener listener) {
+        if (previous == current || priceThresholds.length == 0) {
+            return 0;
+        }
+        boolean up = current > previous;
+        // Upward crossings: previous < t <= current; downward: current <= t < previous
+        int from = up ? upperBound(priceThresholds, previous) : lowerBound(priceThresholds, current);
+        int to = up ? upperBound(priceThresholds, current) : lowerBound(priceThresholds, previous);
+
+        int fired = 0;
+        for (int i = from; i < to; i++) {
+            int type = priceTypes[i];
+            if (type == AlertRule.Type.PRICE_CROSS.ordinal()
+                    || (up && type == AlertRule.Type.PRICE_ABOVE.ordinal())
+                    || (!up && type == AlertRule.Type.PRICE_BELOW.ordinal())) {
+                listener.onAlert(priceRuleIds[i], symbolId, priceThresholds[i], current);
+                fired++;
+            }
+        }
+        return pack(to - from, fired);
+    }
+
+    /**
+     * Fires volume rules reached since the last tick, packed like {@link #onPrice}
+     */
+    long onVolume(int symbolId, long previous, long current, AlertEngine.AlertListener listener) {
+        if (current <= previous || volumeThresholds.length == 0) {
+            return 0;
+        }
+        int from = upperBound(volumeThresholds, previous);
+        int to = upperBound(volumeThresholds, current);
+        for (int i = from; i < to; i++) {
+            listener.onAlert(volumeRuleIds[i], symbolId, volumeThresholds[i], current);
+        }
+        return pack(to - from, to - from);
+    }
+
+    private static long pack(int examined, int fired) {
+        return ((long) examined << 32) | fired;
+    }
+
+    int size() {
+        return priceThresholds.length + volumeThresholds.length;
+    }
+
+    /**
+     * First index with value > key
+     */
+    static int upperBound(double[] values, double key) {
+        int lo = 0;
+        int hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * First index with value >= key
+     */
+    static int lowerBound(double[] values, double key) {
+        int lo = 0;
+        int hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
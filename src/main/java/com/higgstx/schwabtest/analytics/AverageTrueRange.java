@@ -0,0 +1,55 @@
+package com.higgstx.schwabtest.analytics;
+
+/**
+ * Wilder's average true range
+ */
+public final class AverageTrueRange implements Indicator {
+
+    private final int period;
+    private double previousClose = Double.NaN;
+    private double atr;
+    private int count;
+
+    public AverageTrueRange(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        this.period = period;
+    }
+
+    @Override
+    public String name() {
+        return "ATR(" + period + ")";
+    }
+
+    @Override
+    public void update(double open, double high, double low, double close, long volume) {
+        double trueRange = high - low;
+        if (!Double.isNaN(previousClose)) {
+            trueRange = Math.max(trueRange, Math.max(Math.abs(high - previousClose), Math.abs(low - previousClose)));
+        }
+        previousClose = close;
+
+        if (count < period) {
+            atr += trueRange / period;
+        } else {
+            atr = (atr * (period - 1) + trueRange) / period;
+        }
+        count++;
+    }
+
+    @Override
+    public double value() {
+        return count >= period ? atr : Double.NaN;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    @Override
+    public Indicator newInstance() {
+        return new AverageTrueRange(period);
+    }
+}
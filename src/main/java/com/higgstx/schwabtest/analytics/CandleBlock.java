@@ -0,0 +1,362 @@
+package com.higgstx.schwabtest.analytics;
+
+import com.higgstx.schwabapi.model.market.DailyPriceData;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact column-oriented store of daily candles.
+ * <p>
+ * Each candle is one row across primitive arrays: a {@link SymbolTable} id, an
+ * epoch day and the OHLCV values. A row costs 48 bytes with no per-candle objects,
+ * versus a DailyPriceData with its boxed prices, LocalDate and String. Sorting
+ * swaps rows in place with a {@link RowComparator}, and {@link #forEachSymbol}
+ * walks contiguous symbol runs, so neither allocates.
+ */
+public final class CandleBlock {
+
+    /**
+     * Primitive comparator over two rows of the same block
+     */
+    @FunctionalInterface
+    public interface RowComparator {
+        int compare(CandleBlock block, int a, int b);
+    }
+
+    /**
+     * Receives one contiguous run of rows sharing a symbol id
+     */
+    @FunctionalInterface
+    public interface SymbolRangeVisitor {
+        void visit(int symbolId, int fromRow, int toRow);
+    }
+
+    public static final RowComparator BY_SYMBOL_THEN_DAY = (block, a, b) -> {
+        int bySymbol = Integer.compare(block.symbolIds[a], block.symbolIds[b]);
+        return bySymbol != 0 ? bySymbol : Integer.compare(block.epochDays[a], block.epochDays[b]);
+    };
+
+    public static final RowComparator BY_DAY = (block, a, b) -> Integer.compare(block.epochDays[a], block.epochDays[b]);
+
+    public static final RowComparator BY_DAY_DESCENDING = (block, a, b) ->
+            Integer.compare(block.epochDays[b], block.epochDays[a]);
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final int ROW_BYTES = 2 * Integer.BYTES + 4 * Double.BYTES + Long.BYTES;
+
+    private final SymbolTable symbols;
+    private int size;
+    private int[] symbolIds;
+    private int[] epochDays;
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private long[] volume;
+
+    public CandleBlock(int initialCapacity) {
+        this(SymbolTable.global(), initialCapacity);
+    }
+
+    public CandleBlock(SymbolTable symbols, int initialCapacity) {
+        this.symbols = symbols;
+        int capacity = Math.max(16, initialCapacity);
+        symbolIds = new int[capacity];
+        epochDays = new int[capacity];
+        open = new double[capacity];
+        high = new double[capacity];
+        low = new double[capacity];
+        close = new double[capacity];
+        volume = new long[capacity];
+    }
+
+    /**
+     * Copies the usable candles of a bulk result; failed or undated entries are skipped
+     */
+    public static CandleBlock from(List<DailyPriceData> candles) {
+        CandleBlock block = new CandleBlock(candles.size());
+        for (DailyPriceData data : candles) {
+            block.add(data);
+        }
+        return block;
+    }
+
+    /**
+     * Column copy of a block, e.g. to sort a view without disturbing the original order
+     */
+    public static CandleBlock copyOf(CandleBlock source) {
+        CandleBlock copy = new CandleBlock(source.symbols, source.size);
+        System.arraycopy(source.symbolIds, 0, copy.symbolIds, 0, source.size);
+        System.arraycopy(source.epochDays, 0, copy.epochDays, 0, source.size);
+        System.arraycopy(source.open, 0, copy.open, 0, source.size);
+        System.arraycopy(source.high, 0, copy.high, 0, source.size);
+        System.arraycopy(source.low, 0, copy.low, 0, source.size);
+        System.arraycopy(source.close, 0, copy.close, 0, source.size);
+        System.arraycopy(source.volume, 0, copy.volume, 0, source.size);
+        copy.size = source.size;
+        return copy;
+    }
+
+    /**
+     * Appends a candle if it is usable
+     *
+     * @return the new row, or -1 if the candle was skipped
+     */
+    public int add(DailyPriceData data) {
+        if (!PriceDataFields.isUsable(data)) {
+            return -1;
+        }
+        return add(symbols.intern(data.getSymbol()), PriceDataFields.epochDay(data),
+                PriceDataFields.toDouble(data.getOpen()),
+                PriceDataFields.toDouble(data.getHigh()),
+                PriceDataFields.toDouble(data.getLow()),
+                PriceDataFields.toDouble(data.getClose()),
+                PriceDataFields.toLong(data.getVolume()));
+    }
+
+    public int add(int symbolId, int epochDay, double o, double h, double l, double c, long v) {
+        if (size == symbolIds.length) {
+            grow();
+        }
+        int row = size++;
+        symbolIds[row] = symbolId;
+        epochDays[row] = epochDay;
+        open[row] = o;
+        high[row] = h;
+        low[row] = l;
+        close[row] = c;
+        volume[row] = v;
+        return row;
+    }
+
+    private void grow() {
+        int capacity = symbolIds.length * 2;
+        symbolIds = Arrays.copyOf(symbolIds, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        open = Arrays.copyOf(open, capacity);
+        high = Arrays.copyOf(high, capacity);
+        low = Arrays.copyOf(low, capacity);
+        close = Arrays.copyOf(close, capacity);
+        volume = Arrays.copyOf(volume, capacity);
+    }
+
+    /**
+     * Sorts rows in place; a three-way quicksort with insertion sort for short
+     * ranges, no allocation. Rows equal to the pivot are gathered in one pass, so
+     * blocks where many rows share a key (e.g. a day across the universe) stay
+     * linear per level instead of degrading to quadratic.
+     */
+    public void sort(RowComparator comparator) {
+        quickSort(comparator, 0, size - 1);
+    }
+
+    /**
+     * True if no row compares greater than the next; a read-only linear check
+     */
+    public boolean isSorted(RowComparator comparator) {
+        for (int row = 1; row < size; row++) {
+            if (comparator.compare(this, row - 1, row) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void quickSort(RowComparator comparator, int lo, int hi) {
+        while (hi - lo >= INSERTION_SORT_THRESHOLD) {
+            int mid = (lo + hi) >>> 1;
+            // Median of three moved to lo as the pivot
+            if (comparator.compare(this, mid, lo) < 0) {
+                swap(mid, lo);
+            }
+            if (comparator.compare(this, hi, lo) < 0) {
+                swap(hi, lo);
+            }
+            if (comparator.compare(this, hi, mid) < 0) {
+                swap(hi, mid);
+            }
+            swap(lo, mid);
+            // Partition into [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi] > pivot;
+            // row lt always holds a pivot-equal row while i > lt
+            int lt = lo;
+            int gt = hi;
+            int i = lo + 1;
+            while (i <= gt) {
+                int order = comparator.compare(this, i, lt);
+                if (order < 0) {
+                    swap(lt++, i++);
+                } else if (order > 0) {
+                    swap(i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            // Recurse into the smaller side to bound stack depth
+            if (lt - lo < hi - gt) {
+                quickSort(comparator, lo, lt - 1);
+                lo = gt + 1;
+            } else {
+                quickSort(comparator, gt + 1, hi);
+                hi = lt - 1;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && comparator.compare(this, j, j - 1) < 0; j--) {
+                swap(j, j - 1);
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        if (a == b) {
+            return;
+        }
+        int symbol = symbolIds[a];
+        symbolIds[a] = symbolIds[b];
+        symbolIds[b] = symbol;
+        int day = epochDays[a];
+        epochDays[a] = epochDays[b];
+        epochDays[b] = day;
+        double value = open[a];
+        open[a] = open[b];
+        open[b] = value;
+        value = high[a];
+        high[a] = high[b];
+        high[b] = value;
+        value = low[a];
+        low[a] = low[b];
+        low[b] = value;
+        value = close[a];
+        close[a] = close[b];
+        close[b] = value;
+        long vol = volume[a];
+        volume[a] = volume[b];
+        volume[b] = vol;
+    }
+
+    /**
+     * Visits each run of equal symbol ids; sort by {@link #BY_SYMBOL_THEN_DAY} first
+     * to get exactly one run per symbol
+     */
+    public void forEachSymbol(SymbolRangeVisitor visitor) {
+        int start = 0;
+        for (int row = 1; row <= size; row++) {
+            if (row == size || symbolIds[row] != symbolIds[start]) {
+                visitor.visit(symbolIds[start], start, row);
+                start = row;
+            }
+        }
+    }
+
+    /**
+     * First row of a symbol's run in a block sorted by {@link #BY_SYMBOL_THEN_DAY},
+     * or -1 if the symbol has no rows
+     */
+    public int firstRowOf(int symbolId) {
+        int lo = 0;
+        int hi = size - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (symbolIds[mid] < symbolId) {
+                lo = mid + 1;
+            } else {
+                if (symbolIds[mid] == symbolId) {
+                    found = mid;
+                }
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Bytes {@link #writeTo} needs: a row count followed by each column
+     */
+    public int serializedSize() {
+        return Integer.BYTES + size * ROW_BYTES;
+    }
+
+    /**
+     * Writes the columns back to back with bulk buffer copies
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putInt(size);
+        buffer.asIntBuffer().put(symbolIds, 0, size);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        buffer.asIntBuffer().put(epochDays, 0, size);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        for (double[] column : new double[][]{open, high, low, close}) {
+            buffer.asDoubleBuffer().put(column, 0, size);
+            buffer.position(buffer.position() + size * Double.BYTES);
+        }
+        buffer.asLongBuffer().put(volume, 0, size);
+        buffer.position(buffer.position() + size * Long.BYTES);
+    }
+
+    /**
+     * Reads columns written by {@link #writeTo}. Symbol ids are per process, so
+     * {@code idRemap} maps each stored id to this process's id for the same symbol.
+     */
+    public static CandleBlock readFrom(ByteBuffer buffer, SymbolTable symbols, int[] idRemap) {
+        int rows = buffer.getInt();
+        CandleBlock block = new CandleBlock(symbols, rows);
+        buffer.asIntBuffer().get(block.symbolIds, 0, rows);
+        buffer.position(buffer.position() + rows * Integer.BYTES);
+        buffer.asIntBuffer().get(block.epochDays, 0, rows);
+        buffer.position(buffer.position() + rows * Integer.BYTES);
+        for (double[] column : new double[][]{block.open, block.high, block.low, block.close}) {
+            buffer.asDoubleBuffer().get(column, 0, rows);
+            buffer.position(buffer.position() + rows * Double.BYTES);
+        }
+        buffer.asLongBuffer().get(block.volume, 0, rows);
+        buffer.position(buffer.position() + rows * Long.BYTES);
+        for (int row = 0; row < rows; row++) {
+            block.symbolIds[row] = idRemap[block.symbolIds[row]];
+        }
+        block.size = rows;
+        return block;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbols;
+    }
+
+    public int symbolId(int row) {
+        return symbolIds[row];
+    }
+
+    public String symbol(int row) {
+        return symbols.name(symbolIds[row]);
+    }
+
+    public int epochDay(int row) {
+        return epochDays[row];
+    }
+
+    public double open(int row) {
+        return open[row];
+    }
+
+    public double high(int row) {
+        return high[row];
+    }
+
+    public double low(int row) {
+        return low[row];
+    }
+
+    public double close(int row) {
+        return close[row];
+    }
+
+    public long volume(int row) {
+        return volume[row];
+    }
+}
@@ -0,0 +1,45 @@
+package com.higgstx.schwabtest.analytics;
+
+/**
+ * Holds the most recently collected candles so every harness feature, and the
+ * state snapshotter, work from the same block. Blocks are kept sorted by symbol
+ * then day and are replaced wholesale, never mutated after publication.
+ */
+public class CandleStore {
+
+    private volatile CandleBlock candles = new CandleBlock(0);
+    private volatile long updatedMillis;
+
+    public void replace(CandleBlock block) {
+        sortUnpublished(block);
+        candles = block;
+        updatedMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Installs a restored block without changing its recorded age
+     */
+    public void restore(CandleBlock block, long savedMillis) {
+        sortUnpublished(block);
+        candles = block;
+        updatedMillis = savedMillis;
+    }
+
+    private static void sortUnpublished(CandleBlock block) {
+        if (!block.isSorted(CandleBlock.BY_SYMBOL_THEN_DAY)) {
+            block.sort(CandleBlock.BY_SYMBOL_THEN_DAY);
+        }
+    }
+
+    public CandleBlock get() {
+        return candles;
+    }
+
+    public boolean isEmpty() {
+        return candles.size() == 0;
+    }
+
+    public long getUpdatedMillis() {
+        return updatedMillis;
+    }
+}
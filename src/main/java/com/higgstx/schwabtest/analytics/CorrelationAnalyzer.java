@@ -0,0 +1,162 @@
+package com.higgstx.schwabtest.analytics;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Builds covariance and correlation matrices over a {@link ReturnMatrix}.
+ * <p>
+ * The upper triangle is split into square symbol tiles; each tile pair is an
+ * independent fork-join task, and within a tile the observation axis is walked in
+ * blocks so the rows being multiplied stay cache resident. Work per task is equal
+ * so throughput scales with cores.
+ */
+public class CorrelationAnalyzer {
+
+    public static final int DEFAULT_TILE_SIZE = 64;
+    public static final int DEFAULT_DEPTH_BLOCK = 512;
+
+    private final ForkJoinPool pool;
+    private final int tileSize;
+    private final int depthBlock;
+
+    public CorrelationAnalyzer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_TILE_SIZE, DEFAULT_DEPTH_BLOCK);
+    }
+
+    public CorrelationAnalyzer(ForkJoinPool pool, int tileSize, int depthBlock) {
+        if (tileSize <= 0 || depthBlock <= 0) {
+            throw new IllegalArgumentException("Tile size and depth block must be positive");
+        }
+        this.pool = pool;
+        this.tileSize = tileSize;
+        this.depthBlock = depthBlock;
+    }
+
+    public CovarianceMatrix compute(ReturnMatrix matrix) {
+        int n = matrix.getSymbolCount();
+        int observations = matrix.getObservations();
+        if (n == 0 || observations < 2) {
+            throw new IllegalArgumentException("Need at least one symbol and two aligned return observations, got "
+                    + n + " symbols and " + observations + " observations");
+        }
+
+        double[] centered = matrix.getReturns().clone();
+        IntStream.range(0, n).parallel().forEach(row -> demean(centered, row * observations, observations));
+
+        double[] covariance = new double[n * n];
+        int tiles = (n + tileSize - 1) / tileSize;
+        int pairCount = tiles * (tiles + 1) / 2;
+        int[] tileI = new int[pairCount];
+        int[] tileJ = new int[pairCount];
+        for (int ti = 0, p = 0; ti < tiles; ti++) {
+            for (int tj = ti; tj < tiles; tj++, p++) {
+                tileI[p] = ti;
+                tileJ[p] = tj;
+            }
+        }
+
+        pool.invoke(new TileTask(centered, covariance, n, observations, tileI, tileJ, 0, pairCount));
+
+        double[] stdDev = new double[n];
+        for (int i = 0; i < n; i++) {
+            stdDev[i] = Math.sqrt(covariance[i * n + i]);
+        }
+
+        int[] days = matrix.getReturnDays();
+        return new CovarianceMatrix(matrix.getSymbols().clone(), covariance, stdDev,
+                observations, days[0], days[days.length - 1]);
+    }
+
+    private static void demean(double[] values, int offset, int length) {
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += values[offset + i];
+        }
+        double mean = sum / length;
+        for (int i = 0; i < length; i++) {
+            values[offset + i] -= mean;
+        }
+    }
+
+    private final class TileTask extends RecursiveAction {
+
+        private final double[] centered;
+        private final double[] covariance;
+        private final int n;
+        private final int observations;
+        private final int[] tileI;
+        private final int[] tileJ;
+        private final int from;
+        private final int to;
+
+        TileTask(double[] centered, double[] covariance, int n, int observations,
+                 int[] tileI, int[] tileJ, int from, int to) {
+            this.centered = centered;
+            this.covariance = covariance;
+            this.n = n;
+            this.observations = observations;
+            this.tileI = tileI;
+            this.tileJ = tileJ;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                computeTile(tileI[from], tileJ[from]);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new TileTask(centered, covariance, n, observations, tileI, tileJ, from, middle),
+                    new TileTask(centered, covariance, n, observations, tileI, tileJ, middle, to));
+        }
+
+        private void computeTile(int ti, int tj) {
+            int i0 = ti * tileSize;
+            int i1 = Math.min(i0 + tileSize, n);
+            int j0 = tj * tileSize;
+            int j1 = Math.min(j0 + tileSize, n);
+            boolean diagonal = ti == tj;
+            double[] accumulator = new double[tileSize * tileSize];
+
+            for (int k0 = 0; k0 < observations; k0 += depthBlock) {
+                int length = Math.min(depthBlock, observations - k0);
+                for (int i = i0; i < i1; i++) {
+                    int rowI = i * observations + k0;
+                    int accRow = (i - i0) * tileSize - j0;
+                    for (int j = diagonal ? i : j0; j < j1; j++) {
+                        accumulator[accRow + j] += dot(centered, rowI, j * observations + k0, length);
+                    }
+                }
+            }
+
+            double scale = 1.0 / (observations - 1);
+            for (int i = i0; i < i1; i++) {
+                for (int j = diagonal ? i : j0; j < j1; j++) {
+                    double value = accumulator[(i - i0) * tileSize + (j - j0)] * scale;
+                    covariance[i * n + j] = value;
+                    covariance[j * n + i] = value;
+                }
+            }
+        }
+    }
+
+    private static double dot(double[] values, int a, int b, int length) {
+        // Independent accumulators let the JIT pipeline and vectorize the loop
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int k = 0;
+        for (; k + 3 < length; k += 4) {
+            s0 += values[a + k] * values[b + k];
+            s1 += values[a + k + 1] * values[b + k + 1];
+            s2 += values[a + k + 2] * values[b + k + 2];
+            s3 += values[a + k + 3] * values[b + k + 3];
+        }
+        for (; k < length; k++) {
+            s0 += values[a + k] * values[b + k];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+}
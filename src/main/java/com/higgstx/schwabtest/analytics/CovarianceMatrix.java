@@ -0,0 +1,154 @@
+package com.higgstx.schwabtest.analytics;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Dense symmetric covariance matrix with per-symbol standard deviations.
+ * Correlations are derived on demand so only one n x n block is held in memory.
+ * <p>
+ * Binary layout (big-endian): magic "SCMX", version, n, observations, first and
+ * last return epoch day, n symbol names (modified UTF-8), then the n x n
+ * correlation matrix and the n x n covariance matrix as row-major doubles.
+ */
+public final class CovarianceMatrix {
+
+    private static final int MAGIC = 0x53434D58; // "SCMX"
+    private static final int VERSION = 1;
+    private static final int WRITE_CHUNK_DOUBLES = 64 * 1024;
+
+    private final String[] symbols;
+    private final double[] covariance;
+    private final double[] stdDev;
+    private final int observations;
+    private final int firstDay;
+    private final int lastDay;
+
+    CovarianceMatrix(String[] symbols, double[] covariance, double[] stdDev,
+                     int observations, int firstDay, int lastDay) {
+        this.symbols = symbols;
+        this.covariance = covariance;
+        this.stdDev = stdDev;
+        this.observations = observations;
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+    }
+
+    public int size() {
+        return symbols.length;
+    }
+
+    public String[] getSymbols() {
+        return symbols;
+    }
+
+    public int getObservations() {
+        return observations;
+    }
+
+    public double covariance(int i, int j) {
+        return covariance[i * symbols.length + j];
+    }
+
+    /**
+     * Pearson correlation, NaN when either series has zero variance
+     */
+    public double correlation(int i, int j) {
+        if (i == j) {
+            return stdDev[i] > 0 ? 1.0 : Double.NaN;
+        }
+        double denominator = stdDev[i] * stdDev[j];
+        return denominator > 0 ? covariance[i * symbols.length + j] / denominator : Double.NaN;
+    }
+
+    public void writeTo(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        try (DataOutputStream header = new DataOutputStream(Files.newOutputStream(file))) {
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(symbols.length);
+            header.writeInt(observations);
+            header.writeInt(firstDay);
+            header.writeInt(lastDay);
+            for (String symbol : symbols) {
+                header.writeUTF(symbol);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_CHUNK_DOUBLES * Double.BYTES);
+            DoubleBuffer doubles = buffer.asDoubleBuffer();
+            int n = symbols.length;
+
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (!doubles.hasRemaining()) {
+                        flush(channel, buffer, doubles);
+                    }
+                    doubles.put(correlation(i, j));
+                }
+            }
+            for (int offset = 0; offset < covariance.length; ) {
+                if (!doubles.hasRemaining()) {
+                    flush(channel, buffer, doubles);
+                }
+                int length = Math.min(doubles.remaining(), covariance.length - offset);
+                doubles.put(covariance, offset, length);
+                offset += length;
+            }
+            flush(channel, buffer, doubles);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, DoubleBuffer doubles) throws IOException {
+        buffer.clear().limit(doubles.position() * Double.BYTES);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        doubles.clear();
+    }
+
+    public static CovarianceMatrix readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a covariance matrix file: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported matrix file version " + version + ": " + file);
+            }
+            int n = in.readInt();
+            int observations = in.readInt();
+            int firstDay = in.readInt();
+            int lastDay = in.readInt();
+            String[] symbols = new String[n];
+            for (int i = 0; i < n; i++) {
+                symbols[i] = in.readUTF();
+            }
+
+            // Skip the derived correlation block and rebuild deviations from the diagonal
+            long correlationBytes = (long) n * n * Double.BYTES;
+            in.skipNBytes(correlationBytes);
+            double[] covariance = new double[n * n];
+            for (int i = 0; i < covariance.length; i++) {
+                covariance[i] = in.readDouble();
+            }
+            double[] stdDev = new double[n];
+            for (int i = 0; i < n; i++) {
+                stdDev[i] = Math.sqrt(covariance[i * n + i]);
+            }
+            return new CovarianceMatrix(symbols, covariance, stdDev, observations, firstDay, lastDay);
+        }
+    }
+}
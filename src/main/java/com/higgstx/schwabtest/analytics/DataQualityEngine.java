@@ -0,0 +1,325 @@
+package com.higgstx.schwabtest.analytics;
+
+import com.higgstx.schwabapi.model.market.DailyPriceData;
+import com.higgstx.schwabtest.market.TradingCalendar;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks collected daily candles against a trading calendar and OHLC invariants.
+ * <p>
+ * Candles are scattered into per-symbol primitive columns, sorted once by date,
+ * and then checked with a single branch-light pass per symbol. Symbols are checked
+ * in parallel. Missing trading days, bad bars and duplicate dates are collapsed into
+ * contiguous date ranges that can be re-fetched.
+ */
+public class DataQualityEngine {
+
+    public enum Defect {
+        FETCH_ERROR("fetch errors"),
+        MISSING_DAY("missing trading days"),
+        DUPLICATE_DATE("duplicate dates"),
+        NON_TRADING_DAY("bars on non-trading days"),
+        HIGH_BELOW_LOW("high below low"),
+        OPEN_OUT_OF_RANGE("open outside high/low"),
+        CLOSE_OUT_OF_RANGE("close outside high/low"),
+        NON_POSITIVE_PRICE("missing or non-positive prices"),
+        ZERO_VOLUME("zero volume");
+
+        private final String description;
+
+        Defect(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    // Bar-level flags produced by the invariant pass
+    private static final int FLAG_HIGH_BELOW_LOW = 1;
+    private static final int FLAG_OPEN_OUT_OF_RANGE = 1 << 1;
+    private static final int FLAG_CLOSE_OUT_OF_RANGE = 1 << 2;
+    private static final int FLAG_NON_POSITIVE_PRICE = 1 << 3;
+    private static final int FLAG_ZERO_VOLUME = 1 << 4;
+
+    public record RefetchRange(String symbol, LocalDate from, LocalDate to, String reason) {
+        @Override
+        public String toString() {
+            return symbol + " " + from + (from.equals(to) ? "" : " to " + to) + " (" + reason + ")";
+        }
+    }
+
+    public record SymbolQuality(String symbol, int candles, int[] defectCounts, List<RefetchRange> refetch) {
+
+        public int count(Defect defect) {
+            return defectCounts[defect.ordinal()];
+        }
+
+        public int totalDefects() {
+            int total = 0;
+            for (int count : defectCounts) {
+                total += count;
+            }
+            return total;
+        }
+    }
+
+    public record Report(List<SymbolQuality> symbols, long[] totals, List<RefetchRange> refetch,
+                         int candlesChecked, long elapsedNanos) {
+
+        public long total(Defect defect) {
+            return totals[defect.ordinal()];
+        }
+
+        public long symbolsWithDefects() {
+            return symbols.stream().filter(s -> s.totalDefects() > 0).count();
+        }
+    }
+
+    private final TradingCalendar calendar;
+
+    public DataQualityEngine(TradingCalendar calendar) {
+        this.calendar = calendar;
+    }
+
+    public Report analyze(List<DailyPriceData> candles) {
+        long start = System.nanoTime();
+
+        Map<String, Columns> bySymbol = new HashMap<>();
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+        for (DailyPriceData data : candles) {
+            if (data == null || data.getSymbol() == null) {
+                continue;
+            }
+            Columns columns = bySymbol.computeIfAbsent(data.getSymbol(), Columns::new);
+            if (!data.isSuccess() || data.getLocalDate() == null) {
+                columns.errors++;
+                continue;
+            }
+            int day = PriceDataFields.epochDay(data);
+            columns.add(day,
+                    PriceDataFields.toDouble(data.getOpen()),
+                    PriceDataFields.toDouble(data.getHigh()),
+                    PriceDataFields.toDouble(data.getLow()),
+                    PriceDataFields.toDouble(data.getClose()),
+                    PriceDataFields.toLong(data.getVolume()));
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+        }
+
+        return analyzeColumns(bySymbol.values(), minDay, maxDay, start);
+    }
+
+    Report analyzeColumns(Collection<Columns> columnsBySymbol, int universeStart, int universeEnd, long start) {
+        // Every symbol is expected to run through the latest day seen anywhere in the universe
+        List<SymbolQuality> results = columnsBySymbol.parallelStream()
+                .map(columns -> check(columns, universeStart, universeEnd))
+                .sorted(Comparator.comparing(SymbolQuality::symbol))
+                .toList();
+
+        long[] totals = new long[Defect.values().length];
+        List<RefetchRange> refetch = new ArrayList<>();
+        int checked = 0;
+        for (SymbolQuality quality : results) {
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += quality.defectCounts()[i];
+            }
+            refetch.addAll(quality.refetch());
+            checked += quality.candles();
+        }
+        return new Report(results, totals, refetch, checked, System.nanoTime() - start);
+    }
+
+    private SymbolQuality check(Columns columns, int universeStart, int universeEnd) {
+        int[] counts = new int[Defect.values().length];
+        List<RefetchRange> refetch = new ArrayList<>();
+        counts[Defect.FETCH_ERROR.ordinal()] = columns.errors;
+
+        int n = columns.size;
+        if (n == 0) {
+            if (columns.errors > 0 && universeStart <= universeEnd) {
+                refetch.add(new RefetchRange(columns.symbol, LocalDate.ofEpochDay(universeStart),
+                        LocalDate.ofEpochDay(universeEnd), "fetch failed"));
+            }
+            return new SymbolQuality(columns.symbol, 0, counts, refetch);
+        }
+
+        columns.sortByDay();
+        int[] days = columns.days;
+
+        // OHLC invariants: one pass, flags combined without data-dependent branches
+        int[] flags = new int[n];
+        double[] open = columns.open;
+        double[] high = columns.high;
+        double[] low = columns.low;
+        double[] close = columns.close;
+        long[] volume = columns.volume;
+        for (int i = 0; i < n; i++) {
+            double o = open[i];
+            double h = high[i];
+            double l = low[i];
+            double c = close[i];
+            int f = (h < l ? FLAG_HIGH_BELOW_LOW : 0)
+                    | (o > h || o < l ? FLAG_OPEN_OUT_OF_RANGE : 0)
+                    | (c > h || c < l ? FLAG_CLOSE_OUT_OF_RANGE : 0)
+                    // !(x > 0) also catches NaN from missing fields
+                    | (!(o > 0) || !(h > 0) || !(l > 0) || !(c > 0) ? FLAG_NON_POSITIVE_PRICE : 0)
+                    | (volume[i] <= 0 ? FLAG_ZERO_VOLUME : 0);
+            flags[i] = f;
+            counts[Defect.HIGH_BELOW_LOW.ordinal()] += f & FLAG_HIGH_BELOW_LOW;
+            counts[Defect.OPEN_OUT_OF_RANGE.ordinal()] += (f >>> 1) & 1;
+            counts[Defect.CLOSE_OUT_OF_RANGE.ordinal()] += (f >>> 2) & 1;
+            counts[Defect.NON_POSITIVE_PRICE.ordinal()] += (f >>> 3) & 1;
+            counts[Defect.ZERO_VOLUME.ordinal()] += (f >>> 4) & 1;
+        }
+
+        // Walk the expected trading days alongside the actual (sorted) days; the scan spans
+        // the whole universe window so a symbol that starts late is flagged too
+        int[] expected = calendar.tradingDays(Math.min(days[0], universeStart), Math.max(days[n - 1], universeEnd));
+        String[] reasons = new String[expected.length];
+        int actual = 0;
+        for (int e = 0; e < expected.length; e++) {
+            int day = expected[e];
+            while (actual < n && days[actual] < day) {
+                // Anything skipped here is not in the expected calendar
+                counts[Defect.NON_TRADING_DAY.ordinal()]++;
+                actual++;
+            }
+            if (actual >= n || days[actual] != day) {
+                counts[Defect.MISSING_DAY.ordinal()]++;
+                reasons[e] = "missing";
+                continue;
+            }
+
+            int barFlags = flags[actual];
+            actual++;
+            int duplicates = 0;
+            while (actual < n && days[actual] == day) {
+                barFlags |= flags[actual];
+                duplicates++;
+                actual++;
+            }
+            if (duplicates > 0) {
+                counts[Defect.DUPLICATE_DATE.ordinal()] += duplicates;
+                reasons[e] = "duplicate";
+            } else if ((barFlags & ~FLAG_ZERO_VOLUME) != 0) {
+                reasons[e] = "bad bar";
+            } else if (barFlags == FLAG_ZERO_VOLUME) {
+                reasons[e] = "zero volume";
+            }
+        }
+        counts[Defect.NON_TRADING_DAY.ordinal()] += n - actual;
+
+        collapseRanges(columns.symbol, expected, reasons, refetch);
+        return new SymbolQuality(columns.symbol, n, counts, refetch);
+    }
+
+    private static void collapseRanges(String symbol, int[] expected, String[] reasons, List<RefetchRange> refetch) {
+        int e = 0;
+        while (e < expected.length) {
+            if (reasons[e] == null) {
+                e++;
+                continue;
+            }
+            int start = e;
+            String reason = reasons[e];
+            while (e + 1 < expected.length && reasons[e + 1] != null) {
+                e++;
+                if (!reason.equals(reasons[e])) {
+                    reason = "mixed";
+                }
+            }
+            refetch.add(new RefetchRange(symbol, LocalDate.ofEpochDay(expected[start]),
+                    LocalDate.ofEpochDay(expected[e]), reason));
+            e++;
+        }
+    }
+
+    /**
+     * Growable primitive columns for one symbol
+     */
+    static final class Columns {
+
+        private final String symbol;
+        private int[] days = new int[32];
+        private double[] open = new double[32];
+        private double[] high = new double[32];
+        private double[] low = new double[32];
+        private double[] close = new double[32];
+        private long[] volume = new long[32];
+        private int size;
+        int errors;
+
+        Columns(String symbol) {
+            this.symbol = symbol;
+        }
+
+        void add(int day, double o, double h, double l, double c, long v) {
+            if (size == days.length) {
+                int capacity = size * 2;
+                days = Arrays.copyOf(days, capacity);
+                open = Arrays.copyOf(open, capacity);
+                high = Arrays.copyOf(high, capacity);
+                low = Arrays.copyOf(low, capacity);
+                close = Arrays.copyOf(close, capacity);
+                volume = Arrays.copyOf(volume, capacity);
+            }
+            days[size] = day;
+            open[size] = o;
+            high[size] = h;
+            low[size] = l;
+            close[size] = c;
+            volume[size] = v;
+            size++;
+        }
+
+        void sortByDay() {
+            boolean sorted = true;
+            for (int i = 1; i < size && sorted; i++) {
+                sorted = days[i - 1] <= days[i];
+            }
+            if (sorted) {
+                return;
+            }
+
+            // Sort (day, index) pairs packed into longs, then permute every column once
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = ((long) days[i] << 32) | i;
+            }
+            Arrays.sort(keys);
+
+            int[] sortedDays = new int[size];
+            double[] o = new double[size];
+            double[] h = new double[size];
+            double[] l = new double[size];
+            double[] c = new double[size];
+            long[] v = new long[size];
+            for (int i = 0; i < size; i++) {
+                int from = (int) keys[i];
+                sortedDays[i] = days[from];
+                o[i] = open[from];
+                h[i] = high[from];
+                l[i] = low[from];
+                c[i] = close[from];
+                v[i] = volume[from];
+            }
+            days = sortedDays;
+            open = o;
+            high = h;
+            low = l;
+            close = c;
+            volume = v;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.higgstx.schwabtest.analytics;
+
+/**
+ * Fixed-capacity ring of primitive doubles used for O(1) rolling windows
+ */
+public final class DoubleRingBuffer {
+
+    private final double[] values;
+    private int head;
+    private int size;
+
+    public DoubleRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Appends a value, overwriting the oldest one once the ring is full
+     */
+    public void push(double value) {
+        if (size < values.length) {
+            size++;
+        }
+        values[head] = value;
+        head = (head + 1) % values.length;
+    }
+
+    /**
+     * The value the next push evicts; only meaningful while {@link #isFull()}
+     */
+    public double oldest() {
+        if (size < values.length) {
+            throw new IllegalStateException("Ring is still filling: " + size + " of " + values.length);
+        }
+        return values[head];
+    }
+
+    public boolean isFull() {
+        return size == values.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,54 @@
+package com.higgstx.schwabtest.analytics;
+
+/**
+ * Exponential moving average of closes, seeded with the simple average of the first period
+ */
+public final class ExponentialMovingAverage implements Indicator {
+
+    private final int period;
+    private final double alpha;
+    private double ema;
+    private double seedSum;
+    private int count;
+
+    public ExponentialMovingAverage(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    @Override
+    public String name() {
+        return "EMA(" + period + ")";
+    }
+
+    @Override
+    public void update(double open, double high, double low, double close, long volume) {
+        if (count < period) {
+            seedSum += close;
+            count++;
+            if (count == period) {
+                ema = seedSum / period;
+            }
+        } else {
+            ema += alpha * (close - ema);
+        }
+    }
+
+    @Override
+    public double value() {
+        return count >= period ? ema : Double.NaN;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    @Override
+    public Indicator newInstance() {
+        return new ExponentialMovingAverage(period);
+    }
+}
@@ -0,0 +1,29 @@
+package com.higgstx.schwabtest.analytics;
+
+/**
+ * Streaming technical indicator with constant-time, allocation-free updates
+ */
+public interface Indicator {
+
+    /**
+     * Display name including parameters, e.g. "SMA(20)"
+     */
+    String name();
+
+    /**
+     * Feeds the next candle in date order
+     */
+    void update(double open, double high, double low, double close, long volume);
+
+    /**
+     * Current indicator value, NaN until enough candles have been seen
+     */
+    double value();
+
+    boolean isReady();
+
+    /**
+     * Creates an indicator with the same parameters and empty state
+     */
+    Indicator newInstance();
+}
@@ -0,0 +1,151 @@
+package com.higgstx.schwabtest.analytics;
+
+import com.higgstx.schwabapi.model.market.DailyPriceData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incremental technical-indicator engine over collected daily candles.
+ * <p>
+ * Each symbol keeps its own indicator state; new candles are folded in with O(1)
+ * primitive updates, so a daily delta only costs one update per indicator instead
+ * of a reload of the full history. Symbols are processed in parallel on the common
+ * fork-join pool.
+ */
+public class IndicatorEngine {
+
+    private final List<IndicatorSpec> specs;
+    private final Indicator[] prototypes;
+    private final Map<String, SymbolIndicators> states = new ConcurrentHashMap<>();
+
+    public IndicatorEngine(List<IndicatorSpec> specs) {
+        if (specs == null || specs.isEmpty()) {
+            throw new IllegalArgumentException("At least one indicator spec is required");
+        }
+        this.specs = List.copyOf(specs);
+        this.prototypes = specs.stream().map(IndicatorSpec::create).toArray(Indicator[]::new);
+    }
+
+    /**
+     * Applies a batch of candles, typically a bulk history or a daily delta.
+     * Failed candles and candles already applied for a symbol are skipped.
+     *
+     * @return number of candles applied
+     */
+    public int ingest(List<DailyPriceData> candles) {
+        Map<String, List<DailyPriceData>> bySymbol = new HashMap<>();
+        for (DailyPriceData data : candles) {
+            if (PriceDataFields.isUsable(data)) {
+                bySymbol.computeIfAbsent(data.getSymbol(), k -> new ArrayList<>()).add(data);
+            }
+        }
+
+        return bySymbol.entrySet().parallelStream()
+                .mapToInt(entry -> applySymbol(entry.getKey(), entry.getValue()))
+                .sum();
+    }
+
+    /**
+     * Applies a compact candle block, folding each symbol run in on the common pool
+     * without boxing. The block is never modified, since it may be the published
+     * {@link CandleStore} block other threads are reading: a block already sorted by
+     * symbol and day, as the store keeps it, is read directly, and any other block
+     * is sorted in a private copy.
+     *
+     * @return number of candles applied
+     */
+    public int ingest(CandleBlock candles) {
+        CandleBlock block = candles.isSorted(CandleBlock.BY_SYMBOL_THEN_DAY) ? candles : sortedCopy(candles);
+        List<int[]> runs = new ArrayList<>();
+        block.forEachSymbol((symbolId, from, to) -> runs.add(new int[]{symbolId, from, to}));
+
+        return runs.parallelStream()
+                .mapToInt(run -> applyRun(block, run[0], run[1], run[2]))
+                .sum();
+    }
+
+    private static CandleBlock sortedCopy(CandleBlock candles) {
+        CandleBlock copy = CandleBlock.copyOf(candles);
+        copy.sort(CandleBlock.BY_SYMBOL_THEN_DAY);
+        return copy;
+    }
+
+    private int applyRun(CandleBlock block, int symbolId, int from, int to) {
+        SymbolIndicators state = stateFor(block.getSymbolTable().name(symbolId));
+        int applied = 0;
+        for (int row = from; row < to; row++) {
+            if (state.update(block.epochDay(row), block.open(row), block.high(row), block.low(row),
+                    block.close(row), block.volume(row))) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    private int applySymbol(String symbol, List<DailyPriceData> symbolCandles) {
+        symbolCandles.sort(Comparator.comparing(DailyPriceData::getLocalDate));
+        SymbolIndicators state = stateFor(symbol);
+
+        int applied = 0;
+        for (DailyPriceData data : symbolCandles) {
+            if (state.update(PriceDataFields.epochDay(data),
+                    PriceDataFields.toDouble(data.getOpen()),
+                    PriceDataFields.toDouble(data.getHigh()),
+                    PriceDataFields.toDouble(data.getLow()),
+                    PriceDataFields.toDouble(data.getClose()),
+                    PriceDataFields.toLong(data.getVolume()))) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Applies a single candle using primitives only
+     *
+     * @return false if the candle is not newer than the last one applied for the symbol
+     */
+    public boolean update(String symbol, int epochDay, double open, double high, double low,
+                          double close, long volume) {
+        return stateFor(symbol).update(epochDay, open, high, low, close, volume);
+    }
+
+    private SymbolIndicators stateFor(String symbol) {
+        return states.computeIfAbsent(symbol, this::newState);
+    }
+
+    private SymbolIndicators newState(String symbol) {
+        Indicator[] indicators = new Indicator[prototypes.length];
+        for (int i = 0; i < prototypes.length; i++) {
+            indicators[i] = prototypes[i].newInstance();
+        }
+        return new SymbolIndicators(symbol, indicators);
+    }
+
+    public SymbolIndicators getState(String symbol) {
+        return states.get(symbol);
+    }
+
+    public Set<String> getSymbols() {
+        return Collections.unmodifiableSet(states.keySet());
+    }
+
+    public List<IndicatorSpec> getSpecs() {
+        return specs;
+    }
+
+    public int symbolCount() {
+        return states.size();
+    }
+
+    public void clear() {
+        states.clear();
+    }
+}
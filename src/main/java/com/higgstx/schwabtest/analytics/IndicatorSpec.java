@@ -0,0 +1,71 @@
+package com.higgstx.schwabtest.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Indicator type and period, parsed from strings such as "SMA(20)" or "rsi:14"
+ */
+public record IndicatorSpec(Type type, int period) {
+
+    public static final String DEFAULT_SPECS = "SMA(20),EMA(12),EMA(26),RSI(14),ATR(14),VWAP(20)";
+
+    public enum Type {
+        SMA, EMA, RSI, ATR, VWAP
+    }
+
+    public IndicatorSpec {
+        if (type == null) {
+            throw new IllegalArgumentException("Indicator type is required");
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("Indicator period must be positive: " + period);
+        }
+    }
+
+    public Indicator create() {
+        return switch (type) {
+            case SMA -> new SimpleMovingAverage(period);
+            case EMA -> new ExponentialMovingAverage(period);
+            case RSI -> new RelativeStrengthIndex(period);
+            case ATR -> new AverageTrueRange(period);
+            case VWAP -> new VolumeWeightedAveragePrice(period);
+        };
+    }
+
+    /**
+     * Parses a single spec: TYPE(period), TYPE:period or TYPE period
+     */
+    public static IndicatorSpec parse(String text) {
+        String normalized = text.trim().toUpperCase(Locale.ROOT)
+                .replace('(', ' ').replace(')', ' ').replace(':', ' ').trim();
+        String[] parts = normalized.split("\\s+");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid indicator spec: '" + text + "' (expected e.g. SMA(20))");
+        }
+        try {
+            return new IndicatorSpec(Type.valueOf(parts[0]), Integer.parseInt(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid indicator spec: '" + text + "'", e);
+        }
+    }
+
+    /**
+     * Parses a comma-separated list of specs
+     */
+    public static List<IndicatorSpec> parseList(String text) {
+        List<IndicatorSpec> specs = new ArrayList<>();
+        for (String part : text.split(",")) {
+            if (!part.isBlank()) {
+                specs.add(parse(part));
+            }
+        }
+        return specs;
+    }
+
+    @Override
+    public String toString() {
+        return type + "(" + period + ")";
+    }
+}
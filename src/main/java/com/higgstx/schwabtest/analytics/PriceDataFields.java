@@ -0,0 +1,43 @@
+package com.higgstx.schwabtest.analytics;
+
+import com.higgstx.schwabapi.model.market.DailyPriceData;
+
+/**
+ * Primitive accessors for the boxed fields on DailyPriceData
+ */
+public final class PriceDataFields {
+
+    private PriceDataFields() {
+    }
+
+    /**
+     * Converts a price field to a primitive double, NaN when missing
+     */
+    public static double toDouble(Number value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+
+    /**
+     * Converts a volume field to a primitive long, zero when missing
+     */
+    public static long toLong(Number value) {
+        return value == null ? 0L : value.longValue();
+    }
+
+    /**
+     * Returns the candle date as epoch days, or Integer.MIN_VALUE when the date is missing
+     */
+    public static int epochDay(DailyPriceData data) {
+        return data.getLocalDate() == null ? Integer.MIN_VALUE : (int) data.getLocalDate().toEpochDay();
+    }
+
+    /**
+     * True when the candle was fetched successfully and carries a date and all four
+     * prices; a missing price would otherwise reach the indicators as NaN
+     */
+    public static boolean isUsable(DailyPriceData data) {
+        return data != null && data.isSuccess() && data.getLocalDate() != null && data.getSymbol() != null
+                && data.getOpen() != null && data.getHigh() != null && data.getLow() != null
+                && data.getClose() != null;
+    }
+}
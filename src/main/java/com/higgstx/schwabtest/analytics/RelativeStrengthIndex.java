@@ -0,0 +1,70 @@
+package com.higgstx.schwabtest.analytics;
+
+/**
+ * Wilder's relative strength index over closes
+ */
+public final class RelativeStrengthIndex implements Indicator {
+
+    private final int period;
+    private double previousClose = Double.NaN;
+    private double averageGain;
+    private double averageLoss;
+    private int changes;
+
+    public RelativeStrengthIndex(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        this.period = period;
+    }
+
+    @Override
+    public String name() {
+        return "RSI(" + period + ")";
+    }
+
+    @Override
+    public void update(double open, double high, double low, double close, long volume) {
+        if (Double.isNaN(previousClose)) {
+            previousClose = close;
+            return;
+        }
+
+        double change = close - previousClose;
+        double gain = change > 0 ? change : 0.0;
+        double loss = change < 0 ? -change : 0.0;
+        previousClose = close;
+
+        if (changes < period) {
+            // Seed with the plain average of the first 'period' changes
+            averageGain += gain / period;
+            averageLoss += loss / period;
+        } else {
+            averageGain = (averageGain * (period - 1) + gain) / period;
+            averageLoss = (averageLoss * (period - 1) + loss) / period;
+        }
+        changes++;
+    }
+
+    @Override
+    public double value() {
+        if (changes < period) {
+            return Double.NaN;
+        }
+        if (averageLoss == 0.0) {
+            return averageGain == 0.0 ? 50.0 : 100.0;
+        }
+        double rs = averageGain / averageLoss;
+        return 100.0 - 100.0 / (1.0 + rs);
+    }
+
+    @Override
+    public boolean isReady() {
+        return changes >= period;
+    }
+
+    @Override
+    public Indicator newInstance() {
+        return new RelativeStrengthIndex(period);
+    }
+}
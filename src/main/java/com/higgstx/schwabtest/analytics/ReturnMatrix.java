@@ -0,0 +1,183 @@
+package com.higgstx.schwabtest.analytics;
+
+import com.higgstx.schwabapi.model.market.DailyPriceData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Daily log returns for a symbol universe aligned on a common date axis.
+ * <p>
+ * Returns are stored in one contiguous row-major block: row {@code i} holds the
+ * {@link #getObservations()} returns of {@code symbols[i]} starting at
+ * {@code i * observations}. Days a symbol did not trade are forward-filled, which
+ * contributes a zero return.
+ */
+public final class ReturnMatrix {
+
+    private final String[] symbols;
+    private final int[] returnDays;
+    private final double[] returns;
+
+    ReturnMatrix(String[] symbols, int[] returnDays, double[] returns) {
+        this.symbols = symbols;
+        this.returnDays = returnDays;
+        this.returns = returns;
+    }
+
+    /**
+     * Aligns closes across symbols and computes log returns
+     *
+     * @param candles     collected candles, failed entries are ignored
+     * @param minCoverage fraction (0-1] of the date axis a symbol must cover to be kept
+     */
+    public static ReturnMatrix fromCandles(List<DailyPriceData> candles, double minCoverage) {
+        Map<String, Integer> symbolIndex = new HashMap<>();
+        List<String> symbolList = new ArrayList<>();
+        int[] allDays = new int[candles.size()];
+        int dayCount = 0;
+
+        for (DailyPriceData data : candles) {
+            if (PriceDataFields.isUsable(data) && data.getClose() != null) {
+                symbolIndex.computeIfAbsent(data.getSymbol(), s -> {
+                    symbolList.add(s);
+                    return symbolList.size() - 1;
+                });
+                allDays[dayCount++] = PriceDataFields.epochDay(data);
+            }
+        }
+
+        int[] dates = IntStream.of(Arrays.copyOf(allDays, dayCount)).parallel().distinct().sorted().toArray();
+        if (dates.length < 2) {
+            return new ReturnMatrix(new String[0], new int[0], new double[0]);
+        }
+
+        // Scatter closes into a symbol x date grid
+        int dateCount = dates.length;
+        double[] closes = new double[symbolList.size() * dateCount];
+        Arrays.fill(closes, Double.NaN);
+        for (DailyPriceData data : candles) {
+            if (PriceDataFields.isUsable(data) && data.getClose() != null) {
+                int row = symbolIndex.get(data.getSymbol());
+                int column = Arrays.binarySearch(dates, PriceDataFields.epochDay(data));
+                closes[row * dateCount + column] = PriceDataFields.toDouble(data.getClose());
+            }
+        }
+
+        return fromGrid(symbolList, dates, closes, minCoverage);
+    }
+
+    /**
+     * Same alignment over a compact candle block, e.g. one restored from a snapshot
+     */
+    public static ReturnMatrix fromCandles(CandleBlock candles, double minCoverage) {
+        int rows = candles.size();
+        Map<Integer, Integer> symbolIndex = new HashMap<>();
+        List<String> symbolList = new ArrayList<>();
+        int[] allDays = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            symbolIndex.computeIfAbsent(candles.symbolId(row), id -> {
+                symbolList.add(candles.getSymbolTable().name(id));
+                return symbolList.size() - 1;
+            });
+            allDays[row] = candles.epochDay(row);
+        }
+
+        int[] dates = IntStream.of(allDays).parallel().distinct().sorted().toArray();
+        if (dates.length < 2) {
+            return new ReturnMatrix(new String[0], new int[0], new double[0]);
+        }
+
+        int dateCount = dates.length;
+        double[] closes = new double[symbolList.size() * dateCount];
+        Arrays.fill(closes, Double.NaN);
+        for (int row = 0; row < rows; row++) {
+            int column = Arrays.binarySearch(dates, candles.epochDay(row));
+            closes[symbolIndex.get(candles.symbolId(row)) * dateCount + column] = candles.close(row);
+        }
+        return fromGrid(symbolList, dates, closes, minCoverage);
+    }
+
+    private static ReturnMatrix fromGrid(List<String> symbolList, int[] dates, double[] closes, double minCoverage) {
+        int dateCount = dates.length;
+        // A symbol without a single close would fill its row with NaN, so it never qualifies
+        int[] keptRows = IntStream.range(0, symbolList.size())
+                .filter(row -> {
+                    double coverage = coverage(closes, row * dateCount, dateCount);
+                    return coverage > 0 && coverage >= minCoverage;
+                })
+                .toArray();
+
+        int observations = dateCount - 1;
+        double[] returns = new double[keptRows.length * observations];
+        IntStream.range(0, keptRows.length).parallel().forEach(i ->
+                fillReturns(closes, keptRows[i] * dateCount, dateCount, returns, i * observations));
+
+        String[] symbols = new String[keptRows.length];
+        for (int i = 0; i < keptRows.length; i++) {
+            symbols[i] = symbolList.get(keptRows[i]);
+        }
+        return new ReturnMatrix(symbols, Arrays.copyOfRange(dates, 1, dateCount), returns);
+    }
+
+    private static double coverage(double[] closes, int offset, int length) {
+        int present = 0;
+        for (int i = 0; i < length; i++) {
+            double close = closes[offset + i];
+            if (!Double.isNaN(close) && close > 0) {
+                present++;
+            }
+        }
+        return (double) present / length;
+    }
+
+    private static void fillReturns(double[] closes, int offset, int length, double[] returns, int target) {
+        // Back-fill leading gaps with the first known close so they contribute zero returns
+        double previous = Double.NaN;
+        for (int i = 0; i < length && Double.isNaN(previous); i++) {
+            double close = closes[offset + i];
+            if (!Double.isNaN(close) && close > 0) {
+                previous = close;
+            }
+        }
+
+        for (int i = 1; i < length; i++) {
+            double close = closes[offset + i];
+            if (Double.isNaN(close) || close <= 0) {
+                close = previous;
+            }
+            returns[target + i - 1] = Math.log(close / previous);
+            previous = close;
+        }
+    }
+
+    public String[] getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Epoch days of each return observation (the later day of each pair)
+     */
+    public int[] getReturnDays() {
+        return returnDays;
+    }
+
+    /**
+     * Row-major returns block; row i starts at i * observations
+     */
+    public double[] getReturns() {
+        return returns;
+    }
+
+    public int getSymbolCount() {
+        return symbols.length;
+    }
+
+    public int getObservations() {
+        return returnDays.length;
+    }
+}
@@ -0,0 +1,45 @@
+package com.higgstx.schwabtest.analytics;
+
+/**
+ * Simple moving average of closes over a rolling window
+ */
+public final class SimpleMovingAverage implements Indicator {
+
+    private final int period;
+    private final DoubleRingBuffer window;
+    private double sum;
+
+    public SimpleMovingAverage(int period) {
+        this.period = period;
+        this.window = new DoubleRingBuffer(period);
+    }
+
+    @Override
+    public String name() {
+        return "SMA(" + period + ")";
+    }
+
+    @Override
+    public void update(double open, double high, double low, double close, long volume) {
+        if (window.isFull()) {
+            sum -= window.oldest();
+        }
+        window.push(close);
+        sum += close;
+    }
+
+    @Override
+    public double value() {
+        return window.isFull() ? sum / period : Double.NaN;
+    }
+
+    @Override
+    public boolean isReady() {
+        return window.isFull();
+    }
+
+    @Override
+    public Indicator newInstance() {
+        return new SimpleMovingAverage(period);
+    }
+}
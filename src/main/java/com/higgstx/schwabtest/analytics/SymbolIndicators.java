@@ -0,0 +1,76 @@
+package com.higgstx.schwabtest.analytics;
+
+/**
+ * Indicator state for one symbol. Candles must arrive in date order; anything at or
+ * before the last applied date is ignored so overlapping daily deltas are safe to re-send.
+ */
+public final class SymbolIndicators {
+
+    private final String symbol;
+    private final Indicator[] indicators;
+    private int lastEpochDay = Integer.MIN_VALUE;
+    private int candleCount;
+    private double lastClose = Double.NaN;
+
+    SymbolIndicators(String symbol, Indicator[] indicators) {
+        this.symbol = symbol;
+        this.indicators = indicators;
+    }
+
+    /**
+     * Applies one candle to every indicator
+     *
+     * @return false if the candle is not newer than the last applied one, or is
+     * missing a price; one NaN would stay in every running sum for good
+     */
+    public synchronized boolean update(int epochDay, double open, double high, double low,
+                                       double close, long volume) {
+        if (epochDay <= lastEpochDay || Double.isNaN(open + high + low + close)) {
+            return false;
+        }
+        for (Indicator indicator : indicators) {
+            indicator.update(open, high, low, close, volume);
+        }
+        lastEpochDay = epochDay;
+        lastClose = close;
+        candleCount++;
+        return true;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public synchronized int getLastEpochDay() {
+        return lastEpochDay;
+    }
+
+    public synchronized int getCandleCount() {
+        return candleCount;
+    }
+
+    public synchronized double getLastClose() {
+        return lastClose;
+    }
+
+    public int indicatorCount() {
+        return indicators.length;
+    }
+
+    public String indicatorName(int index) {
+        return indicators[index].name();
+    }
+
+    public synchronized double value(int index) {
+        return indicators[index].value();
+    }
+
+    /**
+     * Copies current values into the caller's array to avoid allocating on reads
+     */
+    public synchronized void values(double[] target) {
+        for (int i = 0; i < indicators.length; i++) {
+            target[i] = indicators[i].value();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.higgstx.schwabtest.analytics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flyweight table interning ticker symbols to dense int ids.
+ * <p>
+ * Ids are assigned once and never reused, so they can be stored in primitive
+ * columns and compared or hashed without touching the String. Lookups by id are
+ * a plain array read; interning an already known symbol is a single map hit.
+ */
+public final class SymbolTable {
+
+    private static final SymbolTable GLOBAL = new SymbolTable();
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private int size;
+
+    public static SymbolTable global() {
+        return GLOBAL;
+    }
+
+    public int intern(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : register(symbol);
+    }
+
+    private synchronized int register(String symbol) {
+        Integer existing = ids.get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+        String[] current = names;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        int id = size;
+        current[id] = symbol;
+        // Publish the array before the id so readers of the id always see the name
+        names = current;
+        size++;
+        ids.put(symbol, id);
+        return id;
+    }
+
+    /**
+     * Id for a symbol, or -1 if it has never been interned
+     */
+    public int find(String symbol) {
+        Integer id = ids.get(symbol);
+        return id == null ? -1 : id;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
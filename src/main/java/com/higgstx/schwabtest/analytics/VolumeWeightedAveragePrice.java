@@ -0,0 +1,54 @@
+package com.higgstx.schwabtest.analytics;
+
+/**
+ * Rolling volume-weighted average of the typical price (high + low + close) / 3
+ */
+public final class VolumeWeightedAveragePrice implements Indicator {
+
+    private final int period;
+    private final DoubleRingBuffer priceVolume;
+    private final DoubleRingBuffer volumes;
+    private double priceVolumeSum;
+    private double volumeSum;
+
+    public VolumeWeightedAveragePrice(int period) {
+        this.period = period;
+        this.priceVolume = new DoubleRingBuffer(period);
+        this.volumes = new DoubleRingBuffer(period);
+    }
+
+    @Override
+    public String name() {
+        return "VWAP(" + period + ")";
+    }
+
+    @Override
+    public void update(double open, double high, double low, double close, long volume) {
+        double typicalPrice = (high + low + close) / 3.0;
+        double pv = typicalPrice * volume;
+
+        if (volumes.isFull()) {
+            priceVolumeSum -= priceVolume.oldest();
+            volumeSum -= volumes.oldest();
+        }
+        priceVolume.push(pv);
+        volumes.push(volume);
+        priceVolumeSum += pv;
+        volumeSum += volume;
+    }
+
+    @Override
+    public double value() {
+        return volumes.isFull() && volumeSum > 0 ? priceVolumeSum / volumeSum : Double.NaN;
+    }
+
+    @Override
+    public boolean isReady() {
+        return volumes.isFull();
+    }
+
+    @Override
+    public Indicator newInstance() {
+        return new VolumeWeightedAveragePrice(period);
+    }
+}
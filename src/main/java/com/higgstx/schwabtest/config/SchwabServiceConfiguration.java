@@ -4,38 +4,99 @@ import com.higgstx.schwabapi.service.TokenManager;
 import com.higgstx.schwabapi.service.MarketDataService;
 import com.higgstx.schwabapi.config.SchwabApiProperties;
 import com.higgstx.schwabapi.exception.SchwabApiException;
+import com.higgstx.schwabtest.analytics.CandleStore;
+import com.higgstx.schwabtest.analytics.SymbolTable;
+import com.higgstx.schwabtest.history.IntradayBackfill;
+import com.higgstx.schwabtest.history.MinuteBarStore;
+import com.higgstx.schwabtest.market.MarketHoursService;
+import com.higgstx.schwabtest.market.QuoteBook;
+import com.higgstx.schwabtest.ops.HarnessStatus;
+import com.higgstx.schwabtest.ops.OpsServer;
+import com.higgstx.schwabtest.options.OptionChainService;
+import com.higgstx.schwabtest.recording.CassetteMode;
+import com.higgstx.schwabtest.recording.CassetteProxy;
+import com.higgstx.schwabtest.recording.CassetteTokenManager;
+import com.higgstx.schwabtest.service.CredentialPool;
+import com.higgstx.schwabtest.service.CredentialSlot;
+import com.higgstx.schwabtest.service.HedgedExecutor;
+import com.higgstx.schwabtest.service.RateLimiter;
+import com.higgstx.schwabtest.service.RequestScheduler;
+import com.higgstx.schwabtest.service.SharedTokenManager;
+import com.higgstx.schwabtest.service.SchwabRestClient;
+import com.higgstx.schwabtest.state.MarketStateSnapshotter;
+import com.higgstx.schwabtest.trader.TraderService;
+import com.higgstx.schwabtest.util.LogArchiver;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Spring configuration for Schwab API services - simplified
+ * <p>
+ * Beans that start servers, write shared files or record traffic only run under
+ * the {@value #HARNESS_PROFILE} profile, which the harness application activates.
+ * The token CLIs scan the same package and must not restore or rewrite the
+ * snapshot, bind the ops port or record a cassette alongside a running harness.
  */
 @Slf4j
 @Configuration
 public class SchwabServiceConfiguration {
 
+    public static final String HARNESS_PROFILE = "harness";
+
+    @Bean(destroyMethod = "close")
+    public CassetteProxy cassetteProxy(SchwabTestConfig config, Environment environment) throws IOException {
+        SchwabTestConfig.Cassette cassette = config.getCassette();
+        CassetteMode mode = environment.acceptsProfiles(Profiles.of(HARNESS_PROFILE))
+                ? CassetteMode.parse(cassette.getMode())
+                : CassetteMode.OFF;
+        log.debug("Creating CassetteProxy in {} mode", mode);
+        return new CassetteProxy(mode, Paths.get(cassette.getFile()),
+                cassette.getSpeed(), config.getDefaults().getHttpTimeoutMs());
+    }
+
     @Bean
-    public SchwabApiProperties schwabApiProperties(SchwabTestConfig config) {
+    public SchwabApiProperties schwabApiProperties(SchwabTestConfig config, CassetteProxy cassetteProxy) {
         log.debug("Creating SchwabApiProperties from test harness configuration");
         return new SchwabApiProperties(
                 config.getUrls().getAuth(),
                 config.getUrls().getToken(),
-                config.getUrls().getMarketData(),
+                cassetteProxy.route(config.getUrls().getMarketData()),
                 config.getDefaults().getRedirectUri(),
                 config.getDefaults().getScope(),
                 config.getDefaults().getHttpTimeoutMs()
         );
     }
 
-    @Bean
-    public TokenManager tokenManager(SchwabTestConfig config) throws SchwabApiException {
+    @Bean(destroyMethod = "stopWatching")
+    public TokenManager tokenManager(SchwabTestConfig config, CassetteProxy cassetteProxy) throws SchwabApiException {
         log.debug("Creating TokenManager with token file: {}", config.getTokenPropertiesFile());
-        return new TokenManager(
-                config.getTokenPropertiesFile(),
-                config.getAppKey(),
-                config.getAppSecret()
-        );
+        return createTokenManager(config, config.getTokenPropertiesFile(), config.getAppKey(),
+                config.getAppSecret(), cassetteProxy);
+    }
+
+    /**
+     * Token managers share refreshes with other processes on the same token file and
+     * pick up tokens those processes write from memory
+     */
+    private static TokenManager createTokenManager(SchwabTestConfig config, String tokenFile, String appKey,
+                                                   String appSecret, CassetteProxy cassetteProxy)
+            throws SchwabApiException {
+        Duration leaseWait = Duration.ofMillis(config.getDefaults().getTokenLeaseWaitMs());
+        SharedTokenManager manager = cassetteProxy.getMode() != CassetteMode.OFF
+                ? new CassetteTokenManager(tokenFile, appKey, appSecret, leaseWait, cassetteProxy)
+                : new SharedTokenManager(tokenFile, appKey, appSecret, leaseWait);
+        manager.watchTokenFile();
+        return manager;
     }
 
     @Bean
@@ -44,4 +105,126 @@ public class SchwabServiceConfiguration {
         log.debug("Creating MarketDataService");
         return new MarketDataService(apiProperties, tokenManager);
     }
+
+    @Bean(destroyMethod = "close")
+    public CredentialPool credentialPool(SchwabTestConfig config, SchwabApiProperties apiProperties,
+                                         TokenManager tokenManager, MarketDataService marketDataService,
+                                         CassetteProxy cassetteProxy) throws SchwabApiException {
+        int defaultBudget = config.getDefaults().getRequestsPerMinute();
+        List<CredentialSlot> slots = new ArrayList<>();
+        slots.add(new CredentialSlot("primary", tokenManager, marketDataService, rateLimiter(defaultBudget)));
+
+        for (SchwabTestConfig.Credential credential : config.getCredentials()) {
+            String name = credential.getName() != null ? credential.getName() : "app" + (slots.size() + 1);
+            log.debug("Adding credential {} with token file: {}", name, credential.getTokenPropertiesFile());
+            TokenManager slotTokens = createTokenManager(config, credential.getTokenPropertiesFile(),
+                    credential.getAppKey(), credential.getAppSecret(), cassetteProxy);
+            int budget = credential.getRequestsPerMinute() > 0 ? credential.getRequestsPerMinute() : defaultBudget;
+            slots.add(new CredentialSlot(name, slotTokens, new MarketDataService(apiProperties, slotTokens),
+                    rateLimiter(budget)));
+        }
+        return new CredentialPool(slots, new RequestScheduler(config.getDefaults().getInteractiveWeight(),
+                config.getDefaults().getBulkWeight()));
+    }
+
+    @Bean(destroyMethod = "close")
+    public HedgedExecutor hedgedExecutor(SchwabTestConfig config, CredentialPool credentialPool) {
+        SchwabTestConfig.Defaults defaults = config.getDefaults();
+        log.debug("Creating HedgedExecutor (hedging {}, budget {}%)", defaults.isHedgeRequests() ? "on" : "off",
+                defaults.getHedgeBudgetPercent());
+        return new HedgedExecutor(credentialPool, defaults.isHedgeRequests(), defaults.getHedgePercentile(),
+                defaults.getHedgeBudgetPercent() / 100.0, defaults.getHedgeMinSamples());
+    }
+
+    private static RateLimiter rateLimiter(int requestsPerMinute) {
+        // Allow roughly a second's worth of burst on top of the steady rate
+        return new RateLimiter(requestsPerMinute, Math.max(1, requestsPerMinute / 60));
+    }
+
+    /**
+     * REST calls for market hours, accounts and option chains run at interactive
+     * priority through the credential pool, under the same rate budgets as the rest
+     */
+    @Bean
+    public SchwabRestClient schwabRestClient(SchwabTestConfig config, CredentialPool credentialPool) {
+        log.debug("Creating SchwabRestClient over {} credential(s)", credentialPool.size());
+        return new SchwabRestClient(credentialPool, RequestScheduler.Priority.INTERACTIVE,
+                config.getDefaults().getHttpTimeoutMs());
+    }
+
+    @Bean(destroyMethod = "close")
+    public MarketHoursService marketHoursService(SchwabTestConfig config, SchwabRestClient restClient,
+                                                 CassetteProxy cassetteProxy) {
+        log.debug("Creating MarketHoursService with {} prefetch days", config.getDefaults().getMarketHoursPrefetchDays());
+        return new MarketHoursService(restClient, cassetteProxy.route(config.getUrls().getMarketData()),
+                config.getDefaults().getMarketHoursPrefetchDays());
+    }
+
+    @Bean
+    public TraderService traderService(SchwabTestConfig config, SchwabRestClient restClient,
+                                       CassetteProxy cassetteProxy) {
+        log.debug("Creating TraderService with {}ms snapshot TTL", config.getDefaults().getAccountsTtlMs());
+        return new TraderService(restClient, cassetteProxy.route(config.getUrls().getTraderBase()),
+                Duration.ofMillis(config.getDefaults().getAccountsTtlMs()));
+    }
+
+    @Bean(destroyMethod = "close")
+    public OptionChainService optionChainService(SchwabTestConfig config, SchwabRestClient restClient,
+                                                 CassetteProxy cassetteProxy) {
+        log.debug("Creating OptionChainService with {} parallel loads", config.getDefaults().getOptionChainParallelism());
+        return new OptionChainService(restClient, cassetteProxy.route(config.getUrls().getMarketData()),
+                config.getDefaults().getOptionStrikeCount(), config.getDefaults().getOptionChainParallelism());
+    }
+
+    @Bean(destroyMethod = "close")
+    public IntradayBackfill intradayBackfill(SchwabTestConfig config, CredentialPool credentialPool,
+                                             CassetteProxy cassetteProxy) {
+        SchwabTestConfig.Defaults defaults = config.getDefaults();
+        log.debug("Creating IntradayBackfill into {} with {}-day windows", defaults.getBackfillDirectory(),
+                defaults.getBackfillWindowDays());
+        return new IntradayBackfill(credentialPool, cassetteProxy.route(config.getUrls().getMarketData()),
+                defaults.getHttpTimeoutMs(), new MinuteBarStore(Paths.get(defaults.getBackfillDirectory())),
+                Duration.ofDays(defaults.getBackfillWindowDays()), defaults.getBackfillConcurrency());
+    }
+
+    @Bean
+    public CandleStore candleStore() {
+        return new CandleStore();
+    }
+
+    @Bean
+    public QuoteBook quoteBook() {
+        return new QuoteBook(SymbolTable.global());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @Profile(HARNESS_PROFILE)
+    public OpsServer opsServer(SchwabTestConfig config, TokenManager tokenManager, MarketDataService marketDataService,
+                               CredentialPool credentialPool, MarketHoursService marketHoursService,
+                               TraderService traderService, OptionChainService optionChainService,
+                               QuoteBook quoteBook, CandleStore candleStore) {
+        log.debug("Creating OpsServer on loopback port {}", config.getDefaults().getOpsPort());
+        return new OpsServer(config.getDefaults().getOpsPort(), new HarnessStatus(tokenManager, marketDataService,
+                credentialPool, marketHoursService, traderService, optionChainService, quoteBook, candleStore));
+    }
+
+    @Bean
+    @Profile(HARNESS_PROFILE)
+    public LogArchiver logArchiver(SchwabTestConfig config) {
+        log.debug("Creating LogArchiver for {}", config.getDefaults().getLogDirectory());
+        return new LogArchiver(Paths.get(config.getDefaults().getLogDirectory()),
+                config.getDefaults().getLogArchiveMaxBytes());
+    }
+
+    /**
+     * Restores the last snapshot before the harness starts and writes a final one on shutdown
+     */
+    @Bean(initMethod = "restore", destroyMethod = "close")
+    @Profile(HARNESS_PROFILE)
+    public MarketStateSnapshotter marketStateSnapshotter(SchwabTestConfig config, CandleStore candleStore,
+                                                         QuoteBook quoteBook, MarketHoursService marketHoursService) {
+        log.debug("Creating MarketStateSnapshotter with file: {}", config.getDefaults().getSnapshotFile());
+        return new MarketStateSnapshotter(Paths.get(config.getDefaults().getSnapshotFile()), SymbolTable.global(),
+                candleStore, quoteBook, marketHoursService);
+    }
 }
\ No newline at end of file
@@ -7,6 +7,9 @@ import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Test harness application configuration - Spring Boot managed
  * Uses @ConfigurationProperties for automatic binding from application.yml
@@ -25,6 +28,9 @@ public class SchwabTestConfig {
     // Nested configuration classes
     private Urls urls = new Urls();
     private Defaults defaults = new Defaults();
+    private Cassette cassette = new Cassette();
+    // Additional approved apps pooled with the primary appKey/appSecret
+    private List<Credential> credentials = new ArrayList<>();
     
     @PostConstruct
     public void validateOnStartup() {
@@ -53,6 +59,8 @@ public class SchwabTestConfig {
         log.info("Market Data URL: {}", urls.marketData);
         log.info("HTTP Timeout: {}ms", defaults.httpTimeoutMs);
         log.info("Scope: {}", defaults.scope);
+        log.info("Cassette: {} ({})", cassette.mode, cassette.file);
+        log.info("Pooled credentials: {}", 1 + credentials.size());
     }
     
     private String maskValue(String value) {
@@ -80,5 +88,58 @@ public class SchwabTestConfig {
         private String redirectUri = "https://127.0.0.1:8182";
         private int httpTimeoutMs = 30000;
         private String scope = "readonly";
+        private int marketHoursPrefetchDays = 7;
+        private long marketHoursRefreshMs = 3600000;
+        private int requestsPerMinute = 120;
+        private long tokenLeaseWaitMs = 30000;
+        private long quotePollMinMs = 1000;
+        private long quotePollMaxMs = 15000;
+        private long quotePollClosedMs = 60000;
+        private String snapshotFile = "state/market-state.snap";
+        private long snapshotIntervalMs = 300000;
+        private boolean hedgeRequests = false;
+        private double hedgePercentile = 0.95;
+        private double hedgeBudgetPercent = 5.0;
+        private int hedgeMinSamples = 20;
+        private int interactiveWeight = 8;
+        private int bulkWeight = 1;
+        private long accountsTtlMs = 5000;
+        private int optionStrikeCount = 20;
+        private int optionChainParallelism = 4;
+        private long optionChainMaxAgeMs = 30000;
+        private String backfillDirectory = "history";
+        private int backfillWindowDays = 10;
+        private int backfillConcurrency = 8;
+        private long bulkJobBudgetMs = 120000;
+        // Loopback port of the ops endpoint; 0 picks a free port, negative disables it
+        private int opsPort = 8089;
+        // Rolled logs are compressed by LogArchiver, which keeps archives under this cap
+        private String logDirectory = "logs";
+        private long logArchiveIntervalMs = 300000;
+        private long logArchiveMaxBytes = 300L * 1024 * 1024;
+        private String profileDirectory = "profiles";
+    }
+
+    /**
+     * An extra app credential for the credential pool, each with its own token file
+     */
+    @Data
+    public static class Credential {
+        private String name;
+        private String appKey;
+        private String appSecret;
+        private String tokenPropertiesFile;
+        private int requestsPerMinute;
+    }
+
+    /**
+     * Record/replay of API traffic: mode is off, record or replay; speed divides
+     * recorded latencies on replay (0 replays without delay)
+     */
+    @Data
+    public static class Cassette {
+        private String mode = "off";
+        private String file = "cassettes/harness-cassette.zip";
+        private double speed = 1.0;
     }
 }
\ No newline at end of file
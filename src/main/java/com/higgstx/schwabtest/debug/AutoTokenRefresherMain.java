@@ -3,10 +3,13 @@ package com.higgstx.schwabtest.debug;
 import com.higgstx.schwabapi.model.TokenResponse;
 import com.higgstx.schwabapi.service.TokenManager;
 import com.higgstx.schwabtest.config.SchwabTestConfig;
+import com.higgstx.schwabtest.service.SharedTokenManager;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 
+import java.time.Duration;
+
 @SpringBootApplication(scanBasePackages = "com.higgstx.schwabtest")
 public class AutoTokenRefresherMain {
     
@@ -33,10 +36,12 @@ public class AutoTokenRefresherMain {
         System.out.println("Schwab API Token Refresher is running...");
 
         try {
-            TokenManager tokenManager = new TokenManager(
+            // Shared so a concurrent harness or checker reuses this refresh instead of racing it
+            TokenManager tokenManager = new SharedTokenManager(
                     testConfig.getTokenPropertiesFile(), 
                     testConfig.getAppKey(), 
-                    testConfig.getAppSecret());
+                    testConfig.getAppSecret(),
+                    Duration.ofMillis(testConfig.getDefaults().getTokenLeaseWaitMs()));
 
             if (!tokenManager.hasUsableTokens()) {
                 System.err.println("ERROR: No usable refresh token found. Please run the Manual OAuth option (1) first to authorize the application.");
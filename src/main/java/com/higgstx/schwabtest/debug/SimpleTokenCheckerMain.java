@@ -4,10 +4,12 @@ import com.higgstx.schwabapi.exception.*;
 import com.higgstx.schwabapi.model.TokenResponse;
 import com.higgstx.schwabapi.service.TokenManager;
 import com.higgstx.schwabtest.config.SchwabTestConfig;
+import com.higgstx.schwabtest.service.SharedTokenManager;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 
@@ -32,10 +34,11 @@ public class SimpleTokenCheckerMain {
         
         try {
             SchwabTestConfig config = context.getBean(SchwabTestConfig.class);
-            TokenManager tokenManager = new TokenManager(
+            TokenManager tokenManager = new SharedTokenManager(
                 config.getTokenPropertiesFile(),
                 config.getAppKey(),
-                config.getAppSecret()
+                config.getAppSecret(),
+                Duration.ofMillis(config.getDefaults().getTokenLeaseWaitMs())
             );
             
             System.out.println("Starting automated token validation");
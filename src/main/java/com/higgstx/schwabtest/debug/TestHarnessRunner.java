@@ -9,38 +9,120 @@ import com.higgstx.schwabapi.service.MarketDataService;
 import com.higgstx.schwabapi.model.market.QuoteData;
 import com.higgstx.schwabapi.model.market.DailyPriceData;
 import com.higgstx.schwabapi.server.OkHttpSSLServer;
+import com.higgstx.schwabtest.alerts.AlertEngine;
+import com.higgstx.schwabtest.alerts.AlertRule;
+import com.higgstx.schwabtest.analytics.CandleBlock;
+import com.higgstx.schwabtest.analytics.CandleStore;
+import com.higgstx.schwabtest.analytics.CorrelationAnalyzer;
+import com.higgstx.schwabtest.analytics.CovarianceMatrix;
+import com.higgstx.schwabtest.analytics.DataQualityEngine;
+import com.higgstx.schwabtest.analytics.IndicatorEngine;
+import com.higgstx.schwabtest.analytics.IndicatorSpec;
+import com.higgstx.schwabtest.analytics.ReturnMatrix;
+import com.higgstx.schwabtest.analytics.SymbolIndicators;
 import com.higgstx.schwabtest.config.SchwabTestConfig;
+import com.higgstx.schwabtest.history.IntradayBackfill;
+import com.higgstx.schwabtest.market.AdaptiveQuotePoller;
+import com.higgstx.schwabtest.market.MarketDay;
+import com.higgstx.schwabtest.market.MarketHoursService;
+import com.higgstx.schwabtest.market.QuoteBook;
+import com.higgstx.schwabtest.market.QuoteCadence;
+import com.higgstx.schwabtest.market.QuoteDeltaBatch;
+import com.higgstx.schwabtest.options.OptionChainIndex;
+import com.higgstx.schwabtest.options.OptionChainService;
+import com.higgstx.schwabtest.pipeline.Pipeline;
+import com.higgstx.schwabtest.pipeline.Sinks;
+import com.higgstx.schwabtest.pipeline.Sources;
+import com.higgstx.schwabtest.pipeline.StageMetrics;
+import com.higgstx.schwabtest.pipeline.Transforms;
+import com.higgstx.schwabtest.profiling.FlightRecording;
+import com.higgstx.schwabtest.profiling.RecordingSummary;
+import com.higgstx.schwabtest.report.BulkReport;
+import com.higgstx.schwabtest.service.CredentialPool;
+import com.higgstx.schwabtest.service.CredentialSlot;
+import com.higgstx.schwabtest.service.HedgedExecutor;
+import com.higgstx.schwabtest.service.JobBudget;
+import com.higgstx.schwabtest.service.LatencyWindow;
+import com.higgstx.schwabtest.service.RequestScheduler;
+import com.higgstx.schwabtest.trader.AccountsSnapshot;
+import com.higgstx.schwabtest.trader.Position;
+import com.higgstx.schwabtest.trader.PositionDiff;
+import com.higgstx.schwabtest.trader.TraderService;
+import com.higgstx.schwabtest.util.SamplingTurboFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import java.awt.Desktop;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Component
 public class TestHarnessRunner implements CommandLineRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(TestHarnessRunner.class);
+    // Scenarios worth wrapping in a flight recording (option 20)
+    private static final Set<String> PROFILABLE_OPTIONS = Set.of("6", "7", "8", "10", "11", "12", "13", "14", "15",
+            "16", "17", "18", "19");
     private final SchwabTestConfig config;
     private final TokenManager tokenManager;
     private final MarketDataService marketDataService;
+    private final MarketHoursService marketHoursService;
+    private final CredentialPool credentialPool;
+    private final HedgedExecutor hedgedExecutor;
+    private final TraderService traderService;
+    private final OptionChainService optionChainService;
+    private final IntradayBackfill intradayBackfill;
+    // Candles from the most recent bulk run (or restored snapshot), reused by the analytics options
+    private final CandleStore candleStore;
+    private final QuoteBook quoteBook;
+
+    private IndicatorEngine indicatorEngine;
 
     public TestHarnessRunner(SchwabTestConfig config, TokenManager tokenManager,
-            MarketDataService marketDataService) {
+            MarketDataService marketDataService, MarketHoursService marketHoursService,
+            CredentialPool credentialPool, HedgedExecutor hedgedExecutor, TraderService traderService,
+            OptionChainService optionChainService, IntradayBackfill intradayBackfill, CandleStore candleStore,
+            QuoteBook quoteBook) {
         this.config = config;
         this.tokenManager = tokenManager;
         this.marketDataService = marketDataService;
+        this.marketHoursService = marketHoursService;
+        this.credentialPool = credentialPool;
+        this.hedgedExecutor = hedgedExecutor;
+        this.traderService = traderService;
+        this.optionChainService = optionChainService;
+        this.intradayBackfill = intradayBackfill;
+        this.candleStore = candleStore;
+        this.quoteBook = quoteBook;
     }
 
     @Override
@@ -73,7 +155,7 @@ public class TestHarnessRunner implements CommandLineRunner {
         }
     }
 
-    private void handleMenuChoice(String choice, Scanner scanner) throws SchwabApiException {
+    private void handleMenuChoice(String choice, Scanner scanner) throws SchwabApiException, IOException {
         switch (choice) {
             case "1" -> showConfigurationStatus();
             case "2" -> automaticOAuth(scanner);
@@ -87,7 +169,18 @@ public class TestHarnessRunner implements CommandLineRunner {
                 System.out.println("Exiting. Goodbye!");
                 return;
             }
-            default -> System.out.println("Invalid choice. Please enter a number between 1 and 9.");
+            case "10" -> runTechnicalIndicators(scanner);
+            case "11" -> runCorrelationAnalysis(scanner);
+            case "12" -> runCredentialPoolFetch(scanner);
+            case "13" -> runQuotePoller(scanner);
+            case "14" -> runIndicatorPipeline(scanner);
+            case "15" -> runAlertEngineBenchmark(scanner);
+            case "16" -> runHedgingBenchmark(scanner);
+            case "17" -> runPositionMonitor(scanner);
+            case "18" -> runOptionChains(scanner);
+            case "19" -> runIntradayBackfill(scanner);
+            case "20" -> runProfiledScenario(scanner);
+            default -> System.out.println("Invalid choice. Please enter a number between 1 and 20.");
         }
     }
 
@@ -129,9 +222,22 @@ public class TestHarnessRunner implements CommandLineRunner {
         System.out.println("6. Test Market Data API");
         System.out.println("7. Test Historical Data (Individual)");
         System.out.println("8. Test Bulk Historical Data");
+        System.out.println("------------------------------------------------------------");
+        System.out.println("10. Technical Indicators (last bulk run)");
+        System.out.println("11. Correlation/Covariance Matrix (last bulk run)");
+        System.out.println("12. Pooled Bulk Fetch (all credentials)");
+        System.out.println("13. Adaptive Quote Poller (changes only)");
+        System.out.println("14. History -> Indicators Pipeline (backpressured)");
+        System.out.println("15. Price Alert Engine Benchmark");
+        System.out.println("16. Hedged Request Tail Latency");
+        System.out.println("17. Account Position Monitor (changes only)");
+        System.out.println("18. Option Chain Index (strike/expiry lookups)");
+        System.out.println("19. Intraday Minute-Bar Backfill (windowed, parallel)");
+        System.out.println("20. Profile a Scenario (JDK Flight Recorder)");
+        System.out.println("------------------------------------------------------------");
         System.out.println("9. Exit");
         System.out.println("============================================================");
-        System.out.print("Enter your choice (1-9): ");
+        System.out.print("Enter your choice (1-20): ");
     }
 
     private void testBulkHistoricalData(Scanner scanner) throws SchwabApiException {
@@ -167,177 +273,764 @@ public class TestHarnessRunner implements CommandLineRunner {
 
         long startTime = System.currentTimeMillis();
 
-        try {
+        // One multi-symbol call, on a pooled credential and cut off at the bulk job budget;
+        // the per-symbol fan-out is option 12
+        JobBudget budget = JobBudget.start("bulk historical", Duration.ofMillis(config.getDefaults().getBulkJobBudgetMs()));
+        try (JobBudget.Scope ignored = budget.bind()) {
             System.out.println("\nCalling getBulkHistoricalData...");
-            List<DailyPriceData> bulkData = marketDataService.getBulkHistoricalData(symbols);
+            List<DailyPriceData> bulkData = hedgedExecutor.execute("bulkHistory", slot ->
+                    slot.getMarketDataService().getBulkHistoricalData(symbols));
 
             long endTime = System.currentTimeMillis();
             long totalTime = endTime - startTime;
 
+            printBudgetSummary(budget.summary());
+            candleStore.replace(CandleBlock.from(bulkData));
             displayBulkResults(symbols, bulkData, totalTime);
 
         } catch (SchwabApiException e) {
             System.err.println("API Error during bulk fetch:");
             System.err.println("  " + e.getMessage());
+            printBudgetSummary(budget.summary());
             throw e;
         }
     }
 
+    /**
+     * Prompts for comma-separated symbols, upper-cased; an empty answer takes {@code defaults}
+     */
+    private static List<String> readSymbols(Scanner scanner, String prompt, String defaults) {
+        System.out.print(prompt + " (comma-separated, default: " + defaults + "): ");
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            input = defaults;
+        }
+        List<String> symbols = new ArrayList<>();
+        for (String symbol : input.split(",")) {
+            if (!symbol.isBlank()) {
+                symbols.add(symbol.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        return symbols;
+    }
+
     private void displayBulkResults(String[] symbols, List<DailyPriceData> bulkData, long totalTime) {
-        System.out.println("\n" + "=".repeat(70));
-        System.out.println("BULK FETCH RESULTS");
-        System.out.println("=".repeat(70));
-        System.out.println("Total time: " + totalTime + "ms");
-        System.out.println("Total data points returned: " + bulkData.size());
-        System.out.println("Symbols requested: " + symbols.length);
+        // One pass over the candles feeds every section; output is buffered and flushed once
+        BulkReport report = BulkReport.of(symbols, bulkData);
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16));
+
+        report.writeResults(out, totalTime);
+        report.writeSuccessRate(out);
+        displayDataQualityAnalysis(out, bulkData);
+        report.writeRecentSamples(out);
+        displayTestNotes(out);
+        // System.out stays open; only flush the buffer
+        out.flush();
+    }
+
+    private void displayDataQualityAnalysis(PrintWriter out, List<DailyPriceData> bulkData) {
+        refreshTradingCalendar();
+        DataQualityEngine.Report report = new DataQualityEngine(marketHoursService.getCalendar()).analyze(bulkData);
+
+        out.println("Candles validated: " + report.candlesChecked() + " across "
+                + report.symbols().size() + " symbols in " + (report.elapsedNanos() / 1_000) + "us");
+        out.println("Symbols with defects: " + report.symbolsWithDefects());
+        for (DataQualityEngine.Defect defect : DataQualityEngine.Defect.values()) {
+            if (report.total(defect) > 0) {
+                out.println("  " + defect.getDescription() + ": " + report.total(defect));
+            }
+        }
+
+        for (DataQualityEngine.SymbolQuality quality : report.symbols()) {
+            if (quality.totalDefects() > 0) {
+                StringBuilder line = new StringBuilder("  " + quality.symbol() + ":");
+                for (DataQualityEngine.Defect defect : DataQualityEngine.Defect.values()) {
+                    if (quality.count(defect) > 0) {
+                        line.append(' ').append(defect.getDescription()).append('=').append(quality.count(defect));
+                    }
+                }
+                out.println(line);
+            }
+        }
+
+        if (!report.refetch().isEmpty()) {
+            out.println("Ranges to re-fetch: " + report.refetch().size());
+            report.refetch().stream().limit(20).forEach(range -> out.println("  " + range));
+            if (report.refetch().size() > 20) {
+                out.println("  ... " + (report.refetch().size() - 20) + " more");
+            }
+        }
+    }
+
+    private void refreshTradingCalendar() {
+        // Best effort: the rule-based calendar is used as-is if market hours are unavailable
+        try {
+            marketHoursService.prefetch(MarketHoursService.EQUITY);
+        } catch (SchwabApiException e) {
+            logger.debug("Market hours unavailable for quality calendar: {}", e.getMessage());
+        }
+    }
+
+    private void displayTestNotes(PrintWriter out) {
+        out.println("\n" + "=".repeat(70));
+        out.println("BULK HISTORICAL DATA TEST COMPLETE");
+        out.println("=".repeat(70));
+
+        out.println("Notes about this test:");
+        out.println("• getBulkHistoricalData() makes individual API calls for each symbol");
+        out.println("• The whole call runs on one pooled credential and stops at the job's time budget");
+        out.println("• Returns all data in a single List<DailyPriceData>");
+        out.println("• Gracefully handles errors by returning error data objects");
+        out.println("• Fetches 30 days (1 month) of daily OHLCV data per symbol");
+
+        String currentTokenStatus = marketDataService.getTokenStatus();
+        if (currentTokenStatus.contains("ERROR") || !marketDataService.isReady()) {
+            out.println("\nTroubleshooting:");
+            out.println("• Token issues detected - try option 4 to check token status");
+            out.println("• If tokens expired, run option 5 (force refresh) or option 2 (re-auth)");
+        }
+    }
+
+    private void runTechnicalIndicators(Scanner scanner) {
+        System.out.println("\n--- Technical Indicators ---");
+
+        CandleBlock candles = candleStore.get();
+        if (candles.size() == 0) {
+            System.out.println("No collected candles yet. Run option 8 (Bulk Historical Data) first.");
+            return;
+        }
+
+        System.out.print("Indicators (default: " + IndicatorSpec.DEFAULT_SPECS + "): ");
+        String specInput = scanner.nextLine().trim();
+        List<IndicatorSpec> specs = IndicatorSpec.parseList(
+                specInput.isEmpty() ? IndicatorSpec.DEFAULT_SPECS : specInput);
+
+        // Keep state between runs so a later bulk fetch only applies the new days
+        if (indicatorEngine == null || !indicatorEngine.getSpecs().equals(specs)) {
+            indicatorEngine = new IndicatorEngine(specs);
+        }
 
-        Map<String, List<DailyPriceData>> dataBySymbol = bulkData.stream()
-                .collect(Collectors.groupingBy(DailyPriceData::getSymbol));
+        long startNanos = System.nanoTime();
+        int applied = indicatorEngine.ingest(candles);
+        long elapsedMicros = (System.nanoTime() - startNanos) / 1_000;
 
-        System.out.println("\nResults by symbol:");
-        System.out.println("-".repeat(50));
+        System.out.println("Applied " + applied + " new candles across " + indicatorEngine.symbolCount()
+                + " symbols x " + specs.size() + " indicators in " + elapsedMicros + "us");
 
+        List<String> symbols = new ArrayList<>(indicatorEngine.getSymbols());
+        symbols.sort(String::compareTo);
+        double[] values = new double[specs.size()];
+
+        System.out.println("-".repeat(70));
         for (String symbol : symbols) {
-            displaySymbolResults(symbol, dataBySymbol.get(symbol));
+            SymbolIndicators state = indicatorEngine.getState(symbol);
+            state.values(values);
+
+            StringBuilder line = new StringBuilder(String.format("%-6s %s close %.2f",
+                    symbol, LocalDate.ofEpochDay(state.getLastEpochDay()), state.getLastClose()));
+            for (int i = 0; i < values.length; i++) {
+                line.append(" | ").append(state.indicatorName(i)).append(' ')
+                        .append(Double.isNaN(values[i]) ? "n/a" : String.format("%.2f", values[i]));
+            }
+            System.out.println(line);
+        }
+        System.out.println("-".repeat(70));
+        System.out.println("Indicators show n/a until a symbol has at least 'period' candles.");
+    }
+
+    private void runCredentialPoolFetch(Scanner scanner) {
+        System.out.println("\n--- Pooled Bulk Fetch ---");
+        System.out.println("Credentials in pool: " + credentialPool.size());
+
+        List<String> symbols = readSymbols(scanner, "Enter ticker symbols", "AAPL,MSFT,GOOGL,TSLA,SPY");
+
+        // Two workers per credential keep every rate budget busy
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, credentialPool.size() * 2));
+        JobBudget budget = JobBudget.start("pooled fetch", Duration.ofMillis(config.getDefaults().getBulkJobBudgetMs()));
+        List<DailyPriceData> collected = new ArrayList<>();
+        int failures = 0;
+        int skipped = 0;
+        long start = System.nanoTime();
+        try {
+            List<Future<List<DailyPriceData>>> futures = new ArrayList<>();
+            for (String symbol : symbols) {
+                futures.add(executor.submit(() -> {
+                    try (JobBudget.Scope ignored = budget.bind()) {
+                        // null marks a symbol skipped because the job could not fit it in
+                        return budget.tryStart(symbol) ? hedgedExecutor.execute("priceHistory", slot ->
+                                slot.getMarketDataService().getBulkHistoricalData(new String[]{symbol})) : null;
+                    }
+                }));
+            }
+            for (Future<List<DailyPriceData>> future : futures) {
+                try {
+                    List<DailyPriceData> data = future.get();
+                    if (data == null) {
+                        skipped++;
+                    } else {
+                        collected.addAll(data);
+                    }
+                } catch (ExecutionException e) {
+                    failures++;
+                    logger.debug("Pooled fetch failed: {}", e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Pooled fetch interrupted.");
+        } finally {
+            executor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int fetched = symbols.size() - failures - skipped;
+
+        System.out.printf("Fetched %d symbols (%d failed, %d skipped), %d candles in %.2fs (%.1f symbols/s)%n",
+                fetched, failures, skipped, collected.size(), seconds, seconds > 0 ? fetched / seconds : 0);
+        printBudgetSummary(budget.summary());
+
+        if (!collected.isEmpty()) {
+            candleStore.replace(CandleBlock.from(collected));
+            System.out.println("Results kept for the analytics options (10, 11).");
         }
 
-        displayPerformanceAnalysis(symbols, bulkData, totalTime);
-        displayDataQualityAnalysis(bulkData);
-        displayRecentSamples(bulkData);
-        displayTestNotes();
+        System.out.println("\nPer-credential statistics:");
+        System.out.println("-".repeat(70));
+        for (CredentialSlot.Stats stats : credentialPool.stats()) {
+            System.out.printf("%-10s token %-9s calls %5d ok / %3d failed | avg %6.1f ms | %6.1f calls/min%n",
+                    stats.name(), stats.tokenHealthy() ? "OK" : "UNUSABLE", stats.completed(), stats.failed(),
+                    stats.averageLatencyMs(), stats.callsPerMinute());
+            if (stats.lastError() != null) {
+                System.out.println("           last error: " + stats.lastError());
+            }
+        }
+
+        System.out.println("\nQueue wait by request class:");
+        for (RequestScheduler.ClassStats stats : credentialPool.getScheduler().stats()) {
+            System.out.printf("%-12s weight %2d | admitted %6d | waiting %3d | mean %7.1f ms | p99 %7.1f ms%n",
+                    stats.priority(), stats.weight(), stats.admitted(), stats.waiting(), stats.meanWaitMs(),
+                    stats.p99WaitMs());
+        }
     }
 
-    private void displaySymbolResults(String symbol, List<DailyPriceData> symbolData) {
-        if (symbolData == null || symbolData.isEmpty()) {
-            System.out.println(symbol + ": No data returned");
+    private void runProfiledScenario(Scanner scanner) throws SchwabApiException, IOException {
+        System.out.println("\n--- Profile a Scenario (JDK Flight Recorder) ---");
+        System.out.println("Runs another option under a flight recording, e.g. 8 or 12 (bulk history),");
+        System.out.println("13 (quote polling), 15 or 16 (load tests), 19 (intraday backfill).");
+        System.out.print("Option to profile: ");
+        String option = scanner.nextLine().trim();
+        if (!PROFILABLE_OPTIONS.contains(option)) {
+            System.out.println("Option '" + option + "' cannot be profiled.");
             return;
         }
 
-        long successCount = symbolData.stream().filter(DailyPriceData::isSuccess).count();
-        long errorCount = symbolData.size() - successCount;
+        FlightRecording recording;
+        try {
+            recording = FlightRecording.start(Paths.get(config.getDefaults().getProfileDirectory()), "option-" + option);
+        } catch (IOException | IllegalStateException e) {
+            System.out.println("Flight recording unavailable: " + e.getMessage());
+            return;
+        }
+        try {
+            handleMenuChoice(option, scanner);
+        } finally {
+            recording.close();
+            System.out.printf("%nRecorded %.1fs into %s%n", recording.getElapsedNanos() / 1e9, recording.getFile());
+        }
 
-        System.out.println(symbol + ":");
-        System.out.println("  Total data points: " + symbolData.size());
-        System.out.println("  Successful: " + successCount);
-        System.out.println("  Errors: " + errorCount);
+        System.out.println("\nHot spot summary:");
+        System.out.println("-".repeat(70));
+        RecordingSummary.read(recording.getFile(), "com.higgstx", 10).print(System.out);
+    }
 
-        if (successCount > 0) {
-            displaySuccessfulDataSample(symbolData);
-            displayDateRange(symbolData);
-        } else if (errorCount > 0) {
-            displayErrorSample(symbolData);
+    private static void printBudgetSummary(JobBudget.Summary summary) {
+        System.out.printf("Time budget: %d ms of %d ms used (%s) | completed %d | skipped %d | timed out %d%n",
+                summary.elapsedMillis(), summary.budgetMillis(), summary.finishedInTime() ? "in time" : "OVERRAN",
+                summary.completed(), summary.skipped(), summary.timedOut());
+        if (!summary.skippedItems().isEmpty()) {
+            System.out.println("  Not completed: " + String.join(", ", summary.skippedItems()));
         }
-        System.out.println();
+        printLogSampling();
     }
 
-    private void displaySuccessfulDataSample(List<DailyPriceData> symbolData) {
-        DailyPriceData sample = symbolData.stream()
-                .filter(DailyPriceData::isSuccess)
-                .findFirst().orElse(null);
+    /**
+     * Cumulative totals of the logback sampling filter, when logback.xml declares it
+     */
+    private static void printLogSampling() {
+        SamplingTurboFilter sampling = SamplingTurboFilter.active();
+        if (sampling == null) {
+            return;
+        }
+        SamplingTurboFilter.Stats stats = sampling.stats(3);
+        if (stats.suppressed() == 0) {
+            return;
+        }
+        System.out.printf("Log sampling: %d passed, %d suppressed so far (now %d/s per template)%n",
+                stats.passed(), stats.suppressed(), stats.budgetPerKey());
+        for (SamplingTurboFilter.Suppressed top : stats.topSuppressed()) {
+            System.out.printf("  %6d x %s \"%s\"%n", top.count(), top.logger(), top.template());
+        }
+    }
 
-        if (sample != null) {
-            System.out.println("  Sample data:");
-            System.out.println("    Date: " + sample.getLocalDate());
-            System.out.println("    Open: $" + sample.getOpen());
-            System.out.println("    High: $" + sample.getHigh());
-            System.out.println("    Low: $" + sample.getLow());
-            System.out.println("    Close: $" + sample.getClose());
-            System.out.println("    Volume: " + formatVolume(sample.getVolume()));
+    private void runQuotePoller(Scanner scanner) {
+        System.out.println("\n--- Adaptive Quote Poller ---");
+
+        List<String> watchlist = readSymbols(scanner, "Watchlist", "AAPL,MSFT,GOOGL,TSLA,SPY");
+
+        System.out.print("Run for how many seconds (default: 60): ");
+        String secondsInput = scanner.nextLine().trim();
+        int seconds = secondsInput.isEmpty() ? 60 : Integer.parseInt(secondsInput);
+
+        SchwabTestConfig.Defaults defaults = config.getDefaults();
+        QuoteCadence cadence = new QuoteCadence(defaults.getQuotePollMinMs(), defaults.getQuotePollMaxMs(),
+                defaults.getQuotePollClosedMs(), 0.5);
+
+        try (AdaptiveQuotePoller poller = new AdaptiveQuotePoller(hedgedExecutor, marketHoursService, cadence,
+                watchlist, delta -> {
+                    quoteBook.apply(delta);
+                    printQuoteDelta(delta);
+                })) {
+            poller.start();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+            poller.stop();
+
+            System.out.println("-".repeat(70));
+            System.out.printf("Cycles: %d | quotes received: %d | changes published: %d (%.1f%%)%n",
+                    poller.getCycles(), poller.getQuotesReceived(), poller.getChangesPublished(),
+                    poller.getQuotesReceived() == 0 ? 0.0
+                            : 100.0 * poller.getChangesPublished() / poller.getQuotesReceived());
+            System.out.printf("Last interval: %d ms | activity: %.2f | batches skipped for time: %d | failed: %d%n",
+                    poller.getLastIntervalMs(), poller.getActivity(), poller.getBatchesSkipped(),
+                    poller.getBatchesFailed());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Poller interrupted.");
         }
     }
 
-    private void displayDateRange(List<DailyPriceData> symbolData) {
-        List<DailyPriceData> successfulData = symbolData.stream()
-                .filter(DailyPriceData::isSuccess)
-                .sorted((a, b) -> a.getLocalDate().compareTo(b.getLocalDate()))
-                .collect(Collectors.toList());
+    private void runHedgingBenchmark(Scanner scanner) throws SchwabApiException {
+        System.out.println("\n--- Hedged Request Tail Latency ---");
+
+        List<String> symbols = readSymbols(scanner, "Symbols per quote call", "AAPL,MSFT,GOOGL,TSLA,SPY");
+        System.out.print("Calls per phase (default: 60): ");
+        String callsInput = scanner.nextLine().trim();
+        int calls = callsInput.isEmpty() ? 60 : Integer.parseInt(callsInput);
+
+        // The unhedged phase also warms the hedge delay used by the second phase
+        SchwabTestConfig.Defaults defaults = config.getDefaults();
+        try (HedgedExecutor bench = new HedgedExecutor(credentialPool, false, defaults.getHedgePercentile(),
+                defaults.getHedgeBudgetPercent() / 100.0, Math.min(defaults.getHedgeMinSamples(), calls))) {
+            LatencyWindow unhedged = timeQuoteCalls(bench, symbols, calls);
+            bench.setEnabled(true);
+            LatencyWindow hedged = timeQuoteCalls(bench, symbols, calls);
+            HedgedExecutor.Stats stats = bench.stats("quotes");
+
+            System.out.println("-".repeat(60));
+            System.out.printf("%-10s %10s %10s %10s%n", "", "p50 ms", "p95 ms", "p99 ms");
+            printLatencyRow("unhedged", unhedged);
+            printLatencyRow("hedged", hedged);
+            long before = unhedged.percentile(0.99);
+            long after = hedged.percentile(0.99);
+            System.out.printf("Hedges sent: %d of %d hedged-phase calls (%.1f%%), won: %d, denied by budget: %d%n",
+                    stats.hedgesSent(), calls, 100.0 * stats.hedgesSent() / Math.max(1, calls), stats.hedgeWins(),
+                    stats.budgetDenied());
+            System.out.printf("p99 change: %+.1f%%%n", before == 0 ? 0.0 : 100.0 * (after - before) / before);
+        }
+    }
 
-        if (successfulData.size() > 1) {
-            System.out.println("  Date range: "
-                    + successfulData.get(0).getLocalDate() + " to "
-                    + successfulData.get(successfulData.size() - 1).getLocalDate());
+    private static void printLatencyRow(String label, LatencyWindow window) {
+        System.out.printf("%-10s %10.1f %10.1f %10.1f%n", label, window.percentile(0.50) / 1e6,
+                window.percentile(0.95) / 1e6, window.percentile(0.99) / 1e6);
+    }
+
+    private LatencyWindow timeQuoteCalls(HedgedExecutor executor, List<String> symbols, int calls)
+            throws SchwabApiException {
+        LatencyWindow window = new LatencyWindow(calls);
+        for (int i = 0; i < calls; i++) {
+            long start = System.nanoTime();
+            executor.execute("quotes", slot -> slot.getMarketDataService().getQuotes(symbols));
+            window.record(System.nanoTime() - start);
         }
+        return window;
     }
 
-    private void displayErrorSample(List<DailyPriceData> symbolData) {
-        DailyPriceData errorSample = symbolData.stream()
-                .filter(data -> !data.isSuccess())
-                .findFirst().orElse(null);
+    private void runPositionMonitor(Scanner scanner) throws SchwabApiException {
+        System.out.println("\n--- Account Position Monitor ---");
 
-        if (errorSample != null && errorSample.getErrorMessage() != null) {
-            System.out.println("  Error: " + errorSample.getErrorMessage());
+        System.out.print("Run for how many seconds (default: 60): ");
+        String secondsInput = scanner.nextLine().trim();
+        int seconds = secondsInput.isEmpty() ? 60 : Integer.parseInt(secondsInput);
+        long intervalMs = Math.max(1000, config.getDefaults().getAccountsTtlMs());
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds);
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                traderService.poll(this::printPositionDiff);
+                Thread.sleep(intervalMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Position monitor interrupted.");
         }
+
+        System.out.println("-".repeat(70));
+        System.out.printf("API calls: %d | cache hits: %d | joined refreshes: %d%n", traderService.getApiCalls(),
+                traderService.getCacheHits(), traderService.getJoinedRefreshes());
+        System.out.printf("Positions compared: %d | changes published: %d%n",
+                traderService.getPositionsCompared(), traderService.getChangesPublished());
     }
 
-    private void displayPerformanceAnalysis(String[] symbols, List<DailyPriceData> bulkData, long totalTime) {
-        System.out.println("PERFORMANCE ANALYSIS:");
-        System.out.println("-".repeat(50));
-        System.out.println("Average time per symbol: " + (totalTime / symbols.length) + "ms");
-        System.out.println("Data points per second: " + (bulkData.size() * 1000 / Math.max(totalTime, 1)));
+    private void runOptionChains(Scanner scanner) {
+        System.out.println("\n--- Option Chain Index ---");
+
+        List<String> underlyings = readSymbols(scanner, "Enter underlyings", "SPY,QQQ,AAPL,MSFT,TSLA");
+
+        long start = System.nanoTime();
+        JobBudget budget = JobBudget.start("option chains", Duration.ofMillis(config.getDefaults().getBulkJobBudgetMs()));
+        List<OptionChainService.LoadResult> results = optionChainService.refresh(underlyings,
+                config.getDefaults().getOptionChainMaxAgeMs(), budget);
+        double loadMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+        System.out.printf("%-8s %8s %10s %10s%n", "Symbol", "Result", "Contracts", "Latency");
+        System.out.println("-".repeat(70));
+        for (OptionChainService.LoadResult result : results) {
+            String outcome = !result.success() ? "failed" : result.rebuilt() ? "rebuilt" : "updated";
+            System.out.printf("%-8s %8s %10d %8.1fms%s%n", result.underlying(), outcome, result.contracts(),
+                    result.latencyNanos() / 1_000_000.0, result.success() ? "" : "  " + result.message());
+        }
+        System.out.println("-".repeat(70));
+        System.out.printf("Loaded %d chain(s) in %.1f ms (%d skipped as fresh)%n", results.size(), loadMillis,
+                underlyings.size() - results.size());
+
+        int contracts = 0;
+        for (OptionChainIndex index : optionChainService.getChains().values()) {
+            contracts += index.contractCount();
+        }
+        long memory = optionChainService.memoryBytes();
+        System.out.printf("Index memory: %,d bytes for %,d contracts (%.1f bytes/contract)%n", memory, contracts,
+                contracts == 0 ? 0.0 : (double) memory / contracts);
+        System.out.printf("API calls: %d | rebuilt: %d | quotes refreshed: %d%n", optionChainService.getApiCalls(),
+                optionChainService.getRebuilds(), optionChainService.getQuoteRefreshes());
+        printBudgetSummary(budget.summary());
+
+        List<OptionChainIndex> indexes = new ArrayList<>();
+        for (String underlying : underlyings) {
+            OptionChainIndex index = optionChainService.get(underlying);
+            if (index != null && index.expiryCount() > 0) {
+                indexes.add(index);
+            }
+        }
+        if (indexes.isEmpty()) {
+            System.out.println("No chains loaded; skipping lookup benchmark.");
+            return;
+        }
+
+        for (OptionChainIndex index : indexes) {
+            int expiry = index.nextExpiry((int) LocalDate.now().toEpochDay());
+            if (expiry < 0) {
+                continue;
+            }
+            int call = index.nearestStrike(expiry, index.getUnderlyingPrice(), OptionChainIndex.CALL);
+            int put = index.nearestStrike(expiry, index.getUnderlyingPrice(), OptionChainIndex.PUT);
+            System.out.printf("%-6s @ %9.2f  %s  ATM call %s  ATM put %s%n", index.getUnderlying(),
+                    index.getUnderlyingPrice(), LocalDate.ofEpochDay(index.expiry(expiry)),
+                    call < 0 ? "-" : String.format("%.2f %.2f/%.2f", index.strike(call), index.bid(call), index.ask(call)),
+                    put < 0 ? "-" : String.format("%.2f %.2f/%.2f", index.strike(put), index.bid(put), index.ask(put)));
+        }
+
+        int lookups = 200_000;
+        Random random = new Random(42);
+        long checksum = 0;
+        long nearestStart = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            OptionChainIndex index = indexes.get(i % indexes.size());
+            double price = index.getUnderlyingPrice() * (0.9 + 0.2 * random.nextDouble());
+            checksum += index.nearestStrike(random.nextInt(index.expiryCount()), price, OptionChainIndex.CALL);
+        }
+        long nearestNanos = System.nanoTime() - nearestStart;
+
+        long[] visited = new long[1];
+        long bandStart = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            OptionChainIndex index = indexes.get(i % indexes.size());
+            double price = index.getUnderlyingPrice();
+            visited[0] += index.forEachInBand(random.nextInt(index.expiryCount()), price * 0.95, price * 1.05,
+                    OptionChainIndex.PUT, (chain, row) -> { });
+        }
+        long bandNanos = System.nanoTime() - bandStart;
+
+        System.out.printf("Nearest strike: %,d lookups, %.0f ns/lookup%n", lookups, (double) nearestNanos / lookups);
+        System.out.printf("Strikes in +/-5%% band: %,d lookups, %.0f ns/lookup (%.1f contracts each)%n", lookups,
+                (double) bandNanos / lookups, (double) visited[0] / lookups);
+        logger.debug("Option lookup checksum {}", checksum);
     }
 
-    private void displayDataQualityAnalysis(List<DailyPriceData> bulkData) {
-        long totalSuccessful = bulkData.stream().filter(DailyPriceData::isSuccess).count();
-        long totalErrors = bulkData.size() - totalSuccessful;
-        double successRate = (double) totalSuccessful / bulkData.size() * 100;
+    private void runIntradayBackfill(Scanner scanner) throws IOException {
+        System.out.println("\n--- Intraday Minute-Bar Backfill ---");
 
-        System.out.println("\nDATA QUALITY:");
-        System.out.println("-".repeat(50));
-        System.out.println("Success rate: " + String.format("%.1f%%", successRate));
-        System.out.println("Successful data points: " + totalSuccessful);
-        System.out.println("Failed data points: " + totalErrors);
+        System.out.print("Enter ticker symbol (default: SPY): ");
+        String symbol = scanner.nextLine().trim().toUpperCase();
+        if (symbol.isEmpty()) {
+            symbol = "SPY";
+        }
+        System.out.print("Bar size in minutes, 1 or 5 (default: 1): ");
+        String minutesInput = scanner.nextLine().trim();
+        int minutes = minutesInput.isEmpty() ? 1 : Integer.parseInt(minutesInput);
+        if (minutes != 1 && minutes != 5) {
+            System.out.println("Bar size must be 1 or 5 minutes.");
+            return;
+        }
+        System.out.print("Days to backfill (default: 90): ");
+        String daysInput = scanner.nextLine().trim();
+        int days = daysInput.isEmpty() ? 90 : Integer.parseInt(daysInput);
+
+        Instant to = Instant.now();
+        Instant from = to.minus(Duration.ofDays(days));
+        int windows = IntradayBackfill.split(from, to,
+                Duration.ofDays(config.getDefaults().getBackfillWindowDays())).size();
+        int budgetPerMinute = 0;
+        for (CredentialSlot slot : credentialPool.getSlots()) {
+            budgetPerMinute += (int) Math.round(slot.getRateLimiter().getPermitsPerMinute());
+        }
+        System.out.printf("Fetching %d window(s) across %d credential(s); rate budget allows about %.1f s%n",
+                windows, credentialPool.size(), budgetPerMinute == 0 ? 0.0 : windows * 60.0 / budgetPerMinute);
+
+        JobBudget budget = JobBudget.start("intraday backfill",
+                Duration.ofMillis(config.getDefaults().getBulkJobBudgetMs()));
+        IntradayBackfill.Result result = intradayBackfill.backfill(symbol, minutes, from, to, budget);
+
+        System.out.println("-".repeat(70));
+        System.out.printf("Windows: %d (%d failed, %d skipped) | bars fetched: %,d | elapsed: %.1f s%n",
+                result.windows(), result.failedWindows(), result.skippedWindows(), result.barsFetched(),
+                result.elapsedNanos() / 1e9);
+        System.out.printf("Merged: %,d existing + %,d incoming -> %,d written (%,d duplicates, %,d replaced)%n",
+                result.merge().existing(), result.merge().incoming(), result.merge().written(),
+                result.merge().duplicates(), result.merge().replaced());
+        for (String error : result.errors()) {
+            System.out.println("  Failed window " + error);
+        }
+        printBudgetSummary(result.budget());
+        System.out.println("Bars stored in " + intradayBackfill.getStore().file(symbol, minutes).toAbsolutePath());
     }
 
-    private void displayRecentSamples(List<DailyPriceData> bulkData) {
-        long totalSuccessful = bulkData.stream().filter(DailyPriceData::isSuccess).count();
-        
-        if (totalSuccessful > 0) {
-            System.out.println("\nMOST RECENT DATA SAMPLES:");
-            System.out.println("-".repeat(50));
+    private void printPositionDiff(PositionDiff diff, AccountsSnapshot snapshot) {
+        System.out.printf("[%s] %d account(s), %d position(s): %d added, %d changed, %d removed%n",
+                LocalTime.now().withNano(0), snapshot.accounts().size(), snapshot.positions().size(),
+                diff.added().size(), diff.changed().size(), diff.removed().size());
+        printPositions("+", diff.added());
+        printPositions("~", diff.changed());
+        printPositions("-", diff.removed());
+    }
 
-            bulkData.stream()
-                    .filter(DailyPriceData::isSuccess)
-                    .sorted((a, b) -> b.getLocalDate().compareTo(a.getLocalDate()))
-                    .limit(5)
-                    .forEach(data -> {
-                        System.out.println(data.getSymbol() + " (" + data.getLocalDate() + "): "
-                                + "Close $" + data.getClose() + ", Volume " + formatVolume(data.getVolume()));
-                    });
+    private static void printPositions(String marker, List<Position> positions) {
+        for (Position position : positions) {
+            System.out.printf("  %s %-8s %-10s qty %10.2f @ %10.2f  value %12.2f%n", marker,
+                    maskAccount(position.accountNumber()), position.symbol(), position.netQuantity(),
+                    position.averagePrice(), position.marketValue());
         }
     }
 
-    private void displayTestNotes() {
-        System.out.println("\n" + "=".repeat(70));
-        System.out.println("BULK HISTORICAL DATA TEST COMPLETE");
-        System.out.println("=".repeat(70));
+    private static String maskAccount(String accountNumber) {
+        return accountNumber.length() <= 4 ? accountNumber : "..." + accountNumber.substring(accountNumber.length() - 4);
+    }
 
-        System.out.println("Notes about this test:");
-        System.out.println("• getBulkHistoricalData() makes individual API calls for each symbol");
-        System.out.println("• Includes 100ms delay between requests to respect API rate limits");
-        System.out.println("• Returns all data in a single List<DailyPriceData>");
-        System.out.println("• Gracefully handles errors by returning error data objects");
-        System.out.println("• Fetches 30 days (1 month) of daily OHLCV data per symbol");
+    private void printQuoteDelta(QuoteDeltaBatch delta) {
+        StringBuilder line = new StringBuilder("[cycle " + delta.cycle() + "] ");
+        for (int i = 0; i < delta.size(); i++) {
+            line.append(delta.symbol(i));
+            if (!delta.isAvailable(i)) {
+                line.append(" unavailable");
+            } else {
+                if (delta.changed(i, QuoteDeltaBatch.PRICE)) {
+                    line.append(String.format(" $%.2f", delta.price(i)));
+                }
+                if (delta.changed(i, QuoteDeltaBatch.VOLUME)) {
+                    line.append(" vol ").append(formatVolume(delta.volume(i)));
+                }
+            }
+            line.append(i + 1 < delta.size() ? "; " : "");
+        }
+        System.out.println(line);
+    }
 
-        String currentTokenStatus = marketDataService.getTokenStatus();
-        if (currentTokenStatus.contains("ERROR") || !marketDataService.isReady()) {
-            System.out.println("\nTroubleshooting:");
-            System.out.println("• Token issues detected - try option 4 to check token status");
-            System.out.println("• If tokens expired, run option 5 (force refresh) or option 2 (re-auth)");
+    private void runIndicatorPipeline(Scanner scanner) throws IOException {
+        System.out.println("\n--- History -> Indicators Pipeline ---");
+
+        List<String> symbols = readSymbols(scanner, "Enter ticker symbols", "AAPL,MSFT,GOOGL,TSLA,SPY");
+
+        IndicatorEngine engine = new IndicatorEngine(IndicatorSpec.parseList(IndicatorSpec.DEFAULT_SPECS));
+        Path output = Paths.get("analytics", "indicators-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jsonl");
+        int cores = Runtime.getRuntime().availableProcessors();
+        double[] values = new double[engine.getSpecs().size()];
+
+        // Fetching is I/O bound and runs several calls per credential, parsing and
+        // validation use every core, the file sink is serial
+        int fetchers = Math.max(2, credentialPool.size() * 4);
+        var run = Pipeline.from("symbols", Sources.of(symbols))
+                .map("history", Transforms.priceHistory(credentialPool), fetchers, 8)
+                .map("parse", Transforms.toCandleBlock(), cores, 32)
+                .map("validate", Transforms.validated(), cores, 32)
+                .map("indicators", Transforms.indicators(engine), 1, 32)
+                .to("jsonl", Sinks.jsonLines(output, (SymbolIndicators state) -> {
+                    state.values(values);
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("symbol", state.getSymbol());
+                    row.put("date", LocalDate.ofEpochDay(state.getLastEpochDay()).toString());
+                    row.put("close", state.getLastClose());
+                    for (int i = 0; i < values.length; i++) {
+                        row.put(state.indicatorName(i), Double.isNaN(values[i]) ? null : values[i]);
+                    }
+                    return row;
+                }), 16);
+
+        try {
+            Pipeline.Report report = run.get();
+            System.out.printf("Pipeline finished in %.1f ms%n", report.elapsedMillis());
+            System.out.println("-".repeat(70));
+            for (StageMetrics stage : report.stages()) {
+                System.out.println(stage);
+            }
+            System.out.println("-".repeat(70));
+            System.out.println("Indicator rows written to " + output.toAbsolutePath());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Pipeline interrupted.");
+        } catch (ExecutionException e) {
+            System.err.println("Pipeline failed: " + e.getCause().getMessage());
+            logger.error("Indicator pipeline failed", e.getCause());
         }
     }
 
-    private String formatVolume(Long volume) {
-        if (volume == null) return "N/A";
-
-        if (volume >= 1_000_000_000) {
-            return String.format("%.1fB", volume / 1_000_000_000.0);
-        } else if (volume >= 1_000_000) {
-            return String.format("%.1fM", volume / 1_000_000.0);
-        } else if (volume >= 1_000) {
-            return String.format("%.1fK", volume / 1_000.0);
-        } else {
-            return volume.toString();
+    private void runAlertEngineBenchmark(Scanner scanner) {
+        System.out.println("\n--- Price Alert Engine Benchmark ---");
+
+        System.out.print("Number of rules (default: 50000): ");
+        String rulesInput = scanner.nextLine().trim();
+        int ruleCount = rulesInput.isEmpty() ? 50_000 : Integer.parseInt(rulesInput);
+        System.out.print("Number of symbols (default: 3000): ");
+        String symbolsInput = scanner.nextLine().trim();
+        int symbolCount = symbolsInput.isEmpty() ? 3_000 : Integer.parseInt(symbolsInput);
+
+        // Collected closes seed realistic price levels; synthetic symbols fill the rest
+        List<String> symbols = new ArrayList<>();
+        List<Double> basePrices = new ArrayList<>();
+        CandleBlock candles = candleStore.get();
+        for (int row = 0; row < candles.size() && symbols.size() < symbolCount; row++) {
+            if (row + 1 == candles.size() || candles.symbolId(row + 1) != candles.symbolId(row)) {
+                symbols.add(candles.symbol(row));
+                basePrices.add(candles.close(row));
+            }
+        }
+        while (symbols.size() < symbolCount) {
+            symbols.add("SYN" + symbols.size());
+            basePrices.add(100.0);
+        }
+
+        Random random = new Random(42);
+        AlertRule.Type[] types = AlertRule.Type.values();
+        List<AlertRule> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            int s = random.nextInt(symbolCount);
+            AlertRule.Type type = types[i % types.length];
+            double threshold = type == AlertRule.Type.VOLUME_ABOVE
+                    ? 1_000_000 + random.nextInt(50_000_000)
+                    : basePrices.get(s) * (0.9 + random.nextDouble() * 0.2);
+            rules.add(new AlertRule(i, symbols.get(s), type, threshold));
+        }
+
+        AlertEngine engine = new AlertEngine();
+        long buildStart = System.nanoTime();
+        engine.addRules(rules);
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        int[] ids = new int[symbolCount];
+        double[] prices = new double[symbolCount];
+        long[] volumes = new long[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            ids[s] = engine.getSymbolTable().intern(symbols.get(s));
+            prices[s] = basePrices.get(s);
+            engine.onTick(ids[s], prices[s], volumes[s], null);
+        }
+
+        // Random-walk ticks of ~0.1% per move
+        int tickCount = 1_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < tickCount; i++) {
+            int s = random.nextInt(symbolCount);
+            prices[s] *= 1 + random.nextGaussian() * 0.001;
+            volumes[s] += random.nextInt(20_000);
+            engine.onTick(ids[s], prices[s], volumes[s], null);
         }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("-".repeat(70));
+        System.out.printf("Rules: %,d over %,d symbols (index built in %d ms)%n",
+                engine.getRuleCount(), engine.getSymbolCount(), buildMillis);
+        System.out.printf("Ticks: %,d in %.2f s -> %,.0f ticks/s%n", tickCount, seconds, tickCount / seconds);
+        System.out.printf("Mean evaluation: %.0f ns/tick%n", engine.getMeanEvaluationNanos());
+        System.out.printf("Rules examined per tick: %.2f (of %.1f defined per symbol)%n",
+                (double) engine.getRulesExamined() / engine.getTicks(),
+                (double) engine.getRuleCount() / engine.getSymbolCount());
+        System.out.printf("Alerts fired: %,d%n", engine.getAlertsFired());
+    }
+
+    private void runCorrelationAnalysis(Scanner scanner) throws IOException {
+        System.out.println("\n--- Correlation/Covariance Matrix ---");
+
+        if (candleStore.isEmpty()) {
+            System.out.println("No collected candles yet. Run option 8 (Bulk Historical Data) first.");
+            return;
+        }
+
+        System.out.print("Minimum date coverage per symbol, 0-1 (default: 0.9): ");
+        String coverageInput = scanner.nextLine().trim();
+        double minCoverage = coverageInput.isEmpty() ? 0.9 : Double.parseDouble(coverageInput);
+
+        long alignStart = System.nanoTime();
+        ReturnMatrix returns = ReturnMatrix.fromCandles(candleStore.get(), minCoverage);
+        long alignMillis = (System.nanoTime() - alignStart) / 1_000_000;
+
+        if (returns.getSymbolCount() == 0 || returns.getObservations() < 2) {
+            System.out.println("Not enough aligned history to correlate (need 2+ return days).");
+            return;
+        }
+
+        long computeStart = System.nanoTime();
+        CovarianceMatrix matrix = new CorrelationAnalyzer().compute(returns);
+        long computeMillis = (System.nanoTime() - computeStart) / 1_000_000;
+
+        Path output = Paths.get("analytics", "correlation-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".bin");
+        matrix.writeTo(output);
+
+        int n = matrix.size();
+        System.out.println("Symbols: " + n + ", aligned return days: " + matrix.getObservations());
+        System.out.println("Pairwise correlations: " + ((long) n * (n - 1) / 2));
+        System.out.println("Alignment: " + alignMillis + "ms, matrix kernel: " + computeMillis + "ms on "
+                + Runtime.getRuntime().availableProcessors() + " cores");
+        System.out.println("Matrix written to: " + output.toAbsolutePath());
+
+        if (n <= 10) {
+            String[] names = matrix.getSymbols();
+            StringBuilder header = new StringBuilder(String.format("%-7s", ""));
+            for (String name : names) {
+                header.append(String.format("%8s", name));
+            }
+            System.out.println("\nCorrelation:");
+            System.out.println(header);
+            for (int i = 0; i < n; i++) {
+                StringBuilder row = new StringBuilder(String.format("%-7s", names[i]));
+                for (int j = 0; j < n; j++) {
+                    row.append(String.format("%8.3f", matrix.correlation(i, j)));
+                }
+                System.out.println(row);
+            }
+        }
+    }
+
+    private String formatVolume(Long volume) {
+        return BulkReport.formatVolume(volume);
     }
 
     private void automaticOAuth(Scanner scanner) throws SchwabApiException {
@@ -602,21 +1295,38 @@ public class TestHarnessRunner implements CommandLineRunner {
     private void testMarketHours() {
         System.out.println("\nTesting market hours...");
         try {
-            var marketHours = marketDataService.getMarketHours("equity");
-            System.out.println("Market hours request successful. Status: " + marketHours.getStatusCode());
-            
-            if (marketHours.getStatusCode() == 200) {
-                String body = marketHours.getBody();
-                System.out.println("Market hours data length: " + body.length() + " characters");
-                
-                if (body.length() > 200) {
-                    System.out.println("Sample: " + body.substring(0, 200) + "...");
-                } else {
-                    System.out.println("Data: " + body);
+            MarketDay today = marketHoursService.getToday(MarketHoursService.EQUITY);
+            System.out.println("Market hours request successful for " + today.date());
+
+            if (today.hasRegularSession()) {
+                System.out.println("Market is OPEN today: " + formatSessionTime(today.regularStartMillis())
+                        + " - " + formatSessionTime(today.regularEndMillis()) + " ET");
+                if (today.preMarketStartMillis() > 0 || today.postMarketEndMillis() > 0) {
+                    System.out.println("Extended hours: " + formatSessionTime(today.preMarketStartMillis())
+                            + " - " + formatSessionTime(today.postMarketEndMillis()) + " ET");
                 }
             } else {
-                System.out.println("Error: " + marketHours.getBody());
+                System.out.println("Market is CLOSED today");
             }
+
+            marketHoursService.prefetch(MarketHoursService.EQUITY);
+            System.out.println("Open now: " + (marketHoursService.isOpenNow(MarketHoursService.EQUITY) ? "YES" : "NO"));
+            System.out.println("Next open: " + formatSessionTime(marketHoursService.nextOpen(MarketHoursService.EQUITY)));
+            System.out.println("Next close: " + formatSessionTime(marketHoursService.nextClose(MarketHoursService.EQUITY)));
+
+            // Cached lookups never leave the process
+            int lookups = 100_000;
+            long now = System.currentTimeMillis();
+            long start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                marketHoursService.isOpenAt(MarketHoursService.EQUITY, now + (i % 1440) * 60_000L, false);
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            System.out.printf("Cached lookups: %,d in %.2f ms (%.0f ns each)%n",
+                    lookups, elapsedNanos / 1_000_000.0, (double) elapsedNanos / lookups);
+            System.out.printf("Cache: %d days, %d hits, %d misses, %d API calls%n",
+                    marketHoursService.getCachedDays(), marketHoursService.getCacheHits(),
+                    marketHoursService.getCacheMisses(), marketHoursService.getApiCalls());
         } catch (SchwabApiException e) {
             System.err.println("Market hours error: " + e.getMessage());
         } catch (Exception e) {
@@ -624,6 +1334,14 @@ public class TestHarnessRunner implements CommandLineRunner {
         }
     }
 
+    private String formatSessionTime(long epochMillis) {
+        if (epochMillis <= 0) {
+            return "unknown";
+        }
+        return Instant.ofEpochMilli(epochMillis).atZone(MarketHoursService.MARKET_ZONE)
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+    }
+
     private void testQuoteSymbols() throws SchwabApiException {
         System.out.println("\nTesting quotes for multiple symbols...");
         String[] symbolsToTest = {"AAPL", "MSFT", "GOOGL", "TSLA", "SPY"};
@@ -631,7 +1349,8 @@ public class TestHarnessRunner implements CommandLineRunner {
         for (String symbol : symbolsToTest) {
             System.out.println("\nTesting symbol: " + symbol);
             try {
-                QuoteData quote = marketDataService.getQuote(symbol);
+                QuoteData quote = credentialPool.execute(RequestScheduler.Priority.INTERACTIVE,
+                        slot -> slot.getMarketDataService().getQuote(symbol));
                 System.out.println("  Result: " + quote.getStatus());
 
                 if (quote.isSuccess()) {
@@ -650,10 +1369,12 @@ public class TestHarnessRunner implements CommandLineRunner {
     private void testBatchQuotes() throws SchwabApiException {
         System.out.println("\nTesting batch quote request...");
         try {
-            List<QuoteData> quotes = marketDataService.getQuotes(List.of("AAPL", "MSFT"));
+            List<QuoteData> quotes = credentialPool.execute(RequestScheduler.Priority.INTERACTIVE,
+                    slot -> slot.getMarketDataService().getQuotes(List.of("AAPL", "MSFT")));
             System.out.println("Batch quote request returned " + quotes.size() + " results:");
             
             for (QuoteData quote : quotes) {
+                quoteBook.update(quote);
                 String result = quote.getSymbol() + ": " + quote.getStatus();
                 if (quote.isSuccess()) {
                     result += " ($" + quote.getClosePrice() + ")";
@@ -697,7 +1418,8 @@ public class TestHarnessRunner implements CommandLineRunner {
         System.out.println("\nFetching 30 days of historical data for: " + symbol);
 
         try {
-            var response = marketDataService.getPriceHistory(symbol, "month", 1, "daily", 1);
+            var response = credentialPool.execute(RequestScheduler.Priority.INTERACTIVE,
+                    slot -> slot.getMarketDataService().getPriceHistory(symbol, "month", 1, "daily", 1));
             
             System.out.println("Response Status: " + response.getStatusCode());
             
@@ -802,6 +1524,7 @@ public class TestHarnessRunner implements CommandLineRunner {
         System.out.println("  Token URL: " + config.getUrls().getToken());
         System.out.println("  Market Data URL: " + config.getUrls().getMarketData());
         System.out.println("  Redirect URI: " + config.getDefaults().getRedirectUri());
+        System.out.println("  Cassette: " + config.getCassette().getMode() + " (" + config.getCassette().getFile() + ")");
 
         System.out.println("\nService Status:");
         System.out.println("  Token Status: " + marketDataService.getTokenStatus());
@@ -0,0 +1,114 @@
+package com.higgstx.schwabtest.history;
+
+import java.util.Arrays;
+
+/**
+ * Intraday bars for one symbol as primitive columns: an epoch-millis open time
+ * and the OHLCV values.
+ */
+public final class BarSeries {
+
+    private int size;
+    private long[] times;
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private long[] volume;
+
+    public BarSeries(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        times = new long[capacity];
+        open = new double[capacity];
+        high = new double[capacity];
+        low = new double[capacity];
+        close = new double[capacity];
+        volume = new long[capacity];
+    }
+
+    public void add(long time, double o, double h, double l, double c, long v) {
+        if (size == times.length) {
+            int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+        }
+        times[size] = time;
+        open[size] = o;
+        high[size] = h;
+        low[size] = l;
+        close[size] = c;
+        volume[size] = v;
+        size++;
+    }
+
+    /**
+     * True if times never decrease; the API returns bars in order, so sorting is rarely needed
+     */
+    public boolean isSorted() {
+        for (int row = 1; row < size; row++) {
+            if (times[row] < times[row - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sorts rows by time with an insertion sort, cheap for nearly ordered input
+     */
+    public void sortByTime() {
+        for (int i = 1; i < size; i++) {
+            long t = times[i];
+            double o = open[i], h = high[i], l = low[i], c = close[i];
+            long v = volume[i];
+            int j = i - 1;
+            while (j >= 0 && times[j] > t) {
+                times[j + 1] = times[j];
+                open[j + 1] = open[j];
+                high[j + 1] = high[j];
+                low[j + 1] = low[j];
+                close[j + 1] = close[j];
+                volume[j + 1] = volume[j];
+                j--;
+            }
+            times[j + 1] = t;
+            open[j + 1] = o;
+            high[j + 1] = h;
+            low[j + 1] = l;
+            close[j + 1] = c;
+            volume[j + 1] = v;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long time(int row) {
+        return times[row];
+    }
+
+    public double open(int row) {
+        return open[row];
+    }
+
+    public double high(int row) {
+        return high[row];
+    }
+
+    public double low(int row) {
+        return low[row];
+    }
+
+    public double close(int row) {
+        return close[row];
+    }
+
+    public long volume(int row) {
+        return volume[row];
+    }
+}
@@ -0,0 +1,181 @@
+package com.higgstx.schwabtest.history;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import com.higgstx.schwabtest.service.CredentialPool;
+import com.higgstx.schwabtest.service.CredentialSlot;
+import com.higgstx.schwabtest.service.JobBudget;
+import com.higgstx.schwabtest.service.RequestScheduler;
+import com.higgstx.schwabtest.service.SchwabRestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Backfills months of 1- or 5-minute bars, which the API only serves a few days
+ * per request.
+ * <p>
+ * The range is split into date windows that are all submitted at once and fetched
+ * through the {@link CredentialPool} at bulk priority, so concurrency is bounded
+ * by the pool's rate budget rather than by round-trips. Results are awaited in
+ * submission (time) order, since a merge takes chunks in time order, so a slow
+ * early window holds back later ones that have already arrived; each is merged
+ * straight into the {@link MinuteBarStore} and overlapping edges are deduplicated
+ * by time. The whole run shares one
+ * {@link JobBudget}: windows that no longer fit are skipped and reported, and a
+ * window still outstanding at the deadline is abandoned.
+ */
+public class IntradayBackfill implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntradayBackfill.class);
+
+    /**
+     * Half-open [startMillis, endMillis) range fetched by one request
+     */
+    public record Window(long startMillis, long endMillis) {
+    }
+
+    /**
+     * Outcome of one backfill
+     */
+    public record Result(String symbol, int minutes, int windows, int failedWindows, int skippedWindows,
+                         long barsFetched, MinuteBarStore.MergeResult merge, long elapsedNanos, List<String> errors,
+                         JobBudget.Summary budget) {
+    }
+
+    private final CredentialPool pool;
+    private final String marketDataUrl;
+    private final int timeoutMs;
+    private final MinuteBarStore store;
+    private final Duration windowLength;
+    private final ExecutorService executor;
+    private final Map<String, SchwabRestClient> clients = new ConcurrentHashMap<>();
+
+    public IntradayBackfill(CredentialPool pool, String marketDataUrl, int timeoutMs, MinuteBarStore store,
+                            Duration windowLength, int maxConcurrentWindows) {
+        this.pool = pool;
+        this.marketDataUrl = marketDataUrl;
+        this.timeoutMs = timeoutMs;
+        this.store = store;
+        this.windowLength = windowLength;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, maxConcurrentWindows), runnable -> {
+            Thread thread = new Thread(runnable, "intraday-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static List<Window> split(Instant from, Instant to, Duration windowLength) {
+        List<Window> windows = new ArrayList<>();
+        long step = windowLength.toMillis();
+        for (long start = from.toEpochMilli(); start < to.toEpochMilli(); start += step) {
+            windows.add(new Window(start, Math.min(start + step, to.toEpochMilli())));
+        }
+        return windows;
+    }
+
+    /**
+     * Fetches {@code [from, to)} within {@code budget} and merges it into the store.
+     * Failed or skipped windows are reported; bars from the other windows are still merged.
+     */
+    public Result backfill(String symbol, int minutes, Instant from, Instant to, JobBudget budget)
+            throws IOException {
+        long start = System.nanoTime();
+        List<Window> windows = split(from, to, windowLength);
+        List<Future<BarSeries>> futures = new ArrayList<>(windows.size());
+        for (Window window : windows) {
+            futures.add(executor.submit(() -> {
+                try (JobBudget.Scope ignored = budget.bind()) {
+                    // null marks a window skipped because the job could not fit it in
+                    return budget.tryStart(label(window)) ? fetch(symbol, minutes, window) : null;
+                }
+            }));
+        }
+
+        long fetched = 0;
+        int failed = 0;
+        int skipped = 0;
+        List<String> errors = new ArrayList<>();
+        MinuteBarStore.MergeResult merged;
+        try (MinuteBarStore.Merge merge = store.openMerge(symbol, minutes)) {
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    BarSeries bars = futures.get(i).get(Math.max(0, budget.remainingNanos()), TimeUnit.NANOSECONDS);
+                    if (bars == null) {
+                        skipped++;
+                        continue;
+                    }
+                    fetched += bars.size();
+                    merge.append(bars);
+                } catch (TimeoutException e) {
+                    futures.get(i).cancel(true);
+                    budget.recordTimeout(label(windows.get(i)));
+                    skipped++;
+                } catch (ExecutionException e) {
+                    failed++;
+                    errors.add(label(windows.get(i)) + ": " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futures.forEach(future -> future.cancel(true));
+                    throw new IOException("Backfill of " + symbol + " interrupted", e);
+                }
+            }
+            merged = merge.commit();
+        }
+        logger.debug("Backfilled {} {}m: {} window(s), {} failed, {} bar(s) written", symbol, minutes,
+                windows.size(), failed, merged.written());
+        return new Result(symbol, minutes, windows.size(), failed, skipped, fetched, merged,
+                System.nanoTime() - start, errors, budget.summary());
+    }
+
+    private static String label(Window window) {
+        return Instant.ofEpochMilli(window.startMillis()).toString();
+    }
+
+    private BarSeries fetch(String symbol, int minutes, Window window) throws SchwabApiException {
+        return pool.execute(RequestScheduler.Priority.BULK, slot -> {
+            SchwabRestClient.Response response = clientFor(slot).get(marketDataUrl, "/pricehistory", Map.of(
+                    "symbol", symbol,
+                    "periodType", "day",
+                    "frequencyType", "minute",
+                    "frequency", Integer.toString(minutes),
+                    "startDate", Long.toString(window.startMillis()),
+                    "endDate", Long.toString(window.endMillis()),
+                    "needExtendedHoursData", "false"));
+            if (!response.isSuccess()) {
+                throw SchwabApiException.serverError("Price history for " + symbol + " failed with status "
+                        + response.statusCode());
+            }
+            return MinuteBarParser.parse(response.body());
+        });
+    }
+
+    /**
+     * Each credential authenticates its own requests, so its rate budget is the one spent
+     */
+    private SchwabRestClient clientFor(CredentialSlot slot) {
+        return clients.computeIfAbsent(slot.getName(),
+                name -> new SchwabRestClient(slot.getTokenManager()::getValidAccessToken, timeoutMs));
+    }
+
+    public MinuteBarStore getStore() {
+        return store;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,69 @@
+package com.higgstx.schwabtest.history;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.higgstx.schwabapi.exception.SchwabApiException;
+
+import java.io.IOException;
+
+/**
+ * Streams the price history response body
+ * {@code {"candles": [{"open": ..., "high": ..., "low": ..., "close": ..., "volume": ..., "datetime": ...}], "symbol": ...}}
+ * straight into a {@link BarSeries} without building a tree.
+ */
+public final class MinuteBarParser {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private MinuteBarParser() {
+    }
+
+    public static BarSeries parse(String body) throws SchwabApiException {
+        BarSeries bars = new BarSeries(512);
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw SchwabApiException.validationError("Price history response is not an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("candles".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        readCandle(parser, bars);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw SchwabApiException.validationError("Unable to parse price history: " + e.getMessage());
+        }
+        if (!bars.isSorted()) {
+            bars.sortByTime();
+        }
+        return bars;
+    }
+
+    private static void readCandle(JsonParser parser, BarSeries bars) throws IOException {
+        long time = Long.MIN_VALUE;
+        double open = Double.NaN, high = Double.NaN, low = Double.NaN, close = Double.NaN;
+        long volume = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "datetime" -> time = parser.getLongValue();
+                case "open" -> open = parser.getDoubleValue();
+                case "high" -> high = parser.getDoubleValue();
+                case "low" -> low = parser.getDoubleValue();
+                case "close" -> close = parser.getDoubleValue();
+                case "volume" -> volume = parser.getLongValue();
+                default -> parser.skipChildren();
+            }
+        }
+        if (time != Long.MIN_VALUE && !Double.isNaN(close)) {
+            bars.add(time, open, high, low, close, volume);
+        }
+    }
+}
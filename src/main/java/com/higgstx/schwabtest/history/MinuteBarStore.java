@@ -0,0 +1,255 @@
+package com.higgstx.schwabtest.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * On-disk intraday bars, one file per symbol and bar size under a base directory.
+ * <p>
+ * A file is a run of fixed 48-byte little-endian records (time, open, high, low,
+ * close, volume) in strictly increasing time order. New bars are merged in with a
+ * {@link Merge}: existing and incoming bars are interleaved by time in one
+ * sequential pass into a uniquely named {@code .partial} temp file, which then
+ * atomically replaces the original, so a crash mid-backfill leaves the previous
+ * file intact and two merges of the same file never write into each other.
+ */
+public class MinuteBarStore {
+
+    public static final int RECORD_BYTES = Long.BYTES + 4 * Double.BYTES + Long.BYTES;
+    private static final int BUFFER_RECORDS = 1024;
+
+    /**
+     * Counts from one completed merge
+     */
+    public record MergeResult(long existing, long incoming, long written, long duplicates, long replaced) {
+    }
+
+    private final Path directory;
+
+    public MinuteBarStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path file(String symbol, int minutes) {
+        return directory.resolve(symbol.toUpperCase(Locale.ROOT) + "-" + minutes + "m.bars");
+    }
+
+    public long count(String symbol, int minutes) throws IOException {
+        Path file = file(symbol, minutes);
+        return Files.exists(file) ? Files.size(file) / RECORD_BYTES : 0;
+    }
+
+    /**
+     * Reads a whole file; meant for inspection and tests rather than large ranges
+     */
+    public BarSeries read(String symbol, int minutes) throws IOException {
+        Path file = file(symbol, minutes);
+        if (!Files.exists(file)) {
+            return new BarSeries(0);
+        }
+        try (RecordReader reader = new RecordReader(file)) {
+            BarSeries bars = new BarSeries((int) (Files.size(file) / RECORD_BYTES));
+            while (reader.hasNext()) {
+                reader.copyTo(bars);
+            }
+            return bars;
+        }
+    }
+
+    public Merge openMerge(String symbol, int minutes) throws IOException {
+        Files.createDirectories(directory);
+        return new Merge(file(symbol, minutes));
+    }
+
+    /**
+     * Streams ascending chunks of bars into a file. Chunks must be offered in time
+     * order but may overlap one another and the existing data; a bar at a time
+     * already written is dropped, and an incoming bar replaces an existing one at
+     * the same time.
+     */
+    public static final class Merge implements Closeable {
+
+        private final Path target;
+        private final Path partial;
+        private final RecordReader existing;
+        private final FileChannel out;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        private long lastWritten = Long.MIN_VALUE;
+        private long existingCount;
+        private long incoming;
+        private long written;
+        private long duplicates;
+        private long replaced;
+        private boolean committed;
+
+        private Merge(Path target) throws IOException {
+            this.target = target;
+            // A unique temp name, so concurrent merges of one file never share a half-written file
+            this.partial = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName() + ".",
+                    ".partial");
+            FileChannel channel = null;
+            try {
+                channel = FileChannel.open(partial, StandardOpenOption.WRITE);
+                this.existing = Files.exists(target) ? new RecordReader(target) : null;
+            } catch (IOException e) {
+                if (channel != null) {
+                    channel.close();
+                }
+                Files.deleteIfExists(partial);
+                throw e;
+            }
+            this.out = channel;
+        }
+
+        public void append(BarSeries chunk) throws IOException {
+            for (int row = 0; row < chunk.size(); row++) {
+                long time = chunk.time(row);
+                incoming++;
+                while (existing != null && existing.hasNext() && existing.peekTime() < time) {
+                    writeExisting();
+                }
+                if (existing != null && existing.hasNext() && existing.peekTime() == time) {
+                    existing.skip();
+                    existingCount++;
+                    replaced++;
+                }
+                if (time <= lastWritten) {
+                    duplicates++;
+                    continue;
+                }
+                write(time, chunk.open(row), chunk.high(row), chunk.low(row), chunk.close(row), chunk.volume(row));
+            }
+        }
+
+        private void writeExisting() throws IOException {
+            existingCount++;
+            long time = existing.peekTime();
+            if (time <= lastWritten) {
+                existing.skip();
+                duplicates++;
+                return;
+            }
+            existing.next();
+            write(time, existing.open, existing.high, existing.low, existing.close, existing.volume);
+        }
+
+        private void write(long time, double o, double h, double l, double c, long v) throws IOException {
+            if (buffer.remaining() < RECORD_BYTES) {
+                flush();
+            }
+            buffer.putLong(time).putDouble(o).putDouble(h).putDouble(l).putDouble(c).putLong(v);
+            lastWritten = time;
+            written++;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Copies the rest of the existing file and installs the merged file
+         */
+        public MergeResult commit() throws IOException {
+            while (existing != null && existing.hasNext()) {
+                writeExisting();
+            }
+            flush();
+            out.force(false);
+            out.close();
+            if (existing != null) {
+                existing.close();
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return new MergeResult(existingCount, incoming, written, duplicates, replaced);
+        }
+
+        /**
+         * Abandons an uncommitted merge, leaving the original file untouched
+         */
+        @Override
+        public void close() throws IOException {
+            if (committed) {
+                return;
+            }
+            out.close();
+            if (existing != null) {
+                existing.close();
+            }
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    /**
+     * Buffered sequential reader of a bars file with one record of lookahead
+     */
+    private static final class RecordReader implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        private double open;
+        private double high;
+        private double low;
+        private double close;
+        private long volume;
+
+        RecordReader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            buffer.limit(0);
+        }
+
+        boolean hasNext() throws IOException {
+            if (buffer.remaining() >= RECORD_BYTES) {
+                return true;
+            }
+            buffer.compact();
+            while (buffer.position() < RECORD_BYTES && channel.read(buffer) > 0) {
+                // keep reading until a whole record is buffered or the file ends
+            }
+            buffer.flip();
+            return buffer.remaining() >= RECORD_BYTES;
+        }
+
+        long peekTime() {
+            return buffer.getLong(buffer.position());
+        }
+
+        void skip() {
+            buffer.position(buffer.position() + RECORD_BYTES);
+        }
+
+        long next() {
+            long time = buffer.getLong();
+            open = buffer.getDouble();
+            high = buffer.getDouble();
+            low = buffer.getDouble();
+            close = buffer.getDouble();
+            volume = buffer.getLong();
+            return time;
+        }
+
+        void copyTo(BarSeries bars) {
+            long time = next();
+            bars.add(time, open, high, low, close, volume);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
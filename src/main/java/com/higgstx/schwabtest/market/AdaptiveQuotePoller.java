@@ -0,0 +1,197 @@
+package com.higgstx.schwabtest.market;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import com.higgstx.schwabapi.model.market.QuoteData;
+import com.higgstx.schwabtest.analytics.SymbolTable;
+import com.higgstx.schwabtest.service.HedgedExecutor;
+import com.higgstx.schwabtest.service.JobBudget;
+import com.higgstx.schwabtest.service.RequestScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Polls a watchlist with {@code getQuotes}, diffs each snapshot against the previous
+ * one and hands only changed symbols/fields to the listener. The next poll is
+ * scheduled by {@link QuoteCadence} from the market session and the activity seen,
+ * so quiet markets are polled slowly and busy ones quickly. Each cycle runs under a
+ * {@link JobBudget} of the current interval, so a slow batch is cut off or skipped
+ * rather than pushing the whole cycle past its slot. A failed or timed-out batch
+ * is counted and the cycle carries on, so changes already diffed from earlier
+ * batches are still published.
+ */
+public class AdaptiveQuotePoller implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveQuotePoller.class);
+    static final int MAX_SYMBOLS_PER_CALL = 200;
+
+    /**
+     * Receives the changes of one cycle; the batch is reused after the call returns
+     */
+    @FunctionalInterface
+    public interface DeltaListener {
+        void onDelta(QuoteDeltaBatch delta);
+    }
+
+    private final HedgedExecutor calls;
+    private final MarketHoursService marketHours;
+    private final QuoteCadence cadence;
+    private final List<List<String>> batches;
+    private final QuoteSnapshotTable snapshot;
+    private final QuoteDeltaBatch delta;
+    private final DeltaListener listener;
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder quotesReceived = new LongAdder();
+    private final LongAdder changesPublished = new LongAdder();
+    private volatile long cycles;
+    private volatile long lastIntervalMs;
+    private final LongAdder batchesSkipped = new LongAdder();
+    private final LongAdder batchesFailed = new LongAdder();
+    private volatile boolean running;
+
+    public AdaptiveQuotePoller(HedgedExecutor calls, MarketHoursService marketHours, QuoteCadence cadence,
+                               List<String> watchlist, DeltaListener listener) {
+        this.calls = calls;
+        this.marketHours = marketHours;
+        this.cadence = cadence;
+        this.listener = listener;
+        this.snapshot = new QuoteSnapshotTable(SymbolTable.global());
+        this.delta = new QuoteDeltaBatch(SymbolTable.global());
+
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < watchlist.size(); i += MAX_SYMBOLS_PER_CALL) {
+            chunks.add(List.copyOf(watchlist.subList(i, Math.min(watchlist.size(), i + MAX_SYMBOLS_PER_CALL))));
+        }
+        this.batches = List.copyOf(chunks);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quote-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public synchronized void start() {
+        if (!running) {
+            running = true;
+            scheduler.execute(this::cycle);
+        }
+    }
+
+    private void cycle() {
+        if (!running) {
+            return;
+        }
+        long next;
+        try {
+            next = pollOnce();
+        } catch (RuntimeException e) {
+            logger.error("Quote poll cycle failed", e);
+            next = cadence.getMaxIntervalMs();
+        }
+        lastIntervalMs = next;
+        if (running) {
+            scheduler.schedule(this::cycle, next, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs one poll/diff/publish cycle and returns the delay before the next one
+     */
+    long pollOnce() {
+        delta.reset(++cycles);
+        // Activity is pooled over every quote compared, so a short tail batch
+        // weighs as much as its symbols and no more
+        int compared = 0;
+        int changed = 0;
+        int failed = 0;
+        double absoluteMove = 0;
+        long slotMs = Math.max(cadence.getMinIntervalMs(), lastIntervalMs);
+        JobBudget budget = JobBudget.start("quote cycle " + cycles, Duration.ofMillis(slotMs));
+        try (JobBudget.Scope ignored = budget.bind()) {
+            for (List<String> batch : batches) {
+                if (!budget.tryStart(batch.get(0) + "..")) {
+                    batchesSkipped.increment();
+                    continue;
+                }
+                List<QuoteData> quotes;
+                try {
+                    quotes = calls.execute("quotes", RequestScheduler.Priority.INTERACTIVE,
+                            slot -> slot.getMarketDataService().getQuotes(batch));
+                } catch (SchwabApiException | RuntimeException e) {
+                    // Includes the job budget's timeout; earlier batches are already in the delta
+                    failed++;
+                    batchesFailed.increment();
+                    logger.warn("Quote batch {}.. failed: {}", batch.get(0), e.getMessage());
+                    continue;
+                }
+                quotesReceived.add(quotes.size());
+                snapshot.diff(quotes, delta);
+                compared += snapshot.lastCompared();
+                changed += snapshot.lastChanged();
+                absoluteMove += snapshot.lastAbsoluteMove();
+            }
+        }
+
+        if (!delta.isEmpty()) {
+            changesPublished.add(delta.size());
+            listener.onDelta(delta);
+        }
+        // Nothing came back at all: back off as a failed cycle does
+        if (compared == 0 && failed > 0) {
+            return cadence.getMaxIntervalMs();
+        }
+
+        long now = System.currentTimeMillis();
+        boolean regular = marketHours.isOpenAt(MarketHoursService.EQUITY, now, false);
+        boolean extended = regular || marketHours.isOpenAt(MarketHoursService.EQUITY, now, true);
+        double changedFraction = compared == 0 ? 0 : (double) changed / compared;
+        double move = compared == 0 ? 0 : absoluteMove / compared;
+        return cadence.nextIntervalMs(regular, extended, changedFraction, move);
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void close() {
+        stop();
+        scheduler.shutdownNow();
+    }
+
+    public long getCycles() {
+        return cycles;
+    }
+
+    public long getQuotesReceived() {
+        return quotesReceived.sum();
+    }
+
+    public long getChangesPublished() {
+        return changesPublished.sum();
+    }
+
+    public long getBatchesSkipped() {
+        return batchesSkipped.sum();
+    }
+
+    public long getBatchesFailed() {
+        return batchesFailed.sum();
+    }
+
+    public long getLastIntervalMs() {
+        return lastIntervalMs;
+    }
+
+    public double getActivity() {
+        return cadence.getActivity();
+    }
+}
@@ -0,0 +1,44 @@
+package com.higgstx.schwabtest.market;
+
+import java.time.LocalDate;
+
+/**
+ * Trading hours for one market product on one date. Session boundaries are epoch
+ * millis and are zero when the market is closed or the session is not published.
+ */
+public record MarketDay(String market,
+                        String product,
+                        LocalDate date,
+                        boolean open,
+                        long preMarketStartMillis,
+                        long regularStartMillis,
+                        long regularEndMillis,
+                        long postMarketEndMillis) {
+
+    public static MarketDay closed(String market, String product, LocalDate date) {
+        return new MarketDay(market, product, date, false, 0L, 0L, 0L, 0L);
+    }
+
+    public boolean hasRegularSession() {
+        return open && regularStartMillis > 0 && regularEndMillis > regularStartMillis;
+    }
+
+    /**
+     * True while the regular session is in progress
+     */
+    public boolean isRegularSessionAt(long epochMillis) {
+        return hasRegularSession() && epochMillis >= regularStartMillis && epochMillis < regularEndMillis;
+    }
+
+    /**
+     * True during pre-market, regular or post-market trading
+     */
+    public boolean isExtendedSessionAt(long epochMillis) {
+        if (!open) {
+            return false;
+        }
+        long start = preMarketStartMillis > 0 ? preMarketStartMillis : regularStartMillis;
+        long end = postMarketEndMillis > 0 ? postMarketEndMillis : regularEndMillis;
+        return start > 0 && epochMillis >= start && epochMillis < end;
+    }
+}
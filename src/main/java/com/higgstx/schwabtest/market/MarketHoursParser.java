@@ -0,0 +1,104 @@
+package com.higgstx.schwabtest.market;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.higgstx.schwabapi.exception.SchwabApiException;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the markets (market hours) response body:
+ * {@code {"equity": {"EQ": {"date": ..., "isOpen": ..., "sessionHours": {...}}}}}
+ */
+public final class MarketHoursParser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private MarketHoursParser() {
+    }
+
+    public static List<MarketDay> parse(String body) throws SchwabApiException {
+        JsonNode root;
+        try {
+            root = MAPPER.readTree(body);
+        } catch (Exception e) {
+            throw SchwabApiException.validationError("Unable to parse market hours response: " + e.getMessage());
+        }
+
+        List<MarketDay> days = new ArrayList<>();
+        if (root == null || !root.isObject()) {
+            return days;
+        }
+
+        for (Iterator<Map.Entry<String, JsonNode>> markets = root.fields(); markets.hasNext(); ) {
+            Map.Entry<String, JsonNode> market = markets.next();
+            for (Iterator<Map.Entry<String, JsonNode>> products = market.getValue().fields(); products.hasNext(); ) {
+                Map.Entry<String, JsonNode> product = products.next();
+                MarketDay day;
+                try {
+                    day = parseProduct(market.getKey(), product.getKey(), product.getValue());
+                } catch (DateTimeParseException e) {
+                    throw SchwabApiException.validationError("Unable to parse market hours for "
+                            + market.getKey() + "/" + product.getKey() + ": " + e.getMessage());
+                }
+                if (day != null) {
+                    days.add(day);
+                }
+            }
+        }
+        return days;
+    }
+
+    private static MarketDay parseProduct(String market, String product, JsonNode node) {
+        String dateText = node.path("date").asText(null);
+        if (dateText == null) {
+            return null;
+        }
+        LocalDate date = LocalDate.parse(dateText);
+        if (!node.path("isOpen").asBoolean(false)) {
+            return MarketDay.closed(market, product, date);
+        }
+
+        JsonNode sessions = node.path("sessionHours");
+        return new MarketDay(market, product, date, true,
+                boundary(sessions.path("preMarket"), "start"),
+                boundary(sessions.path("regularMarket"), "start"),
+                boundary(sessions.path("regularMarket"), "end"),
+                boundary(sessions.path("postMarket"), "end"));
+    }
+
+    private static long boundary(JsonNode sessionArray, String field) {
+        if (!sessionArray.isArray() || sessionArray.isEmpty()) {
+            return 0L;
+        }
+        // "start" comes from the first window and "end" from the last
+        JsonNode window = "start".equals(field) ? sessionArray.get(0) : sessionArray.get(sessionArray.size() - 1);
+        String text = window.path(field).asText(null);
+        return text == null ? 0L : OffsetDateTime.parse(text).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Picks the primary product for a market, e.g. "EQ" for equity
+     */
+    public static MarketDay primary(List<MarketDay> days, String market) {
+        MarketDay fallback = null;
+        for (MarketDay day : days) {
+            if (!day.market().equalsIgnoreCase(market)) {
+                continue;
+            }
+            if ("EQ".equalsIgnoreCase(day.product()) || day.product().equalsIgnoreCase(market)) {
+                return day;
+            }
+            if (fallback == null || (day.open() && !fallback.open())) {
+                fallback = day;
+            }
+        }
+        return fallback;
+    }
+}
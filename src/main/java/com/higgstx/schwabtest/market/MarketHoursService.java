@@ -0,0 +1,306 @@
+package com.higgstx.schwabtest.market;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import com.higgstx.schwabtest.service.SchwabRestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cached market hours per market and date.
+ * <p>
+ * Each (market, date) is fetched at most once; weekends are filled from the
+ * calendar without an API call. After every fetch the cached days are folded into
+ * an immutable {@link SessionTimeline}, so scheduler questions such as "is the
+ * market open now" are answered from memory. Lookups past the cached window never
+ * wait on the network: they answer from the calendar rules while a background
+ * thread extends the window.
+ */
+public class MarketHoursService implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketHoursService.class);
+
+    public static final ZoneId MARKET_ZONE = ZoneId.of("America/New_York");
+    public static final String EQUITY = "equity";
+
+    private static final LocalTime REGULAR_OPEN = LocalTime.of(9, 30);
+    private static final LocalTime REGULAR_CLOSE = LocalTime.of(16, 0);
+    private static final long FAILED_REFRESH_BACKOFF_MS = 60_000L;
+
+    private record CacheKey(String market, LocalDate date) {
+    }
+
+    private final SchwabRestClient restClient;
+    private final String marketDataUrl;
+    private final int prefetchDays;
+    private final Clock clock;
+    private final TradingCalendar calendar = new TradingCalendar();
+    private final Map<CacheKey, MarketDay> cache = new ConcurrentHashMap<>();
+    private final Map<String, SessionTimeline> timelines = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "market-hours-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder apiCalls = new LongAdder();
+    private volatile long lastFailedRefreshMillis;
+
+    public MarketHoursService(SchwabRestClient restClient, String marketDataUrl, int prefetchDays) {
+        this(restClient, marketDataUrl, prefetchDays, Clock.systemUTC());
+    }
+
+    public MarketHoursService(SchwabRestClient restClient, String marketDataUrl, int prefetchDays, Clock clock) {
+        this.restClient = restClient;
+        this.marketDataUrl = marketDataUrl;
+        this.prefetchDays = Math.max(0, prefetchDays);
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the hours for a market on a date, fetching them once if not cached
+     */
+    public MarketDay getMarketDay(String market, LocalDate date) throws SchwabApiException {
+        CacheKey key = new CacheKey(market, date);
+        MarketDay cached = cache.get(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+        cacheMisses.increment();
+
+        MarketDay day = fetch(market, date);
+        cache.put(key, day);
+        calendar.apply(day);
+        rebuildTimeline(market);
+        return day;
+    }
+
+    public MarketDay getToday(String market) throws SchwabApiException {
+        return getMarketDay(market, today());
+    }
+
+    /**
+     * Loads today and the next prefetchDays calendar days for a market
+     */
+    public synchronized int prefetch(String market) throws SchwabApiException {
+        LocalDate today = today();
+        int fetched = 0;
+        for (int offset = 0; offset <= prefetchDays; offset++) {
+            LocalDate date = today.plusDays(offset);
+            CacheKey key = new CacheKey(market, date);
+            if (!cache.containsKey(key)) {
+                MarketDay day = fetch(market, date);
+                cache.put(key, day);
+                calendar.apply(day);
+                fetched++;
+            }
+        }
+        rebuildTimeline(market);
+        return fetched;
+    }
+
+    private MarketDay fetch(String market, LocalDate date) throws SchwabApiException {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+            return MarketDay.closed(market, market, date);
+        }
+
+        apiCalls.increment();
+        SchwabRestClient.Response response = restClient.get(marketDataUrl, "/markets",
+                Map.of("markets", market, "date", date.toString()));
+        if (!response.isSuccess()) {
+            throw SchwabApiException.serverError("Market hours request for " + market + " on " + date
+                    + " failed with status " + response.statusCode());
+        }
+
+        MarketDay day = MarketHoursParser.primary(MarketHoursParser.parse(response.body()), market);
+        if (day == null || !date.equals(day.date())) {
+            // No entry for the requested date means the market does not trade that day
+            return MarketDay.closed(market, market, date);
+        }
+        return day;
+    }
+
+    private void rebuildTimeline(String market) {
+        List<MarketDay> days = new ArrayList<>();
+        for (Map.Entry<CacheKey, MarketDay> entry : cache.entrySet()) {
+            if (entry.getKey().market().equals(market)) {
+                days.add(entry.getValue());
+            }
+        }
+
+        // Coverage runs through the last date cached contiguously from today
+        LocalDate covered = today();
+        while (cache.containsKey(new CacheKey(market, covered))) {
+            covered = covered.plusDays(1);
+        }
+        long coveredUntil = covered.atStartOfDay(MARKET_ZONE).toInstant().toEpochMilli();
+        timelines.put(market, SessionTimeline.of(days, coveredUntil));
+    }
+
+    /**
+     * Cached days grouped by the market they were requested for, for snapshots
+     */
+    public Map<String, List<MarketDay>> getCachedDaysByMarket() {
+        Map<String, List<MarketDay>> byMarket = new TreeMap<>();
+        for (Map.Entry<CacheKey, MarketDay> entry : cache.entrySet()) {
+            byMarket.computeIfAbsent(entry.getKey().market(), m -> new ArrayList<>()).add(entry.getValue());
+        }
+        return byMarket;
+    }
+
+    /**
+     * Seeds the cache with previously fetched days, e.g. from a snapshot taken before
+     * a restart. Days that have already passed and days already cached are skipped.
+     *
+     * @return number of days installed
+     */
+    public synchronized int restore(String market, Collection<MarketDay> days) {
+        LocalDate yesterday = today().minusDays(1);
+        int restored = 0;
+        for (MarketDay day : days) {
+            if (!day.date().isBefore(yesterday)
+                    && cache.putIfAbsent(new CacheKey(market, day.date()), day) == null) {
+                calendar.apply(day);
+                restored++;
+            }
+        }
+        if (restored > 0) {
+            rebuildTimeline(market);
+        }
+        return restored;
+    }
+
+    public SessionTimeline getTimeline(String market) {
+        return timelines.getOrDefault(market, SessionTimeline.EMPTY);
+    }
+
+    /**
+     * True if the regular session is open now. Answered from memory while the cached
+     * window covers the current time; otherwise the calendar rules with standard
+     * 9:30-16:00 hours answer and the window is refreshed in the background.
+     */
+    public boolean isOpenNow(String market) {
+        return isOpenAt(market, clock.millis(), false);
+    }
+
+    public boolean isOpenAt(String market, long epochMillis, boolean includeExtendedHours) {
+        SessionTimeline timeline = getTimeline(market);
+        if (epochMillis < timeline.getCoveredUntilMillis()) {
+            return timeline.isOpen(epochMillis, includeExtendedHours);
+        }
+
+        refreshInBackground(market);
+        ZonedDateTime marketTime = ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), MARKET_ZONE);
+        LocalTime time = marketTime.toLocalTime();
+        return calendar.isTradingDay(marketTime.toLocalDate())
+                && !time.isBefore(REGULAR_OPEN) && time.isBefore(REGULAR_CLOSE);
+    }
+
+    /**
+     * Starts one background prefetch per market; skipped while the API is failing
+     */
+    private void refreshInBackground(String market) {
+        if (clock.millis() - lastFailedRefreshMillis <= FAILED_REFRESH_BACKOFF_MS || !refreshing.add(market)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    prefetch(market);
+                } catch (SchwabApiException e) {
+                    lastFailedRefreshMillis = clock.millis();
+                    logger.debug("Market hours refresh failed, using calendar rules: {}", e.getMessage());
+                } finally {
+                    refreshing.remove(market);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(market);
+        }
+    }
+
+    public long nextOpen(String market) {
+        return getTimeline(market).nextOpen(clock.millis(), false);
+    }
+
+    public long nextClose(String market) {
+        return getTimeline(market).nextClose(clock.millis(), false);
+    }
+
+    /**
+     * Drops days that have passed and refreshes the prefetch window of every market
+     * that was cached, equity always included
+     */
+    @Scheduled(initialDelayString = "#{@schwabTestConfig.defaults.marketHoursRefreshMs}",
+            fixedDelayString = "#{@schwabTestConfig.defaults.marketHoursRefreshMs}")
+    public void refresh() {
+        Set<String> markets = new TreeSet<>(timelines.keySet());
+        cache.keySet().forEach(key -> markets.add(key.market()));
+        markets.add(EQUITY);
+
+        LocalDate yesterday = today().minusDays(1);
+        cache.keySet().removeIf(key -> key.date().isBefore(yesterday));
+        for (String market : markets) {
+            try {
+                int fetched = prefetch(market);
+                logger.debug("Market hours refresh fetched {} new day(s) for {}", fetched, market);
+            } catch (SchwabApiException e) {
+                logger.warn("Scheduled market hours refresh for {} failed: {}", market, e.getMessage());
+            }
+        }
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(clock.withZone(MARKET_ZONE));
+    }
+
+    public TradingCalendar getCalendar() {
+        return calendar;
+    }
+
+    public int getCachedDays() {
+        return cache.size();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    public long getApiCalls() {
+        return apiCalls.sum();
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+}
@@ -0,0 +1,131 @@
+package com.higgstx.schwabtest.market;
+
+import com.higgstx.schwabapi.model.market.QuoteData;
+import com.higgstx.schwabtest.analytics.PriceDataFields;
+import com.higgstx.schwabtest.analytics.SymbolTable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Latest known price and volume per symbol, in primitive slots indexed by
+ * {@link SymbolTable} id. Fed by batch quotes and poller deltas; a slot whose
+ * timestamp is zero has never been quoted.
+ */
+public class QuoteBook {
+
+    private static final int ENTRY_BYTES = Integer.BYTES + Double.BYTES + 2 * Long.BYTES;
+
+    private final SymbolTable symbols;
+    private double[] prices = new double[0];
+    private long[] volumes = new long[0];
+    private long[] updatedMillis = new long[0];
+    private int quoted;
+
+    public QuoteBook(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public void update(QuoteData quote) {
+        if (quote != null && quote.getSymbol() != null && quote.isSuccess()) {
+            update(symbols.intern(quote.getSymbol()), PriceDataFields.toDouble(quote.getClosePrice()),
+                    PriceDataFields.toLong(quote.getTotalVolume()), System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Copies the available entries of a poller delta; the batch itself is reused
+     */
+    public void apply(QuoteDeltaBatch delta) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < delta.size(); i++) {
+            if (delta.isAvailable(i)) {
+                update(delta.symbolId(i), delta.price(i), delta.volume(i), now);
+            }
+        }
+    }
+
+    public synchronized void update(int symbolId, double price, long volume, long atMillis) {
+        ensureCapacity(symbolId + 1);
+        if (updatedMillis[symbolId] == 0) {
+            quoted++;
+        }
+        prices[symbolId] = price;
+        volumes[symbolId] = volume;
+        updatedMillis[symbolId] = atMillis;
+    }
+
+    /**
+     * Last price for a symbol, or NaN if it has never been quoted
+     */
+    public synchronized double price(String symbol) {
+        int id = symbols.find(symbol);
+        return id >= 0 && id < prices.length && updatedMillis[id] != 0 ? prices[id] : Double.NaN;
+    }
+
+    public synchronized long volume(String symbol) {
+        int id = symbols.find(symbol);
+        return id >= 0 && id < volumes.length ? volumes[id] : 0L;
+    }
+
+    public synchronized long updatedMillis(String symbol) {
+        int id = symbols.find(symbol);
+        return id >= 0 && id < updatedMillis.length ? updatedMillis[id] : 0L;
+    }
+
+    /**
+     * Number of symbols with at least one quote
+     */
+    public synchronized int size() {
+        return quoted;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbols;
+    }
+
+    /**
+     * Encodes the quoted slots as an entry count followed by id, price, volume and
+     * timestamp per entry, ready to be read back by {@link #readFrom}
+     */
+    public synchronized ByteBuffer export(ByteOrder order) {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + quoted * ENTRY_BYTES).order(order);
+        buffer.putInt(quoted);
+        for (int id = 0; id < updatedMillis.length; id++) {
+            if (updatedMillis[id] != 0) {
+                buffer.putInt(id).putDouble(prices[id]).putLong(volumes[id]).putLong(updatedMillis[id]);
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Merges entries written by {@link #export}, keeping whichever side is newer.
+     * {@code idRemap} maps stored symbol ids to this process's ids.
+     *
+     * @return number of entries read
+     */
+    public synchronized int readFrom(ByteBuffer buffer, int[] idRemap) {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            int id = idRemap[buffer.getInt()];
+            double price = buffer.getDouble();
+            long volume = buffer.getLong();
+            long atMillis = buffer.getLong();
+            if (id >= updatedMillis.length || updatedMillis[id] < atMillis) {
+                update(id, price, volume, atMillis);
+            }
+        }
+        return count;
+    }
+
+    private void ensureCapacity(int required) {
+        if (prices.length < required) {
+            int capacity = Math.max(required, prices.length * 2);
+            prices = Arrays.copyOf(prices, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+            updatedMillis = Arrays.copyOf(updatedMillis, capacity);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.higgstx.schwabtest.market;
+
+/**
+ * Poll interval policy. Outside any session the closed interval is used; in extended
+ * hours the slowest open interval; in the regular session the interval shrinks from
+ * max towards min as a smoothed activity score (share of symbols changing, weighted
+ * up by the size of price moves) approaches the target activity.
+ */
+public final class QuoteCadence {
+
+    // 10bp mean move counts as a fully active cycle on its own
+    private static final double MOVE_SCALE = 1_000;
+    private static final double SMOOTHING = 0.3;
+
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final long closedIntervalMs;
+    private final double targetActivity;
+    private double activity;
+
+    public QuoteCadence(long minIntervalMs, long maxIntervalMs, long closedIntervalMs, double targetActivity) {
+        if (minIntervalMs <= 0 || maxIntervalMs < minIntervalMs) {
+            throw new IllegalArgumentException("Require 0 < minIntervalMs <= maxIntervalMs");
+        }
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.closedIntervalMs = Math.max(maxIntervalMs, closedIntervalMs);
+        this.targetActivity = targetActivity <= 0 ? 0.5 : targetActivity;
+    }
+
+    /**
+     * Folds in one cycle's activity and returns the delay before the next poll
+     */
+    public long nextIntervalMs(boolean regularSession, boolean extendedSession,
+                               double changedFraction, double meanRelativeMove) {
+        double cycleActivity = Math.max(changedFraction, Math.min(1.0, meanRelativeMove * MOVE_SCALE));
+        activity += SMOOTHING * (cycleActivity - activity);
+
+        if (!regularSession) {
+            return extendedSession ? maxIntervalMs : closedIntervalMs;
+        }
+        double intensity = Math.min(1.0, activity / targetActivity);
+        return Math.round(maxIntervalMs - (maxIntervalMs - minIntervalMs) * intensity);
+    }
+
+    public long getMinIntervalMs() {
+        return minIntervalMs;
+    }
+
+    public long getMaxIntervalMs() {
+        return maxIntervalMs;
+    }
+
+    public double getActivity() {
+        return activity;
+    }
+}
@@ -0,0 +1,97 @@
+package com.higgstx.schwabtest.market;
+
+import com.higgstx.schwabtest.analytics.SymbolTable;
+
+import java.util.Arrays;
+
+/**
+ * The symbols and fields that changed in one poll cycle.
+ * <p>
+ * The batch is a reusable set of primitive columns owned by the poller; it is only
+ * valid for the duration of the listener callback, so listeners that keep data must
+ * copy it out.
+ */
+public final class QuoteDeltaBatch {
+
+    public static final int PRICE = 1;
+    public static final int VOLUME = 1 << 1;
+    public static final int STATUS = 1 << 2;
+
+    private final SymbolTable symbols;
+    private long cycle;
+    private int size;
+    private int[] symbolIds = new int[16];
+    private int[] changedFields = new int[16];
+    private double[] prices = new double[16];
+    private long[] volumes = new long[16];
+    private boolean[] available = new boolean[16];
+
+    QuoteDeltaBatch(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    void reset(long cycle) {
+        this.cycle = cycle;
+        this.size = 0;
+    }
+
+    void add(int symbolId, int fields, double price, long volume, boolean isAvailable) {
+        if (size == symbolIds.length) {
+            int capacity = size * 2;
+            symbolIds = Arrays.copyOf(symbolIds, capacity);
+            changedFields = Arrays.copyOf(changedFields, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+            available = Arrays.copyOf(available, capacity);
+        }
+        symbolIds[size] = symbolId;
+        changedFields[size] = fields;
+        prices[size] = price;
+        volumes[size] = volume;
+        available[size] = isAvailable;
+        size++;
+    }
+
+    public long cycle() {
+        return cycle;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String symbol(int i) {
+        return symbols.name(symbolIds[i]);
+    }
+
+    public int symbolId(int i) {
+        return symbolIds[i];
+    }
+
+    /**
+     * Bitmask of {@link #PRICE}, {@link #VOLUME} and {@link #STATUS}
+     */
+    public int changedFields(int i) {
+        return changedFields[i];
+    }
+
+    public boolean changed(int i, int field) {
+        return (changedFields[i] & field) != 0;
+    }
+
+    public double price(int i) {
+        return prices[i];
+    }
+
+    public long volume(int i) {
+        return volumes[i];
+    }
+
+    public boolean isAvailable(int i) {
+        return available[i];
+    }
+}
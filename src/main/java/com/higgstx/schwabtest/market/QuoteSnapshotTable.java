@@ -0,0 +1,127 @@
+package com.higgstx.schwabtest.market;
+
+import com.higgstx.schwabapi.model.market.QuoteData;
+import com.higgstx.schwabtest.analytics.PriceDataFields;
+import com.higgstx.schwabtest.analytics.SymbolTable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Last seen quote state per symbol in primitive slots indexed by symbol id.
+ * Each new snapshot is diffed in place and only changed symbols/fields are
+ * written to the delta batch; unchanged quotes cost a few primitive compares.
+ */
+final class QuoteSnapshotTable {
+
+    private final SymbolTable symbols;
+    private double[] prices = new double[0];
+    private long[] volumes = new long[0];
+    private byte[] states = new byte[0];
+
+    private static final byte UNSEEN = 0;
+    private static final byte AVAILABLE = 1;
+    private static final byte UNAVAILABLE = 2;
+
+    // Activity of the last diff, read by the cadence policy
+    private int lastCompared;
+    private int lastChanged;
+    private double lastAbsoluteMove;
+
+    QuoteSnapshotTable(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Diffs a snapshot against the stored state and appends changes to {@code delta}
+     */
+    void diff(List<QuoteData> quotes, QuoteDeltaBatch delta) {
+        int compared = 0;
+        int changed = 0;
+        double absoluteMove = 0;
+
+        for (QuoteData quote : quotes) {
+            if (quote == null || quote.getSymbol() == null) {
+                continue;
+            }
+            int id = symbols.intern(quote.getSymbol());
+            ensureCapacity(id + 1);
+            compared++;
+
+            boolean isAvailable = quote.isSuccess();
+            double price = isAvailable ? PriceDataFields.toDouble(quote.getClosePrice()) : Double.NaN;
+            long volume = isAvailable ? PriceDataFields.toLong(quote.getTotalVolume()) : 0L;
+            byte state = isAvailable ? AVAILABLE : UNAVAILABLE;
+
+            int fields = 0;
+            if (states[id] != state) {
+                fields |= QuoteDeltaBatch.STATUS;
+            }
+            if (isAvailable) {
+                // Double.compare treats NaN == NaN so a missing price does not flap
+                if (Double.compare(prices[id], price) != 0) {
+                    fields |= QuoteDeltaBatch.PRICE;
+                    if (states[id] == AVAILABLE && prices[id] > 0 && price > 0) {
+                        absoluteMove += Math.abs(price - prices[id]) / prices[id];
+                    }
+                }
+                if (volumes[id] != volume) {
+                    fields |= QuoteDeltaBatch.VOLUME;
+                }
+            }
+
+            if (fields != 0) {
+                changed++;
+                prices[id] = isAvailable ? price : prices[id];
+                volumes[id] = isAvailable ? volume : volumes[id];
+                states[id] = state;
+                delta.add(id, fields, prices[id], volumes[id], isAvailable);
+            }
+        }
+
+        lastCompared = compared;
+        lastChanged = changed;
+        lastAbsoluteMove = absoluteMove;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= prices.length) {
+            return;
+        }
+        int capacity = Math.max(needed, prices.length * 2);
+        int old = prices.length;
+        prices = Arrays.copyOf(prices, capacity);
+        Arrays.fill(prices, old, capacity, Double.NaN);
+        volumes = Arrays.copyOf(volumes, capacity);
+        states = Arrays.copyOf(states, capacity);
+    }
+
+    int lastCompared() {
+        return lastCompared;
+    }
+
+    int lastChanged() {
+        return lastChanged;
+    }
+
+    /**
+     * Sum of relative price moves in the last diff
+     */
+    double lastAbsoluteMove() {
+        return lastAbsoluteMove;
+    }
+
+    /**
+     * Share of compared symbols that changed in the last diff
+     */
+    double changedFraction() {
+        return lastCompared == 0 ? 0 : (double) lastChanged / lastCompared;
+    }
+
+    /**
+     * Mean relative price move per compared symbol in the last diff
+     */
+    double meanRelativeMove() {
+        return lastCompared == 0 ? 0 : lastAbsoluteMove / lastCompared;
+    }
+}
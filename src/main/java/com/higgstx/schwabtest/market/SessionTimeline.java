@@ -0,0 +1,96 @@
+package com.higgstx.schwabtest.market;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Immutable, sorted session boundaries for one market. Lookups are a binary search
+ * over a small primitive array, so "is open / next open / next close" checks cost
+ * tens of nanoseconds and never touch the network.
+ */
+public final class SessionTimeline {
+
+    public static final long UNKNOWN = -1L;
+
+    static final SessionTimeline EMPTY = new SessionTimeline(new long[0], new long[0], 0L);
+
+    // Flattened [start0, end0, start1, end1, ...] in ascending order
+    private final long[] regular;
+    private final long[] extended;
+    private final long coveredUntilMillis;
+
+    private SessionTimeline(long[] regular, long[] extended, long coveredUntilMillis) {
+        this.regular = regular;
+        this.extended = extended;
+        this.coveredUntilMillis = coveredUntilMillis;
+    }
+
+    static SessionTimeline of(Collection<MarketDay> days, long coveredUntilMillis) {
+        MarketDay[] sorted = days.stream()
+                .filter(MarketDay::hasRegularSession)
+                .sorted(Comparator.comparing(MarketDay::date))
+                .toArray(MarketDay[]::new);
+
+        long[] regular = new long[sorted.length * 2];
+        long[] extended = new long[sorted.length * 2];
+        for (int i = 0; i < sorted.length; i++) {
+            MarketDay day = sorted[i];
+            regular[2 * i] = day.regularStartMillis();
+            regular[2 * i + 1] = day.regularEndMillis();
+            extended[2 * i] = day.preMarketStartMillis() > 0 ? day.preMarketStartMillis() : day.regularStartMillis();
+            extended[2 * i + 1] = day.postMarketEndMillis() > 0 ? day.postMarketEndMillis() : day.regularEndMillis();
+        }
+        return new SessionTimeline(regular, extended, coveredUntilMillis);
+    }
+
+    public boolean isOpen(long epochMillis, boolean includeExtendedHours) {
+        long[] bounds = includeExtendedHours ? extended : regular;
+        int index = Arrays.binarySearch(bounds, epochMillis);
+        // A hit on a start boundary is open, a hit on an end boundary is closed;
+        // otherwise the insertion point is odd exactly when we are inside a session
+        return index >= 0 ? (index & 1) == 0 : ((-index - 1) & 1) == 1;
+    }
+
+    /**
+     * Next session start strictly after the given time, or UNKNOWN beyond the cached window
+     */
+    public long nextOpen(long epochMillis, boolean includeExtendedHours) {
+        long[] bounds = includeExtendedHours ? extended : regular;
+        for (int i = firstAfter(bounds, epochMillis); i < bounds.length; i++) {
+            if ((i & 1) == 0) {
+                return bounds[i];
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Next session end strictly after the given time, or UNKNOWN beyond the cached window
+     */
+    public long nextClose(long epochMillis, boolean includeExtendedHours) {
+        long[] bounds = includeExtendedHours ? extended : regular;
+        for (int i = firstAfter(bounds, epochMillis); i < bounds.length; i++) {
+            if ((i & 1) == 1) {
+                return bounds[i];
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static int firstAfter(long[] bounds, long epochMillis) {
+        int index = Arrays.binarySearch(bounds, epochMillis);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * End of the period the cached days cover; answers past this point are UNKNOWN
+     */
+    public long getCoveredUntilMillis() {
+        return coveredUntilMillis;
+    }
+
+    public int sessionCount() {
+        return regular.length / 2;
+    }
+}
@@ -0,0 +1,139 @@
+package com.higgstx.schwabtest.market;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * US equity trading calendar: weekdays minus NYSE full-day holidays, with
+ * per-date overrides taken from observed market hours responses.
+ * <p>
+ * Holidays are computed once per year into a day-of-year bitmap so lookups are a
+ * couple of array reads.
+ */
+public class TradingCalendar {
+
+    private final Map<Integer, long[]> holidayBitmaps = new ConcurrentHashMap<>();
+    private final Map<Integer, Boolean> overrides = new ConcurrentHashMap<>();
+
+    public boolean isTradingDay(LocalDate date) {
+        return isTradingDay((int) date.toEpochDay());
+    }
+
+    public boolean isTradingDay(int epochDay) {
+        Boolean override = overrides.get(epochDay);
+        if (override != null) {
+            return override;
+        }
+        // 1970-01-01 was a Thursday; Saturday and Sunday fall on (epochDay + 3) % 7 == 5, 6
+        int dayOfWeek = Math.floorMod(epochDay + 3, 7);
+        if (dayOfWeek >= 5) {
+            return false;
+        }
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        long[] bitmap = holidayBitmaps.computeIfAbsent(date.getYear(), TradingCalendar::buildHolidayBitmap);
+        int dayOfYear = date.getDayOfYear();
+        return (bitmap[dayOfYear >>> 6] & (1L << dayOfYear)) == 0;
+    }
+
+    /**
+     * Trading days in [fromEpochDay, toEpochDay] in ascending order
+     */
+    public int[] tradingDays(int fromEpochDay, int toEpochDay) {
+        if (toEpochDay < fromEpochDay) {
+            return new int[0];
+        }
+        int[] days = new int[toEpochDay - fromEpochDay + 1];
+        int count = 0;
+        for (int day = fromEpochDay; day <= toEpochDay; day++) {
+            if (isTradingDay(day)) {
+                days[count++] = day;
+            }
+        }
+        return Arrays.copyOf(days, count);
+    }
+
+    /**
+     * Records what the market hours endpoint reported for a date
+     */
+    public void apply(MarketDay marketDay) {
+        if (marketDay != null && marketDay.date() != null) {
+            overrides.put((int) marketDay.date().toEpochDay(), marketDay.open());
+        }
+    }
+
+    public int overrideCount() {
+        return overrides.size();
+    }
+
+    private static long[] buildHolidayBitmap(int year) {
+        long[] bitmap = new long[6];
+        mark(bitmap, newYearsDay(year));
+        if (year >= 1998) {
+            mark(bitmap, nthWeekday(year, Month.JANUARY, DayOfWeek.MONDAY, 3));
+        }
+        mark(bitmap, nthWeekday(year, Month.FEBRUARY, DayOfWeek.MONDAY, 3));
+        mark(bitmap, easterSunday(year).minusDays(2));
+        mark(bitmap, LocalDate.of(year, Month.MAY, 1).with(TemporalAdjusters.lastInMonth(DayOfWeek.MONDAY)));
+        if (year >= 2022) {
+            mark(bitmap, observed(LocalDate.of(year, Month.JUNE, 19)));
+        }
+        mark(bitmap, observed(LocalDate.of(year, Month.JULY, 4)));
+        mark(bitmap, nthWeekday(year, Month.SEPTEMBER, DayOfWeek.MONDAY, 1));
+        mark(bitmap, nthWeekday(year, Month.NOVEMBER, DayOfWeek.THURSDAY, 4));
+        mark(bitmap, observed(LocalDate.of(year, Month.DECEMBER, 25)));
+        return bitmap;
+    }
+
+    private static void mark(long[] bitmap, LocalDate date) {
+        if (date != null) {
+            int dayOfYear = date.getDayOfYear();
+            bitmap[dayOfYear >>> 6] |= 1L << dayOfYear;
+        }
+    }
+
+    private static LocalDate newYearsDay(int year) {
+        // NYSE does not close on Friday Dec 31 when Jan 1 falls on a Saturday
+        LocalDate date = LocalDate.of(year, Month.JANUARY, 1);
+        return switch (date.getDayOfWeek()) {
+            case SATURDAY -> null;
+            case SUNDAY -> date.plusDays(1);
+            default -> date;
+        };
+    }
+
+    private static LocalDate observed(LocalDate date) {
+        return switch (date.getDayOfWeek()) {
+            case SATURDAY -> date.minusDays(1);
+            case SUNDAY -> date.plusDays(1);
+            default -> date;
+        };
+    }
+
+    private static LocalDate nthWeekday(int year, Month month, DayOfWeek dayOfWeek, int n) {
+        return LocalDate.of(year, month, 1).with(TemporalAdjusters.dayOfWeekInMonth(n, dayOfWeek));
+    }
+
+    private static LocalDate easterSunday(int year) {
+        // Anonymous Gregorian algorithm
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = ((h + l - 7 * m + 114) % 31) + 1;
+        return LocalDate.of(year, month, day);
+    }
+}
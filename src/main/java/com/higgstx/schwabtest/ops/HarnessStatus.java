@@ -0,0 +1,199 @@
+package com.higgstx.schwabtest.ops;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import com.higgstx.schwabapi.model.TokenResponse;
+import com.higgstx.schwabapi.service.MarketDataService;
+import com.higgstx.schwabapi.service.TokenManager;
+import com.higgstx.schwabtest.analytics.CandleStore;
+import com.higgstx.schwabtest.market.MarketHoursService;
+import com.higgstx.schwabtest.market.QuoteBook;
+import com.higgstx.schwabtest.options.OptionChainService;
+import com.higgstx.schwabtest.service.CredentialPool;
+import com.higgstx.schwabtest.service.CredentialSlot;
+import com.higgstx.schwabtest.service.RequestScheduler;
+import com.higgstx.schwabtest.service.SharedTokenManager;
+import com.higgstx.schwabtest.trader.TraderService;
+import com.higgstx.schwabtest.util.SamplingTurboFilter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Collects the harness state reported by the {@link OpsServer}. Everything is read
+ * from memory (the token file only when it is not being watched); no API calls are
+ * made and no token values are ever included.
+ */
+public class HarnessStatus implements OpsServer.StatusSource {
+
+    private final TokenManager tokenManager;
+    private final MarketDataService marketDataService;
+    private final CredentialPool credentialPool;
+    private final MarketHoursService marketHoursService;
+    private final TraderService traderService;
+    private final OptionChainService optionChainService;
+    private final QuoteBook quoteBook;
+    private final CandleStore candleStore;
+    private final long startedMillis = System.currentTimeMillis();
+
+    public HarnessStatus(TokenManager tokenManager, MarketDataService marketDataService, CredentialPool credentialPool,
+                         MarketHoursService marketHoursService, TraderService traderService,
+                         OptionChainService optionChainService, QuoteBook quoteBook, CandleStore candleStore) {
+        this.tokenManager = tokenManager;
+        this.marketDataService = marketDataService;
+        this.credentialPool = credentialPool;
+        this.marketHoursService = marketHoursService;
+        this.traderService = traderService;
+        this.optionChainService = optionChainService;
+        this.quoteBook = quoteBook;
+        this.candleStore = candleStore;
+    }
+
+    @Override
+    public List<String> notReadyReasons() {
+        List<String> reasons = new ArrayList<>();
+        Map<String, Object> tokens = tokens(tokenManager);
+        if (!Boolean.TRUE.equals(tokens.get("accessTokenValid")) && !Boolean.TRUE.equals(tokens.get("refreshTokenValid"))) {
+            reasons.add("no usable access or refresh token");
+        }
+        if (!marketDataService.isReady()) {
+            reasons.add("market data service not ready");
+        }
+        if (credentialPool.getSlots().stream().noneMatch(CredentialSlot::isTokenHealthy)) {
+            reasons.add("no healthy credential in pool");
+        }
+        return reasons;
+    }
+
+    @Override
+    public Map<String, Object> state() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("uptimeSeconds", (System.currentTimeMillis() - startedMillis) / 1000);
+        state.put("tokens", tokens(tokenManager));
+        state.put("marketDataReady", marketDataService.isReady());
+        state.put("credentials", credentials());
+        state.put("queues", queues());
+        state.put("caches", caches());
+        state.put("logSampling", logSampling());
+        return state;
+    }
+
+    private static Map<String, Object> logSampling() {
+        Map<String, Object> sampling = new LinkedHashMap<>();
+        SamplingTurboFilter filter = SamplingTurboFilter.active();
+        sampling.put("enabled", filter != null);
+        if (filter != null) {
+            SamplingTurboFilter.Stats stats = filter.stats(5);
+            sampling.put("passed", stats.passed());
+            sampling.put("suppressed", stats.suppressed());
+            sampling.put("offeredLastSecond", stats.offeredLastSecond());
+            sampling.put("budgetPerKey", stats.budgetPerKey());
+            sampling.put("topSuppressed", stats.topSuppressed());
+        }
+        return sampling;
+    }
+
+    private static Map<String, Object> tokens(TokenManager manager) {
+        Map<String, Object> tokens = new LinkedHashMap<>();
+        try {
+            TokenResponse response = manager.loadTokens(false);
+            if (response == null) {
+                tokens.put("present", false);
+                return tokens;
+            }
+            tokens.put("present", true);
+            tokens.put("accessTokenValid", response.isAccessTokenValid());
+            tokens.put("refreshTokenValid", response.isRefreshTokenValid());
+            tokens.put("accessSecondsRemaining", response.getSecondsUntilAccessExpiry());
+            tokens.put("accessExpiresAt", String.valueOf(response.getExpiresAt()));
+            tokens.put("refreshExpiresAt", String.valueOf(response.getRefreshTokenExpiresAt()));
+            if (manager instanceof SharedTokenManager shared) {
+                tokens.put("fileWatched", shared.isWatching());
+                tokens.put("fileReloads", shared.getFileReloads());
+            }
+        } catch (SchwabApiException e) {
+            tokens.put("present", false);
+            tokens.put("error", e.getMessage());
+        }
+        return tokens;
+    }
+
+    private List<Map<String, Object>> credentials() {
+        List<Map<String, Object>> credentials = new ArrayList<>();
+        for (CredentialSlot slot : credentialPool.getSlots()) {
+            CredentialSlot.Stats stats = slot.stats();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", stats.name());
+            entry.put("tokenHealthy", stats.tokenHealthy());
+            entry.put("inFlight", stats.inFlight());
+            entry.put("completed", stats.completed());
+            entry.put("failed", stats.failed());
+            entry.put("averageLatencyMs", stats.averageLatencyMs());
+            entry.put("callsPerMinute", stats.callsPerMinute());
+            entry.put("limiterPermitsPerMinute", slot.getRateLimiter().getPermitsPerMinute());
+            entry.put("limiterAvailablePermits", slot.getRateLimiter().availablePermits());
+            entry.put("limiterWaitMs", slot.getRateLimiter().nanosUntilPermit() / 1_000_000.0);
+            entry.put("lastError", stats.lastError());
+            credentials.add(entry);
+        }
+        return credentials;
+    }
+
+    private Map<String, Object> queues() {
+        Map<String, Object> queues = new LinkedHashMap<>();
+        for (RequestScheduler.ClassStats stats : credentialPool.getScheduler().stats()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("weight", stats.weight());
+            entry.put("waiting", stats.waiting());
+            entry.put("admitted", stats.admitted());
+            entry.put("meanWaitMs", stats.meanWaitMs());
+            entry.put("p99WaitMs", stats.p99WaitMs());
+            queues.put(stats.priority().name().toLowerCase(Locale.ROOT), entry);
+        }
+        return queues;
+    }
+
+    private Map<String, Object> caches() {
+        Map<String, Object> caches = new LinkedHashMap<>();
+
+        long hits = marketHoursService.getCacheHits();
+        long misses = marketHoursService.getCacheMisses();
+        Map<String, Object> hours = new LinkedHashMap<>();
+        hours.put("cachedDays", marketHoursService.getCachedDays());
+        hours.put("hits", hits);
+        hours.put("misses", misses);
+        hours.put("hitRate", hitRate(hits, misses));
+        hours.put("apiCalls", marketHoursService.getApiCalls());
+        caches.put("marketHours", hours);
+
+        Map<String, Object> accounts = new LinkedHashMap<>();
+        accounts.put("hits", traderService.getCacheHits());
+        accounts.put("apiCalls", traderService.getApiCalls());
+        accounts.put("joinedRefreshes", traderService.getJoinedRefreshes());
+        accounts.put("hitRate", hitRate(traderService.getCacheHits(), traderService.getApiCalls()));
+        caches.put("accounts", accounts);
+
+        Map<String, Object> chains = new LinkedHashMap<>();
+        chains.put("underlyings", optionChainService.getChains().size());
+        chains.put("memoryBytes", optionChainService.memoryBytes());
+        chains.put("apiCalls", optionChainService.getApiCalls());
+        chains.put("skippedFresh", optionChainService.getSkippedFresh());
+        chains.put("quotesRefreshed", optionChainService.getQuoteRefreshes());
+        chains.put("rebuilt", optionChainService.getRebuilds());
+        caches.put("optionChains", chains);
+
+        Map<String, Object> market = new LinkedHashMap<>();
+        market.put("quoteBookSymbols", quoteBook.size());
+        market.put("candles", candleStore.get().size());
+        market.put("candlesUpdatedMillis", candleStore.getUpdatedMillis());
+        caches.put("marketState", market);
+        return caches;
+    }
+
+    private static double hitRate(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
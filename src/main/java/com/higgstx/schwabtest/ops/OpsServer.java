@@ -0,0 +1,136 @@
+package com.higgstx.schwabtest.ops;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Loopback-only JSON endpoint for monitors, on the JDK {@code HttpServer}:
+ * <ul>
+ *   <li>{@code GET /health} - 200 while the process is up</li>
+ *   <li>{@code GET /ready} - 200 when tokens and services are usable, otherwise 503 with the reasons</li>
+ *   <li>{@code GET /state} - token, limiter, queue and cache state</li>
+ * </ul>
+ * Requests are served by one daemon thread. If the port is taken the endpoint
+ * stays off and the harness carries on.
+ */
+public class OpsServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpsServer.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Supplies what the endpoint reports; called on the server thread per request
+     */
+    public interface StatusSource {
+
+        /**
+         * Reasons the harness is not ready; empty when it is
+         */
+        List<String> notReadyReasons();
+
+        Map<String, Object> state();
+    }
+
+    private final int port;
+    private final StatusSource source;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param port loopback port, 0 for any free port, negative to disable
+     */
+    public OpsServer(int port, StatusSource source) {
+        this.port = port;
+        this.source = source;
+    }
+
+    public synchronized void start() throws IOException {
+        if (port < 0 || server != null) {
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (BindException e) {
+            logger.warn("Ops endpoint disabled: port {} is already in use", port);
+            return;
+        }
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ops-endpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/health", exchange -> serve(exchange, () -> new Reply(200, Map.of("status", "UP"))));
+        server.createContext("/ready", exchange -> serve(exchange, this::ready));
+        server.createContext("/state", exchange -> serve(exchange, () -> new Reply(200, source.state())));
+        server.start();
+        logger.info("Ops endpoint listening on http://{}:{}/state", server.getAddress().getHostString(), getPort());
+    }
+
+    private record Reply(int status, Object body) {
+    }
+
+    private Reply ready() {
+        List<String> reasons = source.notReadyReasons();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", reasons.isEmpty() ? "READY" : "NOT_READY");
+        body.put("reasons", reasons);
+        return new Reply(reasons.isEmpty() ? 200 : 503, body);
+    }
+
+    private static void serve(HttpExchange exchange, Supplier<Reply> handler) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            int status;
+            byte[] bytes;
+            try {
+                Reply reply = handler.get();
+                status = reply.status();
+                bytes = MAPPER.writeValueAsBytes(reply.body());
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Ops endpoint failed to build {}: {}", exchange.getRequestURI().getPath(), e.toString());
+                status = 500;
+                bytes = MAPPER.writeValueAsBytes(Map.of("error", e.toString()));
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Bound port, or -1 while not running
+     */
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.higgstx.schwabtest.options;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Compact, read-mostly index of one underlying's option chain.
+ * <p>
+ * Contracts are rows across primitive columns sorted by expiry (epoch day), then
+ * strike, then call before put. {@code expiryStart[i]..expiryStart[i + 1]} is the
+ * row range of expiry {@code i}, so "nearest strike" and "strikes in band" are a
+ * binary search over one contiguous strike run. An index is never modified once
+ * built; a refresh builds a new one and swaps it in, so readers never see a row
+ * with quotes from two different loads.
+ */
+public final class OptionChainIndex {
+
+    public static final byte CALL = 0;
+    public static final byte PUT = 1;
+
+    /**
+     * Receives matching rows of a band query
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        void visit(OptionChainIndex index, int row);
+    }
+
+    private final String underlying;
+    private final double underlyingPrice;
+    private final long updatedMillis;
+
+    private final int[] expiries;
+    private final int[] expiryStart;
+    private final double[] strikes;
+    private final byte[] types;
+    private final double[] bid;
+    private final double[] ask;
+    private final double[] last;
+    private final double[] delta;
+    private final long[] openInterest;
+    private final long[] volume;
+
+    private OptionChainIndex(String underlying, double underlyingPrice, long updatedMillis, int[] expiries,
+                             int[] expiryStart, double[] strikes, byte[] types, double[] bid, double[] ask,
+                             double[] last, double[] delta, long[] openInterest, long[] volume) {
+        this.underlying = underlying;
+        this.underlyingPrice = underlyingPrice;
+        this.updatedMillis = updatedMillis;
+        this.expiries = expiries;
+        this.expiryStart = expiryStart;
+        this.strikes = strikes;
+        this.types = types;
+        this.bid = bid;
+        this.ask = ask;
+        this.last = last;
+        this.delta = delta;
+        this.openInterest = openInterest;
+        this.volume = volume;
+    }
+
+    public static Builder builder(String underlying) {
+        return new Builder(underlying);
+    }
+
+    /**
+     * Index of the expiry on that day, or -1
+     */
+    public int findExpiry(int epochDay) {
+        int index = Arrays.binarySearch(expiries, epochDay);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Index of the first expiry on or after {@code epochDay}, or -1 if all are earlier
+     */
+    public int nextExpiry(int epochDay) {
+        int index = Arrays.binarySearch(expiries, epochDay);
+        int insertion = index >= 0 ? index : -index - 1;
+        return insertion < expiries.length ? insertion : -1;
+    }
+
+    /**
+     * Row of the contract of {@code type} whose strike is closest to {@code price}
+     * within an expiry, or -1 if the expiry has none of that type
+     */
+    public int nearestStrike(int expiryIndex, double price, byte type) {
+        int from = expiryStart[expiryIndex];
+        int to = expiryStart[expiryIndex + 1];
+        int split = lowerBound(from, to, price);
+
+        int below = split - 1;
+        while (below >= from && types[below] != type) {
+            below--;
+        }
+        int above = split;
+        while (above < to && types[above] != type) {
+            above++;
+        }
+        if (below < from) {
+            return above < to ? above : -1;
+        }
+        if (above >= to) {
+            return below;
+        }
+        return price - strikes[below] <= strikes[above] - price ? below : above;
+    }
+
+    /**
+     * Visits contracts of {@code type} with {@code low <= strike <= high}
+     *
+     * @return number of rows visited
+     */
+    public int forEachInBand(int expiryIndex, double low, double high, byte type, RowVisitor visitor) {
+        int to = expiryStart[expiryIndex + 1];
+        int visited = 0;
+        for (int row = lowerBound(expiryStart[expiryIndex], to, low); row < to && strikes[row] <= high; row++) {
+            if (types[row] == type) {
+                visitor.visit(this, row);
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * First row in [from, to) whose strike is not below {@code strike}
+     */
+    private int lowerBound(int from, int to, double strike) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (strikes[mid] < strike) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * True if {@code other} lists exactly the same contracts, i.e. a refresh of this
+     * chain only changed its quotes
+     */
+    public boolean hasSameContracts(OptionChainIndex other) {
+        return Arrays.equals(expiries, other.expiries) && Arrays.equals(expiryStart, other.expiryStart)
+                && Arrays.equals(strikes, other.strikes) && Arrays.equals(types, other.types);
+    }
+
+    /**
+     * Approximate heap held by the columns
+     */
+    public long memoryBytes() {
+        int rows = strikes.length;
+        return (long) (expiries.length + expiryStart.length) * Integer.BYTES
+                + (long) rows * (5 * Double.BYTES + 2 * Long.BYTES + 1);
+    }
+
+    public String getUnderlying() {
+        return underlying;
+    }
+
+    public double getUnderlyingPrice() {
+        return underlyingPrice;
+    }
+
+    public long getUpdatedMillis() {
+        return updatedMillis;
+    }
+
+    public int expiryCount() {
+        return expiries.length;
+    }
+
+    public int expiry(int expiryIndex) {
+        return expiries[expiryIndex];
+    }
+
+    public int contractCount() {
+        return strikes.length;
+    }
+
+    public double strike(int row) {
+        return strikes[row];
+    }
+
+    public byte type(int row) {
+        return types[row];
+    }
+
+    public double bid(int row) {
+        return bid[row];
+    }
+
+    public double ask(int row) {
+        return ask[row];
+    }
+
+    public double last(int row) {
+        return last[row];
+    }
+
+    public double delta(int row) {
+        return delta[row];
+    }
+
+    public long openInterest(int row) {
+        return openInterest[row];
+    }
+
+    public long volume(int row) {
+        return volume[row];
+    }
+
+    /**
+     * Accumulates contracts in any order and sorts them into an index
+     */
+    public static final class Builder {
+
+        private final String underlying;
+        private double underlyingPrice;
+        private long updatedMillis = System.currentTimeMillis();
+        private int size;
+        private int[] expiryDays = new int[64];
+        private double[] strikes = new double[64];
+        private byte[] types = new byte[64];
+        private double[] bid = new double[64];
+        private double[] ask = new double[64];
+        private double[] last = new double[64];
+        private double[] delta = new double[64];
+        private long[] openInterest = new long[64];
+        private long[] volume = new long[64];
+
+        private Builder(String underlying) {
+            this.underlying = underlying;
+        }
+
+        public Builder underlyingPrice(double price) {
+            this.underlyingPrice = price;
+            return this;
+        }
+
+        public Builder updatedMillis(long millis) {
+            this.updatedMillis = millis;
+            return this;
+        }
+
+        public Builder add(int expiryDay, double strike, byte type, double bidPrice, double askPrice,
+                           double lastPrice, double contractDelta, long interest, long contractVolume) {
+            if (size == strikes.length) {
+                int capacity = size * 2;
+                expiryDays = Arrays.copyOf(expiryDays, capacity);
+                strikes = Arrays.copyOf(strikes, capacity);
+                types = Arrays.copyOf(types, capacity);
+                bid = Arrays.copyOf(bid, capacity);
+                ask = Arrays.copyOf(ask, capacity);
+                last = Arrays.copyOf(last, capacity);
+                delta = Arrays.copyOf(delta, capacity);
+                openInterest = Arrays.copyOf(openInterest, capacity);
+                volume = Arrays.copyOf(volume, capacity);
+            }
+            expiryDays[size] = expiryDay;
+            strikes[size] = strike;
+            types[size] = type;
+            bid[size] = bidPrice;
+            ask[size] = askPrice;
+            last[size] = lastPrice;
+            delta[size] = contractDelta;
+            openInterest[size] = interest;
+            volume[size] = contractVolume;
+            size++;
+            return this;
+        }
+
+        public OptionChainIndex build() {
+            // Sorting runs once per load, so a boxed permutation is fine here
+            Integer[] order = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+            Arrays.sort(order, Comparator.<Integer>comparingInt(row -> expiryDays[row])
+                    .thenComparingDouble(row -> strikes[row])
+                    .thenComparingInt(row -> types[row]));
+
+            int[] sortedExpiries = new int[size];
+            double[] sortedStrikes = new double[size];
+            byte[] sortedTypes = new byte[size];
+            double[] sortedBid = new double[size];
+            double[] sortedAsk = new double[size];
+            double[] sortedLast = new double[size];
+            double[] sortedDelta = new double[size];
+            long[] sortedInterest = new long[size];
+            long[] sortedVolume = new long[size];
+            for (int i = 0; i < size; i++) {
+                int row = order[i];
+                sortedExpiries[i] = expiryDays[row];
+                sortedStrikes[i] = strikes[row];
+                sortedTypes[i] = types[row];
+                sortedBid[i] = bid[row];
+                sortedAsk[i] = ask[row];
+                sortedLast[i] = last[row];
+                sortedDelta[i] = delta[row];
+                sortedInterest[i] = openInterest[row];
+                sortedVolume[i] = volume[row];
+            }
+
+            int[] expiries = IntStream.of(sortedExpiries).distinct().toArray();
+            int[] expiryStart = new int[expiries.length + 1];
+            for (int e = 0, row = 0; e < expiries.length; e++) {
+                expiryStart[e] = row;
+                while (row < size && sortedExpiries[row] == expiries[e]) {
+                    row++;
+                }
+                expiryStart[e + 1] = row;
+            }
+
+            return new OptionChainIndex(underlying, underlyingPrice, updatedMillis, expiries, expiryStart,
+                    sortedStrikes, sortedTypes, sortedBid, sortedAsk, sortedLast, sortedDelta, sortedInterest,
+                    sortedVolume);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.higgstx.schwabtest.options;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.higgstx.schwabapi.exception.SchwabApiException;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Parses the chains response body:
+ * {@code {"symbol": ..., "underlyingPrice": ..., "callExpDateMap": {"2024-03-15:9": {"170.0": [{...}]}}, "putExpDateMap": {...}}}
+ */
+public final class OptionChainParser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private OptionChainParser() {
+    }
+
+    public static OptionChainIndex parse(String underlying, String body, long fetchedMillis)
+            throws SchwabApiException {
+        JsonNode root;
+        try {
+            root = MAPPER.readTree(body);
+        } catch (Exception e) {
+            throw SchwabApiException.validationError("Unable to parse option chain for " + underlying + ": "
+                    + e.getMessage());
+        }
+        if (root == null || "FAILED".equals(root.path("status").asText())) {
+            throw SchwabApiException.validationError("Option chain request for " + underlying + " failed");
+        }
+
+        OptionChainIndex.Builder builder = OptionChainIndex.builder(underlying)
+                .underlyingPrice(root.path("underlyingPrice").asDouble())
+                .updatedMillis(fetchedMillis);
+        addSide(builder, root.path("callExpDateMap"), OptionChainIndex.CALL);
+        addSide(builder, root.path("putExpDateMap"), OptionChainIndex.PUT);
+        return builder.build();
+    }
+
+    private static void addSide(OptionChainIndex.Builder builder, JsonNode expDateMap, byte type) {
+        for (Iterator<Map.Entry<String, JsonNode>> expiries = expDateMap.fields(); expiries.hasNext(); ) {
+            Map.Entry<String, JsonNode> expiry = expiries.next();
+            // Keys look like "2024-03-15:9", the date followed by days to expiry
+            String key = expiry.getKey();
+            int colon = key.indexOf(':');
+            int epochDay;
+            try {
+                epochDay = (int) LocalDate.parse(colon >= 0 ? key.substring(0, colon) : key).toEpochDay();
+            } catch (RuntimeException e) {
+                continue;
+            }
+            for (Iterator<Map.Entry<String, JsonNode>> strikes = expiry.getValue().fields(); strikes.hasNext(); ) {
+                Map.Entry<String, JsonNode> strike = strikes.next();
+                for (JsonNode contract : strike.getValue()) {
+                    double strikePrice = contract.has("strikePrice")
+                            ? contract.path("strikePrice").asDouble()
+                            : Double.parseDouble(strike.getKey());
+                    builder.add(epochDay, strikePrice, type,
+                            contract.path("bid").asDouble(),
+                            contract.path("ask").asDouble(),
+                            contract.path("last").asDouble(),
+                            contract.path("delta").asDouble(),
+                            contract.path("openInterest").asLong(),
+                            contract.path("totalVolume").asLong());
+                }
+            }
+        }
+    }
+}
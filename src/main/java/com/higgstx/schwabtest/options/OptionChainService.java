@@ -0,0 +1,187 @@
+package com.higgstx.schwabtest.options;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import com.higgstx.schwabtest.service.JobBudget;
+import com.higgstx.schwabtest.service.SchwabRestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads option chains for many underlyings in parallel and keeps one
+ * {@link OptionChainIndex} per underlying in memory.
+ * <p>
+ * Refreshes are incremental: a chain younger than the max age is not requested
+ * again. Every load installs a fresh immutable index, so a reader holding the old
+ * one keeps a consistent view. Requests go through the {@link SchwabRestClient},
+ * and so through the credential pool's scheduler and rate budgets.
+ */
+public class OptionChainService implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptionChainService.class);
+
+    /**
+     * Outcome of loading one underlying
+     */
+    public record LoadResult(String underlying, boolean success, boolean rebuilt, int contracts, long latencyNanos,
+                             String message) {
+    }
+
+    private final SchwabRestClient restClient;
+    private final String marketDataUrl;
+    private final int strikeCount;
+    private final ExecutorService executor;
+    private final Map<String, OptionChainIndex> chains = new ConcurrentHashMap<>();
+
+    private final LongAdder apiCalls = new LongAdder();
+    private final LongAdder quoteRefreshes = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder skippedFresh = new LongAdder();
+
+    public OptionChainService(SchwabRestClient restClient, String marketDataUrl, int strikeCount, int parallelism) {
+        this.restClient = restClient;
+        this.marketDataUrl = marketDataUrl;
+        this.strikeCount = strikeCount;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "option-chains-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads or refreshes the given underlyings in parallel within {@code budget},
+     * skipping chains updated within {@code maxAgeMillis} (0 refreshes everything)
+     *
+     * @return one result per underlying that was requested, in input order
+     */
+    public List<LoadResult> refresh(List<String> underlyings, long maxAgeMillis, JobBudget budget) {
+        long now = System.currentTimeMillis();
+        Map<String, Future<LoadResult>> futures = new LinkedHashMap<>();
+        for (String underlying : underlyings) {
+            OptionChainIndex existing = chains.get(underlying);
+            if (existing != null && now - existing.getUpdatedMillis() < maxAgeMillis) {
+                skippedFresh.increment();
+                continue;
+            }
+            futures.putIfAbsent(underlying, executor.submit(() -> {
+                try (JobBudget.Scope ignored = budget.bind()) {
+                    return budget.tryStart(underlying) ? load(underlying)
+                            : new LoadResult(underlying, false, false, 0, 0, "Skipped: time budget exhausted");
+                }
+            }));
+        }
+
+        List<LoadResult> results = new ArrayList<>(futures.size());
+        for (Map.Entry<String, Future<LoadResult>> entry : futures.entrySet()) {
+            try {
+                results.add(entry.getValue().get(Math.max(0, budget.remainingNanos()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                entry.getValue().cancel(true);
+                budget.recordTimeout(entry.getKey());
+                results.add(new LoadResult(entry.getKey(), false, false, 0, 0, "Timed out: time budget exhausted"));
+            } catch (ExecutionException e) {
+                results.add(new LoadResult(entry.getKey(), false, false, 0, 0, e.getCause().toString()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.add(new LoadResult(entry.getKey(), false, false, 0, 0, "Interrupted"));
+                break;
+            }
+        }
+        return results;
+    }
+
+    private LoadResult load(String underlying) {
+        long start = System.nanoTime();
+        try {
+            OptionChainIndex fresh = fetch(underlying);
+            boolean rebuilt = install(fresh);
+            return new LoadResult(underlying, true, rebuilt, fresh.contractCount(), System.nanoTime() - start, null);
+        } catch (SchwabApiException e) {
+            logger.debug("Option chain load for {} failed: {}", underlying, e.getMessage());
+            return new LoadResult(underlying, false, false, 0, System.nanoTime() - start, e.getMessage());
+        }
+    }
+
+    private OptionChainIndex fetch(String underlying) throws SchwabApiException {
+        apiCalls.increment();
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("symbol", underlying);
+        params.put("contractType", "ALL");
+        if (strikeCount > 0) {
+            params.put("strikeCount", Integer.toString(strikeCount));
+        }
+        SchwabRestClient.Response response = restClient.get(marketDataUrl, "/chains", params);
+        if (!response.isSuccess()) {
+            throw SchwabApiException.serverError("Option chain request for " + underlying
+                    + " failed with status " + response.statusCode());
+        }
+        return OptionChainParser.parse(underlying, response.body(), System.currentTimeMillis());
+    }
+
+    /**
+     * Swaps in the fresh index
+     *
+     * @return true if the contracts changed, false if only the quotes did
+     */
+    boolean install(OptionChainIndex fresh) {
+        OptionChainIndex previous = chains.put(fresh.getUnderlying(), fresh);
+        if (previous != null && previous.hasSameContracts(fresh)) {
+            quoteRefreshes.increment();
+            return false;
+        }
+        rebuilds.increment();
+        return true;
+    }
+
+    public OptionChainIndex get(String underlying) {
+        return chains.get(underlying);
+    }
+
+    public Map<String, OptionChainIndex> getChains() {
+        return Map.copyOf(chains);
+    }
+
+    public long memoryBytes() {
+        long total = 0;
+        for (OptionChainIndex index : chains.values()) {
+            total += index.memoryBytes();
+        }
+        return total;
+    }
+
+    public long getApiCalls() {
+        return apiCalls.sum();
+    }
+
+    public long getQuoteRefreshes() {
+        return quoteRefreshes.sum();
+    }
+
+    public long getRebuilds() {
+        return rebuilds.sum();
+    }
+
+    public long getSkippedFresh() {
+        return skippedFresh.sum();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
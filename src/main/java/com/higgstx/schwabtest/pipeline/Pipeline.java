@@ -0,0 +1,103 @@
+package com.higgstx.schwabtest.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Backpressured source → transforms → sink chain on {@link java.util.concurrent.Flow}.
+ * <p>
+ * Stages are described first and connected only when {@link #to} is called, sink
+ * first and source last, so nothing is fetched before every buffer has a consumer.
+ * Each transform has its own parallelism and bounded output buffer; demand flows
+ * upstream from the sink, so memory stays bounded by the buffer sizes.
+ *
+ * <pre>{@code
+ * Pipeline.from("history", source)
+ *         .map("validate", Transforms.usableCandles(), 4, 64)
+ *         .map("indicators", Transforms.indicators(engine), 1, 64)
+ *         .to("jsonl", Sinks.jsonLines(path), 16);
+ * }</pre>
+ */
+public final class Pipeline<T> {
+
+    /**
+     * Outcome of a run: per-stage metrics and wall time
+     */
+    public record Report(List<StageMetrics> stages, long elapsedNanos) {
+        public double elapsedMillis() {
+            return elapsedNanos / 1e6;
+        }
+    }
+
+    private final ExecutorService executor;
+    private final Flow.Publisher<T> tail;
+    // Upstream subscriptions to make once the sink is attached, in stage order
+    private final List<Runnable> connections;
+    private final List<StageMetrics> metrics;
+
+    private Pipeline(ExecutorService executor, Flow.Publisher<T> tail, List<Runnable> connections,
+                     List<StageMetrics> metrics) {
+        this.executor = executor;
+        this.tail = tail;
+        this.connections = connections;
+        this.metrics = metrics;
+    }
+
+    public static <T> Pipeline<T> from(String name, Source<T> source) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "pipeline-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        StageMetrics sourceMetrics = new StageMetrics(name, 1);
+        List<StageMetrics> metrics = new ArrayList<>();
+        metrics.add(sourceMetrics);
+        return new Pipeline<>(executor, new SourcePublisher<>(source, executor, sourceMetrics),
+                new ArrayList<>(), metrics);
+    }
+
+    /**
+     * Adds a transform stage
+     *
+     * @param parallelism items processed concurrently; use the core count for CPU-bound steps
+     * @param bufferSize  items buffered for the next stage before this one blocks
+     */
+    public <R> Pipeline<R> map(String name, Transform<T, R> transform, int parallelism, int bufferSize) {
+        StageMetrics stageMetrics = new StageMetrics(name, Math.max(1, parallelism));
+        TransformStage<T, R> stage = new TransformStage<>(transform, executor, Math.max(1, parallelism),
+                Math.max(1, bufferSize), stageMetrics);
+        Flow.Publisher<T> upstream = tail;
+        connections.add(() -> upstream.subscribe(stage));
+        metrics.add(stageMetrics);
+        return new Pipeline<>(executor, stage, connections, metrics);
+    }
+
+    /**
+     * Attaches the sink and starts the pipeline
+     *
+     * @param prefetch items the sink keeps requested ahead of what it has consumed
+     */
+    public CompletableFuture<Report> to(String name, Sink<T> sink, int prefetch) {
+        StageMetrics sinkMetrics = new StageMetrics(name, 1);
+        metrics.add(sinkMetrics);
+        SinkSubscriber<T> subscriber = new SinkSubscriber<>(sink, Math.max(1, prefetch), sinkMetrics);
+        long start = System.nanoTime();
+
+        tail.subscribe(subscriber);
+        List<Runnable> reversed = new ArrayList<>(connections);
+        Collections.reverse(reversed);
+        reversed.forEach(Runnable::run);
+
+        List<StageMetrics> stages = List.copyOf(metrics);
+        return subscriber.completion()
+                .thenApply(ignored -> new Report(stages, System.nanoTime() - start))
+                .whenComplete((report, error) -> executor.shutdown());
+    }
+}
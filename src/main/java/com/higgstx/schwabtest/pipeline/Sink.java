@@ -0,0 +1,17 @@
+package com.higgstx.schwabtest.pipeline;
+
+/**
+ * Terminal consumer. Items are delivered one at a time, in arrival order.
+ */
+@FunctionalInterface
+public interface Sink<T> extends AutoCloseable {
+
+    void accept(T item) throws Exception;
+
+    /**
+     * Called once after the last item or on failure
+     */
+    @Override
+    default void close() throws Exception {
+    }
+}
@@ -0,0 +1,74 @@
+package com.higgstx.schwabtest.pipeline;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * Terminal subscriber feeding a {@link Sink}, keeping {@code prefetch} items requested
+ */
+final class SinkSubscriber<T> implements Flow.Subscriber<T> {
+
+    private final Sink<T> sink;
+    private final int prefetch;
+    private final StageMetrics metrics;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+
+    SinkSubscriber(Sink<T> sink, int prefetch, StageMetrics metrics) {
+        this.sink = sink;
+        this.prefetch = prefetch;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(prefetch);
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (completion.isDone()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            sink.accept(item);
+            metrics.record(System.nanoTime() - start, true);
+            subscription.request(1);
+        } catch (Exception e) {
+            subscription.cancel();
+            finish(e);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        finish(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        finish(null);
+    }
+
+    private void finish(Throwable error) {
+        if (completion.isDone()) {
+            return;
+        }
+        try {
+            sink.close();
+        } catch (Exception e) {
+            error = error == null ? e : error;
+        }
+        if (error == null) {
+            completion.complete(null);
+        } else {
+            completion.completeExceptionally(error);
+        }
+    }
+
+    CompletableFuture<Void> completion() {
+        return completion;
+    }
+}
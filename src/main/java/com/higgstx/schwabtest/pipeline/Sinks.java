@@ -0,0 +1,64 @@
+package com.higgstx.schwabtest.pipeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Common sinks: JSON lines files and counting metrics sinks
+ */
+public final class Sinks {
+
+    private Sinks() {
+    }
+
+    /**
+     * Writes one JSON document per line for each item, mapped through {@code view}
+     */
+    public static <T> Sink<T> jsonLines(Path file, Function<T, Object> view) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        return new Sink<>() {
+            @Override
+            public void accept(T item) throws IOException {
+                writer.write(mapper.writeValueAsString(view.apply(item)));
+                writer.newLine();
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+            }
+        };
+    }
+
+    /**
+     * Counts items; a stand-in for forwarding to a metrics backend
+     */
+    public static <T> CountingSink<T> counting() {
+        return new CountingSink<>();
+    }
+
+    public static final class CountingSink<T> implements Sink<T> {
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void accept(T item) {
+            count.increment();
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.higgstx.schwabtest.pipeline;
+
+/**
+ * Pull-based producer. The pipeline calls {@link #next()} only when downstream has
+ * signalled demand, so a slow sink stops the fetching instead of queueing it.
+ */
+@FunctionalInterface
+public interface Source<T> {
+
+    /**
+     * Produces the next item, or null when the source is exhausted
+     */
+    T next() throws Exception;
+}
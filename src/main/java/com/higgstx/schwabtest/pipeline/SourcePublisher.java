@@ -0,0 +1,102 @@
+package com.higgstx.schwabtest.pipeline;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes a {@link Source} to a single subscriber, calling the source only while
+ * there is outstanding demand. Draining runs on the executor and never overlaps.
+ */
+final class SourcePublisher<T> implements Flow.Publisher<T> {
+
+    private final Source<T> source;
+    private final Executor executor;
+    private final StageMetrics metrics;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    SourcePublisher(Source<T> source, Executor executor, StageMetrics metrics) {
+        this.source = source;
+        this.executor = executor;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Source already has a subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new SourceSubscription(subscriber));
+    }
+
+    private final class SourceSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean done;
+
+        SourceSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                done = true;
+                subscriber.onError(new IllegalArgumentException("Demand must be positive: " + n));
+                return;
+            }
+            demand.accumulateAndGet(n, (current, added) -> {
+                long sum = current + added;
+                return sum < 0 ? Long.MAX_VALUE : sum;
+            });
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                while (!done && demand.get() > 0) {
+                    T item;
+                    long start = System.nanoTime();
+                    try {
+                        item = source.next();
+                    } catch (Exception e) {
+                        done = true;
+                        subscriber.onError(e);
+                        return;
+                    }
+                    if (item == null) {
+                        done = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    metrics.record(System.nanoTime() - start, true);
+                    demand.decrementAndGet();
+                    subscriber.onNext(item);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+        }
+    }
+}
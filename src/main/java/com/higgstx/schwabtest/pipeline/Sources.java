@@ -0,0 +1,53 @@
+package com.higgstx.schwabtest.pipeline;
+
+import com.higgstx.schwabapi.model.market.QuoteData;
+import com.higgstx.schwabtest.market.MarketDay;
+import com.higgstx.schwabtest.market.MarketHoursService;
+import com.higgstx.schwabtest.service.CredentialPool;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Sources over the harness's API services. Each {@code next()} makes one call, so
+ * calls are only made as fast as downstream consumes them.
+ */
+public final class Sources {
+
+    private Sources() {
+    }
+
+    /**
+     * One quote batch per call, {@code batchSize} symbols at a time
+     */
+    public static Source<List<QuoteData>> quotes(CredentialPool pool, List<String> symbols, int batchSize) {
+        int size = Math.max(1, batchSize);
+        int[] offset = {0};
+        return () -> {
+            if (offset[0] >= symbols.size()) {
+                return null;
+            }
+            List<String> batch = symbols.subList(offset[0], Math.min(symbols.size(), offset[0] + size));
+            offset[0] += size;
+            return pool.execute(slot -> slot.getMarketDataService().getQuotes(List.copyOf(batch)));
+        };
+    }
+
+    /**
+     * Items of a fixed list in order, e.g. symbols for a fetch stage to expand
+     */
+    public static <T> Source<T> of(List<T> items) {
+        Iterator<T> remaining = List.copyOf(items).iterator();
+        return () -> remaining.hasNext() ? remaining.next() : null;
+    }
+
+    /**
+     * Market hours for consecutive days starting at {@code from}
+     */
+    public static Source<MarketDay> marketHours(MarketHoursService service, String market, LocalDate from,
+                                                int days) {
+        int[] offset = {0};
+        return () -> offset[0] >= days ? null : service.getMarketDay(market, from.plusDays(offset[0]++));
+    }
+}
@@ -0,0 +1,61 @@
+package com.higgstx.schwabtest.pipeline;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-stage counters: items in, items out, items dropped and time spent working
+ */
+public final class StageMetrics {
+
+    private final String name;
+    private final int parallelism;
+    private final LongAdder received = new LongAdder();
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+
+    StageMetrics(String name, int parallelism) {
+        this.name = name;
+        this.parallelism = parallelism;
+    }
+
+    void record(long nanos, boolean emittedItem) {
+        received.increment();
+        busyNanos.add(nanos);
+        if (emittedItem) {
+            emitted.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public long getEmitted() {
+        return emitted.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public double getBusyMillis() {
+        return busyNanos.sum() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-12s x%-2d in %6d out %6d dropped %5d busy %9.1f ms",
+                name, parallelism, getReceived(), getEmitted(), getDropped(), getBusyMillis());
+    }
+}
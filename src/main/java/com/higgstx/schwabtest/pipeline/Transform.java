@@ -0,0 +1,9 @@
+package com.higgstx.schwabtest.pipeline;
+
+/**
+ * One processing step. Returning null drops the item (e.g. failed validation).
+ */
+@FunctionalInterface
+public interface Transform<T, R> {
+    R apply(T item) throws Exception;
+}
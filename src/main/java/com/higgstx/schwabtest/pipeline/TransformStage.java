@@ -0,0 +1,120 @@
+package com.higgstx.schwabtest.pipeline;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processor running a {@link Transform} with bounded parallelism.
+ * <p>
+ * At most {@code parallelism} items are requested from upstream at a time; a worker
+ * asks for the next item only after handing its result to the bounded output
+ * buffer, which blocks while downstream is behind. Backpressure therefore reaches
+ * the source instead of piling up in memory. Output order is not preserved when
+ * parallelism is above one. If downstream cancels, e.g. because its sink failed,
+ * the stage cancels upstream instead of pulling items nobody will consume.
+ */
+final class TransformStage<T, R> implements Flow.Processor<T, R> {
+
+    private final Transform<T, R> transform;
+    private final Executor executor;
+    private final int parallelism;
+    private final StageMetrics metrics;
+    private final SubmissionPublisher<R> output;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile Flow.Subscription upstream;
+    private volatile boolean upstreamDone;
+    private volatile boolean failed;
+    private volatile boolean cancelled;
+
+    TransformStage(Transform<T, R> transform, Executor executor, int parallelism, int bufferSize,
+                   StageMetrics metrics) {
+        this.transform = transform;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.metrics = metrics;
+        this.output = new SubmissionPublisher<>(executor, bufferSize);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super R> subscriber) {
+        output.subscribe(subscriber);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        upstream = subscription;
+        subscription.request(parallelism);
+    }
+
+    @Override
+    public void onNext(T item) {
+        inFlight.incrementAndGet();
+        executor.execute(() -> process(item));
+    }
+
+    private void process(T item) {
+        try {
+            if (failed || downstreamGone()) {
+                return;
+            }
+            long start = System.nanoTime();
+            R result = transform.apply(item);
+            metrics.record(System.nanoTime() - start, result != null);
+            if (result != null) {
+                // Blocks while the downstream buffer is full
+                output.submit(result);
+            }
+            if (!downstreamGone()) {
+                upstream.request(1);
+            }
+        } catch (Exception e) {
+            fail(e);
+        } finally {
+            if (inFlight.decrementAndGet() == 0 && upstreamDone && !failed && !cancelled) {
+                output.close();
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        fail(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        if (inFlight.get() == 0 && !failed && !cancelled) {
+            output.close();
+        }
+    }
+
+    /**
+     * True once every downstream subscriber has cancelled; the first caller to
+     * notice cancels upstream
+     */
+    private boolean downstreamGone() {
+        if (cancelled) {
+            return true;
+        }
+        if (output.hasSubscribers()) {
+            return false;
+        }
+        cancelled = true;
+        upstream.cancel();
+        output.close();
+        return true;
+    }
+
+    private void fail(Throwable throwable) {
+        if (!failed) {
+            failed = true;
+            if (upstream != null) {
+                upstream.cancel();
+            }
+            output.closeExceptionally(throwable);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.higgstx.schwabtest.pipeline;
+
+import com.higgstx.schwabapi.model.market.DailyPriceData;
+import com.higgstx.schwabtest.analytics.CandleBlock;
+import com.higgstx.schwabtest.analytics.IndicatorEngine;
+import com.higgstx.schwabtest.analytics.SymbolIndicators;
+import com.higgstx.schwabtest.service.CredentialPool;
+
+import java.util.List;
+
+/**
+ * Common transform stages for candle pipelines
+ */
+public final class Transforms {
+
+    private Transforms() {
+    }
+
+    /**
+     * Fetches one month of daily candles per symbol through the pool. Fetching is
+     * I/O bound, so run this stage with enough parallelism to keep every
+     * credential's rate budget busy; the pool still enforces each budget.
+     */
+    public static Transform<String, List<DailyPriceData>> priceHistory(CredentialPool pool) {
+        return symbol -> pool.execute(slot -> slot.getMarketDataService()
+                .getPriceHistoryData(symbol, "month", 1, "daily", 1));
+    }
+
+    /**
+     * Parses a symbol's candles into a compact block, dropping failed or undated
+     * entries; empty results are filtered out
+     */
+    public static Transform<List<DailyPriceData>, CandleBlock> toCandleBlock() {
+        return candles -> {
+            if (candles == null || candles.isEmpty()) {
+                return null;
+            }
+            CandleBlock block = CandleBlock.from(candles);
+            return block.size() == 0 ? null : block;
+        };
+    }
+
+    /**
+     * Drops blocks with non-positive or inconsistent OHLC values
+     */
+    public static Transform<CandleBlock, CandleBlock> validated() {
+        return block -> {
+            for (int row = 0; row < block.size(); row++) {
+                double low = block.low(row);
+                double high = block.high(row);
+                if (!(low > 0) || high < low || block.close(row) > high || block.close(row) < low) {
+                    return null;
+                }
+            }
+            return block;
+        };
+    }
+
+    /**
+     * Folds each block into the shared engine and emits the symbol's updated state
+     */
+    public static Transform<CandleBlock, SymbolIndicators> indicators(IndicatorEngine engine) {
+        return block -> {
+            engine.ingest(block);
+            return engine.getState(block.symbol(0));
+        };
+    }
+}
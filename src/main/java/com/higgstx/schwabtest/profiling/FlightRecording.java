@@ -0,0 +1,96 @@
+package com.higgstx.schwabtest.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A JDK Flight Recorder session around one harness scenario. Starts from the JDK's
+ * {@code profile} settings, tuned for what the summary reads: denser CPU samples and
+ * lower thresholds for monitor and park events so short lock waits are captured.
+ * The {@code .jfr} file is kept for JMC or {@code jfr print}.
+ */
+public class FlightRecording implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecording.class);
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    static final Map<String, String> TUNING = Map.of(
+            "jdk.ExecutionSample#period", "10 ms",
+            "jdk.NativeMethodSample#period", "20 ms",
+            "jdk.ObjectAllocationSample#enabled", "true",
+            "jdk.ObjectAllocationSample#throttle", "300/s",
+            "jdk.JavaMonitorEnter#threshold", "1 ms",
+            "jdk.ThreadPark#threshold", "5 ms",
+            "jdk.GarbageCollection#enabled", "true",
+            "jdk.SocketRead#threshold", "10 ms");
+
+    private final Recording recording;
+    private final Path file;
+    private final long startNanos = System.nanoTime();
+    private long elapsedNanos = -1;
+
+    private FlightRecording(Recording recording, Path file) {
+        this.recording = recording;
+        this.file = file;
+    }
+
+    /**
+     * Starts recording into {@code <directory>/<scenario>-<timestamp>.jfr}
+     */
+    public static FlightRecording start(Path directory, String scenario) throws IOException {
+        Files.createDirectories(directory);
+        Configuration profile;
+        try {
+            profile = Configuration.getConfiguration("profile");
+        } catch (ParseException e) {
+            throw new IOException("JDK profile settings unreadable", e);
+        }
+        Map<String, String> settings = new HashMap<>(profile.getSettings());
+        settings.putAll(TUNING);
+        Recording recording = new Recording(settings);
+        recording.setName("harness-" + scenario);
+        recording.setToDisk(true);
+        Path file = directory.resolve(scenario + "-" + LocalDateTime.now().format(STAMP) + ".jfr");
+        recording.setDestination(file);
+        recording.start();
+        logger.info("Flight recording started for {} into {}", scenario, file);
+        return new FlightRecording(recording, file);
+    }
+
+    /**
+     * Stops the recording and writes the file; safe to call more than once
+     */
+    public synchronized Path stop() {
+        if (elapsedNanos < 0) {
+            elapsedNanos = System.nanoTime() - startNanos;
+            recording.stop();
+            logger.info("Flight recording written to {}", file);
+        }
+        return file;
+    }
+
+    public synchronized long getElapsedNanos() {
+        return elapsedNanos < 0 ? System.nanoTime() - startNanos : elapsedNanos;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() {
+        stop();
+        recording.close();
+    }
+}
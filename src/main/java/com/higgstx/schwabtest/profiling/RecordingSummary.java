@@ -0,0 +1,192 @@
+package com.higgstx.schwabtest.profiling;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hot spots of a flight recording, read in one streaming pass over the file:
+ * top CPU methods by self samples, the project frames those samples run under,
+ * top allocation sites by sampled weight (with the project caller when the site
+ * is in the JDK or a library), GC pauses and monitor/park contention.
+ */
+public record RecordingSummary(Path file, long fileBytes, long executionSamples, List<Hot> topCpu,
+                               List<Hot> topProjectCpu, long sampledAllocationBytes, List<Hot> topAllocation,
+                               int gcCount, long gcPauseNanos, long gcLongestPauseNanos,
+                               List<Contention> contention) {
+
+    /**
+     * A frame or allocation site with its sample count or sampled bytes
+     */
+    public record Hot(String site, long weight) {
+    }
+
+    /**
+     * Blocked time on one monitor or park class
+     */
+    public record Contention(String kind, String monitor, long events, long totalNanos, long maxNanos) {
+    }
+
+    private static final class Wait {
+        long events;
+        long totalNanos;
+        long maxNanos;
+    }
+
+    /**
+     * @param projectPrefix package prefix whose innermost frame is credited for each
+     *                      CPU sample, e.g. {@code com.higgstx}
+     */
+    public static RecordingSummary read(Path file, String projectPrefix, int top) throws IOException {
+        Map<String, Long> cpu = new HashMap<>();
+        Map<String, Long> projectCpu = new HashMap<>();
+        Map<String, Long> allocation = new HashMap<>();
+        Map<String, Wait> waits = new HashMap<>();
+        long samples = 0;
+        long allocated = 0;
+        int gcCount = 0;
+        long gcPause = 0;
+        long gcLongest = 0;
+
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> {
+                        samples++;
+                        List<RecordedFrame> frames = frames(event.getStackTrace());
+                        if (!frames.isEmpty()) {
+                            cpu.merge(site(frames.get(0)), 1L, Long::sum);
+                        }
+                        RecordedFrame caller = projectFrame(frames, projectPrefix);
+                        if (caller != null) {
+                            projectCpu.merge(site(caller), 1L, Long::sum);
+                        }
+                    }
+                    case "jdk.ObjectAllocationSample" -> {
+                        long weight = event.getLong("weight");
+                        allocated += weight;
+                        List<RecordedFrame> frames = frames(event.getStackTrace());
+                        RecordedClass type = event.getClass("objectClass");
+                        RecordedFrame caller = projectFrame(frames, projectPrefix);
+                        String site = (frames.isEmpty() ? "(unknown)" : site(frames.get(0)))
+                                + " [" + (type != null ? type.getName() : "?") + "]"
+                                + (caller != null && caller != frames.get(0) ? " via " + site(caller) : "");
+                        allocation.merge(site, weight, Long::sum);
+                    }
+                    case "jdk.GarbageCollection" -> {
+                        gcCount++;
+                        gcPause += nanos(event.getDuration("sumOfPauses"));
+                        gcLongest = Math.max(gcLongest, nanos(event.getDuration("longestPause")));
+                    }
+                    case "jdk.JavaMonitorEnter" -> addWait(waits, "monitor", event.getClass("monitorClass"), event);
+                    case "jdk.ThreadPark" -> addWait(waits, "park", event.getClass("parkedClass"), event);
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        List<Contention> contention = waits.entrySet().stream()
+                .map(entry -> {
+                    int split = entry.getKey().indexOf(' ');
+                    Wait wait = entry.getValue();
+                    return new Contention(entry.getKey().substring(0, split), entry.getKey().substring(split + 1),
+                            wait.events, wait.totalNanos, wait.maxNanos);
+                })
+                .sorted(Comparator.comparingLong(Contention::totalNanos).reversed())
+                .limit(top)
+                .toList();
+        return new RecordingSummary(file, Files.size(file), samples, top(cpu, top), top(projectCpu, top), allocated,
+                top(allocation, top), gcCount, gcPause, gcLongest, contention);
+    }
+
+    private static void addWait(Map<String, Wait> waits, String kind, RecordedClass monitor, RecordedEvent event) {
+        Wait wait = waits.computeIfAbsent(kind + " " + (monitor != null ? monitor.getName() : "(unknown)"),
+                key -> new Wait());
+        long nanos = nanos(event.getDuration());
+        wait.events++;
+        wait.totalNanos += nanos;
+        wait.maxNanos = Math.max(wait.maxNanos, nanos);
+    }
+
+    private static List<RecordedFrame> frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return List.of();
+        }
+        return stackTrace.getFrames().stream().filter(RecordedFrame::isJavaFrame).toList();
+    }
+
+    private static RecordedFrame projectFrame(List<RecordedFrame> frames, String projectPrefix) {
+        for (RecordedFrame frame : frames) {
+            if (frame.getMethod().getType().getName().startsWith(projectPrefix)) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    private static String site(RecordedFrame frame) {
+        String method = frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+        return frame.getLineNumber() > 0 ? method + ":" + frame.getLineNumber() : method;
+    }
+
+    private static long nanos(Duration duration) {
+        return duration != null ? duration.toNanos() : 0;
+    }
+
+    private static List<Hot> top(Map<String, Long> weights, int top) {
+        return weights.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(top)
+                .map(entry -> new Hot(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    public void print(PrintStream out) {
+        out.printf("Recording: %s (%.1f MB)%n", file, fileBytes / (1024.0 * 1024.0));
+
+        out.printf("%nTop CPU methods (%d samples, self time):%n", executionSamples);
+        printShares(out, topCpu, executionSamples);
+        out.println("\nInnermost project frame of each CPU sample:");
+        printShares(out, topProjectCpu, executionSamples);
+
+        out.printf("%nTop allocation sites (%.1f MB sampled):%n", sampledAllocationBytes / (1024.0 * 1024.0));
+        for (Hot hot : topAllocation) {
+            out.printf("  %9.1f MB  %s%n", hot.weight() / (1024.0 * 1024.0), hot.site());
+        }
+
+        out.printf("%nGC: %d collection(s), %.1f ms paused in total, longest pause %.1f ms%n",
+                gcCount, gcPauseNanos / 1e6, gcLongestPauseNanos / 1e6);
+
+        out.println("\nLock contention (monitor enter over 1 ms, park over 5 ms):");
+        if (contention.isEmpty()) {
+            out.println("  none recorded");
+        }
+        for (Contention wait : contention) {
+            out.printf("  %-7s %6d waits | %9.1f ms total | %8.1f ms max | %s%n", wait.kind(), wait.events(),
+                    wait.totalNanos() / 1e6, wait.maxNanos() / 1e6, wait.monitor());
+        }
+    }
+
+    private static void printShares(PrintStream out, List<Hot> hots, long total) {
+        if (hots.isEmpty()) {
+            out.println("  no samples");
+        }
+        for (Hot hot : hots) {
+            out.printf("  %5.1f%%  %6d  %s%n", total > 0 ? 100.0 * hot.weight() / total : 0, hot.weight(), hot.site());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.higgstx.schwabtest.recording;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Read side of a recorded cassette. The index is loaded up front and grouped by
+ * request key; bodies stay compressed in the archive until an exchange is served.
+ * Repeated requests for the same key walk the recorded responses in order and wrap
+ * around, so a benchmark loop can replay a single recording indefinitely.
+ */
+public class Cassette implements Closeable {
+
+    private final Path path;
+    private final ZipFile zip;
+    private final List<CassetteEntry> entries;
+    private final Map<String, List<CassetteEntry>> byKey = new HashMap<>();
+    private final Map<String, AtomicInteger> cursors = new HashMap<>();
+
+    private Cassette(Path path, ZipFile zip, List<CassetteEntry> entries) {
+        this.path = path;
+        this.zip = zip;
+        this.entries = Collections.unmodifiableList(entries);
+        for (CassetteEntry entry : entries) {
+            byKey.computeIfAbsent(entry.key(), k -> new ArrayList<>()).add(entry);
+        }
+        byKey.keySet().forEach(key -> cursors.put(key, new AtomicInteger()));
+    }
+
+    public static Cassette open(Path path) throws IOException {
+        ZipFile zip = new ZipFile(path.toFile());
+        try {
+            ZipEntry index = zip.getEntry(CassetteWriter.INDEX_ENTRY);
+            if (index == null) {
+                throw new IOException("Cassette has no index: " + path);
+            }
+            List<CassetteEntry> entries;
+            try (InputStream in = zip.getInputStream(index)) {
+                entries = new ObjectMapper().readValue(in, new TypeReference<List<CassetteEntry>>() {});
+            }
+            return new Cassette(path, zip, entries);
+        } catch (IOException | RuntimeException e) {
+            zip.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Next recorded exchange for the request, or null if it was never recorded
+     */
+    public CassetteEntry next(String kind, String method, String target) {
+        String key = CassetteEntry.key(kind, method, target);
+        List<CassetteEntry> candidates = byKey.get(key);
+        if (candidates == null) {
+            return null;
+        }
+        int index = Math.floorMod(cursors.get(key).getAndIncrement(), candidates.size());
+        return candidates.get(index);
+    }
+
+    public byte[] readBody(CassetteEntry entry) throws IOException {
+        if (entry.bodyEntry() == null) {
+            return new byte[0];
+        }
+        ZipEntry zipEntry = zip.getEntry(entry.bodyEntry());
+        if (zipEntry == null) {
+            throw new IOException("Missing body " + entry.bodyEntry() + " in " + path);
+        }
+        try (InputStream in = zip.getInputStream(zipEntry)) {
+            return in.readAllBytes();
+        }
+    }
+
+    public List<CassetteEntry> getEntries() {
+        return entries;
+    }
+
+    public int distinctRequests() {
+        return byKey.size();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        zip.close();
+    }
+}
@@ -0,0 +1,39 @@
+package com.higgstx.schwabtest.recording;
+
+/**
+ * Index record for one recorded exchange. HTTP entries point at a compressed body
+ * in the archive; token entries only carry timing so no credentials are ever stored.
+ *
+ * @param sequence     order in which the exchange completed
+ * @param kind         {@link #HTTP} or {@link #TOKEN}
+ * @param method       HTTP method, or the TokenManager operation for token entries
+ * @param target       request path and normalized query (empty for token entries)
+ * @param status       HTTP status, or 200/500 for token success/failure
+ * @param contentType  response content type, may be null
+ * @param offsetNanos  start time relative to the beginning of the recording
+ * @param latencyNanos time the upstream call took
+ * @param bodyEntry    archive entry holding the response body, null if none
+ * @param bodySize     uncompressed body size in bytes
+ */
+public record CassetteEntry(long sequence,
+                            String kind,
+                            String method,
+                            String target,
+                            int status,
+                            String contentType,
+                            long offsetNanos,
+                            long latencyNanos,
+                            String bodyEntry,
+                            int bodySize) {
+
+    public static final String HTTP = "http";
+    public static final String TOKEN = "token";
+
+    public String key() {
+        return key(kind, method, target);
+    }
+
+    static String key(String kind, String method, String target) {
+        return kind + ' ' + method + ' ' + target;
+    }
+}
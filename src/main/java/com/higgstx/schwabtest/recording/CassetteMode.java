@@ -0,0 +1,19 @@
+package com.higgstx.schwabtest.recording;
+
+import java.util.Locale;
+
+/**
+ * How the harness talks to Schwab: directly, through a recording proxy, or from a cassette
+ */
+public enum CassetteMode {
+    OFF,
+    RECORD,
+    REPLAY;
+
+    public static CassetteMode parse(String value) {
+        if (value == null || value.isBlank()) {
+            return OFF;
+        }
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,269 @@
+package com.higgstx.schwabtest.recording;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loopback HTTP endpoint that sits between the harness and a Schwab API base URL.
+ * In RECORD mode requests are forwarded upstream and every response is written to a
+ * {@link CassetteWriter}; in REPLAY mode responses come from a {@link Cassette},
+ * delayed by the recorded latency divided by the configured speed (0 = no delay).
+ * In OFF mode nothing is started and {@link #route(String)} returns URLs unchanged.
+ * Only the Authorization and Accept headers are forwarded and neither is recorded.
+ */
+public class CassetteProxy implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CassetteProxy.class);
+    private static final String FORWARDED_PREFIX = "/upstream/";
+
+    private final CassetteMode mode;
+    private final Path file;
+    private final double speed;
+    private final Duration timeout;
+    private final LongAdder served = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private HttpClient upstreamClient;
+    private CassetteWriter writer;
+    private Cassette cassette;
+
+    public CassetteProxy(CassetteMode mode, Path file, double speed, int timeoutMs) throws IOException {
+        this.mode = mode;
+        this.file = file;
+        this.speed = speed;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        if (mode != CassetteMode.OFF) {
+            start();
+        }
+    }
+
+    private void start() throws IOException {
+        if (mode == CassetteMode.RECORD) {
+            writer = new CassetteWriter(file);
+            upstreamClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        } else {
+            cassette = Cassette.open(file);
+            logger.info("Replaying {} exchanges ({} distinct requests) from {}",
+                    cassette.getEntries().size(), cassette.distinctRequests(), file);
+        }
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "cassette-proxy");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        logger.info("Cassette proxy ({}) listening on port {}", mode, server.getAddress().getPort());
+    }
+
+    /**
+     * Rewrites an upstream base URL so requests go through the proxy. The upstream
+     * origin is carried in the path, so one proxy serves market data and trader URLs.
+     */
+    public String route(String baseUrl) {
+        if (mode == CassetteMode.OFF) {
+            return baseUrl;
+        }
+        URI upstream = URI.create(baseUrl);
+        return "http://127.0.0.1:" + server.getAddress().getPort() + FORWARDED_PREFIX
+                + upstream.getScheme() + "/" + upstream.getRawAuthority()
+                + (upstream.getRawPath() == null ? "" : upstream.getRawPath());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            URI upstream = upstreamUri(exchange.getRequestURI());
+            if (upstream == null) {
+                respond(exchange, 400, "application/json", error("Not a proxied URL"));
+                return;
+            }
+            String target = target(upstream);
+            if (mode == CassetteMode.RECORD) {
+                forward(exchange, method, upstream, target);
+            } else {
+                replay(exchange, method, target);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.warn("Cassette proxy request failed: {}", e.getMessage());
+        }
+    }
+
+    private void forward(HttpExchange exchange, String method, URI upstream, String target)
+            throws IOException, InterruptedException {
+        byte[] requestBody = exchange.getRequestBody().readAllBytes();
+        HttpRequest.Builder request = HttpRequest.newBuilder(upstream)
+                .timeout(timeout)
+                .method(method, requestBody.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(requestBody));
+        copyHeader(exchange, request, "Authorization");
+        copyHeader(exchange, request, "Accept");
+        copyHeader(exchange, request, "Content-Type");
+
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = upstreamClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            respond(exchange, 502, "application/json", error("Upstream unavailable: " + e.getMessage()));
+            return;
+        }
+        long latency = System.nanoTime() - start;
+        String contentType = response.headers().firstValue("Content-Type").orElse(null);
+
+        writer.writeHttp(method, target, response.statusCode(), contentType, start, latency, response.body());
+        served.increment();
+        respond(exchange, response.statusCode(), contentType, response.body());
+    }
+
+    private void replay(HttpExchange exchange, String method, String target)
+            throws IOException, InterruptedException {
+        exchange.getRequestBody().readAllBytes();
+        CassetteEntry entry = cassette.next(CassetteEntry.HTTP, method, target);
+        if (entry == null) {
+            misses.increment();
+            logger.warn("No recorded response for {} {}", method, target);
+            respond(exchange, 404, "application/json", error("Not recorded: " + method + " " + target));
+            return;
+        }
+        pause(entry.latencyNanos());
+        served.increment();
+        respond(exchange, entry.status(), entry.contentType(), cassette.readBody(entry));
+    }
+
+    /**
+     * Sleeps for a recorded latency scaled by the replay speed
+     */
+    public void pause(long recordedNanos) throws InterruptedException {
+        if (speed <= 0 || recordedNanos <= 0) {
+            return;
+        }
+        long nanos = (long) (recordedNanos / speed);
+        TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+
+    /**
+     * Strips the proxy prefix back to the original https URL
+     */
+    static URI upstreamUri(URI requestUri) {
+        String path = requestUri.getRawPath();
+        if (path == null || !path.startsWith(FORWARDED_PREFIX)) {
+            return null;
+        }
+        String rest = path.substring(FORWARDED_PREFIX.length());
+        int schemeEnd = rest.indexOf('/');
+        if (schemeEnd <= 0) {
+            return null;
+        }
+        String scheme = rest.substring(0, schemeEnd);
+        String remainder = rest.substring(schemeEnd + 1);
+        String query = requestUri.getRawQuery();
+        return URI.create(scheme + "://" + remainder + (query == null ? "" : "?" + query));
+    }
+
+    /**
+     * Host, path and query with parameters sorted so replay does not depend on
+     * the order a client happened to build them in
+     */
+    static String target(URI upstream) {
+        String path = upstream.getRawAuthority() + upstream.getRawPath();
+        String query = upstream.getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return path;
+        }
+        String[] params = query.split("&");
+        Arrays.sort(params);
+        return path + "?" + String.join("&", params);
+    }
+
+    private static void copyHeader(HttpExchange exchange, HttpRequest.Builder request, String name) {
+        List<String> values = exchange.getRequestHeaders().get(name);
+        if (values != null) {
+            values.forEach(value -> request.header(name, value));
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body)
+            throws IOException {
+        if (contentType != null) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static byte[] error(String message) {
+        return ("{\"error\":\"" + message.replace("\"", "'") + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    public CassetteMode getMode() {
+        return mode;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public CassetteWriter getWriter() {
+        return writer;
+    }
+
+    public Cassette getCassette() {
+        return cassette;
+    }
+
+    public long getServed() {
+        return served.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+        if (writer != null) {
+            writer.close();
+            logger.info("Cassette saved: {} exchanges to {}", writer.size(), file);
+        }
+        if (cassette != null) {
+            cassette.close();
+        }
+    }
+}
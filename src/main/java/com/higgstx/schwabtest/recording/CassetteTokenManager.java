@@ -0,0 +1,99 @@
+package com.higgstx.schwabtest.recording;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import com.higgstx.schwabapi.model.TokenResponse;
+import com.higgstx.schwabtest.service.SharedTokenManager;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * TokenManager that takes part in cassette recording. Token traffic goes to the
+ * OAuth endpoint inside the library, so it is captured at this API boundary as
+ * timing-only entries; tokens themselves are never written to the cassette.
+ * A token read is recorded only when it hands out a different token than the
+ * last one, so the cassette holds token events rather than every cached read.
+ * In REPLAY mode a placeholder token is handed out after the recorded latency,
+ * since the replay proxy does not check authorization.
+ */
+public class CassetteTokenManager extends SharedTokenManager {
+
+    static final String REPLAY_TOKEN = "cassette-replay";
+    private static final String GET_TOKEN = "getValidAccessToken";
+    private static final String REFRESH = "forceTokenRefresh";
+
+    private final CassetteProxy proxy;
+    private final AtomicBoolean replayTokenIssued = new AtomicBoolean();
+    private volatile String lastRecordedToken;
+
+    public CassetteTokenManager(String tokenFile, String appKey, String appSecret, Duration leaseWait,
+                                CassetteProxy proxy) throws SchwabApiException {
+        super(tokenFile, appKey, appSecret, leaseWait);
+        this.proxy = proxy;
+    }
+
+    @Override
+    public String getValidAccessToken() throws SchwabApiException {
+        if (proxy.getMode() == CassetteMode.REPLAY) {
+            if (replayTokenIssued.compareAndSet(false, true)) {
+                replayTiming(GET_TOKEN);
+            }
+            return REPLAY_TOKEN;
+        }
+        long start = System.nanoTime();
+        String token = null;
+        try {
+            token = super.getValidAccessToken();
+            return token;
+        } finally {
+            if (token == null) {
+                record(GET_TOKEN, false, start);
+            } else if (!Objects.equals(token, lastRecordedToken)) {
+                lastRecordedToken = token;
+                record(GET_TOKEN, true, start);
+            }
+        }
+    }
+
+    @Override
+    public TokenResponse forceTokenRefresh() throws SchwabApiException {
+        if (proxy.getMode() == CassetteMode.REPLAY) {
+            replayTiming(REFRESH);
+            throw SchwabApiException.tokenError("Token refresh is not available while replaying a cassette");
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            TokenResponse tokens = super.forceTokenRefresh();
+            success = true;
+            return tokens;
+        } finally {
+            record(REFRESH, success, start);
+        }
+    }
+
+    @Override
+    public boolean hasUsableTokens() {
+        return proxy.getMode() == CassetteMode.REPLAY || super.hasUsableTokens();
+    }
+
+    private void record(String operation, boolean success, long start) {
+        if (proxy.getMode() == CassetteMode.RECORD) {
+            proxy.getWriter().writeToken(operation, success, start, System.nanoTime() - start);
+        }
+    }
+
+    private void replayTiming(String operation) throws SchwabApiException {
+        CassetteEntry entry = proxy.getCassette().next(CassetteEntry.TOKEN, operation, "");
+        if (entry == null) {
+            return;
+        }
+        try {
+            proxy.pause(entry.latencyNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SchwabApiException.tokenError("Interrupted while replaying " + operation);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.higgstx.schwabtest.recording;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Appends exchanges to a zip cassette: one deflated entry per response body and an
+ * {@code index.json} written on close. Writes go to a temporary file that replaces
+ * the target only once the index is complete, so an aborted run never leaves a
+ * cassette without an index.
+ */
+public class CassetteWriter implements Closeable {
+
+    static final String INDEX_ENTRY = "index.json";
+    static final String BODY_PREFIX = "bodies/";
+
+    private final Path target;
+    private final Path temp;
+    private final ZipOutputStream zip;
+    private final List<CassetteEntry> entries = new ArrayList<>();
+    private final long startNanos = System.nanoTime();
+    private boolean closed;
+
+    public CassetteWriter(Path target) throws IOException {
+        this.target = target.toAbsolutePath();
+        Path parent = this.target.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.temp = this.target.resolveSibling(this.target.getFileName() + ".partial");
+        this.zip = new ZipOutputStream(Files.newOutputStream(temp));
+        this.zip.setLevel(Deflater.BEST_SPEED);
+    }
+
+    public long startNanos() {
+        return startNanos;
+    }
+
+    public synchronized CassetteEntry writeHttp(String method, String target, int status, String contentType,
+            long requestStartNanos, long latencyNanos, byte[] body) throws IOException {
+        ensureOpen();
+        long sequence = entries.size() + 1;
+        String bodyEntry = null;
+        if (body != null && body.length > 0) {
+            bodyEntry = BODY_PREFIX + String.format("%06d", sequence);
+            zip.putNextEntry(new ZipEntry(bodyEntry));
+            zip.write(body);
+            zip.closeEntry();
+        }
+        CassetteEntry entry = new CassetteEntry(sequence, CassetteEntry.HTTP, method, target, status, contentType,
+                requestStartNanos - startNanos, latencyNanos, bodyEntry, body == null ? 0 : body.length);
+        entries.add(entry);
+        return entry;
+    }
+
+    public synchronized CassetteEntry writeToken(String operation, boolean success,
+            long requestStartNanos, long latencyNanos) {
+        if (closed) {
+            return null;
+        }
+        CassetteEntry entry = new CassetteEntry(entries.size() + 1, CassetteEntry.TOKEN, operation, "",
+                success ? 200 : 500, null, requestStartNanos - startNanos, latencyNanos, null, 0);
+        entries.add(entry);
+        return entry;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        zip.putNextEntry(new ZipEntry(INDEX_ENTRY));
+        zip.write(new ObjectMapper().writeValueAsBytes(entries));
+        zip.closeEntry();
+        zip.close();
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Cassette already closed: " + target);
+        }
+    }
+}
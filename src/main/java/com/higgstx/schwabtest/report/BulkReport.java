@@ -0,0 +1,303 @@
+package com.higgstx.schwabtest.report;
+
+import com.higgstx.schwabapi.model.market.DailyPriceData;
+import com.higgstx.schwabtest.analytics.PriceDataFields;
+
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bulk fetch report built in a single streaming pass.
+ * <p>
+ * Each candle updates a fixed-size accumulator for its symbol (counts, first
+ * sample, first error, date range) and a bounded min-heap of the most recent
+ * candles, so memory depends on the number of symbols and samples, not on the
+ * number of candles. Sections are written to a caller-supplied buffered writer.
+ */
+public final class BulkReport {
+
+    public static final int DEFAULT_RECENT_SAMPLES = 5;
+
+    private static final class SymbolAccumulator {
+        long total;
+        long successful;
+        long usable;
+        DailyPriceData firstSuccess;
+        DailyPriceData firstError;
+        int firstDay = Integer.MAX_VALUE;
+        int lastDay = Integer.MIN_VALUE;
+    }
+
+    private final String[] symbols;
+    private final Map<String, SymbolAccumulator> bySymbol = new HashMap<>();
+    private long total;
+    private long successful;
+
+    // Min-heap on (day, -arrival): the root is the oldest of the recent candles kept
+    private final int[] heapDays;
+    private final long[] heapArrivals;
+    private final DailyPriceData[] heapData;
+    private int heapSize;
+    private long arrivals;
+
+    // Bulk results arrive grouped by symbol, so the previous lookup usually hits
+    private String lastSymbol;
+    private SymbolAccumulator lastAccumulator;
+
+    public BulkReport(String[] symbols, int recentSamples) {
+        this.symbols = symbols.clone();
+        for (String symbol : symbols) {
+            bySymbol.putIfAbsent(symbol, new SymbolAccumulator());
+        }
+        heapDays = new int[recentSamples];
+        heapArrivals = new long[recentSamples];
+        heapData = new DailyPriceData[recentSamples];
+    }
+
+    public static BulkReport of(String[] symbols, Iterable<DailyPriceData> candles) {
+        BulkReport report = new BulkReport(symbols, DEFAULT_RECENT_SAMPLES);
+        for (DailyPriceData data : candles) {
+            report.accept(data);
+        }
+        return report;
+    }
+
+    public void accept(DailyPriceData data) {
+        if (data == null) {
+            return;
+        }
+        total++;
+        boolean success = data.isSuccess();
+        if (success) {
+            successful++;
+        }
+
+        SymbolAccumulator symbol = accumulator(data.getSymbol());
+        if (symbol != null) {
+            symbol.total++;
+            if (success) {
+                symbol.successful++;
+                if (symbol.firstSuccess == null) {
+                    symbol.firstSuccess = data;
+                }
+            } else if (symbol.firstError == null) {
+                symbol.firstError = data;
+            }
+        }
+
+        if (!PriceDataFields.isUsable(data)) {
+            return;
+        }
+        int day = PriceDataFields.epochDay(data);
+        if (symbol != null) {
+            symbol.usable++;
+            symbol.firstDay = Math.min(symbol.firstDay, day);
+            symbol.lastDay = Math.max(symbol.lastDay, day);
+        }
+        offerRecent(day, data);
+    }
+
+    private SymbolAccumulator accumulator(String symbol) {
+        if (symbol == null) {
+            return null;
+        }
+        if (!symbol.equals(lastSymbol)) {
+            lastSymbol = symbol;
+            lastAccumulator = bySymbol.get(symbol);
+        }
+        return lastAccumulator;
+    }
+
+    private void offerRecent(int day, DailyPriceData data) {
+        if (heapDays.length == 0) {
+            return;
+        }
+        long arrival = arrivals++;
+        if (heapSize < heapDays.length) {
+            int i = heapSize++;
+            set(i, day, arrival, data);
+            siftUp(i);
+        } else if (day > heapDays[0]) {
+            // On equal days the earlier arrival stays, as a stable sort would list it first
+            set(0, day, arrival, data);
+            siftDown(0);
+        }
+    }
+
+    private boolean less(int a, int b) {
+        return heapDays[a] != heapDays[b] ? heapDays[a] < heapDays[b] : heapArrivals[a] > heapArrivals[b];
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(i, parent)) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < heapSize && less(left, smallest)) {
+                smallest = left;
+            }
+            if (right < heapSize && less(right, smallest)) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void set(int i, int day, long arrival, DailyPriceData data) {
+        heapDays[i] = day;
+        heapArrivals[i] = arrival;
+        heapData[i] = data;
+    }
+
+    private void swap(int a, int b) {
+        int day = heapDays[a];
+        long arrival = heapArrivals[a];
+        DailyPriceData data = heapData[a];
+        set(a, heapDays[b], heapArrivals[b], heapData[b]);
+        set(b, day, arrival, data);
+    }
+
+    /**
+     * Most recent usable candles, newest first
+     */
+    public DailyPriceData[] recentSamples() {
+        int[] order = new int[heapSize];
+        for (int i = 0; i < heapSize; i++) {
+            order[i] = i;
+        }
+        // At most a handful of entries; an insertion sort by "greater" is plenty
+        for (int i = 1; i < order.length; i++) {
+            for (int j = i; j > 0 && less(order[j - 1], order[j]); j--) {
+                int t = order[j];
+                order[j] = order[j - 1];
+                order[j - 1] = t;
+            }
+        }
+        DailyPriceData[] recent = new DailyPriceData[heapSize];
+        for (int i = 0; i < heapSize; i++) {
+            recent[i] = heapData[order[i]];
+        }
+        return recent;
+    }
+
+    /**
+     * Header, per-symbol results and throughput
+     */
+    public void writeResults(PrintWriter out, long totalTimeMs) {
+        out.println();
+        out.println("=".repeat(70));
+        out.println("BULK FETCH RESULTS");
+        out.println("=".repeat(70));
+        out.println("Total time: " + totalTimeMs + "ms");
+        out.println("Total data points returned: " + total);
+        out.println("Symbols requested: " + symbols.length);
+
+        out.println();
+        out.println("Results by symbol:");
+        out.println("-".repeat(50));
+        for (String symbol : symbols) {
+            writeSymbol(out, symbol, bySymbol.get(symbol));
+        }
+
+        out.println("PERFORMANCE ANALYSIS:");
+        out.println("-".repeat(50));
+        out.println("Average time per symbol: " + (totalTimeMs / Math.max(symbols.length, 1)) + "ms");
+        out.println("Data points per second: " + (total * 1000 / Math.max(totalTimeMs, 1)));
+    }
+
+    private static void writeSymbol(PrintWriter out, String symbol, SymbolAccumulator accumulator) {
+        if (accumulator == null || accumulator.total == 0) {
+            out.println(symbol + ": No data returned");
+            return;
+        }
+
+        long errors = accumulator.total - accumulator.successful;
+        out.println(symbol + ":");
+        out.println("  Total data points: " + accumulator.total);
+        out.println("  Successful: " + accumulator.successful);
+        out.println("  Errors: " + errors);
+
+        if (accumulator.successful > 0) {
+            DailyPriceData sample = accumulator.firstSuccess;
+            out.println("  Sample data:");
+            out.println("    Date: " + sample.getLocalDate());
+            out.println("    Open: $" + sample.getOpen());
+            out.println("    High: $" + sample.getHigh());
+            out.println("    Low: $" + sample.getLow());
+            out.println("    Close: $" + sample.getClose());
+            out.println("    Volume: " + formatVolume(sample.getVolume()));
+            if (accumulator.usable > 1 && accumulator.lastDay > accumulator.firstDay) {
+                out.println("  Date range: " + LocalDate.ofEpochDay(accumulator.firstDay) + " to "
+                        + LocalDate.ofEpochDay(accumulator.lastDay));
+            }
+        } else if (errors > 0 && accumulator.firstError.getErrorMessage() != null) {
+            out.println("  Error: " + accumulator.firstError.getErrorMessage());
+        }
+        out.println();
+    }
+
+    /**
+     * Overall success rate; the first lines of the data quality section
+     */
+    public void writeSuccessRate(PrintWriter out) {
+        out.println();
+        out.println("DATA QUALITY:");
+        out.println("-".repeat(50));
+        out.println("Success rate: " + String.format("%.1f%%", total == 0 ? 0.0 : (double) successful / total * 100));
+        out.println("Successful data points: " + successful);
+        out.println("Failed data points: " + (total - successful));
+    }
+
+    public void writeRecentSamples(PrintWriter out) {
+        if (heapSize == 0) {
+            return;
+        }
+        out.println();
+        out.println("MOST RECENT DATA SAMPLES:");
+        out.println("-".repeat(50));
+        for (DailyPriceData data : recentSamples()) {
+            out.println(data.getSymbol() + " (" + LocalDate.ofEpochDay(PriceDataFields.epochDay(data)) + "): "
+                    + "Close $" + String.format("%.2f", PriceDataFields.toDouble(data.getClose()))
+                    + ", Volume " + formatVolume(PriceDataFields.toLong(data.getVolume())));
+        }
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getSuccessful() {
+        return successful;
+    }
+
+    public static String formatVolume(Long volume) {
+        if (volume == null) return "N/A";
+
+        if (volume >= 1_000_000_000) {
+            return String.format("%.1fB", volume / 1_000_000_000.0);
+        } else if (volume >= 1_000_000) {
+            return String.format("%.1fM", volume / 1_000_000.0);
+        } else if (volume >= 1_000) {
+            return String.format("%.1fK", volume / 1_000.0);
+        } else {
+            return volume.toString();
+        }
+    }
+}
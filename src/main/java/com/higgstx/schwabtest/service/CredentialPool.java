@@ -0,0 +1,157 @@
+package com.higgstx.schwabtest.service;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Routes API calls across several app credentials so aggregate throughput is the
+ * sum of their rate budgets. Each call goes to the least-loaded slot: fewest calls
+ * in flight among slots with a permit ready, otherwise the slot whose next permit
+ * comes soonest. Slots whose tokens are unusable are skipped while any healthy
+ * slot remains. Before taking a permit, calls queue in the {@link RequestScheduler}
+ * by priority class, so interactive calls are not stuck behind a bulk backlog.
+ */
+public class CredentialPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CredentialPool.class);
+
+    /**
+     * A unit of work bound to whichever credential the pool picks
+     */
+    @FunctionalInterface
+    public interface ApiCall<T> {
+        T call(CredentialSlot slot) throws SchwabApiException;
+    }
+
+    private final List<CredentialSlot> slots;
+    private final RequestScheduler scheduler;
+
+    public CredentialPool(List<CredentialSlot> slots) {
+        this(slots, new RequestScheduler(8, 1));
+    }
+
+    public CredentialPool(List<CredentialSlot> slots, RequestScheduler scheduler) {
+        if (slots == null || slots.isEmpty()) {
+            throw new IllegalArgumentException("Credential pool needs at least one credential");
+        }
+        this.slots = List.copyOf(slots);
+        this.scheduler = scheduler;
+        logger.info("Credential pool ready with {} credential(s)", this.slots.size());
+    }
+
+    /**
+     * Runs a background call
+     */
+    public <T> T execute(ApiCall<T> call) throws SchwabApiException {
+        return execute(RequestScheduler.Priority.BULK, call);
+    }
+
+    public <T> T execute(RequestScheduler.Priority priority, ApiCall<T> call) throws SchwabApiException {
+        long queued = System.nanoTime();
+        CredentialSlot slot;
+        try {
+            scheduler.acquire(priority);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SchwabApiException.networkError("waiting for a " + priority + " turn", e);
+        }
+        try {
+            slot = select();
+            slot.getRateLimiter().acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SchwabApiException.networkError("waiting for rate budget", e);
+        } finally {
+            scheduler.release(priority, System.nanoTime() - queued);
+        }
+
+        slot.begin();
+        long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            return call.call(slot);
+        } catch (SchwabApiException | RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            slot.end(System.nanoTime() - start, error);
+        }
+    }
+
+    /**
+     * Picks the best healthy slot, or the best of all slots when none is healthy.
+     * Token health is checked once per slot, since it may read the token file.
+     */
+    CredentialSlot select() {
+        CredentialSlot bestHealthy = null;
+        long bestHealthyWait = Long.MAX_VALUE;
+        int bestHealthyInFlight = Integer.MAX_VALUE;
+        CredentialSlot bestAny = null;
+        long bestAnyWait = Long.MAX_VALUE;
+        int bestAnyInFlight = Integer.MAX_VALUE;
+
+        for (CredentialSlot slot : slots) {
+            long wait = slot.getRateLimiter().nanosUntilPermit();
+            int inFlight = slot.getInFlight();
+            if (slot.isTokenHealthy()
+                    && (bestHealthy == null || isBetter(wait, inFlight, bestHealthyWait, bestHealthyInFlight))) {
+                bestHealthy = slot;
+                bestHealthyWait = wait;
+                bestHealthyInFlight = inFlight;
+            }
+            if (bestAny == null || isBetter(wait, inFlight, bestAnyWait, bestAnyInFlight)) {
+                bestAny = slot;
+                bestAnyWait = wait;
+                bestAnyInFlight = inFlight;
+            }
+        }
+        return bestHealthy != null ? bestHealthy : bestAny;
+    }
+
+    /**
+     * Ready slots first, then by load, then by how soon a permit frees up
+     */
+    private static boolean isBetter(long wait, int inFlight, long bestWait, int bestInFlight) {
+        boolean ready = wait == 0;
+        if (ready != (bestWait == 0)) {
+            return ready;
+        }
+        if (ready) {
+            return inFlight < bestInFlight;
+        }
+        return wait < bestWait || (wait == bestWait && inFlight < bestInFlight);
+    }
+
+    public List<CredentialSlot.Stats> stats() {
+        return slots.stream().map(CredentialSlot::stats).toList();
+    }
+
+    public RequestScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public List<CredentialSlot> getSlots() {
+        return slots;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Closes the market data services and token watchers the pool created; the
+     * primary slot is owned by Spring
+     */
+    @Override
+    public void close() {
+        for (int i = 1; i < slots.size(); i++) {
+            slots.get(i).getMarketDataService().close();
+            if (slots.get(i).getTokenManager() instanceof SharedTokenManager shared) {
+                shared.stopWatching();
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.higgstx.schwabtest.service;
+
+import com.higgstx.schwabapi.service.MarketDataService;
+import com.higgstx.schwabapi.service.TokenManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One approved app in the credential pool: its TokenManager and MarketDataService,
+ * its own rate budget and the load/throughput counters the dispatcher reads.
+ */
+public class CredentialSlot {
+
+    private final String name;
+    private final TokenManager tokenManager;
+    private final MarketDataService marketDataService;
+    private final RateLimiter rateLimiter;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong firstCallNanos = new AtomicLong();
+    private volatile long lastCallEndNanos;
+    private volatile String lastError;
+
+    public CredentialSlot(String name, TokenManager tokenManager, MarketDataService marketDataService,
+                          RateLimiter rateLimiter) {
+        this.name = name;
+        this.tokenManager = tokenManager;
+        this.marketDataService = marketDataService;
+        this.rateLimiter = rateLimiter;
+    }
+
+    public record Stats(String name, int inFlight, long completed, long failed, double averageLatencyMs,
+                        double callsPerMinute, boolean tokenHealthy, String lastError) {
+    }
+
+    void begin() {
+        firstCallNanos.compareAndSet(0, System.nanoTime());
+        inFlight.incrementAndGet();
+    }
+
+    void end(long elapsedNanos, Throwable error) {
+        inFlight.decrementAndGet();
+        latencyNanos.add(elapsedNanos);
+        lastCallEndNanos = System.nanoTime();
+        if (error == null) {
+            completed.increment();
+        } else {
+            failed.increment();
+            lastError = error.getMessage();
+        }
+    }
+
+    public Stats stats() {
+        long done = completed.sum();
+        long calls = done + failed.sum();
+        // Throughput over the span this credential was actually used
+        double minutes = calls == 0 ? 0 : (lastCallEndNanos - firstCallNanos.get()) / 60e9;
+        return new Stats(name, inFlight.get(), done, failed.sum(),
+                calls == 0 ? 0 : latencyNanos.sum() / 1e6 / calls,
+                minutes <= 0 ? 0 : calls / minutes,
+                isTokenHealthy(), lastError);
+    }
+
+    public boolean isTokenHealthy() {
+        try {
+            return tokenManager.hasUsableTokens();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public TokenManager getTokenManager() {
+        return tokenManager;
+    }
+
+    public MarketDataService getMarketDataService() {
+        return marketDataService;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+}
@@ -0,0 +1,125 @@
+package com.higgstx.schwabtest.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive lease on a lock file shared by every process on the host.
+ * <p>
+ * Across processes the lease is an OS file lock, which the kernel drops if the
+ * holder dies, so there is no stale lease to expire. Within one JVM a lock per
+ * path serializes threads first, since file locks are held per process. The
+ * holder's pid and acquisition time are written into the file for diagnostics.
+ */
+public final class FileLease implements AutoCloseable {
+
+    private static final long POLL_MILLIS = 100;
+    private static final Map<Path, ReentrantLock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+    private final ReentrantLock localLock;
+    private final FileChannel channel;
+    private final FileLock fileLock;
+
+    private FileLease(ReentrantLock localLock, FileChannel channel, FileLock fileLock) {
+        this.localLock = localLock;
+        this.channel = channel;
+        this.fileLock = fileLock;
+    }
+
+    /**
+     * Waits up to {@code timeout} for the lease
+     *
+     * @return the lease, or null if another holder kept it for the whole timeout
+     */
+    public static FileLease acquire(Path lockFile, Duration timeout) throws IOException, InterruptedException {
+        Path key = lockFile.toAbsolutePath().normalize();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        ReentrantLock localLock = LOCAL_LOCKS.computeIfAbsent(key, k -> new ReentrantLock());
+        if (!localLock.tryLock(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            return null;
+        }
+
+        FileChannel channel = null;
+        try {
+            Path parent = key.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(key, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            while (true) {
+                FileLock fileLock = tryLock(channel);
+                if (fileLock != null) {
+                    FileLease lease = new FileLease(localLock, channel, fileLock);
+                    lease.writeHolder();
+                    return lease;
+                }
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            closeQuietly(channel);
+            localLock.unlock();
+            throw e;
+        }
+        closeQuietly(channel);
+        localLock.unlock();
+        return null;
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Same JVM through a different path spelling; treat as held
+            return null;
+        }
+    }
+
+    private void writeHolder() throws IOException {
+        String holder = "pid=" + ProcessHandle.current().pid() + " acquired=" + Instant.now() + "\n";
+        channel.truncate(0);
+        channel.write(ByteBuffer.wrap(holder.getBytes(StandardCharsets.UTF_8)), 0);
+    }
+
+    public boolean isValid() {
+        return fileLock.isValid();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            try {
+                fileLock.release();
+            } finally {
+                channel.close();
+            }
+        } finally {
+            localLock.unlock();
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Nothing useful to do if the lock file cannot be closed
+            }
+        }
+    }
+}
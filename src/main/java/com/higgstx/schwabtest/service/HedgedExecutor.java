@@ -0,0 +1,256 @@
+package com.higgstx.schwabtest.service;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs pool calls with optional request hedging to cut tail latency.
+ * <p>
+ * If a call has not finished by the recent p95 latency of its operation, a duplicate
+ * is dispatched through the pool (usually landing on the least-loaded credential);
+ * the first response wins and the loser is cancelled. Hedges draw from a budget
+ * that earns {@code budgetFraction} of a hedge per call, so extra load stays near
+ * that fraction even when the API slows down across the board. Until an operation
+ * has {@code minSamples} latencies, or while hedging is disabled, calls go straight
+ * through but still feed the latency window. Inside a {@link JobBudget} every call
+ * runs on the executor so it can be abandoned when its share of the budget runs out.
+ */
+public class HedgedExecutor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgedExecutor.class);
+    private static final int WINDOW_SIZE = 512;
+    private static final double MAX_BUDGET = 10.0;
+
+    public record Stats(String operation, long calls, long hedgesSent, long hedgeWins, long budgetDenied,
+                        long p50Nanos, long p95Nanos, long p99Nanos) {
+
+        public double hedgeRate() {
+            return calls == 0 ? 0 : (double) hedgesSent / calls;
+        }
+    }
+
+    private static final class Operation {
+        final String name;
+        final LatencyWindow window = new LatencyWindow(WINDOW_SIZE);
+        final LongAdder calls = new LongAdder();
+        final LongAdder hedgesSent = new LongAdder();
+        final LongAdder hedgeWins = new LongAdder();
+        final LongAdder budgetDenied = new LongAdder();
+
+        Operation(String name) {
+            this.name = name;
+        }
+    }
+
+    private final CredentialPool pool;
+    private final double hedgePercentile;
+    private final double budgetFraction;
+    private final int minSamples;
+    private final ExecutorService executor;
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+    private double budget;
+
+    public HedgedExecutor(CredentialPool pool, boolean enabled, double hedgePercentile, double budgetFraction,
+                          int minSamples) {
+        this.pool = pool;
+        this.enabled = enabled;
+        this.hedgePercentile = hedgePercentile;
+        this.budgetFraction = budgetFraction;
+        this.minSamples = minSamples;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "hedged-call-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs {@code call} through the pool, hedging it once if it runs past the
+     * operation's hedge delay and the budget allows
+     *
+     * @param operation latency class, e.g. "quotes" or "priceHistory"
+     */
+    public <T> T execute(String operation, CredentialPool.ApiCall<T> call) throws SchwabApiException {
+        return execute(operation, RequestScheduler.Priority.BULK, call);
+    }
+
+    public <T> T execute(String operation, RequestScheduler.Priority priority, CredentialPool.ApiCall<T> call)
+            throws SchwabApiException {
+        Operation op = operations.computeIfAbsent(operation, Operation::new);
+        op.calls.increment();
+        earnBudget();
+        long start = System.nanoTime();
+
+        long hedgeDelay = op.window.percentile(hedgePercentile);
+        boolean hedging = enabled && op.window.size() >= minSamples && hedgeDelay > 0;
+        JobBudget jobBudget = JobBudget.current();
+        if (!hedging && jobBudget == null) {
+            T result = pool.execute(priority, call);
+            op.window.record(System.nanoTime() - start);
+            return result;
+        }
+
+        // Inside a job, the call is abandoned once its share of the job budget runs out
+        long deadline = Long.MAX_VALUE;
+        Callable<T> attempt = () -> pool.execute(priority, call);
+        if (jobBudget != null) {
+            long timeout = jobBudget.requestTimeoutNanos(Long.MAX_VALUE);
+            if (timeout <= 0) {
+                throw jobBudget.timeoutError(operation);
+            }
+            deadline = start + timeout;
+            attempt = () -> {
+                try (JobBudget.Scope ignored = jobBudget.bind()) {
+                    return pool.execute(priority, call);
+                }
+            };
+        }
+
+        CompletionService<T> race = new ExecutorCompletionService<>(executor);
+        Future<T> primary = race.submit(attempt);
+        Future<T> hedge = null;
+        try {
+            long firstWait = jobBudget == null ? hedgeDelay : Math.min(hedgeDelay, deadline - start);
+            Future<T> first = hedging ? race.poll(firstWait, TimeUnit.NANOSECONDS) : awaitNext(race, deadline);
+            if (first == null && hedging) {
+                if (trySpendBudget()) {
+                    op.hedgesSent.increment();
+                    hedge = race.submit(attempt);
+                } else {
+                    op.budgetDenied.increment();
+                }
+                first = awaitNext(race, deadline);
+            }
+            if (first == null) {
+                throw timedOut(operation, jobBudget, primary, hedge);
+            }
+
+            Future<T> other = first == primary ? hedge : primary;
+            T result;
+            try {
+                result = first.get();
+            } catch (ExecutionException e) {
+                if (other == null) {
+                    throw unwrap(operation, e);
+                }
+                // The first attempt failed outright; fall back to whichever is still running
+                first = awaitNext(race, deadline);
+                if (first == null) {
+                    throw timedOut(operation, jobBudget, primary, hedge);
+                }
+                other = null;
+                result = get(operation, first);
+            }
+            if (other != null) {
+                other.cancel(true);
+            }
+            if (first == hedge) {
+                op.hedgeWins.increment();
+            }
+            long latency = System.nanoTime() - start;
+            op.window.record(latency);
+            if (jobBudget != null) {
+                jobBudget.recordLatency(latency);
+            }
+            return result;
+        } catch (InterruptedException e) {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw SchwabApiException.networkError("waiting for " + operation, e);
+        }
+    }
+
+    /**
+     * Next completed attempt, or null once {@code deadline} (a nanoTime) has passed
+     */
+    private static <T> Future<T> awaitNext(CompletionService<T> race, long deadline) throws InterruptedException {
+        if (deadline == Long.MAX_VALUE) {
+            return race.take();
+        }
+        return race.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    private static SchwabApiException timedOut(String operation, JobBudget jobBudget, Future<?> primary,
+                                               Future<?> hedge) {
+        primary.cancel(true);
+        if (hedge != null) {
+            hedge.cancel(true);
+        }
+        jobBudget.recordTimeout(operation);
+        return jobBudget.timeoutError(operation);
+    }
+
+    private static <T> T get(String operation, Future<T> future) throws SchwabApiException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(operation, e);
+        }
+    }
+
+    private static SchwabApiException unwrap(String operation, ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof SchwabApiException apiException) {
+            return apiException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        return SchwabApiException.networkError(operation, cause instanceof Exception ex ? ex : e);
+    }
+
+    private synchronized void earnBudget() {
+        budget = Math.min(MAX_BUDGET, budget + budgetFraction);
+    }
+
+    private synchronized boolean trySpendBudget() {
+        if (budget >= 1.0) {
+            budget -= 1.0;
+            return true;
+        }
+        return false;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        logger.info("Request hedging {}", enabled ? "enabled" : "disabled");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CredentialPool getPool() {
+        return pool;
+    }
+
+    public Stats stats(String operation) {
+        Operation op = operations.computeIfAbsent(operation, Operation::new);
+        return new Stats(op.name, op.calls.sum(), op.hedgesSent.sum(), op.hedgeWins.sum(), op.budgetDenied.sum(),
+                op.window.percentile(0.50), op.window.percentile(0.95), op.window.percentile(0.99));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,167 @@
+package com.higgstx.schwabtest.service;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end time budget for one bulk or poll job.
+ * <p>
+ * A job binds its budget to each thread doing its work; {@link SchwabRestClient}
+ * and {@link HedgedExecutor} pick it up from there and cap every request at the
+ * smaller of the remaining budget and a few times the job's observed p99 latency,
+ * so one hung call cannot eat the collection window. Items that are not expected
+ * to finish in the time left are skipped up front and reported in the
+ * {@link Summary} instead of being started.
+ */
+public final class JobBudget {
+
+    private static final ThreadLocal<JobBudget> CURRENT = new ThreadLocal<>();
+    private static final int MIN_SAMPLES = 5;
+    private static final long TIMEOUT_P99_MULTIPLE = 3;
+    private static final long MIN_REQUEST_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int MAX_REPORTED_ITEMS = 50;
+
+    public record Summary(String job, long budgetMillis, long elapsedMillis, int completed, int skipped,
+                          int timedOut, List<String> skippedItems) {
+
+        public boolean finishedInTime() {
+            return elapsedMillis <= budgetMillis;
+        }
+    }
+
+    /**
+     * Restores the previously bound budget when closed
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final JobBudget previous;
+
+        private Scope(JobBudget previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    private final String job;
+    private final long startNanos;
+    private final long deadlineNanos;
+    private final LatencyWindow latencies = new LatencyWindow(256);
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger timedOut = new AtomicInteger();
+    private final List<String> skippedItems = new ArrayList<>();
+
+    private JobBudget(String job, Duration total) {
+        this.job = job;
+        this.startNanos = System.nanoTime();
+        this.deadlineNanos = startNanos + total.toNanos();
+    }
+
+    public static JobBudget start(String job, Duration total) {
+        return new JobBudget(job, total);
+    }
+
+    /**
+     * Budget bound to the calling thread, or null outside any job
+     */
+    public static JobBudget current() {
+        return CURRENT.get();
+    }
+
+    public Scope bind() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(this);
+        return scope;
+    }
+
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Timeout for the next request: the remaining budget, tightened to a multiple of
+     * the observed p99 once enough calls have completed, and never above {@code cap}
+     *
+     * @return nanoseconds, or zero or less if the budget is spent
+     */
+    public long requestTimeoutNanos(long capNanos) {
+        long timeout = Math.min(capNanos, remainingNanos());
+        if (latencies.size() >= MIN_SAMPLES) {
+            long derived = Math.max(MIN_REQUEST_TIMEOUT_NANOS, latencies.percentile(0.99) * TIMEOUT_P99_MULTIPLE);
+            timeout = Math.min(timeout, derived);
+        }
+        return timeout;
+    }
+
+    /**
+     * Decides whether an item can still be started: the time left must cover the
+     * job's median latency so far. Skipped items are counted and remembered.
+     */
+    public boolean tryStart(String item) {
+        long remaining = remainingNanos();
+        if (remaining > 0 && remaining >= latencies.percentile(0.50)) {
+            return true;
+        }
+        skipped.incrementAndGet();
+        remember(item);
+        return false;
+    }
+
+    public void recordLatency(long latencyNanos) {
+        latencies.record(latencyNanos);
+        completed.incrementAndGet();
+    }
+
+    public void recordTimeout(String item) {
+        timedOut.incrementAndGet();
+        remember(item + " (timed out)");
+    }
+
+    private void remember(String item) {
+        synchronized (skippedItems) {
+            if (skippedItems.size() < MAX_REPORTED_ITEMS) {
+                skippedItems.add(item);
+            }
+        }
+    }
+
+    /**
+     * Error for a request that was cut off, or never sent, because the budget ran out
+     */
+    public SchwabApiException timeoutError(String operation) {
+        return SchwabApiException.networkError(operation, new TimeoutException(
+                "Job '" + job + "' time budget exhausted"));
+    }
+
+    public Summary summary() {
+        List<String> items;
+        synchronized (skippedItems) {
+            items = List.copyOf(skippedItems);
+        }
+        return new Summary(job, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - startNanos),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), completed.get(), skipped.get(),
+                timedOut.get(), items);
+    }
+
+    public String getJob() {
+        return job;
+    }
+}
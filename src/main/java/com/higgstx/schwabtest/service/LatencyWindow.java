@@ -0,0 +1,43 @@
+package com.higgstx.schwabtest.service;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window of the most recent call latencies, used to answer percentile
+ * queries such as "how long does a typical slow call take right now"
+ */
+public class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    public LatencyWindow(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * Nearest-rank percentile of the window, or 0 while it is empty
+     *
+     * @param fraction percentile as a fraction, e.g. 0.95
+     */
+    public synchronized long percentile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(fraction * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+}
@@ -0,0 +1,82 @@
+package com.higgstx.schwabtest.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket limiter: {@code permitsPerMinute} refill continuously and up to
+ * {@code burst} permits can accumulate while idle.
+ */
+public class RateLimiter {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final LongSupplier nanoClock;
+    private double available;
+    private long lastRefillNanos;
+
+    public RateLimiter(int permitsPerMinute, int burst) {
+        this(permitsPerMinute, burst, System::nanoTime);
+    }
+
+    RateLimiter(int permitsPerMinute, int burst, LongSupplier nanoClock) {
+        if (permitsPerMinute <= 0) {
+            throw new IllegalArgumentException("permitsPerMinute must be positive");
+        }
+        this.permitsPerNano = permitsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.nanoClock = nanoClock;
+        this.available = this.burst;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (available >= 1) {
+            available -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Blocks until a permit is available
+     */
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (available >= 1) {
+                    available -= 1;
+                    return;
+                }
+                waitNanos = nanosUntilPermit();
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, 1_000));
+        }
+    }
+
+    /**
+     * Nanoseconds until the next permit, zero if one is available now
+     */
+    public synchronized long nanosUntilPermit() {
+        refill();
+        return available >= 1 ? 0 : (long) Math.ceil((1 - available) / permitsPerNano);
+    }
+
+    public synchronized double availablePermits() {
+        refill();
+        return available;
+    }
+
+    public double getPermitsPerMinute() {
+        return permitsPerNano * TimeUnit.MINUTES.toNanos(1);
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        available = Math.min(burst, available + (now - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = now;
+    }
+}
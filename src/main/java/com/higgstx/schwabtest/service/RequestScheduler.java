@@ -0,0 +1,161 @@
+package com.higgstx.schwabtest.service;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Orders access to the API rate budget across priority classes.
+ * <p>
+ * Callers queue per class and are admitted one at a time; the admitted caller picks
+ * a credential and waits for its rate permit, then hands the turn on. Turns go to
+ * classes by weighted fair queuing: a class with weight {@code w} earns {@code w}
+ * turns for every one a weight-1 class gets while both are waiting, and a class
+ * that was idle does not bank credit. So an interactive call waits for at most one
+ * bulk permit rather than the whole bulk backlog, while bulk work still progresses.
+ */
+public class RequestScheduler {
+
+    public enum Priority {
+        /** Latency-sensitive calls made on behalf of a user or live feed */
+        INTERACTIVE,
+        /** Background collection that can tolerate queueing */
+        BULK
+    }
+
+    public record ClassStats(Priority priority, int weight, long admitted, int waiting, double meanWaitMs,
+                             double p99WaitMs) {
+    }
+
+    private static final class Waiter {
+        final Condition admitted;
+        boolean granted;
+
+        Waiter(Condition admitted) {
+            this.admitted = admitted;
+        }
+    }
+
+    private static final class ClassQueue {
+        final int weight;
+        final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        final LatencyWindow waits = new LatencyWindow(1024);
+        final LongAdder admitted = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+        double finishTag;
+        // Finish tag the head waiter will get, fixed when it reaches the head
+        double headTag;
+
+        ClassQueue(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Priority, ClassQueue> queues = new EnumMap<>(Priority.class);
+    private double virtualTime;
+    private boolean turnTaken;
+
+    public RequestScheduler(int interactiveWeight, int bulkWeight) {
+        if (interactiveWeight <= 0 || bulkWeight <= 0) {
+            throw new IllegalArgumentException("Scheduler weights must be positive");
+        }
+        queues.put(Priority.INTERACTIVE, new ClassQueue(interactiveWeight));
+        queues.put(Priority.BULK, new ClassQueue(bulkWeight));
+    }
+
+    /**
+     * Blocks until this caller's class is given the turn. Every successful call must
+     * be paired with {@link #release}.
+     */
+    public void acquire(Priority priority) throws InterruptedException {
+        lock.lock();
+        try {
+            Waiter waiter = new Waiter(lock.newCondition());
+            ClassQueue queue = queues.get(priority);
+            if (queue.waiters.isEmpty()) {
+                // A class returning from idle starts at the current virtual time, not its old credit
+                queue.headTag = Math.max(queue.finishTag, virtualTime) + 1.0 / queue.weight;
+            }
+            queue.waiters.addLast(waiter);
+            dispatch();
+            while (!waiter.granted) {
+                try {
+                    waiter.admitted.await();
+                } catch (InterruptedException e) {
+                    if (waiter.granted) {
+                        // Admitted while being interrupted; pass the turn on
+                        turnTaken = false;
+                        dispatch();
+                    } else {
+                        queue.waiters.remove(waiter);
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends the turn and records how long the caller waited from queueing to permit
+     */
+    public void release(Priority priority, long waitedNanos) {
+        lock.lock();
+        try {
+            ClassQueue queue = queues.get(priority);
+            queue.admitted.increment();
+            queue.waitNanos.add(waitedNanos);
+            queue.waits.record(waitedNanos);
+            turnTaken = false;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch() {
+        if (turnTaken) {
+            return;
+        }
+        ClassQueue next = null;
+        double nextTag = Double.MAX_VALUE;
+        // Enum order breaks ties in favour of INTERACTIVE
+        for (ClassQueue queue : queues.values()) {
+            if (!queue.waiters.isEmpty() && queue.headTag < nextTag) {
+                next = queue;
+                nextTag = queue.headTag;
+            }
+        }
+        if (next == null) {
+            return;
+        }
+        virtualTime = nextTag - 1.0 / next.weight;
+        next.finishTag = nextTag;
+        next.headTag = nextTag + 1.0 / next.weight;
+        Waiter waiter = next.waiters.pollFirst();
+        waiter.granted = true;
+        turnTaken = true;
+        waiter.admitted.signal();
+    }
+
+    public List<ClassStats> stats() {
+        lock.lock();
+        try {
+            return queues.entrySet().stream().map(entry -> {
+                ClassQueue queue = entry.getValue();
+                long admitted = queue.admitted.sum();
+                return new ClassStats(entry.getKey(), queue.weight, admitted, queue.waiters.size(),
+                        admitted == 0 ? 0 : queue.waitNanos.sum() / 1e6 / admitted,
+                        queue.waits.percentile(0.99) / 1e6);
+            }).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
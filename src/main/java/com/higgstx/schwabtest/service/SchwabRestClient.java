@@ -0,0 +1,152 @@
+package com.higgstx.schwabtest.service;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Minimal authenticated GET client for Schwab endpoints the API library does not
+ * wrap (dated market hours, trader accounts, option chains, ranged price history).
+ * Tokens still come from the TokenManager; this client only adds the bearer header.
+ * Inside a {@link JobBudget} the default timeout is tightened to what the job has left.
+ * <p>
+ * A client built over a {@link CredentialPool} sends each request through
+ * {@link CredentialPool#execute} at its priority, with the chosen slot's token, so
+ * these calls share the scheduler and rate budgets with the library calls.
+ */
+public class SchwabRestClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchwabRestClient.class);
+
+    /**
+     * Supplies a valid access token for each request, e.g. {@code tokenManager::getValidAccessToken}
+     */
+    @FunctionalInterface
+    public interface AccessTokenSource {
+        String getAccessToken() throws SchwabApiException;
+    }
+
+    public record Response(int statusCode, String body, long latencyNanos) {
+        public boolean isSuccess() {
+            return statusCode >= 200 && statusCode < 300;
+        }
+    }
+
+    private final AccessTokenSource tokenSource;
+    private final CredentialPool pool;
+    private final RequestScheduler.Priority priority;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public SchwabRestClient(AccessTokenSource tokenSource, int timeoutMs) {
+        this(tokenSource, null, null, timeoutMs);
+    }
+
+    public SchwabRestClient(CredentialPool pool, RequestScheduler.Priority priority, int timeoutMs) {
+        this(null, pool, priority, timeoutMs);
+    }
+
+    private SchwabRestClient(AccessTokenSource tokenSource, CredentialPool pool, RequestScheduler.Priority priority,
+                             int timeoutMs) {
+        this.tokenSource = tokenSource;
+        this.pool = pool;
+        this.priority = priority;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    public Response get(String baseUrl, String path, Map<String, String> query) throws SchwabApiException {
+        JobBudget budget = JobBudget.current();
+        if (budget == null) {
+            return get(baseUrl, path, query, timeout);
+        }
+
+        long budgetTimeout = budget.requestTimeoutNanos(timeout.toNanos());
+        if (budgetTimeout <= 0) {
+            throw budget.timeoutError("GET " + path);
+        }
+        try {
+            Response response = get(baseUrl, path, query, Duration.ofNanos(budgetTimeout));
+            budget.recordLatency(response.latencyNanos());
+            return response;
+        } catch (SchwabApiException e) {
+            if (e.getCause() instanceof HttpTimeoutException) {
+                budget.recordTimeout("GET " + path);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Issues a GET with an explicit per-request timeout
+     */
+    public Response get(String baseUrl, String path, Map<String, String> query, Duration requestTimeout)
+            throws SchwabApiException {
+        if (pool == null) {
+            return send(tokenSource, baseUrl, path, query, requestTimeout);
+        }
+        return pool.execute(priority, slot -> send(slot.getTokenManager()::getValidAccessToken,
+                baseUrl, path, query, requestTimeout));
+    }
+
+    private Response send(AccessTokenSource tokens, String baseUrl, String path, Map<String, String> query,
+                          Duration requestTimeout) throws SchwabApiException {
+        URI uri = buildUri(baseUrl, path, query);
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + tokens.getAccessToken())
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            long latency = System.nanoTime() - start;
+            logger.debug("GET {} -> {} in {}ms", uri.getPath(), response.statusCode(), latency / 1_000_000);
+            return new Response(response.statusCode(), response.body(), latency);
+        } catch (IOException e) {
+            throw SchwabApiException.networkError("GET " + uri.getPath(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SchwabApiException.networkError("GET " + uri.getPath() + " (interrupted)", e);
+        }
+    }
+
+    static URI buildUri(String baseUrl, String path, Map<String, String> query) {
+        StringBuilder url = new StringBuilder(baseUrl);
+        if (url.length() > 0 && url.charAt(url.length() - 1) == '/' && path.startsWith("/")) {
+            url.setLength(url.length() - 1);
+        }
+        url.append(path);
+
+        char separator = '?';
+        if (query != null) {
+            for (Map.Entry<String, String> entry : query.entrySet()) {
+                if (entry.getValue() == null) {
+                    continue;
+                }
+                url.append(separator)
+                        .append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8))
+                        .append('=')
+                        .append(URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return URI.create(url.toString());
+    }
+}
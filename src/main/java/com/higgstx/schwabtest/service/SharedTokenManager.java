@@ -0,0 +1,231 @@
+package com.higgstx.schwabtest.service;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import com.higgstx.schwabapi.model.TokenResponse;
+import com.higgstx.schwabapi.service.TokenManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TokenManager that coordinates refreshes with every other process using the same
+ * token file (cron refresher, token checker, interactive harness).
+ * <p>
+ * A refresh first takes a {@link FileLease} on {@code <tokenfile>.lock}, then reloads
+ * the file: if another process already rotated the tokens while we waited, those are
+ * used and no refresh call is made. So each expiry costs one refresh call however
+ * many processes notice it at the same time.
+ * <p>
+ * With {@link #watchTokenFile()} the parsed tokens are kept in memory and swapped
+ * atomically whenever any process writes the file, so request threads never read
+ * or parse it; without a watcher every lookup reads the file as before. If the
+ * watcher stops (e.g. its directory goes away) the cache is dropped and lookups
+ * fall back to reading the file.
+ */
+public class SharedTokenManager extends TokenManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedTokenManager.class);
+    public static final Duration DEFAULT_LEASE_WAIT = Duration.ofSeconds(30);
+
+    private final Path lockFile;
+    private final Duration leaseWait;
+    // The library may call back into loadTokens/getValidAccessToken while refreshing
+    private final ThreadLocal<Boolean> refreshing = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private final Path tokenFile;
+    private volatile TokenFileWatcher watcher;
+    private volatile TokenResponse cached;
+    private final LongAdder fileReloads = new LongAdder();
+
+    public SharedTokenManager(String tokenFile, String appKey, String appSecret) throws SchwabApiException {
+        this(tokenFile, appKey, appSecret, DEFAULT_LEASE_WAIT);
+    }
+
+    public SharedTokenManager(String tokenFile, String appKey, String appSecret, Duration leaseWait)
+            throws SchwabApiException {
+        super(tokenFile, appKey, appSecret);
+        this.tokenFile = Paths.get(tokenFile);
+        this.lockFile = Paths.get(tokenFile + ".lock");
+        this.leaseWait = leaseWait;
+    }
+
+    /**
+     * Starts serving tokens from memory, reloaded whenever the token file changes.
+     * If the file system cannot be watched the file keeps being read per lookup.
+     */
+    public synchronized void watchTokenFile() {
+        if (watcher != null) {
+            return;
+        }
+        try {
+            watcher = new TokenFileWatcher(tokenFile, this::reloadFromFile);
+            reloadFromFile();
+            logger.debug("Watching {} for token changes", tokenFile);
+        } catch (IOException e) {
+            logger.warn("Cannot watch {}, tokens will be re-read per request: {}", tokenFile, e.getMessage());
+        }
+    }
+
+    public synchronized void stopWatching() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close token file watcher: {}", e.getMessage());
+            }
+            watcher = null;
+            cached = null;
+        }
+    }
+
+    /**
+     * Runs on the watcher thread. A half-written file fails to parse and is skipped;
+     * the write that completes it raises another event.
+     */
+    private void reloadFromFile() {
+        try {
+            TokenResponse tokens = super.loadTokens(false);
+            if (tokens != null) {
+                cached = tokens;
+                fileReloads.increment();
+            }
+        } catch (SchwabApiException e) {
+            logger.debug("Token file not readable yet, keeping previous tokens: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Tokens from memory while watching, otherwise from the file
+     */
+    private TokenResponse currentTokens() throws SchwabApiException {
+        TokenResponse tokens = cached;
+        if (tokens != null && isWatching()) {
+            return tokens;
+        }
+        return super.loadTokens(false);
+    }
+
+    private TokenResponse remember(TokenResponse tokens) {
+        if (tokens != null && isWatching()) {
+            cached = tokens;
+        }
+        return tokens;
+    }
+
+    /**
+     * True while a live watcher keeps the cache current; a watcher found dead is
+     * dropped along with its cache so the file is read again
+     */
+    public boolean isWatching() {
+        TokenFileWatcher current = watcher;
+        if (current == null) {
+            return false;
+        }
+        if (current.isAlive()) {
+            return true;
+        }
+        synchronized (this) {
+            if (watcher == current) {
+                logger.warn("Token file watcher for {} stopped; reading tokens from the file", tokenFile);
+                watcher = null;
+                cached = null;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public TokenResponse forceTokenRefresh() throws SchwabApiException {
+        if (refreshing.get()) {
+            return super.forceTokenRefresh();
+        }
+        return refreshUnderLease(expiresAt(currentTokens()));
+    }
+
+    @Override
+    public TokenResponse loadTokens(boolean autoRefresh) throws SchwabApiException {
+        if (refreshing.get()) {
+            return super.loadTokens(false);
+        }
+        TokenResponse tokens = currentTokens();
+        if (!autoRefresh || tokens == null
+                || tokens.isAccessTokenValid() || !tokens.isRefreshTokenValid()) {
+            return tokens;
+        }
+        return refreshUnderLease(expiresAt(tokens));
+    }
+
+    @Override
+    public String getValidAccessToken() throws SchwabApiException {
+        if (refreshing.get()) {
+            return super.getValidAccessToken();
+        }
+        TokenResponse tokens = loadTokens(true);
+        if (tokens != null && tokens.isAccessTokenValid()) {
+            return tokens.getAccessToken();
+        }
+        // Let the library report the precise reason (no tokens, refresh token expired)
+        return super.getValidAccessToken();
+    }
+
+    /**
+     * Refreshes while holding the lease unless the file changed since {@code seenExpiresAt}
+     */
+    private TokenResponse refreshUnderLease(Instant seenExpiresAt) throws SchwabApiException {
+        FileLease lease;
+        try {
+            lease = FileLease.acquire(lockFile, leaseWait);
+        } catch (IOException e) {
+            throw SchwabApiException.networkError("acquiring token refresh lease " + lockFile, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SchwabApiException.tokenError("Interrupted waiting for token refresh lease");
+        }
+        if (lease == null) {
+            throw SchwabApiException.tokenError("Another process held the token refresh lease for more than "
+                    + leaseWait.toSeconds() + "s (" + lockFile + ")");
+        }
+
+        try (lease) {
+            TokenResponse current = super.loadTokens(false);
+            if (current != null && current.isAccessTokenValid()
+                    && !Objects.equals(expiresAt(current), seenExpiresAt)) {
+                logger.info("Tokens were refreshed by another process; reusing them");
+                return remember(current);
+            }
+
+            refreshing.set(Boolean.TRUE);
+            try {
+                logger.debug("Refreshing tokens under lease {}", lockFile);
+                return remember(super.forceTokenRefresh());
+            } finally {
+                refreshing.set(Boolean.FALSE);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to release token refresh lease {}: {}", lockFile, e.getMessage());
+            // The refresh itself completed; hand back whatever is now on disk
+            return remember(super.loadTokens(false));
+        }
+    }
+
+    private static Instant expiresAt(TokenResponse tokens) {
+        return tokens == null ? null : tokens.getExpiresAt();
+    }
+
+    public Path getLockFile() {
+        return lockFile;
+    }
+
+    /**
+     * Times the in-memory tokens were reloaded because the file changed
+     */
+    public long getFileReloads() {
+        return fileReloads.sum();
+    }
+}
@@ -0,0 +1,89 @@
+package com.higgstx.schwabtest.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Watches one file with a {@link WatchService} on its directory and runs a
+ * callback on a daemon thread whenever the file is created, replaced or written.
+ * Events arriving together are coalesced into one callback. Once the watch loop
+ * ends, for whatever reason, {@link #isAlive()} turns false so callers stop
+ * trusting what it last delivered.
+ */
+public class TokenFileWatcher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenFileWatcher.class);
+
+    private final Path file;
+    private final Runnable onChange;
+    private final WatchService watchService;
+    private final Thread thread;
+    private volatile boolean alive = true;
+
+    public TokenFileWatcher(Path file, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.onChange = onChange;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        // Writers that replace the file atomically show up as a create in the directory
+        this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::run, "token-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        Path name = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context());
+                }
+                if (changed) {
+                    try {
+                        onChange.run();
+                    } catch (RuntimeException e) {
+                        logger.warn("Token file change handler failed: {}", e.toString());
+                    }
+                }
+                if (!key.reset()) {
+                    logger.warn("Stopped watching {}: directory is no longer accessible", file);
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Closed by close()
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            alive = false;
+        }
+    }
+
+    /**
+     * False once the watch loop has stopped and changes are no longer reported
+     */
+    public boolean isAlive() {
+        return alive;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
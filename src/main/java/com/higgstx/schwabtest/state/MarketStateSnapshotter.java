@@ -0,0 +1,269 @@
+package com.higgstx.schwabtest.state;
+
+import com.higgstx.schwabtest.analytics.CandleBlock;
+import com.higgstx.schwabtest.analytics.CandleStore;
+import com.higgstx.schwabtest.analytics.SymbolTable;
+import com.higgstx.schwabtest.market.MarketDay;
+import com.higgstx.schwabtest.market.MarketHoursService;
+import com.higgstx.schwabtest.market.QuoteBook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Periodically snapshots the harness's in-memory market state (candles, latest
+ * quotes and cached market hours) to a {@link SnapshotFile}, and maps it back on
+ * startup so a restart resumes warm instead of refetching everything.
+ * <p>
+ * Symbol ids are per process, so the symbol names are stored alongside and remapped
+ * on restore. Tokens are not part of the snapshot: they are secrets and are already
+ * reloaded from their own file by the token manager.
+ */
+public class MarketStateSnapshotter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketStateSnapshotter.class);
+
+    static final int SYMBOLS = 1;
+    static final int CANDLES = 2;
+    static final int QUOTES = 3;
+    static final int MARKET_DAYS = 4;
+
+    /**
+     * Outcome of a save or restore
+     */
+    public record Result(boolean success, long bytes, int candles, int quotes, int marketDays,
+                         long snapshotMillis, long elapsedNanos, String message) {
+
+        static Result failed(String message, long startNanos) {
+            return new Result(false, 0, 0, 0, 0, 0, System.nanoTime() - startNanos, message);
+        }
+    }
+
+    private final Path file;
+    private final SymbolTable symbols;
+    private final CandleStore candleStore;
+    private final QuoteBook quoteBook;
+    private final MarketHoursService marketHoursService;
+    private volatile Result lastSave;
+    private volatile Result lastRestore;
+
+    /**
+     * @param symbols the table shared by the candle store and quote book
+     */
+    public MarketStateSnapshotter(Path file, SymbolTable symbols, CandleStore candleStore, QuoteBook quoteBook,
+                                  MarketHoursService marketHoursService) {
+        this.file = file;
+        this.symbols = symbols;
+        this.candleStore = candleStore;
+        this.quoteBook = quoteBook;
+        this.marketHoursService = marketHoursService;
+    }
+
+    @Scheduled(initialDelayString = "#{@schwabTestConfig.defaults.snapshotIntervalMs}",
+            fixedDelayString = "#{@schwabTestConfig.defaults.snapshotIntervalMs}")
+    public void periodicSave() {
+        save();
+    }
+
+    /**
+     * Writes the current state; skipped while there is nothing worth saving
+     */
+    public synchronized Result save() {
+        long start = System.nanoTime();
+        CandleBlock candles = candleStore.get();
+        Map<String, List<MarketDay>> days = marketHoursService.getCachedDaysByMarket();
+        int dayCount = days.values().stream().mapToInt(List::size).sum();
+        ByteBuffer quotes = quoteBook.export(ByteOrder.LITTLE_ENDIAN);
+        int quoteCount = quotes.getInt(0);
+        if (candles.size() == 0 && quoteCount == 0 && dayCount == 0) {
+            return Result.failed("No market state to snapshot", start);
+        }
+
+        // Encode the variable-length sections up front so their sizes are known
+        int symbolCount = symbols.size();
+        byte[][] names = new byte[symbolCount][];
+        int symbolBytes = Integer.BYTES;
+        for (int id = 0; id < symbolCount; id++) {
+            names[id] = symbols.name(id).getBytes(StandardCharsets.UTF_8);
+            symbolBytes += Short.BYTES + names[id].length;
+        }
+        byte[] dayBytes = encodeDays(days, dayCount);
+
+        List<SnapshotFile.Section> sections = List.of(
+                new SnapshotFile.Section(SYMBOLS, symbolBytes, buffer -> {
+                    buffer.putInt(symbolCount);
+                    for (byte[] name : names) {
+                        buffer.putShort((short) name.length).put(name);
+                    }
+                }),
+                new SnapshotFile.Section(CANDLES, candles.serializedSize(), candles::writeTo),
+                new SnapshotFile.Section(QUOTES, quotes.remaining(), buffer -> buffer.put(quotes.duplicate())),
+                new SnapshotFile.Section(MARKET_DAYS, dayBytes.length, buffer -> buffer.put(dayBytes)));
+
+        try {
+            long now = System.currentTimeMillis();
+            long bytes = SnapshotFile.write(file, now, sections);
+            Result result = new Result(true, bytes, candles.size(), quoteCount, dayCount, now,
+                    System.nanoTime() - start, "Saved " + file);
+            lastSave = result;
+            logger.debug("Market state snapshot: {} candles, {} quotes, {} market days, {} bytes in {} ms",
+                    result.candles(), result.quotes(), dayCount, bytes, result.elapsedNanos() / 1_000_000);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Market state snapshot to {} failed: {}", file, e.toString());
+            return lastSave = Result.failed(e.toString(), start);
+        }
+    }
+
+    /**
+     * Maps the snapshot, if any, back into the stores
+     */
+    public Result restore() {
+        long start = System.nanoTime();
+        if (!Files.exists(file)) {
+            return lastRestore = Result.failed("No snapshot at " + file, start);
+        }
+        try {
+            SnapshotFile.Contents contents = SnapshotFile.read(file);
+            int[] idRemap = readSymbols(contents.section(SYMBOLS));
+
+            int candles = 0;
+            ByteBuffer candleSection = contents.section(CANDLES);
+            if (candleSection != null && candleStore.isEmpty()) {
+                CandleBlock block = CandleBlock.readFrom(candleSection, symbols, idRemap);
+                candleStore.restore(block, contents.createdMillis());
+                candles = block.size();
+            }
+
+            int quotes = 0;
+            ByteBuffer quoteSection = contents.section(QUOTES);
+            if (quoteSection != null) {
+                quotes = quoteBook.readFrom(quoteSection, idRemap);
+            }
+
+            int marketDays = 0;
+            ByteBuffer daySection = contents.section(MARKET_DAYS);
+            if (daySection != null) {
+                marketDays = restoreDays(daySection);
+            }
+
+            Result result = new Result(true, contents.fileBytes(), candles, quotes, marketDays,
+                    contents.createdMillis(), System.nanoTime() - start, "Restored " + file);
+            logger.info("Restored market state from {}: {} candles, {} quotes, {} market days in {} ms",
+                    file, candles, quotes, marketDays, result.elapsedNanos() / 1_000_000);
+            return lastRestore = result;
+        } catch (NoSuchFileException e) {
+            return lastRestore = Result.failed("No snapshot at " + file, start);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unusable market state snapshot {}: {}", file, e.toString());
+            return lastRestore = Result.failed(e.toString(), start);
+        }
+    }
+
+    private int[] readSymbols(ByteBuffer buffer) throws IOException {
+        if (buffer == null) {
+            throw new IOException("Snapshot has no symbol table");
+        }
+        int count = buffer.getInt();
+        int[] idRemap = new int[count];
+        byte[] name = new byte[Short.MAX_VALUE];
+        for (int id = 0; id < count; id++) {
+            int length = buffer.getShort();
+            buffer.get(name, 0, length);
+            idRemap[id] = symbols.intern(new String(name, 0, length, StandardCharsets.UTF_8));
+        }
+        return idRemap;
+    }
+
+    private static byte[] encodeDays(Map<String, List<MarketDay>> days, int dayCount) {
+        List<byte[]> strings = new ArrayList<>();
+        int size = Integer.BYTES;
+        for (Map.Entry<String, List<MarketDay>> entry : days.entrySet()) {
+            for (MarketDay day : entry.getValue()) {
+                for (String value : new String[]{entry.getKey(), day.market(), day.product()}) {
+                    byte[] encoded = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+                    strings.add(encoded);
+                    size += Short.BYTES + encoded.length;
+                }
+                size += Integer.BYTES + 1 + 4 * Long.BYTES;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(dayCount);
+        int next = 0;
+        for (List<MarketDay> marketDays : days.values()) {
+            for (MarketDay day : marketDays) {
+                for (int i = 0; i < 3; i++) {
+                    byte[] encoded = strings.get(next++);
+                    buffer.putShort((short) encoded.length).put(encoded);
+                }
+                buffer.putInt((int) day.date().toEpochDay())
+                        .put((byte) (day.open() ? 1 : 0))
+                        .putLong(day.preMarketStartMillis())
+                        .putLong(day.regularStartMillis())
+                        .putLong(day.regularEndMillis())
+                        .putLong(day.postMarketEndMillis());
+            }
+        }
+        return buffer.array();
+    }
+
+    private int restoreDays(ByteBuffer buffer) {
+        Map<String, List<MarketDay>> byMarket = new TreeMap<>();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            String key = readString(buffer);
+            String market = readString(buffer);
+            String product = readString(buffer);
+            LocalDate date = LocalDate.ofEpochDay(buffer.getInt());
+            boolean open = buffer.get() != 0;
+            byMarket.computeIfAbsent(key, k -> new ArrayList<>()).add(new MarketDay(market, product, date, open,
+                    buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong()));
+        }
+        int restored = 0;
+        for (Map.Entry<String, List<MarketDay>> entry : byMarket.entrySet()) {
+            restored += marketHoursService.restore(entry.getKey(), entry.getValue());
+        }
+        return restored;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public Result getLastSave() {
+        return lastSave;
+    }
+
+    public Result getLastRestore() {
+        return lastRestore;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Saves a final snapshot on shutdown
+     */
+    @Override
+    public void close() {
+        save();
+    }
+}
@@ -0,0 +1,170 @@
+package com.higgstx.schwabtest.state;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Versioned, checksummed container of binary sections written and read through a
+ * memory-mapped file.
+ * <p>
+ * Layout (little-endian): a 32 byte header of magic, version, creation millis,
+ * body length, CRC32C of the body and section count, then each section as a tag,
+ * a payload length and the payload padded to 8 bytes. Readers get each payload
+ * as a slice of the mapping, so primitive columns can be bulk-copied out without
+ * any parsing. The file is written beside the target and moved into place, so a
+ * crash mid-write leaves the previous snapshot intact.
+ */
+public final class SnapshotFile {
+
+    public static final int MAGIC = 0x534E4150; // "SNAP"
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 32;
+    private static final int SECTION_HEADER_BYTES = 8;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Fills a section payload; the buffer is exactly the declared size
+     */
+    @FunctionalInterface
+    public interface SectionWriter {
+        void write(ByteBuffer buffer);
+    }
+
+    public record Section(int tag, int size, SectionWriter writer) {
+    }
+
+    /**
+     * Sections of a verified snapshot, keyed by tag. Payload buffers are read-only
+     * views of the mapping.
+     */
+    public record Contents(int version, long createdMillis, long fileBytes, Map<Integer, ByteBuffer> sections) {
+
+        public ByteBuffer section(int tag) {
+            ByteBuffer payload = sections.get(tag);
+            return payload != null ? payload.duplicate().order(ByteOrder.LITTLE_ENDIAN) : null;
+        }
+    }
+
+    /**
+     * Writes the sections to {@code target} and returns the file size
+     */
+    public static long write(Path target, long createdMillis, List<Section> sections) throws IOException {
+        long total = HEADER_BYTES;
+        for (Section section : sections) {
+            total += SECTION_HEADER_BYTES + align(section.size());
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + total + " bytes exceeds the single mapping limit");
+        }
+
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        // A unique temp name, so two writers never share a half-written file
+        Path temp = Files.createTempFile(parent, target.getFileName() + ".", ".partial");
+
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, total);
+                mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+                int position = HEADER_BYTES;
+                for (Section section : sections) {
+                    mapped.putInt(position, section.tag());
+                    mapped.putInt(position + Integer.BYTES, section.size());
+                    position += SECTION_HEADER_BYTES;
+
+                    ByteBuffer payload = mapped.slice(position, section.size()).order(ByteOrder.LITTLE_ENDIAN);
+                    section.writer().write(payload);
+                    if (payload.position() != section.size()) {
+                        throw new IllegalStateException("Section " + section.tag() + " declared " + section.size()
+                                + " bytes but wrote " + payload.position());
+                    }
+                    position += align(section.size());
+                }
+
+                CRC32C crc = new CRC32C();
+                crc.update(mapped.slice(HEADER_BYTES, (int) total - HEADER_BYTES));
+                mapped.putInt(0, MAGIC);
+                mapped.putInt(4, VERSION);
+                mapped.putLong(8, createdMillis);
+                mapped.putLong(16, total - HEADER_BYTES);
+                mapped.putInt(24, (int) crc.getValue());
+                mapped.putInt(28, sections.size());
+                mapped.force();
+            }
+
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return total;
+    }
+
+    /**
+     * Maps and verifies a snapshot
+     *
+     * @throws IOException if the file is truncated, corrupt or from a newer version
+     */
+    public static Contents read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + file + " has invalid size " + size);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (mapped.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a market state snapshot");
+            }
+            int version = mapped.getInt(4);
+            if (version > VERSION) {
+                throw new IOException("Snapshot version " + version + " is newer than supported " + VERSION);
+            }
+            long bodyBytes = mapped.getLong(16);
+            if (bodyBytes != size - HEADER_BYTES) {
+                throw new IOException("Snapshot " + file + " is truncated");
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(mapped.slice(HEADER_BYTES, (int) bodyBytes));
+            if ((int) crc.getValue() != mapped.getInt(24)) {
+                throw new IOException("Snapshot " + file + " failed its checksum");
+            }
+
+            Map<Integer, ByteBuffer> sections = new HashMap<>();
+            int sectionCount = mapped.getInt(28);
+            int position = HEADER_BYTES;
+            for (int i = 0; i < sectionCount; i++) {
+                int tag = mapped.getInt(position);
+                int length = mapped.getInt(position + Integer.BYTES);
+                position += SECTION_HEADER_BYTES;
+                if (length < 0 || position + (long) length > size) {
+                    throw new IOException("Snapshot section " + tag + " overruns the file");
+                }
+                sections.put(tag, mapped.slice(position, length).asReadOnlyBuffer());
+                position += align(length);
+            }
+            return new Contents(version, mapped.getLong(8), size, sections);
+        }
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+}
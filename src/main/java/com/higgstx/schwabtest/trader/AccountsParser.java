@@ -0,0 +1,64 @@
+package com.higgstx.schwabtest.trader;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.higgstx.schwabapi.exception.SchwabApiException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the accounts response body requested with {@code fields=positions}:
+ * {@code [{"securitiesAccount": {"accountNumber": ..., "positions": [...], "currentBalances": {...}}}]}
+ */
+public final class AccountsParser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private AccountsParser() {
+    }
+
+    public static AccountsSnapshot parse(String body, long fetchedMillis) throws SchwabApiException {
+        JsonNode root;
+        try {
+            root = MAPPER.readTree(body);
+        } catch (Exception e) {
+            throw SchwabApiException.validationError("Unable to parse accounts response: " + e.getMessage());
+        }
+
+        List<AccountsSnapshot.Account> accounts = new ArrayList<>();
+        Map<String, Position> positions = new LinkedHashMap<>();
+        if (root == null || !root.isArray()) {
+            return new AccountsSnapshot(accounts, positions, fetchedMillis);
+        }
+
+        for (JsonNode entry : root) {
+            JsonNode account = entry.path("securitiesAccount");
+            String accountNumber = account.path("accountNumber").asText(null);
+            if (accountNumber == null) {
+                continue;
+            }
+            int held = 0;
+            for (JsonNode node : account.path("positions")) {
+                String symbol = node.path("instrument").path("symbol").asText(null);
+                if (symbol == null) {
+                    continue;
+                }
+                Position position = new Position(accountNumber, symbol,
+                        node.path("instrument").path("assetType").asText("UNKNOWN"),
+                        node.path("longQuantity").asDouble(),
+                        node.path("shortQuantity").asDouble(),
+                        node.path("averagePrice").asDouble(),
+                        node.path("marketValue").asDouble());
+                positions.put(position.key(), position);
+                held++;
+            }
+            JsonNode balances = account.path("currentBalances");
+            accounts.add(new AccountsSnapshot.Account(accountNumber, account.path("type").asText("UNKNOWN"),
+                    balances.path("liquidationValue").asDouble(), balances.path("cashBalance").asDouble(), held));
+        }
+        return new AccountsSnapshot(accounts, positions, fetchedMillis);
+    }
+}
@@ -0,0 +1,15 @@
+package com.higgstx.schwabtest.trader;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accounts and their positions at one point in time. Positions are keyed by
+ * {@link Position#key()} so successive snapshots can be diffed without sorting.
+ */
+public record AccountsSnapshot(List<Account> accounts, Map<String, Position> positions, long fetchedMillis) {
+
+    public record Account(String accountNumber, String type, double liquidationValue, double cashBalance,
+                          int positionCount) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.higgstx.schwabtest.trader;
+
+import java.util.Objects;
+
+/**
+ * One holding in one account, as returned under {@code securitiesAccount.positions}
+ */
+public record Position(String accountNumber,
+                       String symbol,
+                       String assetType,
+                       double longQuantity,
+                       double shortQuantity,
+                       double averagePrice,
+                       double marketValue) {
+
+    /**
+     * Identity across snapshots: the same symbol held in the same account
+     */
+    public String key() {
+        return accountNumber + "|" + symbol;
+    }
+
+    /**
+     * Same holding: quantities, cost basis and asset type match. Market value moves
+     * with every quote during the session, so it is payload rather than a change.
+     */
+    public boolean sameHolding(Position other) {
+        return Double.compare(longQuantity, other.longQuantity) == 0
+                && Double.compare(shortQuantity, other.shortQuantity) == 0
+                && Double.compare(averagePrice, other.averagePrice) == 0
+                && Objects.equals(assetType, other.assetType);
+    }
+
+    public double netQuantity() {
+        return longQuantity - shortQuantity;
+    }
+}
@@ -0,0 +1,44 @@
+package com.higgstx.schwabtest.trader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Positions that appeared, changed or disappeared between two snapshots. A position
+ * counts as changed when its holding does ({@link Position#sameHolding}); changed
+ * entries carry the current position, market value included.
+ *
+ * @param compared number of positions examined to produce the diff
+ */
+public record PositionDiff(List<Position> added, List<Position> changed, List<Position> removed, int compared) {
+
+    public static PositionDiff between(Map<String, Position> previous, Map<String, Position> current) {
+        List<Position> added = new ArrayList<>();
+        List<Position> changed = new ArrayList<>();
+        List<Position> removed = new ArrayList<>();
+
+        for (Map.Entry<String, Position> entry : current.entrySet()) {
+            Position before = previous.get(entry.getKey());
+            if (before == null) {
+                added.add(entry.getValue());
+            } else if (!before.sameHolding(entry.getValue())) {
+                changed.add(entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Position> entry : previous.entrySet()) {
+            if (!current.containsKey(entry.getKey())) {
+                removed.add(entry.getValue());
+            }
+        }
+        return new PositionDiff(added, changed, removed, current.size() + previous.size());
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+
+    public int size() {
+        return added.size() + changed.size() + removed.size();
+    }
+}
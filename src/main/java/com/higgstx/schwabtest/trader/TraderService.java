@@ -0,0 +1,170 @@
+package com.higgstx.schwabtest.trader;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import com.higgstx.schwabtest.service.SchwabRestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client for the trader API's accounts and positions.
+ * <p>
+ * Snapshots are cached for a short TTL and refreshed single-flight: however many
+ * callers find the cache stale at once, one request is made and the rest wait on
+ * it. {@link #poll} diffs each snapshot against the last one it published, so
+ * position consumers receive only what changed.
+ */
+public class TraderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TraderService.class);
+
+    /**
+     * Receives the non-empty difference between successive polls
+     */
+    @FunctionalInterface
+    public interface PositionListener {
+        void onPositions(PositionDiff diff, AccountsSnapshot snapshot);
+    }
+
+    private final SchwabRestClient restClient;
+    private final String traderUrl;
+    private final long ttlNanos;
+    private final Object refreshLock = new Object();
+
+    private volatile AccountsSnapshot cached;
+    private volatile long cachedAtNanos;
+    private CompletableFuture<AccountsSnapshot> inFlight;
+    private Map<String, Position> lastPublished = Map.of();
+
+    private final LongAdder apiCalls = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder joinedRefreshes = new LongAdder();
+    private final LongAdder positionsCompared = new LongAdder();
+    private final LongAdder changesPublished = new LongAdder();
+
+    public TraderService(SchwabRestClient restClient, String traderUrl, Duration ttl) {
+        this.restClient = restClient;
+        this.traderUrl = traderUrl;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Returns the cached snapshot while fresh, otherwise joins or starts a refresh
+     */
+    public AccountsSnapshot getSnapshot() throws SchwabApiException {
+        AccountsSnapshot current = freshSnapshot();
+        if (current != null) {
+            return current;
+        }
+
+        CompletableFuture<AccountsSnapshot> flight;
+        boolean leader = false;
+        synchronized (refreshLock) {
+            current = freshSnapshot();
+            if (current != null) {
+                return current;
+            }
+            if (inFlight == null) {
+                inFlight = new CompletableFuture<>();
+                leader = true;
+            } else {
+                joinedRefreshes.increment();
+            }
+            flight = inFlight;
+        }
+
+        if (leader) {
+            try {
+                AccountsSnapshot snapshot = fetch();
+                cached = snapshot;
+                cachedAtNanos = System.nanoTime();
+                flight.complete(snapshot);
+                return snapshot;
+            } catch (Throwable e) {
+                // Errors too: joiners wait on the flight without a timeout
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                synchronized (refreshLock) {
+                    inFlight = null;
+                }
+            }
+        }
+
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SchwabApiException apiException) {
+                throw apiException;
+            }
+            throw SchwabApiException.networkError("accounts refresh", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SchwabApiException.networkError("waiting for accounts refresh", e);
+        }
+    }
+
+    private AccountsSnapshot freshSnapshot() {
+        AccountsSnapshot current = cached;
+        if (current != null && System.nanoTime() - cachedAtNanos < ttlNanos) {
+            cacheHits.increment();
+            return current;
+        }
+        return null;
+    }
+
+    private AccountsSnapshot fetch() throws SchwabApiException {
+        apiCalls.increment();
+        SchwabRestClient.Response response = restClient.get(traderUrl, "/accounts", Map.of("fields", "positions"));
+        if (!response.isSuccess()) {
+            throw SchwabApiException.serverError("Accounts request failed with status " + response.statusCode());
+        }
+        AccountsSnapshot snapshot = AccountsParser.parse(response.body(), System.currentTimeMillis());
+        logger.debug("Fetched {} account(s) with {} position(s) in {}ms", snapshot.accounts().size(),
+                snapshot.positions().size(), response.latencyNanos() / 1_000_000);
+        return snapshot;
+    }
+
+    /**
+     * Diffs the current snapshot against the last published one and hands any
+     * changes to {@code listener}; the first poll publishes every position as added
+     *
+     * @return the diff, possibly empty
+     */
+    public synchronized PositionDiff poll(PositionListener listener) throws SchwabApiException {
+        AccountsSnapshot snapshot = getSnapshot();
+        PositionDiff diff = PositionDiff.between(lastPublished, snapshot.positions());
+        positionsCompared.add(diff.compared());
+        lastPublished = snapshot.positions();
+        if (!diff.isEmpty()) {
+            changesPublished.add(diff.size());
+            listener.onPositions(diff, snapshot);
+        }
+        return diff;
+    }
+
+    public long getApiCalls() {
+        return apiCalls.sum();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getJoinedRefreshes() {
+        return joinedRefreshes.sum();
+    }
+
+    public long getPositionsCompared() {
+        return positionsCompared.sum();
+    }
+
+    public long getChangesPublished() {
+        return changesPublished.sum();
+    }
+}
@@ -0,0 +1,388 @@
+package com.higgstx.schwabtest.util;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Block-compressed log archive: {@code name.log.gz} plus a {@code name.log.gz.idx} block index.
+ * <p>
+ * The archive is a series of independent gzip members of about {@link #BLOCK_BYTES}
+ * of whole lines each, so it is still an ordinary gzip file for {@code zcat}. The
+ * index records each block's offset, line range, time range and which levels it
+ * contains, so a tail decompresses only the last blocks and a search skips blocks
+ * outside its time window or without its level. Without a valid index the archive
+ * is streamed from the start.
+ */
+public final class LogArchive {
+
+    public static final String SUFFIX = ".gz";
+    public static final String INDEX_SUFFIX = ".gz.idx";
+    static final int BLOCK_BYTES = 64 * 1024;
+
+    private static final int MAGIC = 0x4C494458; // "LIDX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+    private static final int ENTRY_BYTES = 8 + 4 + 8 + 4 + 8 + 8 + 4;
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final String[] LEVELS = {"ERROR", "WARN", "INFO", "DEBUG", "TRACE"};
+
+    /**
+     * One gzip member; times are epoch millis, Long.MIN_VALUE when no line was stamped
+     */
+    public record Block(long offset, int length, long firstLine, int lineCount, long firstMillis, long lastMillis,
+                        int levelMask) {
+
+        public boolean hasLevel(String level) {
+            int bit = levelBit(level);
+            return bit == 0 || (levelMask & bit) != 0;
+        }
+
+        public boolean mayOverlap(long fromMillis, long toMillis) {
+            return firstMillis == Long.MIN_VALUE || (lastMillis >= fromMillis && firstMillis <= toMillis);
+        }
+    }
+
+    /**
+     * Which blocks a search needs; levels use the logback level names
+     */
+    public record Query(String level, long fromMillis, long toMillis) {
+
+        public static final Query ALL = new Query(null, Long.MIN_VALUE, Long.MAX_VALUE);
+
+        boolean needs(Block block) {
+            return (level == null || block.hasLevel(level)) && block.mayOverlap(fromMillis, toMillis);
+        }
+    }
+
+    public record CompressResult(long plainBytes, long archiveBytes, int blocks, long lines) {
+    }
+
+    private final Path archive;
+    private final List<Block> blocks;
+
+    private LogArchive(Path archive, List<Block> blocks) {
+        this.archive = archive;
+        this.blocks = blocks;
+    }
+
+    public static boolean isArchive(Path file) {
+        return file.getFileName().toString().endsWith(SUFFIX);
+    }
+
+    public static Path indexOf(Path archive) {
+        return archive.resolveSibling(archive.getFileName() + ".idx");
+    }
+
+    /**
+     * Opens an archive; the index is ignored if missing or not matching the archive
+     */
+    public static LogArchive open(Path archive) throws IOException {
+        return new LogArchive(archive, readIndex(archive));
+    }
+
+    /**
+     * Compresses a plain log into {@code archive} and its index. Both are written to
+     * temp files beside it and the index is moved into place last. An existing
+     * archive is never replaced: that fails with {@link FileAlreadyExistsException}.
+     */
+    public static CompressResult compress(Path plain, Path archive) throws IOException {
+        Path directory = archive.toAbsolutePath().getParent();
+        Path index = indexOf(archive);
+        Path partialArchive = Files.createTempFile(directory, archive.getFileName().toString(), ".partial");
+        Path partialIndex = null;
+        try {
+            partialIndex = Files.createTempFile(directory, index.getFileName().toString(), ".partial");
+            CompressResult result = compress(plain, partialArchive, partialIndex);
+            // not ATOMIC_MOVE: an atomic rename silently replaces an existing target
+            Files.move(partialArchive, archive);
+            Files.move(partialIndex, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return result;
+        } finally {
+            Files.deleteIfExists(partialArchive);
+            if (partialIndex != null) {
+                Files.deleteIfExists(partialIndex);
+            }
+        }
+    }
+
+    private static CompressResult compress(Path plain, Path partialArchive, Path partialIndex) throws IOException {
+        List<Block> written = new ArrayList<>();
+        long lines = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(plain, StandardCharsets.UTF_8);
+             OutputStream out = Files.newOutputStream(partialArchive)) {
+            ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_BYTES + 4096);
+            long offset = 0;
+            int blockLines = 0;
+            String firstStamped = null;
+            String lastStamped = null;
+            int levels = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                block.write(line.getBytes(StandardCharsets.UTF_8));
+                block.write('\n');
+                blockLines++;
+                if (hasStamp(line)) {
+                    if (firstStamped == null) {
+                        firstStamped = line;
+                    }
+                    lastStamped = line;
+                }
+                levels |= levelBit(levelOf(line));
+                if (block.size() >= BLOCK_BYTES) {
+                    int length = writeMember(out, block);
+                    written.add(new Block(offset, length, lines, blockLines, millis(firstStamped), millis(lastStamped),
+                            levels));
+                    offset += length;
+                    lines += blockLines;
+                    block.reset();
+                    blockLines = 0;
+                    firstStamped = null;
+                    lastStamped = null;
+                    levels = 0;
+                }
+            }
+            if (blockLines > 0) {
+                int length = writeMember(out, block);
+                written.add(new Block(offset, length, lines, blockLines, millis(firstStamped), millis(lastStamped),
+                        levels));
+                lines += blockLines;
+            }
+        }
+
+        long archiveBytes = Files.size(partialArchive);
+        writeIndex(partialIndex, archiveBytes, written);
+        return new CompressResult(Files.size(plain), archiveBytes, written.size(), lines);
+    }
+
+    private static int writeMember(OutputStream out, ByteArrayOutputStream block) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(block.size() / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 8192)) {
+            block.writeTo(gzip);
+        }
+        compressed.writeTo(out);
+        return compressed.size();
+    }
+
+    private static void writeIndex(Path index, long archiveBytes, List<Block> blocks) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + blocks.size() * ENTRY_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(archiveBytes).putInt(blocks.size());
+        for (Block block : blocks) {
+            buffer.putLong(block.offset()).putInt(block.length()).putLong(block.firstLine())
+                    .putInt(block.lineCount()).putLong(block.firstMillis()).putLong(block.lastMillis())
+                    .putInt(block.levelMask());
+        }
+        Files.write(index, buffer.array());
+    }
+
+    private static List<Block> readIndex(Path archive) throws IOException {
+        Path index = indexOf(archive);
+        if (!Files.exists(index)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(index)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                || buffer.getLong() != Files.size(archive)) {
+            return null;
+        }
+        int count = buffer.getInt();
+        if (buffer.remaining() != count * ENTRY_BYTES) {
+            return null;
+        }
+        List<Block> blocks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            blocks.add(new Block(buffer.getLong(), buffer.getInt(), buffer.getLong(), buffer.getInt(),
+                    buffer.getLong(), buffer.getLong(), buffer.getInt()));
+        }
+        return List.copyOf(blocks);
+    }
+
+    public boolean isIndexed() {
+        return blocks != null;
+    }
+
+    /**
+     * Index entries, or an empty list for an unindexed archive
+     */
+    public List<Block> getBlocks() {
+        return blocks == null ? List.of() : blocks;
+    }
+
+    public Path getPath() {
+        return archive;
+    }
+
+    /**
+     * Streams every line in order
+     */
+    public void forEachLine(Consumer<String> consumer) throws IOException {
+        if (blocks == null) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(archive), 65536), StandardCharsets.UTF_8))) {
+                reader.lines().forEach(consumer);
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            for (Block block : blocks) {
+                readBlock(channel, block, consumer);
+            }
+        }
+    }
+
+    /**
+     * Last {@code count} lines, decompressing only the trailing blocks that hold them
+     */
+    public List<String> tail(int count) throws IOException {
+        Deque<String> lines = new ArrayDeque<>(count + 1);
+        if (count <= 0) {
+            return List.of();
+        }
+        if (blocks == null) {
+            forEachLine(line -> keepLast(lines, line, count));
+            return List.copyOf(lines);
+        }
+
+        int first = blocks.size();
+        long covered = 0;
+        while (first > 0 && covered < count) {
+            covered += blocks.get(--first).lineCount();
+        }
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            for (int i = first; i < blocks.size(); i++) {
+                readBlock(channel, blocks.get(i), line -> keepLast(lines, line, count));
+            }
+        }
+        return List.copyOf(lines);
+    }
+
+    /**
+     * Streams the lines matching {@code filter} from the blocks {@code query} needs
+     *
+     * @return number of blocks decompressed
+     */
+    public int search(Query query, Predicate<String> filter, Consumer<String> matches) throws IOException {
+        Consumer<String> matching = line -> {
+            if (filter.test(line)) {
+                matches.accept(line);
+            }
+        };
+        if (blocks == null) {
+            forEachLine(matching);
+            return -1;
+        }
+        int read = 0;
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            for (Block block : blocks) {
+                if (query.needs(block)) {
+                    readBlock(channel, block, matching);
+                    read++;
+                }
+            }
+        }
+        return read;
+    }
+
+    private static void keepLast(Deque<String> lines, String line, int count) {
+        lines.addLast(line);
+        if (lines.size() > count) {
+            lines.removeFirst();
+        }
+    }
+
+    private static void readBlock(FileChannel channel, Block block, Consumer<String> consumer) throws IOException {
+        ByteBuffer compressed = ByteBuffer.allocate(block.length());
+        while (compressed.hasRemaining()) {
+            if (channel.read(compressed, block.offset() + compressed.position()) < 0) {
+                throw new IOException("Archive truncated at block offset " + block.offset());
+            }
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.array()), 8192);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                consumer.accept(line);
+            }
+        }
+    }
+
+    private static boolean hasStamp(String line) {
+        return line.length() >= 23 && Character.isDigit(line.charAt(0)) && line.charAt(4) == '-'
+                && line.charAt(10) == ' ';
+    }
+
+    private static long millis(String stampedLine) {
+        if (stampedLine == null) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return LocalDateTime.parse(stampedLine.substring(0, 23), STAMP)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Level of a line in the harness pattern {@code %d [%thread] %-5level ...}, or null
+     */
+    static String levelOf(String line) {
+        if (!hasStamp(line)) {
+            return null;
+        }
+        int close = line.indexOf("] ", 24);
+        if (close < 0) {
+            return null;
+        }
+        int start = close + 2;
+        int end = line.indexOf(' ', start);
+        return line.substring(start, end < 0 ? line.length() : end);
+    }
+
+    static int levelBit(String level) {
+        if (level == null) {
+            return 0;
+        }
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (LEVELS[i].equalsIgnoreCase(level)) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Epoch millis of a {@code yyyy-MM-dd HH:mm} style argument, seconds optional
+     */
+    public static long parseTime(String text) {
+        String padded = text.length() == 16 ? text + ":00.000" : text.length() == 19 ? text + ".000" : text;
+        return LocalDateTime.parse(padded, STAMP).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,162 @@
+package com.higgstx.schwabtest.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Compresses logs logback has rolled ({@code name.yyyy-MM-dd.N.log}) into
+ * {@link LogArchive} files off the logging path, then deletes the plain copy.
+ * Logback's {@code totalSizeCap} only sees the plain rolled files, so the
+ * archives are held under their own cap, oldest deleted first.
+ */
+public class LogArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogArchiver.class);
+    static final Pattern ROLLED = Pattern.compile(".+\\.\\d{4}-\\d{2}-\\d{2}\\.\\d+\\.log");
+
+    /**
+     * What one pass did
+     */
+    public record Result(int compressed, long plainBytes, long archiveBytes, int deleted, int failed) {
+    }
+
+    private final Path directory;
+    private final long maxArchiveBytes;
+    private final LongAdder filesCompressed = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    public LogArchiver(Path directory, long maxArchiveBytes) {
+        this.directory = directory;
+        this.maxArchiveBytes = maxArchiveBytes;
+    }
+
+    @Scheduled(initialDelayString = "#{@schwabTestConfig.defaults.logArchiveIntervalMs}",
+            fixedDelayString = "#{@schwabTestConfig.defaults.logArchiveIntervalMs}")
+    public void periodicArchive() {
+        archiveRolled();
+    }
+
+    /**
+     * Compresses every rolled log not yet archived and trims archives to the cap
+     */
+    public synchronized Result archiveRolled() {
+        if (!Files.isDirectory(directory)) {
+            return new Result(0, 0, 0, 0, 0);
+        }
+        int compressed = 0;
+        int failed = 0;
+        long plainBytes = 0;
+        long archiveBytes = 0;
+        for (Path rolled : list(path -> ROLLED.matcher(path.getFileName().toString()).matches())) {
+            Path archive = freeArchiveName(rolled);
+            try {
+                LogArchive.CompressResult result = LogArchive.compress(rolled, archive);
+                Files.delete(rolled);
+                compressed++;
+                plainBytes += result.plainBytes();
+                archiveBytes += result.archiveBytes();
+                logger.debug("Archived {} ({} -> {} bytes, {} blocks)", rolled.getFileName(),
+                        result.plainBytes(), result.archiveBytes(), result.blocks());
+            } catch (IOException e) {
+                failed++;
+                logger.warn("Could not archive {}: {}", rolled.getFileName(), e.getMessage());
+            }
+        }
+        int deleted = enforceCap();
+        filesCompressed.add(compressed);
+        bytesSaved.add(plainBytes - archiveBytes);
+        if (compressed > 0 || deleted > 0) {
+            logger.info("Log archive pass: {} compressed ({} -> {} bytes), {} deleted over cap",
+                    compressed, plainBytes, archiveBytes, deleted);
+        }
+        return new Result(compressed, plainBytes, archiveBytes, deleted, failed);
+    }
+
+    /**
+     * {@code name.log.gz}, or {@code name-N.log.gz} when logback has reused a rolled
+     * name after a restart and the earlier archive is still there
+     */
+    static Path freeArchiveName(Path rolled) {
+        String name = rolled.getFileName().toString();
+        Path archive = rolled.resolveSibling(name + LogArchive.SUFFIX);
+        String stem = name.substring(0, name.length() - ".log".length());
+        for (int n = 1; Files.exists(archive); n++) {
+            archive = rolled.resolveSibling(stem + "-" + n + ".log" + LogArchive.SUFFIX);
+        }
+        if (!archive.getFileName().toString().equals(name + LogArchive.SUFFIX)) {
+            logger.warn("Archive for {} already exists; writing {}", name, archive.getFileName());
+        }
+        return archive;
+    }
+
+    private int enforceCap() {
+        List<Path> archives = list(LogArchive::isArchive);
+        archives.sort(Comparator.comparing(LogArchiver::modified));
+        long total = 0;
+        for (Path archive : archives) {
+            total += size(archive);
+        }
+        int deleted = 0;
+        for (Path archive : archives) {
+            if (total <= maxArchiveBytes) {
+                break;
+            }
+            try {
+                long bytes = size(archive);
+                Files.delete(archive);
+                Files.deleteIfExists(LogArchive.indexOf(archive));
+                total -= bytes;
+                deleted++;
+            } catch (IOException e) {
+                logger.warn("Could not delete archive {}: {}", archive.getFileName(), e.getMessage());
+            }
+        }
+        return deleted;
+    }
+
+    private List<Path> list(DirectoryStream.Filter<Path> filter) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, filter)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            logger.warn("Could not list {}: {}", directory, e.getMessage());
+        }
+        return files;
+    }
+
+    private static FileTime modified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    public long getFilesCompressed() {
+        return filesCompressed.sum();
+    }
+
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+}
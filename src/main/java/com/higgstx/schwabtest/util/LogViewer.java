@@ -1,20 +1,37 @@
 package com.higgstx.schwabtest.util;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Stream;
 
 /**
- * Utility class for viewing and managing log files
+ * Utility class for viewing and managing log files. A log type covers its live
+ * file and the {@link LogArchive} files rolled from it, read as one history.
  */
 public class LogViewer {
     
     private static final String LOG_DIR = "logs";
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // Rolled logs: plain (LogArchiver.ROLLED) not yet compressed, or archived, with a -N
+    // suffix when an archive name was reused after a restart
+    private static final Pattern ROLLED_NAME =
+            Pattern.compile("(.+)\\.(\\d{4}-\\d{2}-\\d{2})\\.(\\d+)(?:-(\\d+))?\\.log(\\.gz)?");
     
     public static void main(String[] args) {
         if (args.length > 0) {
@@ -30,6 +47,14 @@ public class LogViewer {
                     String showType = args.length > 1 ? args[1] : "main";
                     showFullLog(showType);
                 }
+                case "search" -> {
+                    if (args.length < 2) {
+                        showHelp();
+                        return;
+                    }
+                    searchLogs(args);
+                }
+                case "archive" -> archiveLogs();
                 case "clear" -> clearLogs();
                 default -> showHelp();
             }
@@ -54,7 +79,7 @@ public class LogViewer {
             
             Files.list(logDir)
                     .filter(Files::isRegularFile)
-                    .filter(file -> file.toString().endsWith(".log"))
+                    .filter(file -> file.toString().endsWith(".log") || LogArchive.isArchive(file))
                     .forEach(file -> {
                         try {
                             long size = Files.size(file);
@@ -108,49 +133,230 @@ public class LogViewer {
     }
     
     /**
-     * Shows the last N lines of a specified log file
+     * Shows the last N lines of a log type, reaching back into its newest archives
+     * when the live file is shorter; only the archive blocks holding them are read
      */
     private static void tailLog(String logType, int lines) {
         Path logFile = Paths.get(LOG_DIR, getLogFilename(logType));
         System.out.println("Showing last " + lines + " lines of " + logFile.getFileName());
         System.out.println("─".repeat(40));
-        if (!Files.exists(logFile)) {
+        List<Path> history = history(logFile);
+        if (history.isEmpty()) {
             System.out.println("File not found: " + logFile.getFileName());
             return;
         }
         
         try {
-            List<String> allLines = Files.readAllLines(logFile);
-            int start = Math.max(0, allLines.size() - lines);
-            for (int i = start; i < allLines.size(); i++) {
-                System.out.println(allLines.get(i));
+            Deque<String> tail = new ArrayDeque<>(lines);
+            for (int i = history.size() - 1; i >= 0 && tail.size() < lines; i--) {
+                List<String> older = tailFile(history.get(i), lines - tail.size());
+                for (int j = older.size() - 1; j >= 0; j--) {
+                    tail.addFirst(older.get(j));
+                }
             }
-        } catch (IOException e) {
+            tail.forEach(System.out::println);
+        } catch (IOException | UncheckedIOException e) {
             System.err.println("Error reading log file: " + e.getMessage());
         }
         System.out.println("─".repeat(40));
     }
     
+    private static List<String> tailFile(Path file, int lines) throws IOException {
+        if (LogArchive.isArchive(file)) {
+            return LogArchive.open(file).tail(lines);
+        }
+        Deque<String> tail = new ArrayDeque<>(lines + 1);
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                tail.addLast(line);
+                if (tail.size() > lines) {
+                    tail.removeFirst();
+                }
+            }
+        }
+        return List.copyOf(tail);
+    }
+    
     /**
-     * Shows the full content of a specified log file
+     * Shows the full history of a log type, archives oldest first, then the live file
      */
     private static void showFullLog(String logType) {
         Path logFile = Paths.get(LOG_DIR, getLogFilename(logType));
         System.out.println("Showing full content of " + logFile.getFileName());
         System.out.println("─".repeat(40));
-        if (!Files.exists(logFile)) {
+        List<Path> history = history(logFile);
+        if (history.isEmpty()) {
             System.out.println("File not found: " + logFile.getFileName());
             return;
         }
         
         try {
-            Files.lines(logFile).forEach(System.out::println);
-        } catch (IOException e) {
+            for (Path file : history) {
+                if (LogArchive.isArchive(file)) {
+                    LogArchive.open(file).forEachLine(System.out::println);
+                } else {
+                    try (Stream<String> lines = Files.lines(file)) {
+                        lines.forEach(System.out::println);
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
             System.err.println("Error reading log file: " + e.getMessage());
         }
         System.out.println("─".repeat(40));
     }
     
+    /**
+     * search &lt;regex&gt; [type] [--level L] [--since yyyy-MM-dd HH:mm] [--until yyyy-MM-dd HH:mm]
+     * <p>
+     * Archive blocks outside the time range or without the level are never decompressed.
+     */
+    private static void searchLogs(String[] args) {
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(args[1]);
+        } catch (PatternSyntaxException e) {
+            System.err.println("Invalid pattern: " + e.getDescription());
+            return;
+        }
+        String logType = "main";
+        String level = null;
+        String since = null;
+        String until = null;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--level" -> level = i + 1 < args.length ? args[++i].toUpperCase(Locale.ROOT) : null;
+                case "--since" -> since = i + 1 < args.length ? args[++i] : null;
+                case "--until" -> until = i + 1 < args.length ? args[++i] : null;
+                default -> logType = args[i];
+            }
+        }
+        
+        LogArchive.Query query;
+        try {
+            query = new LogArchive.Query(level,
+                    since != null ? LogArchive.parseTime(since) : Long.MIN_VALUE,
+                    until != null ? LogArchive.parseTime(until) : Long.MAX_VALUE);
+        } catch (RuntimeException e) {
+            System.err.println("Times must look like yyyy-MM-dd HH:mm[:ss]");
+            return;
+        }
+        Predicate<String> filter = lineFilter(pattern, level, since, until);
+        
+        Path logFile = Paths.get(LOG_DIR, getLogFilename(logType));
+        System.out.println("Searching " + logFile.getFileName() + " history for /" + pattern + "/");
+        System.out.println("─".repeat(40));
+        long[] matches = new long[1];
+        int blocksRead = 0;
+        int blocksTotal = 0;
+        try {
+            for (Path file : history(logFile)) {
+                if (LogArchive.isArchive(file)) {
+                    LogArchive archive = LogArchive.open(file);
+                    blocksRead += Math.max(0, archive.search(query, filter, line -> {
+                        matches[0]++;
+                        System.out.println(line);
+                    }));
+                    blocksTotal += archive.getBlocks().size();
+                } else {
+                    try (Stream<String> lines = Files.lines(file)) {
+                        lines.filter(filter).forEach(line -> {
+                            matches[0]++;
+                            System.out.println(line);
+                        });
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error reading log file: " + e.getMessage());
+        }
+        System.out.println("─".repeat(40));
+        System.out.printf("%d match(es); %d of %d archive blocks read%n", matches[0], blocksRead, blocksTotal);
+    }
+    
+    /**
+     * Timestamps sort as text in the log pattern, so bounds compare without parsing
+     */
+    private static Predicate<String> lineFilter(Pattern pattern, String level, String since, String until) {
+        Predicate<String> filter = line -> pattern.matcher(line).find();
+        if (level != null) {
+            filter = filter.and(line -> level.equals(LogArchive.levelOf(line)));
+        }
+        if (since != null) {
+            filter = filter.and(line -> line.compareTo(since) >= 0);
+        }
+        if (until != null) {
+            String end = until + "\uffff";
+            filter = filter.and(line -> line.compareTo(end) <= 0);
+        }
+        return filter;
+    }
+    
+    /**
+     * Compresses rolled logs now instead of waiting for the harness's background pass
+     */
+    private static void archiveLogs() {
+        System.out.println("Archiving rolled logs in '" + LOG_DIR + "'");
+        System.out.println("-".repeat(40));
+        LogArchiver.Result result = new LogArchiver(Paths.get(LOG_DIR), Long.MAX_VALUE).archiveRolled();
+        System.out.printf("Compressed %d file(s): %s -> %s%n", result.compressed(),
+                formatFileSize(result.plainBytes()), formatFileSize(result.archiveBytes()));
+        if (result.failed() > 0) {
+            System.out.println("Failed: " + result.failed());
+        }
+        System.out.println("-".repeat(40));
+    }
+    
+    /**
+     * Files rolled from {@code logFile}, archived or still plain, oldest first,
+     * followed by the live file
+     */
+    static List<Path> history(Path logFile) {
+        String base = logFile.getFileName().toString();
+        base = base.endsWith(".log") ? base.substring(0, base.length() - 4) : base;
+        List<Path> history = new ArrayList<>();
+        Path dir = logFile.toAbsolutePath().getParent();
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> files = Files.list(dir)) {
+                String prefix = base;
+                files.filter(file -> {
+                            Matcher m = ROLLED_NAME.matcher(file.getFileName().toString());
+                            return m.matches() && m.group(1).equals(prefix)
+                                    && (m.group(5) != null || LogArchiver.ROLLED.matcher(m.group()).matches());
+                        })
+                        .sorted(Comparator.comparing((Path file) -> rolledPart(file, 2))
+                                .thenComparingInt(file -> Integer.parseInt(rolledPart(file, 3)))
+                                .thenComparingInt(LogViewer::reuseOrder))
+                        .forEach(history::add);
+            } catch (IOException e) {
+                System.err.println("Error reading logs directory: " + e.getMessage());
+            }
+        }
+        if (Files.exists(logFile)) {
+            history.add(logFile);
+        }
+        return history;
+    }
+    
+    private static String rolledPart(Path file, int group) {
+        Matcher m = ROLLED_NAME.matcher(file.getFileName().toString());
+        m.matches();
+        return m.group(group);
+    }
+
+    /**
+     * Among files of one date and index: the first archive, then renamed archives,
+     * then a plain file, which is newer than every archive of its name
+     */
+    private static int reuseOrder(Path file) {
+        if (!LogArchive.isArchive(file)) {
+            return Integer.MAX_VALUE;
+        }
+        String reuse = rolledPart(file, 4);
+        return reuse != null ? Integer.parseInt(reuse) : 0;
+    }
+    
     private static void clearLogs() {
         System.out.println("Clearing all log files in '" + LOG_DIR + "'");
         System.out.println("-".repeat(40));
@@ -160,7 +366,8 @@ public class LogViewer {
             if (Files.exists(logDir)) {
                 Files.list(logDir)
                         .filter(Files::isRegularFile)
-                        .filter(file -> file.toString().endsWith(".log"))
+                        .filter(file -> file.toString().endsWith(".log") || LogArchive.isArchive(file)
+                                || file.toString().endsWith(LogArchive.INDEX_SUFFIX))
                         .forEach(file -> {
                             try {
                                 Files.delete(file);
@@ -207,7 +414,10 @@ public class LogViewer {
         System.out.println("Log Viewer Commands:");
         System.out.println("  list           - List all log files");
         System.out.println("  tail [type] [n] - Show last n lines (default: 50)");
-        System.out.println("  show [type]    - Show full log file");
+        System.out.println("  show [type]    - Show full log history, archives included");
+        System.out.println("  search <regex> [type] [--level L] [--since t] [--until t]");
+        System.out.println("                 - Search log history; t is yyyy-MM-dd HH:mm");
+        System.out.println("  archive        - Compress rolled logs now");
         System.out.println("  clear          - Clear all log files");
         System.out.println("  status         - Show log file status (default)");
         System.out.println("\nLog Types:");
@@ -0,0 +1,218 @@
+package com.higgstx.schwabtest.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Samples chatty low-level logging so a bulk run cannot spend its time formatting
+ * and writing per-request lines. Events below {@code sampleBelow} (WARN by default)
+ * get {@code perKeyPerSecond} events per second per logger and message template
+ * (messages logged without arguments share one key per logger, since their text
+ * varies freely, and templates are keyed by their first 120 chars);
+ * past that only the 1st, 2nd, 4th, 8th... extra event in the second passes, so a
+ * flood still shows up at a logarithmic rate. Once more than {@code highWatermark}
+ * events a second are offered overall, the per-key budget shrinks in proportion.
+ * WARN and above, and any event carrying a throwable, always pass.
+ * <p>
+ * Declared as a {@code <turboFilter>} in logback.xml; turbo filters run before the
+ * event is built, so suppressed events cost a map lookup and no formatting.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    /**
+     * Suppressed events of one logger and template
+     */
+    public record Suppressed(String logger, String template, long count) {
+    }
+
+    public record Stats(long passed, long suppressed, long offeredLastSecond, int budgetPerKey,
+                        List<Suppressed> topSuppressed) {
+    }
+
+    private static final String OTHER_TEMPLATES = "(other templates)";
+    private static final String PLAIN_MESSAGES = "(messages without arguments)";
+    static final int MAX_TEMPLATE_CHARS = 120;
+    private static volatile SamplingTurboFilter active;
+
+    private Level sampleBelow = Level.WARN;
+    private int perKeyPerSecond = 20;
+    private long highWatermark = 2000;
+    private int maxKeys = 4096;
+
+    private final LongSupplier nanoClock;
+    private final Map<String, Map<String, Bucket>> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger keys = new AtomicInteger();
+    private final AtomicLong currentSecond = new AtomicLong();
+    private final LongAdder offered = new LongAdder();
+    private volatile long offeredLastSecond;
+    private final LongAdder passed = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+
+    private static final class Bucket {
+        private long second;
+        private int count;
+        private long overflow;
+        private final LongAdder suppressed = new LongAdder();
+    }
+
+    public SamplingTurboFilter() {
+        this(System::nanoTime);
+    }
+
+    SamplingTurboFilter(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        // Level checks (isDebugEnabled) arrive without a format and are not events
+        if (!isStarted() || format == null || level == null || level.isGreaterOrEqual(sampleBelow)
+                || t != null || hasThrowable(params) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+
+        long second = nanoClock.getAsLong() / 1_000_000_000L;
+        rollGlobal(second);
+        offered.increment();
+
+        Bucket bucket = bucket(logger.getName(), params == null ? PLAIN_MESSAGES : templateKey(format));
+        int budget = budgetPerKey();
+        boolean pass;
+        synchronized (bucket) {
+            if (bucket.second != second) {
+                bucket.second = second;
+                bucket.count = 0;
+                bucket.overflow = 0;
+            }
+            if (bucket.count < budget) {
+                bucket.count++;
+                pass = true;
+            } else {
+                pass = Long.bitCount(++bucket.overflow) == 1;
+            }
+        }
+        if (pass) {
+            passed.increment();
+            return FilterReply.NEUTRAL;
+        }
+        bucket.suppressed.increment();
+        suppressed.increment();
+        return FilterReply.DENY;
+    }
+
+    private static boolean hasThrowable(Object[] params) {
+        return params != null && params.length > 0 && params[params.length - 1] instanceof Throwable;
+    }
+
+    private void rollGlobal(long second) {
+        long seen = currentSecond.get();
+        if (seen != second && currentSecond.compareAndSet(seen, second)) {
+            // A gap of more than a second means nothing was offered in the last one
+            long count = offered.sumThenReset();
+            offeredLastSecond = second - seen == 1 ? count : 0;
+        }
+    }
+
+    /**
+     * Per-key budget, scaled down while overall volume is over the high watermark
+     */
+    int budgetPerKey() {
+        long rate = offeredLastSecond;
+        if (rate <= highWatermark) {
+            return perKeyPerSecond;
+        }
+        return (int) Math.max(1, perKeyPerSecond * highWatermark / rate);
+    }
+
+    /**
+     * Copies a long template's prefix so the key does not pin the caller's string
+     */
+    private static String templateKey(String format) {
+        return format.length() <= MAX_TEMPLATE_CHARS ? format : format.substring(0, MAX_TEMPLATE_CHARS);
+    }
+
+    private Bucket bucket(String loggerName, String template) {
+        Map<String, Bucket> templates = buckets.computeIfAbsent(loggerName, name -> new ConcurrentHashMap<>());
+        Bucket bucket = templates.get(template);
+        if (bucket != null) {
+            return bucket;
+        }
+        // Past the key limit, new templates of a logger share one bucket
+        if (keys.get() >= maxKeys) {
+            template = OTHER_TEMPLATES;
+        }
+        return templates.computeIfAbsent(template, key -> {
+            keys.incrementAndGet();
+            return new Bucket();
+        });
+    }
+
+    public Stats stats(int top) {
+        List<Suppressed> all = new ArrayList<>();
+        buckets.forEach((logger, templates) -> templates.forEach((template, bucket) -> {
+            long count = bucket.suppressed.sum();
+            if (count > 0) {
+                all.add(new Suppressed(logger, template, count));
+            }
+        }));
+        all.sort(Comparator.comparingLong(Suppressed::count).reversed());
+        return new Stats(passed.sum(), suppressed.sum(), offeredLastSecond, budgetPerKey(),
+                List.copyOf(all.subList(0, Math.min(top, all.size()))));
+    }
+
+    /**
+     * The filter logback started, or null when logback.xml does not declare one
+     */
+    public static SamplingTurboFilter active() {
+        return active;
+    }
+
+    @Override
+    public void start() {
+        if (perKeyPerSecond < 1 || highWatermark < 1 || maxKeys < 1) {
+            addError("perKeyPerSecond, highWatermark and maxKeys must be positive");
+            return;
+        }
+        super.start();
+        active = this;
+    }
+
+    @Override
+    public void stop() {
+        if (active == this) {
+            active = null;
+        }
+        addInfo("Log sampling passed " + passed.sum() + " and suppressed " + suppressed.sum() + " events");
+        super.stop();
+    }
+
+    public void setSampleBelow(String level) {
+        this.sampleBelow = Level.toLevel(level, Level.WARN);
+    }
+
+    public void setPerKeyPerSecond(int perKeyPerSecond) {
+        this.perKeyPerSecond = perKeyPerSecond;
+    }
+
+    public void setHighWatermark(long highWatermark) {
+        this.highWatermark = highWatermark;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+}
@@ -0,0 +1,130 @@
+package com.higgstx.schwabtest.alerts;
+
+import com.higgstx.schwabtest.analytics.SymbolTable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the indexed alert engine
+ */
+class AlertEngineTest {
+
+    private static boolean bruteForceFires(AlertRule rule, double previous, double current) {
+        double t = rule.threshold();
+        boolean up = previous < t && current >= t;
+        boolean down = previous > t && current <= t;
+        return switch (rule.type()) {
+            case PRICE_ABOVE -> up;
+            case PRICE_BELOW -> down;
+            case PRICE_CROSS -> up || down;
+            case VOLUME_ABOVE -> false;
+        };
+    }
+
+    @Nested
+    @DisplayName("Crossing semantics")
+    class CrossingTests {
+
+        @Test
+        @DisplayName("First tick is a baseline and later crossings fire by direction")
+        void firesOnDirectionalCrossings() {
+            // Given
+            SymbolTable table = new SymbolTable();
+            AlertEngine engine = new AlertEngine(table);
+            engine.addRules(List.of(
+                    new AlertRule(1, "AAPL", AlertRule.Type.PRICE_ABOVE, 200),
+                    new AlertRule(2, "AAPL", AlertRule.Type.PRICE_BELOW, 190),
+                    new AlertRule(3, "AAPL", AlertRule.Type.PRICE_CROSS, 195)));
+            int aapl = table.find("AAPL");
+            List<Integer> fired = new ArrayList<>();
+            AlertEngine.AlertListener listener = (ruleId, symbolId, threshold, value) -> fired.add(ruleId);
+
+            // When / Then
+            assertEquals(0, engine.onTick(aapl, 210, 0, listener));
+            assertEquals(2, engine.onTick(aapl, 189, 0, listener));
+            assertEquals(List.of(2, 3), fired);
+
+            fired.clear();
+            assertEquals(2, engine.onTick(aapl, 200, 0, listener));
+            assertEquals(List.of(3, 1), fired);
+        }
+
+        @Test
+        @DisplayName("Volume rules fire once when cumulative volume reaches them")
+        void volumeRulesFireOnce() {
+            // Given
+            SymbolTable table = new SymbolTable();
+            AlertEngine engine = new AlertEngine(table);
+            engine.addRule(new AlertRule(7, "SPY", AlertRule.Type.VOLUME_ABOVE, 1_000_000));
+            int spy = table.find("SPY");
+
+            // When
+            engine.onTick(spy, 500, 900_000, null);
+            int first = engine.onTick(spy, 500, 1_000_000, null);
+            int second = engine.onTick(spy, 500, 1_200_000, null);
+
+            // Then
+            assertEquals(1, first);
+            assertEquals(0, second);
+        }
+
+        @Test
+        @DisplayName("Unknown symbols and failed ticks are ignored")
+        void unknownSymbolIgnored() {
+            // Given
+            AlertEngine engine = new AlertEngine(new SymbolTable());
+
+            // When / Then
+            assertEquals(0, engine.onTick(42, 100, 100, null));
+            assertEquals(0, engine.onQuote(null, null));
+        }
+    }
+
+    @Test
+    @DisplayName("Indexed evaluation matches a full scan on a random walk")
+    void matchesBruteForce() {
+        // Given
+        Random random = new Random(99);
+        SymbolTable table = new SymbolTable();
+        AlertEngine engine = new AlertEngine(table);
+        List<AlertRule> rules = new ArrayList<>();
+        AlertRule.Type[] types = {AlertRule.Type.PRICE_ABOVE, AlertRule.Type.PRICE_BELOW, AlertRule.Type.PRICE_CROSS};
+        for (int i = 0; i < 5_000; i++) {
+            rules.add(new AlertRule(i, "S" + (i % 20), types[i % 3], 90 + random.nextInt(2_000) / 100.0));
+        }
+        engine.addRules(rules);
+
+        double[] prices = new double[20];
+        Arrays.fill(prices, 100);
+        for (int s = 0; s < 20; s++) {
+            engine.onTick(table.find("S" + s), prices[s], 0, null);
+        }
+
+        // When / Then
+        for (int tick = 0; tick < 2_000; tick++) {
+            int s = random.nextInt(20);
+            double next = Math.max(85, Math.min(115, prices[s] + random.nextGaussian()));
+            Set<Integer> expected = new HashSet<>();
+            for (AlertRule rule : rules) {
+                if (rule.symbol().equals("S" + s) && bruteForceFires(rule, prices[s], next)) {
+                    expected.add(rule.id());
+                }
+            }
+            Set<Integer> actual = new HashSet<>();
+            engine.onTick(table.find("S" + s), next, 0, (ruleId, symbolId, threshold, value) -> actual.add(ruleId));
+            assertEquals(expected, actual);
+            prices[s] = next;
+        }
+        assertTrue(engine.getRulesExamined() < engine.getTicks() * engine.getRuleCount() / 20);
+    }
+}
@@ -0,0 +1,227 @@
+package com.higgstx.schwabtest.analytics;
+
+import com.higgstx.schwabapi.model.market.DailyPriceData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the compact candle columns and symbol flyweight table
+ */
+class CandleBlockTest {
+
+    private static CandleBlock randomBlock(SymbolTable table, int rows, long seed) {
+        Random random = new Random(seed);
+        CandleBlock block = new CandleBlock(table, 4);
+        for (int i = 0; i < rows; i++) {
+            int symbolId = table.intern("SYM" + random.nextInt(7));
+            int day = 19_000 + random.nextInt(60);
+            double close = day + symbolId / 10.0;
+            block.add(symbolId, day, close, close + 1, close - 1, close, day * 10L + symbolId);
+        }
+        return block;
+    }
+
+    @Nested
+    @DisplayName("Symbol table")
+    class SymbolTableTests {
+
+        @Test
+        @DisplayName("Interning is stable and ids are dense")
+        void internIsStable() {
+            // Given
+            SymbolTable table = new SymbolTable();
+
+            // When
+            int aapl = table.intern("AAPL");
+            int msft = table.intern("MSFT");
+
+            // Then
+            assertEquals(0, aapl);
+            assertEquals(1, msft);
+            assertEquals(aapl, table.intern("AAPL"));
+            assertEquals("MSFT", table.name(msft));
+            assertEquals(-1, table.find("TSLA"));
+        }
+
+        @Test
+        @DisplayName("Table grows past its initial capacity")
+        void tableGrows() {
+            // Given
+            SymbolTable table = new SymbolTable();
+
+            // When
+            for (int i = 0; i < 200; i++) {
+                table.intern("S" + i);
+            }
+
+            // Then
+            assertEquals(200, table.size());
+            assertEquals("S150", table.name(150));
+        }
+    }
+
+    @Nested
+    @DisplayName("Sorting and grouping")
+    class SortingTests {
+
+        @Test
+        @DisplayName("Symbol/day sort keeps every column of a row together")
+        void sortBySymbolThenDay() {
+            // Given
+            CandleBlock block = randomBlock(new SymbolTable(), 500, 7L);
+            assertFalse(block.isSorted(CandleBlock.BY_SYMBOL_THEN_DAY));
+
+            // When
+            block.sort(CandleBlock.BY_SYMBOL_THEN_DAY);
+
+            // Then
+            assertTrue(block.isSorted(CandleBlock.BY_SYMBOL_THEN_DAY));
+            for (int row = 1; row < block.size(); row++) {
+                assertTrue(CandleBlock.BY_SYMBOL_THEN_DAY.compare(block, row - 1, row) <= 0);
+            }
+            for (int row = 0; row < block.size(); row++) {
+                assertEquals(block.epochDay(row) * 10L + block.symbolId(row), block.volume(row));
+                assertEquals(block.close(row) + 1, block.high(row), 1e-9);
+            }
+        }
+
+        @Test
+        @DisplayName("Rows sharing one day sort in linear time per level and keep their columns")
+        void sortManyEqualDays() {
+            // Given - a single day across a large universe, the worst case for a two-way partition
+            SymbolTable table = new SymbolTable();
+            CandleBlock block = new CandleBlock(table, 200_000);
+            Random random = new Random(5L);
+            for (int i = 0; i < 200_000; i++) {
+                int symbolId = random.nextInt(2_000);
+                int day = i % 50 == 0 ? 19_001 : 19_000;
+                block.add(symbolId, day, symbolId, symbolId, symbolId, symbolId, day * 10_000L + symbolId);
+            }
+
+            // When
+            long start = System.nanoTime();
+            block.sort(CandleBlock.BY_DAY);
+            CandleBlock bySymbol = CandleBlock.copyOf(block);
+            bySymbol.sort(CandleBlock.BY_SYMBOL_THEN_DAY);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // Then
+            assertTrue(elapsedMillis < 5_000, "took " + elapsedMillis + " ms");
+            assertEquals(19_000, block.epochDay(0));
+            assertEquals(19_001, block.epochDay(block.size() - 1));
+            for (int row = 1; row < block.size(); row++) {
+                assertTrue(block.epochDay(row - 1) <= block.epochDay(row));
+                assertTrue(CandleBlock.BY_SYMBOL_THEN_DAY.compare(bySymbol, row - 1, row) <= 0);
+            }
+            for (int row = 0; row < bySymbol.size(); row++) {
+                assertEquals(bySymbol.epochDay(row) * 10_000L + bySymbol.symbolId(row), bySymbol.volume(row));
+                assertEquals(bySymbol.symbolId(row), bySymbol.close(row), 0.0);
+            }
+        }
+
+        @Test
+        @DisplayName("Descending day sort on a copy leaves the source untouched")
+        void copySortIsIndependent() {
+            // Given
+            CandleBlock block = randomBlock(new SymbolTable(), 100, 11L);
+            block.sort(CandleBlock.BY_SYMBOL_THEN_DAY);
+            int firstDay = block.epochDay(0);
+
+            // When
+            CandleBlock recent = CandleBlock.copyOf(block);
+            recent.sort(CandleBlock.BY_DAY_DESCENDING);
+
+            // Then
+            assertEquals(firstDay, block.epochDay(0));
+            for (int row = 1; row < recent.size(); row++) {
+                assertTrue(recent.epochDay(row - 1) >= recent.epochDay(row));
+            }
+        }
+
+        @Test
+        @DisplayName("Symbol runs cover the block once and match firstRowOf")
+        void forEachSymbolVisitsRuns() {
+            // Given
+            CandleBlock block = randomBlock(new SymbolTable(), 300, 3L);
+            block.sort(CandleBlock.BY_SYMBOL_THEN_DAY);
+            List<int[]> runs = new ArrayList<>();
+
+            // When
+            block.forEachSymbol((symbolId, from, to) -> runs.add(new int[]{symbolId, from, to}));
+
+            // Then
+            int covered = 0;
+            for (int[] run : runs) {
+                assertEquals(run[1], block.firstRowOf(run[0]));
+                covered += run[2] - run[1];
+            }
+            assertEquals(block.size(), covered);
+            assertEquals(-1, block.firstRowOf(999));
+        }
+    }
+
+    @Test
+    @DisplayName("Library candles round-trip into rows, skipping unusable entries")
+    void fromLibraryCandles() {
+        // Given
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        List<DailyPriceData> candles = List.of(
+                TestCandles.candle("AAPL", day, 170.5, 172.25, 169.0, 171.75, 1_200_000L),
+                TestCandles.failed("MSFT"),
+                TestCandles.candle("MSFT", day.plusDays(1), 410.0, 415.5, 405.25, 412.0, 900_000L),
+                TestCandles.candle("IBM", day, 180.0, 181.0, 179.0, null, 10L));
+
+        // When
+        CandleBlock block = CandleBlock.from(candles);
+
+        // Then
+        assertEquals(2, block.size());
+        assertEquals("AAPL", block.symbol(0));
+        assertEquals(day.toEpochDay(), block.epochDay(0));
+        assertEquals(170.5, block.open(0), 0.0);
+        assertEquals(172.25, block.high(0), 0.0);
+        assertEquals(169.0, block.low(0), 0.0);
+        assertEquals(171.75, block.close(0), 0.0);
+        assertEquals(1_200_000L, block.volume(0));
+        assertEquals("MSFT", block.symbol(1));
+        assertEquals(day.plusDays(1).toEpochDay(), block.epochDay(1));
+        assertEquals(412.0, block.close(1), 0.0);
+        assertEquals(900_000L, block.volume(1));
+    }
+
+    @Test
+    @DisplayName("Indicator engine gives the same state from a block as from primitive updates")
+    void indicatorEngineIngestsBlock() {
+        // Given
+        SymbolTable table = new SymbolTable();
+        CandleBlock block = new CandleBlock(table, 16);
+        IndicatorEngine expected = new IndicatorEngine(IndicatorSpec.parseList("SMA(3),RSI(2)"));
+        for (int day = 0; day < 10; day++) {
+            double close = 100 + (day % 3);
+            double reversedClose = 100 + ((9 - day) % 3);
+            block.add(table.intern("B"), 19_009 - day, reversedClose, reversedClose, reversedClose, reversedClose, 1_000);
+            expected.update("A", 19_000 + day, close, close, close, close, 1_000);
+        }
+
+        // When
+        IndicatorEngine engine = new IndicatorEngine(IndicatorSpec.parseList("SMA(3),RSI(2)"));
+        int applied = engine.ingest(block);
+
+        // Then - rows were added newest first, so only a sorted ingest applies all of them
+        assertEquals(10, applied);
+        assertEquals(19_009, block.epochDay(0), "ingest must not reorder the caller's block");
+        double[] actualValues = new double[2];
+        double[] expectedValues = new double[2];
+        engine.getState("B").values(actualValues);
+        expected.getState("A").values(expectedValues);
+        assertArrayEquals(expectedValues, actualValues, 1e-12);
+    }
+}
@@ -0,0 +1,147 @@
+package com.higgstx.schwabtest.analytics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the blocked covariance/correlation kernels
+ */
+class CorrelationAnalyzerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static ReturnMatrix randomReturns(int symbols, int observations, long seed) {
+        Random random = new Random(seed);
+        double[] returns = new double[symbols * observations];
+        double[] market = new double[observations];
+        for (int k = 0; k < observations; k++) {
+            market[k] = random.nextGaussian() * 0.01;
+        }
+        // Mix a shared factor in so correlations are not all near zero
+        for (int i = 0; i < symbols; i++) {
+            double beta = random.nextDouble();
+            for (int k = 0; k < observations; k++) {
+                returns[i * observations + k] = beta * market[k] + random.nextGaussian() * 0.01;
+            }
+        }
+        String[] names = new String[symbols];
+        int[] days = new int[observations];
+        for (int i = 0; i < symbols; i++) {
+            names[i] = "SYM" + i;
+        }
+        for (int k = 0; k < observations; k++) {
+            days[k] = 19_000 + k;
+        }
+        return new ReturnMatrix(names, days, returns);
+    }
+
+    private static double naiveCovariance(ReturnMatrix m, int a, int b) {
+        int n = m.getObservations();
+        double[] r = m.getReturns();
+        double meanA = 0, meanB = 0;
+        for (int k = 0; k < n; k++) {
+            meanA += r[a * n + k];
+            meanB += r[b * n + k];
+        }
+        meanA /= n;
+        meanB /= n;
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += (r[a * n + k] - meanA) * (r[b * n + k] - meanB);
+        }
+        return sum / (n - 1);
+    }
+
+    @Nested
+    @DisplayName("Kernel Tests")
+    class KernelTests {
+
+        @Test
+        @DisplayName("Blocked kernel should match a naive computation across ragged tiles")
+        void shouldMatchNaiveComputation() {
+            // Given - sizes that do not divide evenly into tiles or depth blocks
+            ReturnMatrix returns = randomReturns(37, 53, 42L);
+            CorrelationAnalyzer analyzer = new CorrelationAnalyzer(ForkJoinPool.commonPool(), 8, 16);
+
+            // When
+            CovarianceMatrix matrix = analyzer.compute(returns);
+
+            // Then
+            for (int i = 0; i < returns.getSymbolCount(); i++) {
+                for (int j = 0; j < returns.getSymbolCount(); j++) {
+                    assertEquals(naiveCovariance(returns, i, j), matrix.covariance(i, j), 1e-15);
+                }
+                assertEquals(1.0, matrix.correlation(i, i), 1e-12);
+            }
+        }
+
+        @Test
+        @DisplayName("Correlation should be symmetric and bounded")
+        void correlationShouldBeSymmetricAndBounded() {
+            CovarianceMatrix matrix = new CorrelationAnalyzer().compute(randomReturns(20, 40, 7L));
+
+            for (int i = 0; i < matrix.size(); i++) {
+                for (int j = 0; j < matrix.size(); j++) {
+                    double value = matrix.correlation(i, j);
+                    assertEquals(value, matrix.correlation(j, i), 0.0);
+                    assertTrue(value >= -1.0 - 1e-12 && value <= 1.0 + 1e-12);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Constant series should report NaN correlation")
+        void constantSeriesShouldBeNaN() {
+            ReturnMatrix returns = new ReturnMatrix(new String[]{"FLAT", "MOVE"}, new int[]{1, 2, 3},
+                    new double[]{0, 0, 0, 0.01, -0.02, 0.03});
+
+            CovarianceMatrix matrix = new CorrelationAnalyzer().compute(returns);
+
+            assertTrue(Double.isNaN(matrix.correlation(0, 1)));
+            assertEquals(1.0, matrix.correlation(1, 1), 1e-12);
+        }
+
+        @Test
+        @DisplayName("Should reject a matrix with fewer than two observations")
+        void shouldRejectTooFewObservations() {
+            ReturnMatrix returns = new ReturnMatrix(new String[]{"A"}, new int[]{1}, new double[]{0.01});
+            assertThrows(IllegalArgumentException.class, () -> new CorrelationAnalyzer().compute(returns));
+        }
+    }
+
+    @Nested
+    @DisplayName("Binary File Tests")
+    class BinaryFileTests {
+
+        @Test
+        @DisplayName("Should round-trip the matrix through the binary file")
+        void shouldRoundTripBinaryFile() throws Exception {
+            // Given
+            CovarianceMatrix original = new CorrelationAnalyzer().compute(randomReturns(12, 30, 3L));
+            Path file = tempDir.resolve("nested").resolve("matrix.bin");
+
+            // When
+            original.writeTo(file);
+            CovarianceMatrix loaded = CovarianceMatrix.readFrom(file);
+
+            // Then
+            assertArrayEquals(original.getSymbols(), loaded.getSymbols());
+            assertEquals(original.getObservations(), loaded.getObservations());
+            for (int i = 0; i < original.size(); i++) {
+                for (int j = 0; j < original.size(); j++) {
+                    assertEquals(original.covariance(i, j), loaded.covariance(i, j), 0.0);
+                    assertEquals(original.correlation(i, j), loaded.correlation(i, j), 1e-12);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.higgstx.schwabtest.analytics;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import com.higgstx.schwabtest.market.MarketDay;
+import com.higgstx.schwabtest.market.MarketHoursParser;
+import com.higgstx.schwabtest.market.TradingCalendar;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the trading calendar and the data quality engine
+ */
+class DataQualityEngineTest {
+
+    private TradingCalendar calendar;
+    private DataQualityEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        calendar = new TradingCalendar();
+        engine = new DataQualityEngine(calendar);
+    }
+
+    private static int day(String isoDate) {
+        return (int) LocalDate.parse(isoDate).toEpochDay();
+    }
+
+    private static void addGoodBar(DataQualityEngine.Columns columns, String isoDate) {
+        columns.add(day(isoDate), 10, 11, 9, 10.5, 1_000);
+    }
+
+    private DataQualityEngine.Report analyze(String universeStart, String universeEnd,
+                                             DataQualityEngine.Columns... columns) {
+        return engine.analyzeColumns(List.of(columns), day(universeStart), day(universeEnd), System.nanoTime());
+    }
+
+    @Nested
+    @DisplayName("Trading Calendar Tests")
+    class TradingCalendarTests {
+
+        @Test
+        @DisplayName("Should close on weekends and NYSE holidays")
+        void shouldCloseOnHolidays() {
+            assertFalse(calendar.isTradingDay(LocalDate.parse("2024-01-01")));  // New Year's Day
+            assertFalse(calendar.isTradingDay(LocalDate.parse("2024-01-15")));  // MLK Day
+            assertFalse(calendar.isTradingDay(LocalDate.parse("2024-03-29")));  // Good Friday
+            assertFalse(calendar.isTradingDay(LocalDate.parse("2024-05-27")));  // Memorial Day
+            assertFalse(calendar.isTradingDay(LocalDate.parse("2024-06-19")));  // Juneteenth
+            assertFalse(calendar.isTradingDay(LocalDate.parse("2024-11-28")));  // Thanksgiving
+            assertFalse(calendar.isTradingDay(LocalDate.parse("2024-12-25")));  // Christmas
+            assertFalse(calendar.isTradingDay(LocalDate.parse("2024-06-15")));  // Saturday
+            assertTrue(calendar.isTradingDay(LocalDate.parse("2024-06-18")));
+        }
+
+        @Test
+        @DisplayName("Should apply observed-date rules")
+        void shouldApplyObservedRules() {
+            // Juneteenth 2022 fell on a Sunday and was observed Monday
+            assertFalse(calendar.isTradingDay(LocalDate.parse("2022-06-20")));
+            // New Year's Day 2022 fell on a Saturday; NYSE stayed open on Friday Dec 31
+            assertTrue(calendar.isTradingDay(LocalDate.parse("2021-12-31")));
+            // Independence Day 2026 falls on a Saturday and is observed Friday
+            assertFalse(calendar.isTradingDay(LocalDate.parse("2026-07-03")));
+        }
+
+        @Test
+        @DisplayName("Market hours responses should override the rules")
+        void shouldApplyOverrides() {
+            LocalDate date = LocalDate.parse("2025-01-09");
+            assertTrue(calendar.isTradingDay(date));
+
+            calendar.apply(MarketDay.closed("equity", "EQ", date));
+
+            assertFalse(calendar.isTradingDay(date));
+            assertEquals(1, calendar.overrideCount());
+        }
+
+        @Test
+        @DisplayName("Should list trading days in a range")
+        void shouldListTradingDays() {
+            int[] days = calendar.tradingDays(day("2024-07-01"), day("2024-07-07"));
+            // Mon-Wed plus Fri; Thursday is Independence Day
+            assertArrayEquals(new int[]{day("2024-07-01"), day("2024-07-02"), day("2024-07-03"), day("2024-07-05")}, days);
+        }
+    }
+
+    @Nested
+    @DisplayName("Market Hours Parser Tests")
+    class MarketHoursParserTests {
+
+        @Test
+        @DisplayName("Should parse open and closed market hours responses")
+        void shouldParseResponses() throws Exception {
+            String open = "{\"equity\":{\"EQ\":{\"date\":\"2024-06-18\",\"marketType\":\"EQUITY\",\"product\":\"EQ\","
+                    + "\"isOpen\":true,\"sessionHours\":{"
+                    + "\"preMarket\":[{\"start\":\"2024-06-18T07:00:00-04:00\",\"end\":\"2024-06-18T09:30:00-04:00\"}],"
+                    + "\"regularMarket\":[{\"start\":\"2024-06-18T09:30:00-04:00\",\"end\":\"2024-06-18T16:00:00-04:00\"}],"
+                    + "\"postMarket\":[{\"start\":\"2024-06-18T16:00:00-04:00\",\"end\":\"2024-06-18T20:00:00-04:00\"}]}}}}";
+
+            MarketDay day = MarketHoursParser.primary(MarketHoursParser.parse(open), "equity");
+
+            assertNotNull(day);
+            assertTrue(day.open());
+            assertEquals(LocalDate.parse("2024-06-18"), day.date());
+            assertEquals(6.5 * 3_600_000, day.regularEndMillis() - day.regularStartMillis(), 0.0);
+            assertTrue(day.isExtendedSessionAt(day.preMarketStartMillis()));
+            assertFalse(day.isRegularSessionAt(day.preMarketStartMillis()));
+
+            String closed = "{\"equity\":{\"equity\":{\"date\":\"2024-06-19\",\"isOpen\":false}}}";
+            MarketDay holiday = MarketHoursParser.primary(MarketHoursParser.parse(closed), "equity");
+            assertFalse(holiday.open());
+            assertFalse(holiday.hasRegularSession());
+        }
+
+        @Test
+        @DisplayName("A malformed date should fail as an API validation error")
+        void shouldRejectMalformedDates() {
+            String body = "{\"equity\":{\"EQ\":{\"date\":\"18/06/2024\",\"isOpen\":false}}}";
+
+            SchwabApiException e = assertThrows(SchwabApiException.class, () -> MarketHoursParser.parse(body));
+
+            assertTrue(e.getMessage().contains("equity/EQ"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Quality Engine Tests")
+    class QualityEngineTests {
+
+        @Test
+        @DisplayName("Clean series should have no defects")
+        void cleanSeriesShouldPass() {
+            DataQualityEngine.Columns columns = new DataQualityEngine.Columns("AAPL");
+            for (int d : calendar.tradingDays(day("2024-06-03"), day("2024-06-28"))) {
+                columns.add(d, 10, 11, 9, 10.5, 1_000);
+            }
+
+            DataQualityEngine.Report report = analyze("2024-06-03", "2024-06-28", columns);
+
+            assertEquals(0, report.symbolsWithDefects());
+            assertTrue(report.refetch().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should collapse missing trading days into one range across a holiday")
+        void shouldCollapseMissingDays() {
+            // Given - Jul 2, 3 and 5 missing; Jul 4 is a holiday so the gap is contiguous
+            DataQualityEngine.Columns columns = new DataQualityEngine.Columns("MSFT");
+            addGoodBar(columns, "2024-07-01");
+            addGoodBar(columns, "2024-07-08");
+
+            // When
+            DataQualityEngine.Report report = analyze("2024-07-01", "2024-07-08", columns);
+
+            // Then
+            assertEquals(3, report.total(DataQualityEngine.Defect.MISSING_DAY));
+            assertEquals(1, report.refetch().size());
+            DataQualityEngine.RefetchRange range = report.refetch().get(0);
+            assertEquals(LocalDate.parse("2024-07-02"), range.from());
+            assertEquals(LocalDate.parse("2024-07-05"), range.to());
+            assertEquals("missing", range.reason());
+        }
+
+        @Test
+        @DisplayName("Should flag duplicates, bad bars and off-calendar bars")
+        void shouldFlagBarDefects() {
+            // Given - unsorted input with a duplicate, an inverted bar, a zero-volume bar and a Saturday
+            DataQualityEngine.Columns columns = new DataQualityEngine.Columns("TSLA");
+            addGoodBar(columns, "2024-06-12");
+            columns.add(day("2024-06-11"), 10, 9, 11, 10, 1_000);          // high < low
+            addGoodBar(columns, "2024-06-10");
+            addGoodBar(columns, "2024-06-10");                               // duplicate
+            columns.add(day("2024-06-13"), 10, 11, 9, 10.5, 0);             // zero volume
+            addGoodBar(columns, "2024-06-14");
+            addGoodBar(columns, "2024-06-15");                               // Saturday
+
+            // When
+            DataQualityEngine.Report report = analyze("2024-06-10", "2024-06-15", columns);
+            DataQualityEngine.SymbolQuality quality = report.symbols().get(0);
+
+            // Then
+            assertEquals(1, quality.count(DataQualityEngine.Defect.DUPLICATE_DATE));
+            assertEquals(1, quality.count(DataQualityEngine.Defect.HIGH_BELOW_LOW));
+            assertEquals(2, quality.count(DataQualityEngine.Defect.OPEN_OUT_OF_RANGE)
+                    + quality.count(DataQualityEngine.Defect.CLOSE_OUT_OF_RANGE));
+            assertEquals(1, quality.count(DataQualityEngine.Defect.ZERO_VOLUME));
+            assertEquals(1, quality.count(DataQualityEngine.Defect.NON_TRADING_DAY));
+            assertEquals(0, quality.count(DataQualityEngine.Defect.MISSING_DAY));
+
+            // Jun 10 (duplicate), 11 (bad bar) and 13 (zero volume) need a re-fetch
+            assertEquals(2, quality.refetch().size());
+            assertEquals(LocalDate.parse("2024-06-10"), quality.refetch().get(0).from());
+            assertEquals(LocalDate.parse("2024-06-11"), quality.refetch().get(0).to());
+            assertEquals("mixed", quality.refetch().get(0).reason());
+            assertEquals("zero volume", quality.refetch().get(1).reason());
+        }
+
+        @Test
+        @DisplayName("Symbols that stop early should be re-fetched up to the universe end")
+        void shouldFlagStaleSymbols() {
+            DataQualityEngine.Columns fresh = new DataQualityEngine.Columns("SPY");
+            addGoodBar(fresh, "2024-06-17");
+            addGoodBar(fresh, "2024-06-18");
+            addGoodBar(fresh, "2024-06-20");
+            DataQualityEngine.Columns stale = new DataQualityEngine.Columns("QQQ");
+            addGoodBar(stale, "2024-06-17");
+
+            DataQualityEngine.Report report = analyze("2024-06-17", "2024-06-20", fresh, stale);
+
+            DataQualityEngine.SymbolQuality qqq = report.symbols().get(0);
+            assertEquals("QQQ", qqq.symbol());
+            assertEquals(2, qqq.count(DataQualityEngine.Defect.MISSING_DAY));
+            assertEquals(LocalDate.parse("2024-06-20"), qqq.refetch().get(0).to());
+        }
+
+        @Test
+        @DisplayName("Symbols that start late should be re-fetched from the universe start")
+        void shouldFlagLateStarters() {
+            DataQualityEngine.Columns early = new DataQualityEngine.Columns("SPY");
+            addGoodBar(early, "2024-06-17");
+            addGoodBar(early, "2024-06-18");
+            addGoodBar(early, "2024-06-20");
+            DataQualityEngine.Columns late = new DataQualityEngine.Columns("IWM");
+            addGoodBar(late, "2024-06-20");
+
+            DataQualityEngine.Report report = analyze("2024-06-17", "2024-06-20", early, late);
+
+            DataQualityEngine.SymbolQuality iwm = report.symbols().get(0);
+            assertEquals("IWM", iwm.symbol());
+            assertEquals(2, iwm.count(DataQualityEngine.Defect.MISSING_DAY));
+            assertEquals(LocalDate.parse("2024-06-17"), iwm.refetch().get(0).from());
+            assertEquals(LocalDate.parse("2024-06-18"), iwm.refetch().get(0).to());
+        }
+
+        @Test
+        @DisplayName("Symbols with only fetch errors should be re-fetched for the whole window")
+        void shouldRefetchFailedSymbols() {
+            DataQualityEngine.Columns good = new DataQualityEngine.Columns("AAPL");
+            addGoodBar(good, "2024-06-17");
+            addGoodBar(good, "2024-06-18");
+            DataQualityEngine.Columns failed = new DataQualityEngine.Columns("BAD");
+            failed.errors = 1;
+
+            DataQualityEngine.Report report = analyze("2024-06-17", "2024-06-18", good, failed);
+
+            assertEquals(1, report.total(DataQualityEngine.Defect.FETCH_ERROR));
+            assertEquals(1, report.refetch().size());
+            assertEquals("fetch failed", report.refetch().get(0).reason());
+        }
+    }
+}
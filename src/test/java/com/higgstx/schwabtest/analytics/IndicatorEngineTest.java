@@ -0,0 +1,254 @@
+package com.higgstx.schwabtest.analytics;
+
+import com.higgstx.schwabapi.model.market.DailyPriceData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the streaming indicator engine
+ */
+class IndicatorEngineTest {
+
+    private static void feedCloses(Indicator indicator, double... closes) {
+        for (double close : closes) {
+            indicator.update(close, close, close, close, 1_000);
+        }
+    }
+
+    @Nested
+    @DisplayName("Indicator Calculation Tests")
+    class IndicatorCalculationTests {
+
+        @Test
+        @DisplayName("SMA should average the last 'period' closes")
+        void smaShouldAverageWindow() {
+            // Given
+            Indicator sma = new SimpleMovingAverage(3);
+
+            // When
+            feedCloses(sma, 1, 2);
+
+            // Then - not ready until the window is full
+            assertFalse(sma.isReady());
+            assertTrue(Double.isNaN(sma.value()));
+
+            feedCloses(sma, 3);
+            assertEquals(2.0, sma.value(), 1e-12);
+
+            feedCloses(sma, 10);
+            assertEquals(5.0, sma.value(), 1e-12);
+        }
+
+        @Test
+        @DisplayName("EMA should seed with SMA and then smooth")
+        void emaShouldSeedAndSmooth() {
+            // Given
+            Indicator ema = new ExponentialMovingAverage(3);
+
+            // When
+            feedCloses(ema, 2, 4, 6);
+
+            // Then - seed is the plain average
+            assertEquals(4.0, ema.value(), 1e-12);
+
+            // alpha = 0.5 for period 3
+            feedCloses(ema, 8);
+            assertEquals(6.0, ema.value(), 1e-12);
+        }
+
+        @Test
+        @DisplayName("RSI should be 100 for a rising series and 0 for a falling one")
+        void rsiShouldHandleMonotonicSeries() {
+            Indicator rising = new RelativeStrengthIndex(3);
+            feedCloses(rising, 1, 2, 3, 4);
+            assertEquals(100.0, rising.value(), 1e-12);
+
+            Indicator falling = new RelativeStrengthIndex(3);
+            feedCloses(falling, 4, 3, 2, 1);
+            assertEquals(0.0, falling.value(), 1e-12);
+        }
+
+        @Test
+        @DisplayName("RSI should balance equal gains and losses at 50")
+        void rsiShouldBeFiftyForBalancedMoves() {
+            Indicator rsi = new RelativeStrengthIndex(2);
+            feedCloses(rsi, 10, 11, 10);
+            assertEquals(50.0, rsi.value(), 1e-12);
+        }
+
+        @Test
+        @DisplayName("ATR should include gaps from the previous close")
+        void atrShouldIncludeGaps() {
+            // Given
+            Indicator atr = new AverageTrueRange(2);
+
+            // When - second bar gaps up from a close of 10 to a low of 12
+            atr.update(9, 11, 9, 10, 100);
+            atr.update(12, 14, 12, 13, 100);
+
+            // Then - true ranges are 2 and 4
+            assertEquals(3.0, atr.value(), 1e-12);
+        }
+
+        @Test
+        @DisplayName("VWAP should weight typical price by volume over the window")
+        void vwapShouldWeightByVolume() {
+            Indicator vwap = new VolumeWeightedAveragePrice(2);
+            vwap.update(10, 10, 10, 10, 100);
+            vwap.update(20, 20, 20, 20, 300);
+            assertEquals(17.5, vwap.value(), 1e-12);
+
+            // Oldest bar leaves the window
+            vwap.update(30, 30, 30, 30, 100);
+            assertEquals(22.5, vwap.value(), 1e-12);
+        }
+    }
+
+    @Nested
+    @DisplayName("Engine Tests")
+    class EngineTests {
+
+        @Test
+        @DisplayName("Should keep independent state per symbol")
+        void shouldKeepStatePerSymbol() {
+            // Given
+            IndicatorEngine engine = new IndicatorEngine(List.of(new IndicatorSpec(IndicatorSpec.Type.SMA, 2)));
+
+            // When
+            engine.update("AAPL", 1, 1, 1, 1, 1, 10);
+            engine.update("AAPL", 2, 3, 3, 3, 3, 10);
+            engine.update("MSFT", 1, 100, 100, 100, 100, 10);
+            engine.update("MSFT", 2, 200, 200, 200, 200, 10);
+
+            // Then
+            assertEquals(2, engine.symbolCount());
+            assertEquals(2.0, engine.getState("AAPL").value(0), 1e-12);
+            assertEquals(150.0, engine.getState("MSFT").value(0), 1e-12);
+        }
+
+        @Test
+        @DisplayName("Should ignore candles at or before the last applied date")
+        void shouldIgnoreReplayedCandles() {
+            // Given
+            IndicatorEngine engine = new IndicatorEngine(List.of(new IndicatorSpec(IndicatorSpec.Type.SMA, 2)));
+            engine.update("SPY", 10, 1, 1, 1, 1, 10);
+            engine.update("SPY", 11, 3, 3, 3, 3, 10);
+
+            // When - an overlapping delta re-sends day 11 and then adds day 12
+            assertFalse(engine.update("SPY", 11, 99, 99, 99, 99, 10));
+            assertTrue(engine.update("SPY", 12, 5, 5, 5, 5, 10));
+
+            // Then
+            SymbolIndicators state = engine.getState("SPY");
+            assertEquals(3, state.getCandleCount());
+            assertEquals(12, state.getLastEpochDay());
+            assertEquals(4.0, state.value(0), 1e-12);
+        }
+
+        @Test
+        @DisplayName("Should ingest an empty batch without creating state")
+        void shouldIngestEmptyBatch() {
+            IndicatorEngine engine = new IndicatorEngine(IndicatorSpec.parseList(IndicatorSpec.DEFAULT_SPECS));
+            assertEquals(0, engine.ingest(List.of()));
+            assertEquals(0, engine.symbolCount());
+        }
+
+        @Test
+        @DisplayName("Should ingest candles per symbol in date order")
+        void shouldIngestCandlesInDateOrder() {
+            // Given - out of order, two symbols and a failed fetch
+            IndicatorEngine engine = new IndicatorEngine(List.of(new IndicatorSpec(IndicatorSpec.Type.SMA, 2)));
+            LocalDate day = LocalDate.of(2024, 3, 1);
+            List<DailyPriceData> candles = List.of(
+                    TestCandles.candle("AAPL", day.plusDays(2), 30),
+                    TestCandles.candle("AAPL", day, 10),
+                    TestCandles.candle("MSFT", day, 100),
+                    TestCandles.candle("AAPL", day.plusDays(1), 20),
+                    TestCandles.failed("MSFT"));
+
+            // When
+            int applied = engine.ingest(candles);
+
+            // Then
+            assertEquals(4, applied);
+            SymbolIndicators aapl = engine.getState("AAPL");
+            assertEquals(25.0, aapl.value(0), 1e-12);
+            assertEquals(30.0, aapl.getLastClose(), 1e-12);
+            assertEquals(1, engine.getState("MSFT").getCandleCount());
+        }
+
+        @Test
+        @DisplayName("A candle without a close is skipped and does not poison the averages")
+        void shouldSkipCandleWithoutClose() {
+            // Given
+            IndicatorEngine engine = new IndicatorEngine(List.of(new IndicatorSpec(IndicatorSpec.Type.SMA, 2),
+                    new IndicatorSpec(IndicatorSpec.Type.VWAP, 2)));
+            LocalDate day = LocalDate.of(2024, 3, 1);
+            List<DailyPriceData> candles = List.of(
+                    TestCandles.candle("SPY", day, 10),
+                    TestCandles.candle("SPY", day.plusDays(1), 11.0, 11.0, 11.0, null, 1_000L),
+                    TestCandles.candle("SPY", day.plusDays(2), 20),
+                    TestCandles.candle("SPY", day.plusDays(3), 30),
+                    TestCandles.candle("SPY", day.plusDays(4), 40));
+
+            // When
+            int applied = engine.ingest(candles);
+
+            // Then
+            assertEquals(4, applied);
+            SymbolIndicators state = engine.getState("SPY");
+            assertEquals(35.0, state.value(0), 1e-12);
+            assertEquals(35.0, state.value(1), 1e-12);
+        }
+
+        @Test
+        @DisplayName("A NaN price pushed directly is rejected")
+        void shouldRejectNanPrice() {
+            // Given
+            IndicatorEngine engine = new IndicatorEngine(List.of(new IndicatorSpec(IndicatorSpec.Type.SMA, 2)));
+            engine.update("QQQ", 1, 1, 1, 1, 1, 10);
+
+            // When
+            boolean applied = engine.update("QQQ", 2, 2, 2, 2, Double.NaN, 10);
+            engine.update("QQQ", 3, 3, 3, 3, 3, 10);
+
+            // Then
+            assertFalse(applied);
+            assertEquals(2.0, engine.getState("QQQ").value(0), 1e-12);
+        }
+
+        @Test
+        @DisplayName("Should reject an empty spec list")
+        void shouldRejectEmptySpecs() {
+            assertThrows(IllegalArgumentException.class, () -> new IndicatorEngine(List.of()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Spec Parsing Tests")
+    class SpecParsingTests {
+
+        @Test
+        @DisplayName("Should parse the supported spec formats")
+        void shouldParseFormats() {
+            assertEquals(new IndicatorSpec(IndicatorSpec.Type.SMA, 20), IndicatorSpec.parse("SMA(20)"));
+            assertEquals(new IndicatorSpec(IndicatorSpec.Type.RSI, 14), IndicatorSpec.parse("rsi:14"));
+            assertEquals(new IndicatorSpec(IndicatorSpec.Type.VWAP, 5), IndicatorSpec.parse(" vwap 5 "));
+            assertEquals(6, IndicatorSpec.parseList(IndicatorSpec.DEFAULT_SPECS).size());
+        }
+
+        @Test
+        @DisplayName("Should reject unknown types and bad periods")
+        void shouldRejectInvalidSpecs() {
+            assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse("MACD(12)"));
+            assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse("SMA(0)"));
+            assertThrows(IllegalArgumentException.class, () -> IndicatorSpec.parse("SMA"));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.higgstx.schwabtest.analytics;
+
+import com.higgstx.schwabapi.model.market.DailyPriceData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for return alignment
+ */
+class ReturnMatrixTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Test
+    @DisplayName("Closes align on the union of dates and gaps are forward-filled")
+    void alignsAndForwardFills() {
+        // Given - MSFT misses day 1, AAPL misses day 2
+        List<DailyPriceData> candles = List.of(
+                TestCandles.candle("AAPL", DAY, 100),
+                TestCandles.candle("AAPL", DAY.plusDays(1), 110),
+                TestCandles.candle("AAPL", DAY.plusDays(3), 121),
+                TestCandles.candle("MSFT", DAY.plusDays(3), 50),
+                TestCandles.candle("MSFT", DAY, 40),
+                TestCandles.candle("MSFT", DAY.plusDays(2), 50));
+
+        // When
+        ReturnMatrix matrix = ReturnMatrix.fromCandles(candles, 0.5);
+
+        // Then
+        assertArrayEquals(new String[]{"AAPL", "MSFT"}, matrix.getSymbols());
+        assertArrayEquals(new int[]{(int) DAY.plusDays(1).toEpochDay(), (int) DAY.plusDays(2).toEpochDay(),
+                (int) DAY.plusDays(3).toEpochDay()}, matrix.getReturnDays());
+        double[] returns = matrix.getReturns();
+        assertEquals(Math.log(1.1), returns[0], 1e-12);
+        assertEquals(0.0, returns[1], 1e-12);
+        assertEquals(Math.log(1.1), returns[2], 1e-12);
+        assertEquals(0.0, returns[3], 1e-12);
+        assertEquals(Math.log(50.0 / 40.0), returns[4], 1e-12);
+        assertEquals(0.0, returns[5], 1e-12);
+    }
+
+    @Test
+    @DisplayName("A symbol without any close is dropped even with zero coverage required")
+    void dropsSymbolWithoutCloses() {
+        // Given
+        List<DailyPriceData> candles = List.of(
+                TestCandles.candle("AAPL", DAY, 100),
+                TestCandles.candle("AAPL", DAY.plusDays(1), 110),
+                TestCandles.candle("DEAD", DAY, 0));
+
+        // When
+        ReturnMatrix matrix = ReturnMatrix.fromCandles(candles, 0.0);
+
+        // Then
+        assertArrayEquals(new String[]{"AAPL"}, matrix.getSymbols());
+        for (double value : matrix.getReturns()) {
+            assertFalse(Double.isNaN(value));
+        }
+    }
+}
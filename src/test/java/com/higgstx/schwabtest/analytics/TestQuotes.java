@@ -0,0 +1,31 @@
+package com.higgstx.schwabtest.analytics;
+
+import com.higgstx.schwabapi.model.market.QuoteData;
+import org.mockito.Mockito;
+
+/**
+ * QuoteData fixtures, mocked the same way as {@link TestCandles}
+ */
+public final class TestQuotes {
+
+    private TestQuotes() {
+    }
+
+    public static QuoteData quote(String symbol, double price, long volume) {
+        return Mockito.mock(QuoteData.class, invocation -> switch (invocation.getMethod().getName()) {
+            case "getSymbol" -> symbol;
+            case "isSuccess" -> true;
+            case "getClosePrice" -> TestCandles.number(price, invocation);
+            case "getTotalVolume" -> TestCandles.number(volume, invocation);
+            default -> Mockito.RETURNS_DEFAULTS.answer(invocation);
+        });
+    }
+
+    public static QuoteData unavailable(String symbol) {
+        return Mockito.mock(QuoteData.class, invocation -> switch (invocation.getMethod().getName()) {
+            case "getSymbol" -> symbol;
+            case "isSuccess" -> false;
+            default -> Mockito.RETURNS_DEFAULTS.answer(invocation);
+        });
+    }
+}
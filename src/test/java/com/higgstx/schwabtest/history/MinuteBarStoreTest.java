@@ -0,0 +1,120 @@
+package com.higgstx.schwabtest.history;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for merging intraday bars into the on-disk store
+ */
+class MinuteBarStoreTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @TempDir
+    Path directory;
+
+    private static BarSeries bars(long fromMinute, long toMinute, double close) {
+        BarSeries bars = new BarSeries(16);
+        for (long minute = fromMinute; minute <= toMinute; minute++) {
+            bars.add(minute * MINUTE, close, close, close, close, 100);
+        }
+        return bars;
+    }
+
+    @Test
+    @DisplayName("Should merge overlapping windows with existing bars in time order")
+    void testMergeOverlapping() throws Exception {
+        // Given
+        MinuteBarStore store = new MinuteBarStore(directory);
+        try (MinuteBarStore.Merge merge = store.openMerge("spy", 1)) {
+            merge.append(bars(10, 19, 1.0));
+            merge.commit();
+        }
+
+        // When - two windows overlapping each other at minute 5 and the existing run at 10..12
+        MinuteBarStore.MergeResult result;
+        try (MinuteBarStore.Merge merge = store.openMerge("SPY", 1)) {
+            merge.append(MinuteBarParser.parse("{\"symbol\":\"SPY\",\"candles\":["
+                    + "{\"open\":2,\"high\":2,\"low\":2,\"close\":2,\"volume\":5,\"datetime\":" + 5 * MINUTE + "},"
+                    + "{\"open\":2,\"high\":2,\"low\":2,\"close\":2,\"volume\":5,\"datetime\":" + 0 + "}],"
+                    + "\"empty\":false}"));
+            merge.append(bars(5, 12, 3.0));
+            merge.append(bars(25, 26, 4.0));
+            result = merge.commit();
+        }
+        BarSeries stored = store.read("SPY", 1);
+
+        // Then
+        assertEquals(new MinuteBarStore.MergeResult(10, 12, 18, 1, 3), result);
+        assertEquals(18, store.count("SPY", 1));
+        for (int row = 1; row < stored.size(); row++) {
+            assertTrue(stored.time(row) > stored.time(row - 1));
+        }
+        assertEquals(0L, stored.time(0));
+        assertEquals(2.0, stored.close(1));
+        assertEquals(3.0, stored.close(7));
+        assertEquals(1.0, stored.close(9));
+        assertEquals(26 * MINUTE, stored.time(stored.size() - 1));
+    }
+
+    @Test
+    @DisplayName("Should leave the existing file untouched when a merge is abandoned")
+    void testAbandonedMerge() throws Exception {
+        // Given
+        MinuteBarStore store = new MinuteBarStore(directory);
+        try (MinuteBarStore.Merge merge = store.openMerge("QQQ", 5)) {
+            merge.append(bars(0, 9, 1.0));
+            merge.commit();
+        }
+
+        // When
+        try (MinuteBarStore.Merge merge = store.openMerge("QQQ", 5)) {
+            merge.append(bars(20, 29, 2.0));
+        }
+
+        // Then
+        assertEquals(10, store.count("QQQ", 5));
+        assertEquals(0, partialFiles());
+    }
+
+    @Test
+    @DisplayName("Should keep two overlapping merges of one file from writing into each other")
+    void testConcurrentMerges() throws Exception {
+        // Given - more bars than one write buffer, so the first merge has flushed to disk
+        MinuteBarStore store = new MinuteBarStore(directory);
+        MinuteBarStore.Merge first = store.openMerge("IWM", 1);
+        first.append(bars(0, 1999, 1.0));
+
+        // When
+        MinuteBarStore.MergeResult second;
+        try (MinuteBarStore.Merge merge = store.openMerge("IWM", 1)) {
+            merge.append(bars(5000, 7999, 2.0));
+            first.append(bars(2000, 2999, 1.0));
+            first.commit();
+            second = merge.commit();
+        } finally {
+            first.close();
+        }
+
+        // Then - the last commit wins whole, and no temp file is left behind
+        BarSeries stored = store.read("IWM", 1);
+        assertEquals(3000, second.written());
+        assertEquals(3000, stored.size());
+        assertEquals(5000 * MINUTE, stored.time(0));
+        assertEquals(2.0, stored.close(stored.size() - 1));
+        assertEquals(0, partialFiles());
+    }
+
+    private long partialFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".partial")).count();
+        }
+    }
+}
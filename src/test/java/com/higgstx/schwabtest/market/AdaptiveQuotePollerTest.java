@@ -0,0 +1,216 @@
+package com.higgstx.schwabtest.market;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import com.higgstx.schwabapi.service.MarketDataService;
+import com.higgstx.schwabtest.analytics.SymbolTable;
+import com.higgstx.schwabtest.analytics.TestQuotes;
+import com.higgstx.schwabtest.service.CredentialPool;
+import com.higgstx.schwabtest.service.CredentialSlot;
+import com.higgstx.schwabtest.service.HedgedExecutor;
+import com.higgstx.schwabtest.service.RateLimiter;
+import com.higgstx.schwabtest.service.SchwabRestClient;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for quote diffing, the poll cadence and per-cycle activity
+ */
+class AdaptiveQuotePollerTest {
+
+    @Nested
+    @DisplayName("Snapshot diffing")
+    class SnapshotTests {
+
+        @Test
+        @DisplayName("Only changed symbols and fields are published")
+        void publishesOnlyChanges() {
+            // Given
+            SymbolTable table = new SymbolTable();
+            QuoteSnapshotTable snapshot = new QuoteSnapshotTable(table);
+            QuoteDeltaBatch delta = new QuoteDeltaBatch(table);
+            delta.reset(1);
+            snapshot.diff(List.of(TestQuotes.quote("AAPL", 100, 1_000), TestQuotes.quote("MSFT", 400, 2_000)), delta);
+            assertEquals(2, delta.size());
+
+            // When
+            delta.reset(2);
+            snapshot.diff(List.of(TestQuotes.quote("AAPL", 101, 1_000), TestQuotes.quote("MSFT", 400, 2_000)), delta);
+
+            // Then
+            assertEquals(1, delta.size());
+            assertEquals("AAPL", delta.symbol(0));
+            assertTrue(delta.changed(0, QuoteDeltaBatch.PRICE));
+            assertFalse(delta.changed(0, QuoteDeltaBatch.VOLUME));
+            assertEquals(101, delta.price(0), 1e-9);
+            assertEquals(0.5, snapshot.changedFraction(), 1e-9);
+            assertEquals(0.01 / 2, snapshot.meanRelativeMove(), 1e-9);
+        }
+
+        @Test
+        @DisplayName("An identical snapshot produces no delta, a failed quote only a status change")
+        void unchangedAndUnavailable() {
+            // Given
+            SymbolTable table = new SymbolTable();
+            QuoteSnapshotTable snapshot = new QuoteSnapshotTable(table);
+            QuoteDeltaBatch delta = new QuoteDeltaBatch(table);
+            delta.reset(1);
+            snapshot.diff(List.of(TestQuotes.quote("AAPL", 100, 1_000)), delta);
+
+            // When
+            delta.reset(2);
+            snapshot.diff(List.of(TestQuotes.quote("AAPL", 100, 1_000)), delta);
+            int unchangedSize = delta.size();
+            delta.reset(3);
+            snapshot.diff(List.of(TestQuotes.unavailable("AAPL")), delta);
+
+            // Then
+            assertEquals(0, unchangedSize);
+            assertEquals(1, delta.size());
+            assertEquals(QuoteDeltaBatch.STATUS, delta.changedFields(0));
+            assertFalse(delta.isAvailable(0));
+            assertEquals(100, delta.price(0), 1e-9);
+        }
+    }
+
+    @Nested
+    @DisplayName("Cadence")
+    class CadenceTests {
+
+        @Test
+        @DisplayName("Sustained activity narrows the interval to the minimum, quiet widens it back")
+        void narrowsAndWidens() {
+            // Given
+            QuoteCadence cadence = new QuoteCadence(1_000, 10_000, 60_000, 0.5);
+
+            // When
+            long busy = 0;
+            for (int i = 0; i < 20; i++) {
+                busy = cadence.nextIntervalMs(true, true, 1.0, 0);
+            }
+            long quiet = 0;
+            for (int i = 0; i < 20; i++) {
+                quiet = cadence.nextIntervalMs(true, true, 0, 0);
+            }
+
+            // Then
+            assertEquals(1_000, busy);
+            assertTrue(quiet > 9_500, "quiet interval " + quiet);
+        }
+
+        @Test
+        @DisplayName("The first busy cycle moves the interval only part of the way")
+        void smoothsActivity() {
+            // Given
+            QuoteCadence cadence = new QuoteCadence(1_000, 10_000, 60_000, 0.5);
+
+            // When
+            long first = cadence.nextIntervalMs(true, true, 1.0, 0);
+
+            // Then - activity 0.3 of a 0.5 target is 60% of the way to the minimum
+            assertEquals(0.3, cadence.getActivity(), 1e-9);
+            assertEquals(4_600, first);
+        }
+
+        @Test
+        @DisplayName("Extended hours use the maximum interval and closed markets the closed interval")
+        void sessionsOutsideRegularHours() {
+            // Given
+            QuoteCadence cadence = new QuoteCadence(1_000, 10_000, 60_000, 0.5);
+
+            // When / Then
+            assertEquals(10_000, cadence.nextIntervalMs(false, true, 1.0, 0));
+            assertEquals(60_000, cadence.nextIntervalMs(false, false, 1.0, 0));
+        }
+    }
+
+    @Test
+    @DisplayName("Cycle activity weights each batch by its number of quotes")
+    void activityIsWeightedBySymbols() throws Exception {
+        // Given - 201 symbols split into a batch of 200 and a batch of 1
+        List<String> watchlist = new ArrayList<>();
+        for (int i = 0; i < AdaptiveQuotePoller.MAX_SYMBOLS_PER_CALL + 1; i++) {
+            watchlist.add("W" + i);
+        }
+        Map<String, Long> volumes = new ConcurrentHashMap<>();
+        MarketDataService marketData = mock(MarketDataService.class);
+        when(marketData.getQuotes(anyList())).thenAnswer(invocation -> {
+            List<String> batch = invocation.getArgument(0);
+            return batch.stream()
+                    .map(symbol -> TestQuotes.quote(symbol, 50, volumes.getOrDefault(symbol, 1L)))
+                    .toList();
+        });
+        CredentialPool pool = new CredentialPool(List.of(
+                new CredentialSlot("test", null, marketData, new RateLimiter(600_000, 1_000))));
+        QuoteCadence cadence = new QuoteCadence(1_000, 10_000, 60_000, 0.5);
+        MarketHoursService marketHours = new MarketHoursService(
+                new SchwabRestClient(() -> "unused", 1_000), "http://127.0.0.1:1", 7);
+
+        try (HedgedExecutor calls = new HedgedExecutor(pool, false, 0.95, 0.0, 20);
+             AdaptiveQuotePoller poller = new AdaptiveQuotePoller(calls, marketHours, cadence, watchlist, delta -> {
+             })) {
+            poller.pollOnce();
+            double afterFirst = cadence.getActivity();
+
+            // When - only the lone symbol in the tail batch changes
+            volumes.put(watchlist.get(watchlist.size() - 1), 2L);
+            poller.pollOnce();
+
+            // Then - 1 of 201 changed, not the 1 of 1 that averaging per batch would report
+            double expected = afterFirst + 0.3 * (1.0 / watchlist.size() - afterFirst);
+            assertEquals(0.3, afterFirst, 1e-9);
+            assertEquals(expected, cadence.getActivity(), 1e-9);
+            assertEquals(2 * watchlist.size(), poller.getQuotesReceived());
+            assertEquals(watchlist.size() + 1, poller.getChangesPublished());
+        } finally {
+            marketHours.close();
+        }
+    }
+
+    @Test
+    @DisplayName("A failing later batch is counted and earlier batches' changes are still published")
+    void failedBatchStillPublishes() throws Exception {
+        // Given - 201 symbols split into a batch of 200 and a batch of 1 that always fails
+        List<String> watchlist = new ArrayList<>();
+        for (int i = 0; i < AdaptiveQuotePoller.MAX_SYMBOLS_PER_CALL + 1; i++) {
+            watchlist.add("F" + i);
+        }
+        MarketDataService marketData = mock(MarketDataService.class);
+        when(marketData.getQuotes(anyList())).thenAnswer(invocation -> {
+            List<String> batch = invocation.getArgument(0);
+            if (batch.size() == 1) {
+                throw SchwabApiException.serverError("quotes unavailable");
+            }
+            return batch.stream().map(symbol -> TestQuotes.quote(symbol, 50, 1L)).toList();
+        });
+        CredentialPool pool = new CredentialPool(List.of(
+                new CredentialSlot("test", null, marketData, new RateLimiter(600_000, 1_000))));
+        QuoteCadence cadence = new QuoteCadence(1_000, 10_000, 60_000, 0.5);
+        MarketHoursService marketHours = new MarketHoursService(
+                new SchwabRestClient(() -> "unused", 1_000), "http://127.0.0.1:1", 7);
+        List<Integer> published = new ArrayList<>();
+
+        try (HedgedExecutor calls = new HedgedExecutor(pool, false, 0.95, 0.0, 20);
+             AdaptiveQuotePoller poller = new AdaptiveQuotePoller(calls, marketHours, cadence, watchlist,
+                     delta -> published.add(delta.size()))) {
+            // When
+            poller.pollOnce();
+
+            // Then
+            assertEquals(List.of(AdaptiveQuotePoller.MAX_SYMBOLS_PER_CALL), published);
+            assertEquals(1, poller.getBatchesFailed());
+            assertEquals(AdaptiveQuotePoller.MAX_SYMBOLS_PER_CALL, poller.getChangesPublished());
+        } finally {
+            marketHours.close();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.higgstx.schwabtest.market;
+
+import com.higgstx.schwabtest.service.SchwabRestClient;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the market hours cache against a loopback stand-in
+ */
+class MarketHoursServiceTest {
+
+    // Tuesday 2024-06-18, 12:00 in New York
+    private static final Instant NOON = Instant.parse("2024-06-18T16:00:00Z");
+
+    private HttpServer server;
+    private final Map<String, Integer> requestsByMarket = new ConcurrentHashMap<>();
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+    private final MovableClock clock = new MovableClock(NOON);
+    private MarketHoursService service;
+
+    /**
+     * A clock tests can move forward
+     */
+    private static final class MovableClock extends Clock {
+        private final AtomicLong millis;
+
+        MovableClock(Instant start) {
+            this.millis = new AtomicLong(start.toEpochMilli());
+        }
+
+        void advanceDays(int days) {
+            millis.addAndGet(TimeUnit.DAYS.toMillis(days));
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return Clock.fixed(instant(), zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/marketdata/v1/markets", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            String market = param(query, "markets");
+            String date = param(query, "date");
+            requestsByMarket.merge(market, 1, Integer::sum);
+            try {
+                gate.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"" + market + "\":{\"EQ\":{\"date\":\"" + date + "\",\"isOpen\":true,"
+                    + "\"sessionHours\":{\"regularMarket\":[{\"start\":\"" + date + "T09:30:00-04:00\","
+                    + "\"end\":\"" + date + "T16:00:00-04:00\"}]}}}}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        service = new MarketHoursService(new SchwabRestClient(() -> "token", 5_000),
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/marketdata/v1", 2, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        service.close();
+        server.stop(0);
+    }
+
+    private static String param(String query, String name) {
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private static long at(LocalDate date, int hour, int minute) {
+        return ZonedDateTime.of(date.atTime(hour, minute), MarketHoursService.MARKET_ZONE).toInstant().toEpochMilli();
+    }
+
+    @Test
+    @DisplayName("Prefetched days answer session questions from memory")
+    void prefetchedDaysAnswerFromMemory() throws Exception {
+        // Given
+        LocalDate today = service.today();
+        service.prefetch(MarketHoursService.EQUITY);
+        long calls = service.getApiCalls();
+
+        // When
+        boolean openAtNoon = service.isOpenAt(MarketHoursService.EQUITY, at(today, 12, 0), false);
+        boolean openAtEight = service.isOpenAt(MarketHoursService.EQUITY, at(today, 8, 0), false);
+        long nextClose = service.nextClose(MarketHoursService.EQUITY);
+        long nextOpen = service.nextOpen(MarketHoursService.EQUITY);
+
+        // Then
+        assertTrue(openAtNoon);
+        assertFalse(openAtEight);
+        assertEquals(at(today, 16, 0), nextClose);
+        assertEquals(at(today.plusDays(1), 9, 30), nextOpen);
+        assertEquals(3, calls);
+        assertEquals(calls, service.getApiCalls());
+    }
+
+    @Test
+    @DisplayName("A lookup past the cached window answers from the rules without waiting on the API")
+    void uncachedLookupDoesNotBlock() throws Exception {
+        // Given - the stand-in holds every request until released
+        gate = new CountDownLatch(1);
+
+        // When
+        long start = System.nanoTime();
+        boolean open = service.isOpenNow(MarketHoursService.EQUITY);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        gate.countDown();
+
+        // Then
+        assertTrue(open);
+        assertTrue(elapsedMillis < 1_000, "took " + elapsedMillis + " ms");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (service.getTimeline(MarketHoursService.EQUITY).getCoveredUntilMillis() <= clock.millis()
+                && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(service.getTimeline(MarketHoursService.EQUITY).getCoveredUntilMillis() > clock.millis());
+    }
+
+    @Test
+    @DisplayName("Scheduled refresh re-prefetches every cached market, not just equity")
+    void refreshCoversCachedMarkets() throws Exception {
+        // Given
+        service.prefetch("option");
+        int optionRequests = requestsByMarket.get("option");
+
+        // When - a day later the window has one new weekday to load
+        clock.advanceDays(1);
+        service.refresh();
+
+        // Then
+        assertEquals(optionRequests + 1, (int) requestsByMarket.get("option"));
+        assertTrue(requestsByMarket.containsKey("equity"));
+        assertTrue(service.getTimeline("option").getCoveredUntilMillis() > clock.millis());
+    }
+}
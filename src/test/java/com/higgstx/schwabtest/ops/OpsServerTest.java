@@ -0,0 +1,92 @@
+package com.higgstx.schwabtest.ops;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the loopback ops endpoint
+ */
+class OpsServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private OpsServer server;
+    private OpsServer second;
+    private volatile List<String> reasons = List.of("market data service not ready");
+
+    private final OpsServer.StatusSource source = new OpsServer.StatusSource() {
+        @Override
+        public List<String> notReadyReasons() {
+            return reasons;
+        }
+
+        @Override
+        public Map<String, Object> state() {
+            return Map.of("queues", Map.of("bulk", Map.of("waiting", 3)));
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+        if (second != null) {
+            second.close();
+        }
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("Should serve health, readiness and state as JSON")
+    void testEndpoints() throws Exception {
+        // Given
+        server = new OpsServer(0, source);
+        server.start();
+
+        // When
+        HttpResponse<String> health = get("/health");
+        HttpResponse<String> notReady = get("/ready");
+        reasons = List.of();
+        HttpResponse<String> ready = get("/ready");
+        JsonNode state = new ObjectMapper().readTree(get("/state").body());
+
+        // Then
+        assertEquals(200, health.statusCode());
+        assertEquals(503, notReady.statusCode());
+        assertTrue(notReady.body().contains("market data service not ready"));
+        assertEquals(200, ready.statusCode());
+        assertEquals(3, state.path("queues").path("bulk").path("waiting").asInt());
+    }
+
+    @Test
+    @DisplayName("Should stay off without failing when the port is taken")
+    void testPortConflict() throws Exception {
+        // Given
+        server = new OpsServer(0, source);
+        server.start();
+
+        // When
+        second = new OpsServer(server.getPort(), source);
+        second.start();
+
+        // Then
+        assertEquals(-1, second.getPort());
+        assertEquals(200, get("/health").statusCode());
+    }
+}
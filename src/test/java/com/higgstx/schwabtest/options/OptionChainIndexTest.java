@@ -0,0 +1,99 @@
+package com.higgstx.schwabtest.options;
+
+import com.higgstx.schwabtest.service.SchwabRestClient;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the option chain parser and strike/expiry index
+ */
+class OptionChainIndexTest {
+
+    private static String contract(String type, double strike, double bid) {
+        return "{\"putCall\":\"" + type + "\",\"strikePrice\":" + strike + ",\"bid\":" + bid + ",\"ask\":"
+                + (bid + 0.1) + ",\"last\":" + bid + ",\"delta\":0.5,\"openInterest\":100,\"totalVolume\":10}";
+    }
+
+    private static String side(String type, double bid) {
+        // Strikes deliberately out of numeric order, as the API's string keys sort them
+        return "{\"2024-04-19:30\":{"
+                + "\"100.0\":[" + contract(type, 100, bid) + "],"
+                + "\"95.0\":[" + contract(type, 95, bid) + "],"
+                + "\"105.0\":[" + contract(type, 105, bid) + "]},"
+                + "\"2024-03-15:5\":{"
+                + "\"110.0\":[" + contract(type, 110, bid) + "],"
+                + "\"90.0\":[" + contract(type, 90, bid) + "]}}";
+    }
+
+    private static String chain(double bid) {
+        return "{\"symbol\":\"XYZ\",\"status\":\"SUCCESS\",\"underlyingPrice\":101.0,"
+                + "\"callExpDateMap\":" + side("CALL", bid) + ",\"putExpDateMap\":" + side("PUT", bid) + "}";
+    }
+
+    @Test
+    @DisplayName("Should find nearest strikes and band members per expiry")
+    void testLookups() throws Exception {
+        // Given
+        OptionChainIndex index = OptionChainParser.parse("XYZ", chain(1.0), 0L);
+        int march = (int) LocalDate.of(2024, 3, 15).toEpochDay();
+        int april = (int) LocalDate.of(2024, 4, 19).toEpochDay();
+
+        // When
+        int aprilIndex = index.findExpiry(april);
+        int nearest = index.nearestStrike(aprilIndex, 101.0, OptionChainIndex.PUT);
+        List<Double> band = new ArrayList<>();
+        int visited = index.forEachInBand(aprilIndex, 96.0, 105.0, OptionChainIndex.CALL,
+                (chain, row) -> band.add(chain.strike(row)));
+
+        // Then
+        assertEquals(10, index.contractCount());
+        assertEquals(2, index.expiryCount());
+        assertEquals(march, index.expiry(0));
+        assertEquals(0, index.nextExpiry(march - 10));
+        assertEquals(1, index.nextExpiry(march + 1));
+        assertEquals(-1, index.nextExpiry(april + 1));
+        assertEquals(100.0, index.strike(nearest));
+        assertEquals(OptionChainIndex.PUT, index.type(nearest));
+        assertEquals(2, visited);
+        assertEquals(List.of(100.0, 105.0), band);
+        assertEquals(110.0, index.strike(index.nearestStrike(0, 500.0, OptionChainIndex.CALL)));
+        assertEquals(90.0, index.strike(index.nearestStrike(0, 1.0, OptionChainIndex.CALL)));
+    }
+
+    @Test
+    @DisplayName("Should swap in a fresh index and leave the one readers hold untouched")
+    void testRefreshInstallsFreshIndex() throws Exception {
+        // Given
+        OptionChainService service = new OptionChainService(new SchwabRestClient(() -> "unused", 1000),
+                "http://127.0.0.1:1", 0, 1);
+        OptionChainIndex original = OptionChainParser.parse("XYZ", chain(1.0), 0L);
+        OptionChainIndex repriced = OptionChainParser.parse("XYZ", chain(2.0), 1000L);
+        OptionChainIndex restruck = OptionChainParser.parse("XYZ", chain(2.0).replace("\"110.0\"", "\"115.0\"")
+                .replace("\"strikePrice\":110.0", "\"strikePrice\":115.0"), 2000L);
+        service.install(original);
+
+        // When
+        boolean repricedRebuilt = service.install(repriced);
+        OptionChainIndex afterReprice = service.get("XYZ");
+        boolean restruckRebuilt = service.install(restruck);
+        service.close();
+
+        // Then
+        assertFalse(repricedRebuilt);
+        assertTrue(restruckRebuilt);
+        assertSame(repriced, afterReprice);
+        assertSame(restruck, service.get("XYZ"));
+        assertEquals(1.0, original.bid(0));
+        assertEquals(0L, original.getUpdatedMillis());
+        assertTrue(original.hasSameContracts(repriced));
+        assertFalse(original.hasSameContracts(restruck));
+        assertEquals(1, service.getQuoteRefreshes());
+        assertEquals(2, service.getRebuilds());
+    }
+}
@@ -0,0 +1,99 @@
+package com.higgstx.schwabtest.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only JSON-lines history of performance runs. The baseline for a workload
+ * is the median of its last few recorded runs on a machine with the same processor
+ * count, so one noisy run neither sets nor shifts it much.
+ */
+final class BaselineHistory {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Median throughput and p99 of recent runs of one workload
+     */
+    record Baseline(String workload, double unitsPerSecond, long p99Nanos, int runs) {
+    }
+
+    private final Path file;
+    private final int window;
+
+    BaselineHistory(Path file, int window) {
+        this.file = file;
+        this.window = window;
+    }
+
+    Map<String, Baseline> baselines() throws IOException {
+        Map<String, List<JsonNode>> runsByWorkload = new HashMap<>();
+        if (Files.exists(file)) {
+            int processors = Runtime.getRuntime().availableProcessors();
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode run = MAPPER.readTree(line);
+                if (run.path("processors").asInt() != processors) {
+                    continue;
+                }
+                for (JsonNode result : run.path("results")) {
+                    runsByWorkload.computeIfAbsent(result.path("workload").asText(), w -> new ArrayList<>()).add(result);
+                }
+            }
+        }
+
+        Map<String, Baseline> baselines = new HashMap<>();
+        runsByWorkload.forEach((workload, runs) -> {
+            List<JsonNode> recent = runs.subList(Math.max(0, runs.size() - window), runs.size());
+            double[] throughput = recent.stream().mapToDouble(r -> r.path("unitsPerSecond").asDouble()).sorted().toArray();
+            long[] p99 = recent.stream().mapToLong(r -> r.path("p99Nanos").asLong()).sorted().toArray();
+            baselines.put(workload, new Baseline(workload, throughput[throughput.length / 2], p99[p99.length / 2],
+                    recent.size()));
+        });
+        return baselines;
+    }
+
+    void append(List<PerfResult> results) throws IOException {
+        ObjectNode run = MAPPER.createObjectNode();
+        run.put("recordedAt", Instant.now().toString());
+        run.put("javaVersion", System.getProperty("java.version"));
+        run.put("processors", Runtime.getRuntime().availableProcessors());
+        ArrayNode entries = run.putArray("results");
+        for (PerfResult result : results) {
+            entries.addObject()
+                    .put("workload", result.workload())
+                    .put("operations", result.operations())
+                    .put("units", result.units())
+                    .put("elapsedNanos", result.elapsedNanos())
+                    .put("unitsPerSecond", result.unitsPerSecond())
+                    .put("p50Nanos", result.p50Nanos())
+                    .put("p99Nanos", result.p99Nanos());
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, MAPPER.writeValueAsString(run) + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,63 @@
+package com.higgstx.schwabtest.perf;
+
+import java.util.Arrays;
+
+/**
+ * Throughput and latency of one workload run
+ *
+ * @param operations   timed operations (calls, parses, token reads)
+ * @param units        work units processed, e.g. candles or quotes; throughput is units per second
+ * @param elapsedNanos wall time for all operations
+ */
+record PerfResult(String workload, int operations, long units, long elapsedNanos, long p50Nanos, long p99Nanos) {
+
+    double unitsPerSecond() {
+        return elapsedNanos == 0 ? 0 : units * 1e9 / elapsedNanos;
+    }
+
+    double p50Millis() {
+        return p50Nanos / 1e6;
+    }
+
+    double p99Millis() {
+        return p99Nanos / 1e6;
+    }
+
+    /**
+     * Collects per-operation latencies for one workload
+     */
+    static final class Recorder {
+
+        private final String workload;
+        private final long[] latencies;
+        private int operations;
+        private long units;
+        private final long start = System.nanoTime();
+
+        Recorder(String workload, int expectedOperations) {
+            this.workload = workload;
+            this.latencies = new long[expectedOperations];
+        }
+
+        void record(long latencyNanos, long operationUnits) {
+            latencies[operations++] = latencyNanos;
+            units += operationUnits;
+        }
+
+        PerfResult finish() {
+            long elapsed = System.nanoTime() - start;
+            long[] sorted = Arrays.copyOf(latencies, operations);
+            Arrays.sort(sorted);
+            return new PerfResult(workload, operations, units, elapsed, percentile(sorted, 0.50),
+                    percentile(sorted, 0.99));
+        }
+
+        private static long percentile(long[] sorted, double fraction) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(fraction * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.higgstx.schwabtest.perf;
+
+import com.higgstx.schwabapi.config.SchwabApiProperties;
+import com.higgstx.schwabapi.model.market.DailyPriceData;
+import com.higgstx.schwabapi.model.market.QuoteData;
+import com.higgstx.schwabapi.service.MarketDataService;
+import com.higgstx.schwabtest.analytics.CandleBlock;
+import com.higgstx.schwabtest.market.MarketHoursParser;
+import com.higgstx.schwabtest.service.SharedTokenManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Performance regression suite: fixed workloads against a loopback stand-in for the
+ * Schwab API, compared with the stored baseline history.
+ * <p>
+ * Tagged {@code performance} and excluded from the default build; run it with
+ * {@code mvn test -Pperf}. Tunable with system properties:
+ * {@code perf.baselineFile} (default perf/baseline-history.jsonl),
+ * {@code perf.throughputTolerance} (0.25), {@code perf.p99Tolerance} (0.50),
+ * {@code perf.window} (5 runs), {@code perf.recordRegressions} (false; set true to
+ * accept a slower run as the new normal) and {@code perf.requireBaseline} (false; set
+ * true to fail a run that had no baseline to compare against).
+ * <p>
+ * The baseline history is machine-local and not committed ({@code /perf/} is in
+ * .gitignore): throughput depends on the hardware, and runs only count towards the
+ * baseline of a machine with the same processor count. A fresh clone therefore has
+ * no baseline, and its first run reports every workload as NEW and passes. Seed a
+ * machine by running the suite a few times while it is otherwise idle; the median of
+ * the last {@code perf.window} runs becomes the baseline. CI only detects regressions
+ * if it keeps the history file between builds (cache {@code perf/}, or point
+ * {@code perf.baselineFile} at a persistent path) and sets {@code perf.requireBaseline}
+ * so a lost cache fails loudly instead of silently passing.
+ */
+@Tag("performance")
+class PerformanceRegressionTest {
+
+    private static final int HISTORY_CALLS = 60;
+    private static final int QUOTE_BATCHES = 40;
+    private static final int QUOTE_BATCH_SIZE = 100;
+    private static final int PARSE_OPERATIONS = 5_000;
+    private static final int TOKEN_READS = 500;
+
+    @TempDir
+    Path tempDir;
+
+    private StandInServer server;
+    private SharedTokenManager tokenManager;
+    private MarketDataService marketDataService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StandInServer();
+        Path tokenFile = tempDir.resolve("perf-tokens.json");
+        writeTokenFixture(tokenFile);
+        tokenManager = new SharedTokenManager(tokenFile.toString(), "perf-app-key", "perf-app-secret",
+                Duration.ofSeconds(5));
+        marketDataService = new MarketDataService(new SchwabApiProperties(
+                "http://127.0.0.1:1/v1/oauth/authorize",
+                "http://127.0.0.1:1/v1/oauth/token",
+                server.marketDataUrl(),
+                "https://127.0.0.1:8182",
+                "readonly",
+                10_000), tokenManager);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (marketDataService != null) {
+            marketDataService.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Workloads stay within tolerance of the baseline history")
+    void workloadsMatchBaseline() throws Exception {
+        // Given
+        BaselineHistory history = new BaselineHistory(
+                Paths.get(System.getProperty("perf.baselineFile", "perf/baseline-history.jsonl")),
+                Integer.getInteger("perf.window", 5));
+        RegressionReport.Tolerances tolerances = new RegressionReport.Tolerances(
+                Double.parseDouble(System.getProperty("perf.throughputTolerance", "0.25")),
+                Double.parseDouble(System.getProperty("perf.p99Tolerance", "0.50")));
+
+        // When
+        List<DailyPriceData> historyCandles = new ArrayList<>();
+        List<PerfResult> results = List.of(
+                bulkHistory(historyCandles),
+                quoteBatches(),
+                hoursParsing(),
+                candleBuilding(historyCandles),
+                tokenReads());
+        Map<String, BaselineHistory.Baseline> baselines = history.baselines();
+        RegressionReport report = RegressionReport.compare(results, baselines, tolerances);
+
+        // Then
+        System.out.println("\nPerformance results (" + server.requests() + " stand-in requests):");
+        System.out.print(report.render());
+        if (!report.hasRegressions() || Boolean.getBoolean("perf.recordRegressions")) {
+            history.append(results);
+        }
+        if (baselines.isEmpty()) {
+            System.out.println("No baseline for this machine in " + history.getFile()
+                    + "; nothing was compared and this run seeds it.");
+            assertFalse(Boolean.getBoolean("perf.requireBaseline"), "perf.requireBaseline is set but "
+                    + history.getFile() + " has no runs for this machine; it is machine-local and not committed");
+        }
+        assertFalse(report.hasRegressions(), "Performance regression against " + history.getFile()
+                + System.lineSeparator() + report.render());
+    }
+
+    private PerfResult bulkHistory(List<DailyPriceData> collected) throws Exception {
+        for (int i = 0; i < 5; i++) {
+            marketDataService.getPriceHistoryData(symbol(i), "month", 1, "daily", 1);
+        }
+        PerfResult.Recorder recorder = new PerfResult.Recorder("bulk-history", HISTORY_CALLS);
+        for (int i = 0; i < HISTORY_CALLS; i++) {
+            long start = System.nanoTime();
+            List<DailyPriceData> candles = marketDataService.getPriceHistoryData(symbol(i), "month", 1, "daily", 1);
+            recorder.record(System.nanoTime() - start, candles.stream().filter(DailyPriceData::isSuccess).count());
+            collected.addAll(candles);
+        }
+        PerfResult result = recorder.finish();
+        assertTrue(result.units() > 0, "Stand-in price history returned no candles");
+        return result;
+    }
+
+    private PerfResult quoteBatches() throws Exception {
+        List<String> batch = new ArrayList<>();
+        for (int i = 0; i < QUOTE_BATCH_SIZE; i++) {
+            batch.add(symbol(i));
+        }
+        marketDataService.getQuotes(batch);
+
+        PerfResult.Recorder recorder = new PerfResult.Recorder("quote-batches", QUOTE_BATCHES);
+        for (int i = 0; i < QUOTE_BATCHES; i++) {
+            long start = System.nanoTime();
+            List<QuoteData> quotes = marketDataService.getQuotes(batch);
+            recorder.record(System.nanoTime() - start, quotes.stream().filter(QuoteData::isSuccess).count());
+        }
+        return recorder.finish();
+    }
+
+    private PerfResult hoursParsing() throws Exception {
+        String body = StandInServer.marketHours(LocalDate.now());
+        for (int i = 0; i < 1_000; i++) {
+            MarketHoursParser.parse(body);
+        }
+        PerfResult.Recorder recorder = new PerfResult.Recorder("hours-parse", PARSE_OPERATIONS);
+        for (int i = 0; i < PARSE_OPERATIONS; i++) {
+            long start = System.nanoTime();
+            int days = MarketHoursParser.parse(body).size();
+            recorder.record(System.nanoTime() - start, days);
+        }
+        return recorder.finish();
+    }
+
+    private PerfResult candleBuilding(List<DailyPriceData> candles) {
+        PerfResult.Recorder recorder = new PerfResult.Recorder("candle-build", PARSE_OPERATIONS);
+        for (int i = 0; i < PARSE_OPERATIONS; i++) {
+            long start = System.nanoTime();
+            CandleBlock block = CandleBlock.from(candles);
+            block.sort(CandleBlock.BY_SYMBOL_THEN_DAY);
+            recorder.record(System.nanoTime() - start, block.size());
+        }
+        return recorder.finish();
+    }
+
+    /**
+     * Token reads take the coordinated path: file reload and validity checks. The
+     * refresh exchange itself targets the live OAuth endpoint and is not exercised.
+     */
+    private PerfResult tokenReads() throws Exception {
+        PerfResult.Recorder recorder = new PerfResult.Recorder("token-path", TOKEN_READS);
+        for (int i = 0; i < TOKEN_READS; i++) {
+            long start = System.nanoTime();
+            String token = tokenManager.getValidAccessToken();
+            recorder.record(System.nanoTime() - start, token != null ? 1 : 0);
+        }
+        return recorder.finish();
+    }
+
+    private static String symbol(int i) {
+        return String.format("S%03d", i);
+    }
+
+    private static void writeTokenFixture(Path tokenFile) throws Exception {
+        Instant now = Instant.now();
+        Files.writeString(tokenFile, "{"
+                + "\"access_token\":\"perf-access-token\","
+                + "\"refresh_token\":\"perf-refresh-token\","
+                + "\"id_token\":\"perf-id-token\","
+                + "\"token_type\":\"Bearer\","
+                + "\"scope\":\"api\","
+                + "\"expires_in\":1800,"
+                + "\"refresh_token_expires_in\":604800,"
+                + "\"issuedAt\":\"" + now + "\","
+                + "\"expiresAt\":\"" + now.plus(Duration.ofHours(6)) + "\","
+                + "\"refreshTokenExpiresAt\":\"" + now.plus(Duration.ofDays(7)) + "\","
+                + "\"source\":\"PERF_FIXTURE\"}");
+    }
+}
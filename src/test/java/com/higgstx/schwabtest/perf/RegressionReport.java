@@ -0,0 +1,93 @@
+package com.higgstx.schwabtest.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares a run against stored baselines. Throughput may drop and p99 latency may
+ * rise by the configured fractions before a workload counts as regressed.
+ */
+final class RegressionReport {
+
+    record Tolerances(double throughputDrop, double p99Rise) {
+    }
+
+    record Row(PerfResult current, BaselineHistory.Baseline baseline, boolean throughputRegressed,
+               boolean latencyRegressed) {
+
+        boolean regressed() {
+            return throughputRegressed || latencyRegressed;
+        }
+    }
+
+    private final List<Row> rows;
+    private final Tolerances tolerances;
+
+    private RegressionReport(List<Row> rows, Tolerances tolerances) {
+        this.rows = rows;
+        this.tolerances = tolerances;
+    }
+
+    static RegressionReport compare(List<PerfResult> results, Map<String, BaselineHistory.Baseline> baselines,
+                                    Tolerances tolerances) {
+        List<Row> rows = new ArrayList<>();
+        for (PerfResult result : results) {
+            BaselineHistory.Baseline baseline = baselines.get(result.workload());
+            boolean slower = baseline != null
+                    && result.unitsPerSecond() < baseline.unitsPerSecond() * (1 - tolerances.throughputDrop());
+            boolean laggier = baseline != null
+                    && result.p99Nanos() > baseline.p99Nanos() * (1 + tolerances.p99Rise());
+            rows.add(new Row(result, baseline, slower, laggier));
+        }
+        return new RegressionReport(rows, tolerances);
+    }
+
+    boolean hasRegressions() {
+        return rows.stream().anyMatch(Row::regressed);
+    }
+
+    List<Row> getRows() {
+        return rows;
+    }
+
+    String render() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "Tolerances: throughput -%.0f%%, p99 +%.0f%%%n",
+                tolerances.throughputDrop() * 100, tolerances.p99Rise() * 100));
+        out.append(String.format(Locale.ROOT, "%-16s %14s %14s %8s %10s %10s %8s  %s%n",
+                "Workload", "Base units/s", "Units/s", "Delta", "Base p99", "p99", "Delta", "Status"));
+        for (Row row : rows) {
+            PerfResult current = row.current();
+            BaselineHistory.Baseline baseline = row.baseline();
+            if (baseline == null) {
+                out.append(String.format(Locale.ROOT, "%-16s %14s %14.0f %8s %10s %9.2fms %8s  %s%n",
+                        current.workload(), "-", current.unitsPerSecond(), "-", "-", current.p99Millis(), "-",
+                        "NEW"));
+                continue;
+            }
+            double baseP99Millis = baseline.p99Nanos() / 1e6;
+            out.append(String.format(Locale.ROOT, "%-16s %14.0f %14.0f %+7.1f%% %8.2fms %8.2fms %+7.1f%%  %s%n",
+                    current.workload(), baseline.unitsPerSecond(), current.unitsPerSecond(),
+                    change(current.unitsPerSecond(), baseline.unitsPerSecond()),
+                    baseP99Millis, current.p99Millis(), change(current.p99Millis(), baseP99Millis),
+                    status(row)));
+        }
+        return out.toString();
+    }
+
+    private static double change(double current, double baseline) {
+        return baseline == 0 ? 0 : (current - baseline) / baseline * 100;
+    }
+
+    private static String status(Row row) {
+        if (row.throughputRegressed() && row.latencyRegressed()) {
+            return "REGRESSED (throughput, p99)";
+        }
+        if (row.throughputRegressed()) {
+            return "REGRESSED (throughput)";
+        }
+        return row.latencyRegressed() ? "REGRESSED (p99)" : "ok";
+    }
+}
@@ -0,0 +1,73 @@
+package com.higgstx.schwabtest.perf;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for baseline history and regression comparison
+ */
+class RegressionReportTest {
+
+    private static final RegressionReport.Tolerances TOLERANCES = new RegressionReport.Tolerances(0.25, 0.50);
+
+    @TempDir
+    Path tempDir;
+
+    private static PerfResult result(String workload, long units, long p99Nanos) {
+        return new PerfResult(workload, 10, units, 1_000_000_000L, p99Nanos / 2, p99Nanos);
+    }
+
+    @Test
+    @DisplayName("Baseline is the median of recent runs")
+    void baselineIsMedianOfRecentRuns() throws Exception {
+        // Given
+        BaselineHistory history = new BaselineHistory(tempDir.resolve("history.jsonl"), 3);
+        history.append(List.of(result("quotes", 9_999, 1)));
+        history.append(List.of(result("quotes", 1_000, 4_000_000)));
+        history.append(List.of(result("quotes", 1_200, 2_000_000)));
+        history.append(List.of(result("quotes", 1_100, 3_000_000)));
+
+        // When
+        BaselineHistory.Baseline baseline = history.baselines().get("quotes");
+
+        // Then
+        assertEquals(3, baseline.runs());
+        assertEquals(1_100.0, baseline.unitsPerSecond(), 1e-9);
+        assertEquals(3_000_000L, baseline.p99Nanos());
+    }
+
+    @Test
+    @DisplayName("Throughput drops and p99 rises beyond tolerance are reported")
+    void flagsRegressionsBeyondTolerance() {
+        // Given
+        Map<String, BaselineHistory.Baseline> baselines = Map.of(
+                "steady", new BaselineHistory.Baseline("steady", 1_000, 1_000_000, 5),
+                "slower", new BaselineHistory.Baseline("slower", 1_000, 1_000_000, 5),
+                "laggier", new BaselineHistory.Baseline("laggier", 1_000, 1_000_000, 5));
+
+        // When
+        RegressionReport report = RegressionReport.compare(List.of(
+                result("steady", 800, 1_400_000),
+                result("slower", 700, 1_000_000),
+                result("laggier", 1_000, 1_600_000),
+                result("fresh", 10, 1)), baselines, TOLERANCES);
+
+        // Then
+        assertTrue(report.hasRegressions());
+        List<RegressionReport.Row> rows = report.getRows();
+        assertFalse(rows.get(0).regressed());
+        assertTrue(rows.get(1).throughputRegressed());
+        assertTrue(rows.get(2).latencyRegressed());
+        assertNull(rows.get(3).baseline());
+        String rendered = report.render();
+        assertTrue(rendered.contains("REGRESSED (throughput)"), rendered);
+        assertTrue(rendered.contains("NEW"), rendered);
+    }
+}
@@ -0,0 +1,134 @@
+package com.higgstx.schwabtest.perf;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loopback stand-in for the Schwab market data API serving deterministic,
+ * Schwab-shaped price history, quote and market hours bodies. Response bodies are
+ * generated once per symbol so workloads measure the client, not the server.
+ */
+final class StandInServer implements AutoCloseable {
+
+    static final int HISTORY_DAYS = 21;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final Map<String, byte[]> historyBodies = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+
+    StandInServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/marketdata/v1/pricehistory", exchange ->
+                respond(exchange, historyBodies.computeIfAbsent(query(exchange.getRequestURI()).get("symbol"),
+                        StandInServer::priceHistory)));
+        server.createContext("/marketdata/v1/quotes", exchange ->
+                respond(exchange, quotes(query(exchange.getRequestURI()).getOrDefault("symbols", ""))));
+        server.createContext("/marketdata/v1/markets", exchange ->
+                respond(exchange, marketHours(LocalDate.now(ZoneOffset.UTC)).getBytes(StandardCharsets.UTF_8)));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String marketDataUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/marketdata/v1";
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    private void respond(HttpExchange exchange, byte[] body) throws IOException {
+        requests.increment();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new LinkedHashMap<>();
+        String raw = uri.getQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    params.put(pair.substring(0, eq), pair.substring(eq + 1));
+                }
+            }
+        }
+        return params;
+    }
+
+    private static byte[] priceHistory(String symbol) {
+        double price = basePrice(symbol);
+        long day = LocalDate.now(ZoneOffset.UTC).minusDays(HISTORY_DAYS).atStartOfDay(ZoneOffset.UTC)
+                .toInstant().toEpochMilli();
+        StringBuilder body = new StringBuilder("{\"symbol\":\"").append(symbol).append("\",\"empty\":false,\"candles\":[");
+        for (int i = 0; i < HISTORY_DAYS; i++) {
+            double close = price * (1 + 0.01 * ((i % 5) - 2));
+            body.append(i == 0 ? "" : ",")
+                    .append(String.format(Locale.ROOT, "{\"open\":%.2f,\"high\":%.2f,\"low\":%.2f,\"close\":%.2f,"
+                                    + "\"volume\":%d,\"datetime\":%d}",
+                            price, close * 1.01, close * 0.99, close, 1_000_000L + i * 1_000L, day + i * 86_400_000L));
+            price = close;
+        }
+        return body.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] quotes(String symbols) {
+        StringBuilder body = new StringBuilder("{");
+        String[] list = symbols.split("%2C|,");
+        for (int i = 0; i < list.length; i++) {
+            if (list[i].isEmpty()) {
+                continue;
+            }
+            double price = basePrice(list[i]);
+            body.append(body.length() > 1 ? "," : "")
+                    .append(String.format(Locale.ROOT, "\"%1$s\":{\"assetMainType\":\"EQUITY\",\"symbol\":\"%1$s\","
+                                    + "\"realtime\":true,\"quote\":{\"closePrice\":%2$.2f,\"lastPrice\":%2$.2f,"
+                                    + "\"openPrice\":%2$.2f,\"highPrice\":%2$.2f,\"lowPrice\":%2$.2f,"
+                                    + "\"totalVolume\":%3$d}}",
+                            list[i], price, 5_000_000L + i));
+        }
+        return body.append("}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One open equity session on {@code date} in the shape the market hours parser reads
+     */
+    static String marketHours(LocalDate date) {
+        return String.format(Locale.ROOT, "{\"equity\":{\"EQ\":{\"date\":\"%1$s\",\"marketType\":\"EQUITY\",\"product\":\"EQ\","
+                + "\"isOpen\":true,\"sessionHours\":{"
+                + "\"preMarket\":[{\"start\":\"%1$sT07:00:00-05:00\",\"end\":\"%1$sT09:30:00-05:00\"}],"
+                + "\"regularMarket\":[{\"start\":\"%1$sT09:30:00-05:00\",\"end\":\"%1$sT16:00:00-05:00\"}],"
+                + "\"postMarket\":[{\"start\":\"%1$sT16:00:00-05:00\",\"end\":\"%1$sT20:00:00-05:00\"}]}}}}", date);
+    }
+
+    private static double basePrice(String symbol) {
+        return 20 + Math.floorMod(symbol.hashCode(), 480);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,128 @@
+package com.higgstx.schwabtest.pipeline;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Flow-based pipeline
+ */
+class PipelineTest {
+
+    private static Source<Integer> counting(int limit, AtomicInteger produced) {
+        return () -> {
+            int next = produced.get();
+            if (next >= limit) {
+                return null;
+            }
+            produced.incrementAndGet();
+            return next;
+        };
+    }
+
+    @Test
+    @DisplayName("All items pass through parallel stages and metrics add up")
+    void deliversEveryItem() throws Exception {
+        // Given
+        AtomicInteger produced = new AtomicInteger();
+        ConcurrentHashMap.KeySetView<Integer, Boolean> seen = ConcurrentHashMap.newKeySet();
+
+        // When
+        Pipeline.Report report = Pipeline.from("numbers", counting(1_000, produced))
+                .map("square", n -> (long) n * n, 4, 16)
+                .map("evens", n -> n % 2 == 0 ? n : null, 2, 16)
+                .to("collect", n -> seen.add((int) Math.sqrt(n)), 8)
+                .get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(500, seen.size());
+        List<StageMetrics> stages = report.stages();
+        assertEquals(4, stages.size());
+        assertEquals(1_000, stages.get(1).getReceived());
+        assertEquals(500, stages.get(2).getDropped());
+        assertEquals(500, stages.get(3).getReceived());
+    }
+
+    @Test
+    @DisplayName("A slow sink throttles the source instead of buffering everything")
+    void slowSinkThrottlesSource() throws Exception {
+        // Given
+        AtomicInteger produced = new AtomicInteger();
+        AtomicInteger consumed = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+
+        // When
+        CompletableFuture<Pipeline.Report> run = Pipeline.from("numbers", counting(10_000, produced))
+                .map("identity", n -> n, 2, 4)
+                .to("slow", n -> {
+                    maxAhead.accumulateAndGet(produced.get() - consumed.incrementAndGet(), Math::max);
+                    if (consumed.get() < 50) {
+                        Thread.sleep(2);
+                    }
+                }, 1);
+        Thread.sleep(50);
+        int producedEarly = produced.get();
+        run.get(30, TimeUnit.SECONDS);
+
+        // Then - only buffer-sized slack is ever produced ahead of the sink
+        assertTrue(producedEarly < 100, "source ran ahead: " + producedEarly);
+        assertTrue(maxAhead.get() <= 32, "max items ahead of sink: " + maxAhead.get());
+        assertEquals(10_000, consumed.get());
+    }
+
+    @Test
+    @DisplayName("A failing transform fails the run and stops the source")
+    void transformFailurePropagates() {
+        // Given
+        AtomicInteger produced = new AtomicInteger();
+
+        // When
+        CompletableFuture<Pipeline.Report> run = Pipeline.from("numbers", counting(1_000_000, produced))
+                .map("explode", n -> {
+                    if (n == 10) {
+                        throw new IllegalStateException("bad item");
+                    }
+                    return n;
+                }, 1, 4)
+                .to("sink", n -> { }, 4);
+
+        // Then
+        ExecutionException error = assertThrows(ExecutionException.class, () -> run.get(10, TimeUnit.SECONDS));
+        assertEquals("bad item", error.getCause().getMessage());
+        assertTrue(produced.get() < 1_000_000);
+    }
+
+    @Test
+    @DisplayName("A failing sink cancels the transforms and stops the source")
+    void sinkFailureStopsSource() throws Exception {
+        // Given
+        AtomicInteger produced = new AtomicInteger();
+
+        // When
+        CompletableFuture<Pipeline.Report> run = Pipeline.from("numbers", counting(1_000_000, produced))
+                .map("identity", n -> n, 2, 4)
+                .map("again", n -> n, 2, 4)
+                .to("explode", n -> {
+                    if (n == 10) {
+                        throw new IllegalStateException("sink failed");
+                    }
+                }, 4);
+
+        // Then
+        ExecutionException error = assertThrows(ExecutionException.class, () -> run.get(10, TimeUnit.SECONDS));
+        assertEquals("sink failed", error.getCause().getMessage());
+        Thread.sleep(200);
+        int settled = produced.get();
+        Thread.sleep(200);
+        assertEquals(settled, produced.get());
+        assertTrue(settled < 1_000, "source kept producing: " + settled);
+    }
+}
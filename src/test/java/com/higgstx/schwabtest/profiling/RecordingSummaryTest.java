@@ -0,0 +1,50 @@
+package com.higgstx.schwabtest.profiling;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for flight recordings and their hot spot summary
+ */
+class RecordingSummaryTest {
+
+    @TempDir
+    Path directory;
+
+    private static long busyWork(long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        long checksum = 0;
+        while (System.nanoTime() < deadline) {
+            byte[] chunk = new byte[4096];
+            for (int i = 0; i < chunk.length; i++) {
+                checksum += (chunk[i] = (byte) (i * 31 + checksum));
+            }
+        }
+        return checksum;
+    }
+
+    @Test
+    @DisplayName("A recorded scenario keeps its file and credits CPU to project frames")
+    void summarizesRecordedWork() throws Exception {
+        // Given
+        FlightRecording recording = FlightRecording.start(directory, "busy");
+
+        // When
+        busyWork(1_000);
+        recording.close();
+        RecordingSummary summary = RecordingSummary.read(recording.getFile(), "com.higgstx", 5);
+
+        // Then
+        assertTrue(Files.size(recording.getFile()) > 0);
+        assertTrue(summary.executionSamples() > 0);
+        assertTrue(summary.topProjectCpu().stream().anyMatch(hot -> hot.site().contains("busyWork")),
+                String.valueOf(summary.topProjectCpu()));
+        assertTrue(summary.sampledAllocationBytes() > 0);
+    }
+}
@@ -0,0 +1,181 @@
+package com.higgstx.schwabtest.recording;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Record/replay round trips through the loopback cassette proxy against a local upstream
+ */
+class CassetteProxyTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer upstream;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void startUpstream() throws Exception {
+        upstream = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        upstream.createContext("/marketdata/v1/quotes", exchange -> {
+            int call = upstreamCalls.incrementAndGet();
+            byte[] body = ("{\"call\":" + call + ",\"query\":\"" + exchange.getRequestURI().getQuery() + "\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+    }
+
+    @AfterEach
+    void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    private String upstreamBase() {
+        return "http://127.0.0.1:" + upstream.getAddress().getPort() + "/marketdata/v1";
+    }
+
+    private HttpResponse<String> get(String url) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private Path record(String... queries) throws Exception {
+        Path file = tempDir.resolve("session.zip");
+        try (CassetteProxy proxy = new CassetteProxy(CassetteMode.RECORD, file, 1.0, 5000)) {
+            for (String query : queries) {
+                assertEquals(200, get(proxy.route(upstreamBase()) + "/quotes?" + query).statusCode());
+            }
+            proxy.getWriter().writeToken("getValidAccessToken", true, System.nanoTime(), 1_000L);
+        }
+        return file;
+    }
+
+    @Nested
+    @DisplayName("Routing")
+    class Routing {
+
+        @Test
+        @DisplayName("OFF mode leaves URLs untouched")
+        void offModeIsPassThrough() throws Exception {
+            // given
+            try (CassetteProxy proxy = new CassetteProxy(CassetteMode.OFF, tempDir.resolve("x.zip"), 1.0, 5000)) {
+                // when / then
+                assertEquals("https://api.schwabapi.com/marketdata/v1",
+                        proxy.route("https://api.schwabapi.com/marketdata/v1"));
+            }
+        }
+
+        @Test
+        @DisplayName("Query parameter order does not change the request key")
+        void targetSortsQuery() {
+            // when
+            String a = CassetteProxy.target(URI.create("https://h/p?symbols=AAPL&fields=quote"));
+            String b = CassetteProxy.target(URI.create("https://h/p?fields=quote&symbols=AAPL"));
+
+            // then
+            assertEquals(a, b);
+        }
+    }
+
+    @Nested
+    @DisplayName("Record and replay")
+    class RecordAndReplay {
+
+        @Test
+        @DisplayName("Replay serves recorded bodies without calling upstream")
+        void replayServesRecordedBodies() throws Exception {
+            // given
+            Path file = record("symbols=AAPL&fields=quote", "symbols=MSFT&fields=quote");
+            int callsAfterRecording = upstreamCalls.get();
+
+            // when
+            try (CassetteProxy proxy = new CassetteProxy(CassetteMode.REPLAY, file, 0, 5000)) {
+                HttpResponse<String> msft = get(proxy.route(upstreamBase()) + "/quotes?fields=quote&symbols=MSFT");
+
+                // then
+                assertEquals(200, msft.statusCode());
+                assertTrue(msft.body().contains("\"call\":2"));
+                assertEquals(callsAfterRecording, upstreamCalls.get());
+                assertEquals(1, proxy.getServed());
+            }
+        }
+
+        @Test
+        @DisplayName("Repeated requests cycle through recorded responses")
+        void repeatedRequestsCycle() throws Exception {
+            // given
+            Path file = record("symbols=AAPL", "symbols=AAPL");
+
+            // when
+            try (CassetteProxy proxy = new CassetteProxy(CassetteMode.REPLAY, file, 0, 5000)) {
+                String url = proxy.route(upstreamBase()) + "/quotes?symbols=AAPL";
+                String first = get(url).body();
+                String second = get(url).body();
+                String third = get(url).body();
+
+                // then
+                assertTrue(first.contains("\"call\":1"));
+                assertTrue(second.contains("\"call\":2"));
+                assertEquals(first, third);
+            }
+        }
+
+        @Test
+        @DisplayName("Unrecorded requests return 404 and count as misses")
+        void unrecordedRequestIsMiss() throws Exception {
+            // given
+            Path file = record("symbols=AAPL");
+
+            // when
+            try (CassetteProxy proxy = new CassetteProxy(CassetteMode.REPLAY, file, 0, 5000)) {
+                HttpResponse<String> response = get(proxy.route(upstreamBase()) + "/quotes?symbols=TSLA");
+
+                // then
+                assertEquals(404, response.statusCode());
+                assertEquals(1, proxy.getMisses());
+            }
+        }
+
+        @Test
+        @DisplayName("Token entries keep timing only")
+        void tokenEntriesHaveNoBody() throws Exception {
+            // given
+            Path file = record("symbols=AAPL");
+
+            // when
+            try (Cassette cassette = Cassette.open(file)) {
+                CassetteEntry token = cassette.next(CassetteEntry.TOKEN, "getValidAccessToken", "");
+
+                // then
+                assertNotNull(token);
+                assertNull(token.bodyEntry());
+                assertEquals(0, cassette.readBody(token).length);
+                assertEquals(2, cassette.getEntries().size());
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.higgstx.schwabtest.report;
+
+import com.higgstx.schwabapi.model.market.DailyPriceData;
+import com.higgstx.schwabtest.analytics.TestCandles;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the streaming bulk report, checked against a brute-force pass
+ */
+class BulkReportTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 2);
+    private static final String[] SYMBOLS = {"AAPL", "MSFT", "TSLA"};
+
+    /**
+     * Candles over a few days so many share a day, with failures, unusable
+     * entries and a symbol that was not requested
+     */
+    private static List<DailyPriceData> dataset(long seed) {
+        Random random = new Random(seed);
+        String[] names = {"AAPL", "MSFT", "TSLA", "EXTRA"};
+        List<DailyPriceData> candles = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String symbol = names[random.nextInt(names.length)];
+            int kind = random.nextInt(10);
+            if (kind == 0) {
+                candles.add(TestCandles.failed(symbol));
+            } else if (kind == 1) {
+                candles.add(TestCandles.candle(symbol, START.plusDays(random.nextInt(4)), 1.0, 1.0, 1.0, null, 10L));
+            } else {
+                candles.add(TestCandles.candle(symbol, START.plusDays(random.nextInt(4)), 100.0 + i));
+            }
+        }
+        return candles;
+    }
+
+    private static boolean usable(DailyPriceData data) {
+        return data.isSuccess() && data.getLocalDate() != null && data.getClose() != null;
+    }
+
+    @Test
+    @DisplayName("Recent samples match a stable newest-first sort, ties in arrival order")
+    void recentSamplesMatchBruteForce() {
+        for (long seed = 1; seed <= 20; seed++) {
+            // Given
+            List<DailyPriceData> candles = dataset(seed);
+
+            // When
+            BulkReport report = new BulkReport(SYMBOLS, 7);
+            candles.forEach(report::accept);
+            DailyPriceData[] recent = report.recentSamples();
+
+            // Then
+            List<DailyPriceData> expected = candles.stream()
+                    .filter(BulkReportTest::usable)
+                    .sorted(Comparator.comparing(DailyPriceData::getLocalDate).reversed())
+                    .limit(7)
+                    .toList();
+            assertEquals(expected.size(), recent.length, "seed " + seed);
+            for (int i = 0; i < recent.length; i++) {
+                assertSame(expected.get(i), recent[i], "seed " + seed + " position " + i);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Per-symbol and overall accumulators match counts over the full list")
+    void accumulatorsMatchBruteForce() {
+        // Given
+        List<DailyPriceData> candles = dataset(42L);
+
+        // When
+        BulkReport report = BulkReport.of(SYMBOLS, candles);
+        StringWriter text = new StringWriter();
+        try (PrintWriter out = new PrintWriter(text)) {
+            report.writeResults(out, 1_000);
+        }
+
+        // Then
+        assertEquals(candles.size(), report.getTotal());
+        assertEquals(candles.stream().filter(DailyPriceData::isSuccess).count(), report.getSuccessful());
+        String output = text.toString();
+        for (String symbol : SYMBOLS) {
+            List<DailyPriceData> own = candles.stream().filter(c -> symbol.equals(c.getSymbol())).toList();
+            long successful = own.stream().filter(DailyPriceData::isSuccess).count();
+            List<LocalDate> days = own.stream().filter(BulkReportTest::usable)
+                    .map(DailyPriceData::getLocalDate).sorted().toList();
+            DailyPriceData firstSuccess = own.stream().filter(DailyPriceData::isSuccess).findFirst().orElseThrow();
+
+            String section = output.substring(output.indexOf(symbol + ":\n"));
+            section = section.substring(0, section.indexOf("\n\n"));
+            assertTrue(section.contains("Total data points: " + own.size()), section);
+            assertTrue(section.contains("Successful: " + successful), section);
+            assertTrue(section.contains("Errors: " + (own.size() - successful)), section);
+            assertTrue(section.contains("Date: " + firstSuccess.getLocalDate()), section);
+            assertTrue(section.contains("Date range: " + days.get(0) + " to " + days.get(days.size() - 1)),
+                    section);
+        }
+        assertFalse(output.contains("EXTRA"));
+    }
+}
@@ -0,0 +1,117 @@
+package com.higgstx.schwabtest.service;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import com.higgstx.schwabapi.service.TokenManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for credential slot selection and failover
+ */
+class CredentialPoolTest {
+
+    private static CredentialSlot slot(String name, TokenManager tokenManager, int burst) {
+        return new CredentialSlot(name, tokenManager, null, new RateLimiter(60, burst));
+    }
+
+    private static TokenManager tokens(boolean healthy) {
+        TokenManager tokenManager = mock(TokenManager.class);
+        when(tokenManager.hasUsableTokens()).thenReturn(healthy);
+        return tokenManager;
+    }
+
+    @Test
+    @DisplayName("The least-loaded ready slot is picked")
+    void picksLeastLoadedReadySlot() {
+        // Given
+        CredentialSlot busy = slot("busy", tokens(true), 5);
+        CredentialSlot idle = slot("idle", tokens(true), 5);
+        busy.begin();
+        busy.begin();
+        idle.begin();
+        CredentialPool pool = new CredentialPool(List.of(busy, idle));
+
+        // When
+        CredentialSlot selected = pool.select();
+
+        // Then
+        assertSame(idle, selected);
+    }
+
+    @Test
+    @DisplayName("A slot with a permit ready beats an idle slot that must wait")
+    void prefersReadyOverIdle() {
+        // Given
+        CredentialSlot drained = slot("drained", tokens(true), 1);
+        CredentialSlot loaded = slot("loaded", tokens(true), 5);
+        assertTrue(drained.getRateLimiter().tryAcquire());
+        loaded.begin();
+        CredentialPool pool = new CredentialPool(List.of(drained, loaded));
+
+        // When
+        CredentialSlot selected = pool.select();
+
+        // Then
+        assertSame(loaded, selected);
+    }
+
+    @Test
+    @DisplayName("Slots with unusable tokens are skipped, and health is checked once per slot")
+    void failsOverFromUnhealthySlot() throws SchwabApiException {
+        // Given
+        TokenManager expired = tokens(false);
+        TokenManager valid = tokens(true);
+        CredentialSlot primary = slot("primary", expired, 5);
+        CredentialSlot secondary = slot("secondary", valid, 5);
+        secondary.begin();
+        CredentialPool pool = new CredentialPool(List.of(primary, secondary));
+
+        // When
+        String used = pool.execute(RequestScheduler.Priority.INTERACTIVE, CredentialSlot::getName);
+
+        // Then
+        assertEquals("secondary", used);
+        assertEquals(1, secondary.getCompleted());
+        verify(expired, times(1)).hasUsableTokens();
+        verify(valid, times(1)).hasUsableTokens();
+    }
+
+    @Test
+    @DisplayName("With no healthy slot, the best of all slots is still used")
+    void fallsBackWhenNoneHealthy() {
+        // Given
+        CredentialSlot first = slot("first", tokens(false), 5);
+        CredentialSlot second = slot("second", tokens(false), 5);
+        first.begin();
+        CredentialPool pool = new CredentialPool(List.of(first, second));
+
+        // When
+        CredentialSlot selected = pool.select();
+
+        // Then
+        assertSame(second, selected);
+    }
+
+    @Test
+    @DisplayName("A failed call is counted against its slot and rethrown")
+    void failedCallIsRecorded() {
+        // Given
+        CredentialSlot only = slot("only", tokens(true), 5);
+        CredentialPool pool = new CredentialPool(List.of(only));
+
+        // When
+        SchwabApiException thrown = assertThrows(SchwabApiException.class, () -> pool.execute(slot -> {
+            throw SchwabApiException.networkError("stand-in failure", null);
+        }));
+
+        // Then
+        assertNotNull(thrown);
+        assertEquals(1, only.stats().failed());
+        assertEquals(0, only.getInFlight());
+    }
+}
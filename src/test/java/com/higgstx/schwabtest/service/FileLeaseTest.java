@@ -0,0 +1,166 @@
+package com.higgstx.schwabtest.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the token refresh lease
+ */
+class FileLeaseTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Entry point for the child JVM in the cross-process test: holds the lease
+     * until its standard input closes
+     */
+    public static final class Holder {
+        public static void main(String[] args) throws Exception {
+            try (FileLease lease = FileLease.acquire(Path.of(args[0]), Duration.ofSeconds(5))) {
+                System.out.println(lease != null ? "held" : "timeout");
+                System.out.flush();
+                while (System.in.read() != -1) {
+                    // Wait for the parent to close the pipe
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Lease records its holder and can be re-acquired after release")
+    void leaseIsReusableAfterRelease() throws Exception {
+        // Given
+        Path lockFile = tempDir.resolve("schwab-api.json.lock");
+
+        // When
+        try (FileLease lease = FileLease.acquire(lockFile, Duration.ofSeconds(1))) {
+            assertNotNull(lease);
+            assertTrue(lease.isValid());
+            assertTrue(Files.readString(lockFile).startsWith("pid=" + ProcessHandle.current().pid()));
+        }
+
+        // Then
+        try (FileLease again = FileLease.acquire(lockFile, Duration.ofSeconds(1))) {
+            assertNotNull(again);
+        }
+    }
+
+    @Test
+    @DisplayName("A second holder times out while the lease is held")
+    void secondHolderTimesOut() throws Exception {
+        // Given
+        Path lockFile = tempDir.resolve("held.lock");
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            try (FileLease lease = FileLease.acquire(lockFile, Duration.ofSeconds(1))) {
+                held.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(held.await(5, TimeUnit.SECONDS));
+
+        // When
+        FileLease contender = FileLease.acquire(lockFile, Duration.ofMillis(200));
+
+        // Then
+        assertNull(contender);
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Concurrent holders never overlap")
+    void holdersAreExclusive() throws Exception {
+        // Given
+        Path lockFile = tempDir.resolve("exclusive.lock");
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[4];
+
+        // When
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = CompletableFuture.runAsync(() -> {
+                for (int round = 0; round < 5; round++) {
+                    try (FileLease lease = FileLease.acquire(lockFile, Duration.ofSeconds(5))) {
+                        assertNotNull(lease);
+                        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        Thread.sleep(2);
+                        active.decrementAndGet();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+        }
+        CompletableFuture.allOf(workers).get(30, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(1, maxActive.get());
+    }
+
+    @Test
+    @DisplayName("Another channel in the same process cannot lock the file while the lease is held")
+    void secondChannelIsRejected() throws Exception {
+        // Given
+        Path lockFile = tempDir.resolve("channel.lock");
+
+        try (FileLease lease = FileLease.acquire(lockFile, Duration.ofSeconds(1));
+             FileChannel other = FileChannel.open(lockFile, StandardOpenOption.WRITE)) {
+            assertNotNull(lease);
+
+            // When / Then
+            assertThrows(OverlappingFileLockException.class, other::tryLock);
+        }
+    }
+
+    @Test
+    @DisplayName("A lease held by another process blocks this one until that process lets go")
+    void leaseIsExclusiveAcrossProcesses() throws Exception {
+        // Given
+        Path lockFile = tempDir.resolve("process.lock");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                Holder.class.getName(), lockFile.toString())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            BufferedReader output = new BufferedReader(
+                    new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("held", output.readLine());
+
+            // When
+            FileLease contender = FileLease.acquire(lockFile, Duration.ofMillis(300));
+
+            // Then
+            assertNull(contender);
+            child.getOutputStream().close();
+            assertTrue(child.waitFor(10, TimeUnit.SECONDS));
+            try (FileLease after = FileLease.acquire(lockFile, Duration.ofSeconds(5))) {
+                assertNotNull(after);
+            }
+        } finally {
+            child.destroyForcibly();
+        }
+    }
+}
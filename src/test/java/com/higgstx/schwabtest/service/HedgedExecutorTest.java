@@ -0,0 +1,94 @@
+package com.higgstx.schwabtest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for request hedging
+ */
+class HedgedExecutorTest {
+
+    private HedgedExecutor executor;
+
+    private static CredentialPool pool() {
+        return new CredentialPool(List.of(new CredentialSlot("test", null, null, new RateLimiter(600_000, 1_000))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            // A cancelled loser is interrupted
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void warmUp() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            executor.execute("quotes", slot -> {
+                pause(2);
+                return "warm";
+            });
+        }
+    }
+
+    @Test
+    @DisplayName("A call stuck past the hedge delay is answered by its duplicate")
+    void hedgeWinsOverSlowPrimary() throws Exception {
+        // Given
+        executor = new HedgedExecutor(pool(), true, 0.95, 1.0, 20);
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        long start = System.nanoTime();
+        String result = executor.execute("quotes", slot -> {
+            if (attempts.incrementAndGet() == 1) {
+                pause(5_000);
+                return "primary";
+            }
+            return "hedge";
+        });
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertEquals("hedge", result);
+        assertTrue(elapsedMillis < 2_000, "took " + elapsedMillis + " ms");
+        HedgedExecutor.Stats stats = executor.stats("quotes");
+        assertEquals(1, stats.hedgesSent());
+        assertEquals(1, stats.hedgeWins());
+    }
+
+    @Test
+    @DisplayName("Without budget a slow call is waited out instead of hedged")
+    void budgetCapsHedges() throws Exception {
+        // Given
+        executor = new HedgedExecutor(pool(), true, 0.95, 0.0, 20);
+        warmUp();
+
+        // When
+        String result = executor.execute("quotes", slot -> {
+            pause(100);
+            return "primary";
+        });
+
+        // Then
+        assertEquals("primary", result);
+        HedgedExecutor.Stats stats = executor.stats("quotes");
+        assertEquals(0, stats.hedgesSent());
+        assertEquals(1, stats.budgetDenied());
+    }
+}
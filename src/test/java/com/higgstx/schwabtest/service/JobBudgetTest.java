@@ -0,0 +1,88 @@
+package com.higgstx.schwabtest.service;
+
+import com.higgstx.schwabapi.exception.SchwabApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for job time budgets and their propagation into pool calls
+ */
+class JobBudgetTest {
+
+    private HedgedExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            // An abandoned call is interrupted
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("A hung call is abandoned at the job deadline and later work is skipped")
+    void hungCallIsCutOff() throws Exception {
+        // Given
+        executor = new HedgedExecutor(new CredentialPool(List.of(
+                new CredentialSlot("test", null, null, new RateLimiter(600_000, 1_000)))), false, 0.95, 0.0, 20);
+        JobBudget budget = JobBudget.start("test job", Duration.ofMillis(300));
+
+        // When
+        long start = System.nanoTime();
+        SchwabApiException error;
+        try (JobBudget.Scope ignored = budget.bind()) {
+            assertTrue(budget.tryStart("AAPL"));
+            error = assertThrows(SchwabApiException.class, () -> executor.execute("quotes", slot -> {
+                pause(10_000);
+                return "late";
+            }));
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        boolean startedAfterDeadline = budget.tryStart("MSFT");
+
+        // Then
+        assertTrue(elapsedMillis < 2_000, "took " + elapsedMillis + " ms");
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertFalse(startedAfterDeadline);
+        assertNull(JobBudget.current());
+        JobBudget.Summary summary = budget.summary();
+        assertEquals(1, summary.timedOut());
+        assertEquals(1, summary.skipped());
+        assertEquals(List.of("quotes (timed out)", "MSFT"), summary.skippedItems());
+    }
+
+    @Test
+    @DisplayName("Request timeouts follow observed latency and never exceed the time left")
+    void timeoutTracksLatency() {
+        // Given
+        JobBudget budget = JobBudget.start("test job", Duration.ofSeconds(60));
+        long cap = Duration.ofSeconds(30).toNanos();
+        long before = budget.requestTimeoutNanos(cap);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            budget.recordLatency(Duration.ofMillis(500).toNanos());
+        }
+        long after = budget.requestTimeoutNanos(cap);
+
+        // Then
+        assertEquals(cap, before);
+        assertEquals(Duration.ofMillis(1_500).toNanos(), after);
+        assertTrue(JobBudget.start("spent", Duration.ZERO).requestTimeoutNanos(cap) <= 0);
+    }
+}
@@ -0,0 +1,66 @@
+package com.higgstx.schwabtest.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the token-bucket arithmetic, driven by a manual clock
+ */
+class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    @DisplayName("A full bucket hands out its burst and then reports the wait for one refill")
+    void burstThenWait() {
+        // Given - 120 per minute is one permit every 500 ms
+        RateLimiter limiter = new RateLimiter(120, 3, now::get);
+
+        // When
+        int granted = 0;
+        while (limiter.tryAcquire()) {
+            granted++;
+        }
+
+        // Then
+        assertEquals(3, granted);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.nanosUntilPermit());
+        assertEquals(120.0, limiter.getPermitsPerMinute(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Permits refill in proportion to elapsed time, capped at the burst")
+    void refillIsProportionalAndCapped() {
+        // Given
+        RateLimiter limiter = new RateLimiter(120, 3, now::get);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        // When / Then - 250 ms refills half a permit
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        assertEquals(0.5, limiter.availablePermits(), 1e-9);
+        assertFalse(limiter.tryAcquire());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(250), limiter.nanosUntilPermit());
+
+        // When / Then - another 250 ms completes the permit
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        assertEquals(0, limiter.nanosUntilPermit());
+        assertTrue(limiter.tryAcquire());
+
+        // When / Then - a long idle period never exceeds the burst
+        now.addAndGet(TimeUnit.MINUTES.toNanos(10));
+        assertEquals(3.0, limiter.availablePermits(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("A non-positive rate is rejected")
+    void rejectsNonPositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1));
+    }
+}
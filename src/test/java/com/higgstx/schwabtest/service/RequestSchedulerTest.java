@@ -0,0 +1,93 @@
+package com.higgstx.schwabtest.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for two-class request scheduling
+ */
+class RequestSchedulerTest {
+
+    private static Thread queue(RequestScheduler scheduler, RequestScheduler.Priority priority, List<String> order,
+                                String name) {
+        Thread thread = new Thread(() -> {
+            try {
+                scheduler.acquire(priority);
+                order.add(name);
+                scheduler.release(priority, 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitWaiting(RequestScheduler scheduler, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.stats().stream().mapToInt(RequestScheduler.ClassStats::waiting).sum() < expected) {
+            assertTrue(System.nanoTime() < deadline, "callers never queued");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    @DisplayName("An interactive call is admitted ahead of a queued bulk backlog")
+    void interactiveJumpsBulkBacklog() throws Exception {
+        // Given
+        RequestScheduler scheduler = new RequestScheduler(8, 1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        scheduler.acquire(RequestScheduler.Priority.BULK);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            threads.add(queue(scheduler, RequestScheduler.Priority.BULK, order, "bulk" + i));
+        }
+        awaitWaiting(scheduler, 3);
+        threads.add(queue(scheduler, RequestScheduler.Priority.INTERACTIVE, order, "interactive"));
+        awaitWaiting(scheduler, 4);
+
+        // When
+        scheduler.release(RequestScheduler.Priority.BULK, 0);
+        for (Thread thread : threads) {
+            thread.join(5_000);
+        }
+
+        // Then
+        assertEquals(4, order.size());
+        assertEquals("interactive", order.get(0));
+        RequestScheduler.ClassStats bulk = scheduler.stats().get(1);
+        assertEquals(RequestScheduler.Priority.BULK, bulk.priority());
+        assertEquals(4, bulk.admitted());
+    }
+
+    @Test
+    @DisplayName("Bulk work still gets its weighted share while interactive calls keep arriving")
+    void bulkIsNotStarved() throws Exception {
+        // Given
+        RequestScheduler scheduler = new RequestScheduler(2, 1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        scheduler.acquire(RequestScheduler.Priority.INTERACTIVE);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            threads.add(queue(scheduler, RequestScheduler.Priority.INTERACTIVE, order, "interactive"));
+        }
+        threads.add(queue(scheduler, RequestScheduler.Priority.BULK, order, "bulk"));
+        awaitWaiting(scheduler, 7);
+
+        // When
+        scheduler.release(RequestScheduler.Priority.INTERACTIVE, 0);
+        for (Thread thread : threads) {
+            thread.join(5_000);
+        }
+
+        // Then
+        assertTrue(order.indexOf("bulk") <= 3, "bulk admitted at " + order.indexOf("bulk") + " in " + order);
+    }
+}
@@ -0,0 +1,86 @@
+package com.higgstx.schwabtest.service;
+
+import com.higgstx.schwabapi.service.TokenManager;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the REST client against a loopback stand-in
+ */
+class SchwabRestClientTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicReference<String> authorization = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/v1/echo", exchange -> {
+            authorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+            byte[] body = ("{\"query\":\"" + exchange.getRequestURI().getRawQuery() + "\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("A token-source client sends the bearer token and encoded query")
+    void sendsTokenAndQuery() throws Exception {
+        // Given
+        SchwabRestClient client = new SchwabRestClient(() -> "direct-token", 2_000);
+
+        // When
+        SchwabRestClient.Response response = client.get(baseUrl, "/echo", Map.of("symbol", "BRK B"));
+
+        // Then
+        assertTrue(response.isSuccess());
+        assertEquals("Bearer direct-token", authorization.get());
+        assertTrue(response.body().contains("symbol=BRK+B"), response.body());
+    }
+
+    @Test
+    @DisplayName("A pooled client runs each request through the pool with the chosen slot's token")
+    void pooledClientUsesSlot() throws Exception {
+        // Given
+        TokenManager tokens = mock(TokenManager.class);
+        when(tokens.hasUsableTokens()).thenReturn(true);
+        when(tokens.getValidAccessToken()).thenReturn("slot-token");
+        CredentialSlot slot = new CredentialSlot("only", tokens, null, new RateLimiter(600, 10));
+        CredentialPool pool = new CredentialPool(List.of(slot));
+        SchwabRestClient client = new SchwabRestClient(pool, RequestScheduler.Priority.INTERACTIVE, 2_000);
+
+        // When
+        SchwabRestClient.Response response = client.get(baseUrl, "/echo", Map.of());
+
+        // Then
+        assertTrue(response.isSuccess());
+        assertEquals("Bearer slot-token", authorization.get());
+        assertEquals(1, slot.getCompleted());
+        assertTrue(slot.getRateLimiter().availablePermits() < 10);
+    }
+}
@@ -0,0 +1,79 @@
+package com.higgstx.schwabtest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the token file watcher
+ */
+class TokenFileWatcherTest {
+
+    @TempDir
+    Path directory;
+
+    private TokenFileWatcher watcher;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should report in-place writes and atomic replacements of the file")
+    void testChangesReported() throws Exception {
+        // Given
+        Path tokenFile = directory.resolve("schwab-api.json");
+        Files.writeString(tokenFile, "{\"v\":1}");
+        Semaphore changes = new Semaphore(0);
+        watcher = new TokenFileWatcher(tokenFile, changes::release);
+
+        // When - an unrelated file, then an in-place write, then a replace like another process's refresh
+        Files.writeString(directory.resolve("other.json"), "{}");
+        Files.writeString(tokenFile, "{\"v\":2}");
+        boolean written = changes.tryAcquire(5, TimeUnit.SECONDS);
+        changes.drainPermits();
+        Path partial = directory.resolve("schwab-api.json.tmp");
+        Files.writeString(partial, "{\"v\":3}");
+        Files.move(partial, tokenFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        boolean replaced = changes.tryAcquire(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(written);
+        assertTrue(replaced);
+        assertEquals("{\"v\":3}", Files.readString(tokenFile));
+    }
+
+    @Test
+    @DisplayName("Should report itself dead once its directory is gone")
+    void testDeathReported() throws Exception {
+        // Given
+        Path watched = Files.createDirectory(directory.resolve("tokens"));
+        Path tokenFile = watched.resolve("schwab-api.json");
+        Files.writeString(tokenFile, "{}");
+        watcher = new TokenFileWatcher(tokenFile, () -> { });
+        assertTrue(watcher.isAlive());
+
+        // When
+        Files.delete(tokenFile);
+        Files.delete(watched);
+
+        // Then
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (watcher.isAlive() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(watcher.isAlive());
+    }
+}
@@ -0,0 +1,112 @@
+package com.higgstx.schwabtest.state;
+
+import com.higgstx.schwabtest.analytics.CandleBlock;
+import com.higgstx.schwabtest.analytics.CandleStore;
+import com.higgstx.schwabtest.analytics.SymbolTable;
+import com.higgstx.schwabtest.market.MarketDay;
+import com.higgstx.schwabtest.market.MarketHoursService;
+import com.higgstx.schwabtest.market.QuoteBook;
+import com.higgstx.schwabtest.service.SchwabRestClient;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for market state snapshots
+ */
+class MarketStateSnapshotterTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-03-06T15:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path tempDir;
+
+    private static MarketHoursService marketHours() {
+        return new MarketHoursService(new SchwabRestClient(() -> "unused", 1000), "http://127.0.0.1:1", 7, CLOCK);
+    }
+
+    @Test
+    @DisplayName("Candles, quotes and market days survive a save and restore into fresh stores")
+    void roundTripsState() {
+        // Given
+        Path file = tempDir.resolve("market-state.snap");
+        SymbolTable before = new SymbolTable();
+        CandleStore candles = new CandleStore();
+        CandleBlock block = new CandleBlock(before, 4);
+        int spy = before.intern("SPY");
+        int aapl = before.intern("AAPL");
+        block.add(spy, 19_700, 500, 505, 498, 503.5, 1_000_000L);
+        block.add(aapl, 19_700, 170, 172, 169, 171.25, 2_000_000L);
+        block.add(spy, 19_701, 503, 507, 501, 506.0, 900_000L);
+        candles.replace(block);
+        QuoteBook quotes = new QuoteBook(before);
+        quotes.update(aapl, 171.5, 2_100_000L, 1_700_000_000_000L);
+        MarketHoursService hours = marketHours();
+        LocalDate today = hours.today();
+        hours.restore(MarketHoursService.EQUITY, List.of(MarketDay.closed("equity", "EQ", today.plusDays(1))));
+
+        // When
+        MarketStateSnapshotter.Result saved =
+                new MarketStateSnapshotter(file, before, candles, quotes, hours).save();
+        SymbolTable after = new SymbolTable();
+        after.intern("QQQ"); // shifts ids so the remap is exercised
+        CandleStore restoredCandles = new CandleStore();
+        QuoteBook restoredQuotes = new QuoteBook(after);
+        MarketHoursService restoredHours = marketHours();
+        MarketStateSnapshotter.Result restored = new MarketStateSnapshotter(file, after, restoredCandles,
+                restoredQuotes, restoredHours).restore();
+
+        // Then
+        assertTrue(saved.success(), saved.message());
+        assertTrue(restored.success(), restored.message());
+        assertEquals(3, restored.candles());
+        assertEquals(1, restored.quotes());
+        assertEquals(1, restored.marketDays());
+
+        CandleBlock restoredBlock = restoredCandles.get();
+        int first = restoredBlock.firstRowOf(after.find("SPY"));
+        assertEquals(19_700, restoredBlock.epochDay(first));
+        assertEquals(506.0, restoredBlock.close(first + 1));
+        assertEquals(171.5, restoredQuotes.price("AAPL"));
+        assertEquals(2_100_000L, restoredQuotes.volume("AAPL"));
+        assertEquals(1, restoredHours.getCachedDays());
+    }
+
+    @Test
+    @DisplayName("A corrupted snapshot is rejected and leaves the stores empty")
+    void rejectsCorruptSnapshot() throws Exception {
+        // Given
+        Path file = tempDir.resolve("corrupt.snap");
+        SymbolTable symbols = new SymbolTable();
+        CandleStore candles = new CandleStore();
+        CandleBlock block = new CandleBlock(symbols, 1);
+        block.add(symbols.intern("SPY"), 19_700, 1, 2, 0.5, 1.5, 10L);
+        candles.replace(block);
+        new MarketStateSnapshotter(file, symbols, candles, new QuoteBook(symbols), marketHours()).save();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), channel.size() - 9);
+        }
+
+        // When
+        CandleStore restoredCandles = new CandleStore();
+        MarketStateSnapshotter.Result result = new MarketStateSnapshotter(file, symbols, restoredCandles,
+                new QuoteBook(symbols), marketHours()).restore();
+
+        // Then
+        assertFalse(result.success());
+        assertTrue(result.message().contains("checksum"), result.message());
+        assertTrue(restoredCandles.isEmpty());
+    }
+}
@@ -0,0 +1,136 @@
+package com.higgstx.schwabtest.trader;
+
+import com.higgstx.schwabtest.service.SchwabRestClient;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the cached accounts/positions client against a local stand-in
+ */
+class TraderServiceTest {
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile String body;
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    private static String accounts(double aaplQuantity, boolean holdMsft) {
+        return "[{\"securitiesAccount\":{\"type\":\"MARGIN\",\"accountNumber\":\"12345678\","
+                + "\"positions\":["
+                + "{\"longQuantity\":" + aaplQuantity + ",\"shortQuantity\":0,\"averagePrice\":150.0,"
+                + "\"marketValue\":" + aaplQuantity * 170 + ",\"instrument\":{\"assetType\":\"EQUITY\",\"symbol\":\"AAPL\"}},"
+                + "{\"longQuantity\":5,\"shortQuantity\":0,\"averagePrice\":400.0,\"marketValue\":2100.0,"
+                + "\"instrument\":{\"assetType\":\"EQUITY\",\"symbol\":\"SPY\"}}"
+                + (holdMsft ? ",{\"longQuantity\":2,\"shortQuantity\":0,\"averagePrice\":300.0,\"marketValue\":800.0,"
+                + "\"instrument\":{\"assetType\":\"EQUITY\",\"symbol\":\"MSFT\"}}" : "")
+                + "],\"currentBalances\":{\"liquidationValue\":25000.0,\"cashBalance\":1000.0}}}]";
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        body = accounts(10, true);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/trader/v1/accounts", exchange -> {
+            requests.incrementAndGet();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    private TraderService service(Duration ttl) {
+        String traderUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/trader/v1";
+        return new TraderService(new SchwabRestClient(() -> "test-token", 5_000), traderUrl, ttl);
+    }
+
+    @Test
+    @DisplayName("Concurrent callers share one refresh and later calls hit the cache")
+    void refreshIsSingleFlight() throws Exception {
+        // Given
+        TraderService trader = service(Duration.ofMinutes(1));
+        gate = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<AccountsSnapshot>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(trader::getSnapshot));
+        }
+        while (requests.get() == 0) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(100);
+        gate.countDown();
+        for (Future<AccountsSnapshot> result : results) {
+            assertEquals(3, result.get().positions().size());
+        }
+        trader.getSnapshot();
+        callers.shutdownNow();
+
+        // Then
+        assertEquals(1, requests.get());
+        assertEquals(1, trader.getApiCalls());
+    }
+
+    @Test
+    @DisplayName("Polls publish only the positions that changed")
+    void pollPublishesOnlyChanges() throws Exception {
+        // Given
+        TraderService trader = service(Duration.ZERO);
+        List<PositionDiff> published = new ArrayList<>();
+        trader.poll((diff, snapshot) -> published.add(diff));
+
+        // When
+        PositionDiff unchanged = trader.poll((diff, snapshot) -> published.add(diff));
+        body = accounts(10, true).replace("\"marketValue\":2100.0", "\"marketValue\":2150.0");
+        PositionDiff repriced = trader.poll((diff, snapshot) -> published.add(diff));
+        body = accounts(12, false);
+        trader.poll((diff, snapshot) -> published.add(diff));
+
+        // Then
+        assertTrue(unchanged.isEmpty());
+        assertTrue(repriced.isEmpty(), "a market value move alone is not a change");
+        assertEquals(2, published.size());
+        assertEquals(3, published.get(0).added().size());
+        PositionDiff delta = published.get(1);
+        assertEquals(List.of("AAPL"), delta.changed().stream().map(Position::symbol).toList());
+        assertEquals(12.0, delta.changed().get(0).longQuantity());
+        assertEquals(List.of("MSFT"), delta.removed().stream().map(Position::symbol).toList());
+        assertTrue(delta.added().isEmpty());
+    }
+}
@@ -0,0 +1,121 @@
+package com.higgstx.schwabtest.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for block-compressed log archives
+ */
+class LogArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    private Path writeLog(int lines) throws Exception {
+        List<String> content = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            String level = i % 1000 == 999 ? "ERROR" : "INFO ";
+            content.add(String.format("2026-10-17 %02d:%02d:%02d.000 [main] %s com.higgstx.Test - line %d",
+                    i / 3600 % 24, i / 60 % 60, i % 60, level, i));
+        }
+        Path plain = directory.resolve("app.2026-10-17.0.log");
+        Files.write(plain, content);
+        return plain;
+    }
+
+    @Test
+    @DisplayName("Archive is plain multi-member gzip and tail reads only the last block")
+    void tailReadsTrailingBlocks() throws Exception {
+        // Given
+        Path archive = directory.resolve("app.2026-10-17.0.log.gz");
+        LogArchive.CompressResult result = LogArchive.compress(writeLog(20_000), archive);
+
+        // When
+        LogArchive opened = LogArchive.open(archive);
+        List<String> tail = opened.tail(3);
+
+        // Then
+        assertTrue(result.blocks() > 1);
+        assertEquals(20_000, result.lines());
+        assertTrue(opened.isIndexed());
+        assertEquals(3, tail.size());
+        assertTrue(tail.get(2).endsWith("line 19999"));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archive)), StandardCharsets.UTF_8))) {
+            assertEquals(20_000, reader.lines().count());
+        }
+    }
+
+    @Test
+    @DisplayName("Search skips blocks outside the time range")
+    void searchSkipsBlocksOutsideRange() throws Exception {
+        // Given
+        Path archive = directory.resolve("app.2026-10-17.0.log.gz");
+        LogArchive.compress(writeLog(20_000), archive);
+        LogArchive opened = LogArchive.open(archive);
+        LogArchive.Query query = new LogArchive.Query("ERROR", LogArchive.parseTime("2026-10-17 00:00"),
+                LogArchive.parseTime("2026-10-17 00:20"));
+        List<String> matches = new ArrayList<>();
+
+        // When
+        int blocksRead = opened.search(query, line -> line.contains(" ERROR ") && line.compareTo("2026-10-17 00:20") < 0,
+                matches::add);
+
+        // Then
+        assertEquals(1, matches.size());
+        assertTrue(matches.get(0).endsWith("line 999"));
+        assertTrue(blocksRead < opened.getBlocks().size());
+    }
+
+    @Test
+    @DisplayName("Compressing over an existing archive fails and leaves it and no temp files behind")
+    void compressNeverOverwrites() throws Exception {
+        // Given
+        Path archive = directory.resolve("app.2026-10-17.0.log.gz");
+        LogArchive.compress(writeLog(20_000), archive);
+        byte[] first = Files.readAllBytes(archive);
+
+        // When / Then
+        assertThrows(FileAlreadyExistsException.class, () -> LogArchive.compress(writeLog(10), archive));
+        assertArrayEquals(first, Files.readAllBytes(archive));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".partial")));
+        }
+    }
+
+    @Test
+    @DisplayName("Archiver writes a reused rolled name to a new archive instead of replacing the old one")
+    void archiverKeepsEarlierArchive() throws Exception {
+        // Given
+        LogArchiver archiver = new LogArchiver(directory, Long.MAX_VALUE);
+        writeLog(20_000);
+        archiver.archiveRolled();
+        Path earlier = directory.resolve("app.2026-10-17.0.log.gz");
+        byte[] first = Files.readAllBytes(earlier);
+        writeLog(10);
+
+        // When
+        LogArchiver.Result result = archiver.archiveRolled();
+
+        // Then
+        assertEquals(1, result.compressed());
+        assertArrayEquals(first, Files.readAllBytes(earlier));
+        Path renamed = directory.resolve("app.2026-10-17.0-1.log.gz");
+        assertEquals(10, LogArchive.open(renamed).tail(100).size());
+        assertTrue(LogArchive.open(renamed).isIndexed());
+    }
+}
@@ -0,0 +1,40 @@
+package com.higgstx.schwabtest.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for finding a log's rolled history
+ */
+class LogViewerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("History orders archives and not yet archived rolled logs together before the live file")
+    void historyIncludesPlainRolledLogs() throws Exception {
+        // Given - index 0 was archived, then reused after a restart and not archived yet
+        for (String name : List.of("app.log", "app.2026-10-17.1.log", "app.2026-10-17.0.log",
+                "app.2026-10-17.0.log.gz", "app.2026-10-16.0-1.log.gz", "app.2026-10-16.0.log.gz",
+                "app.2026-10-17.0.log.gz.idx", "other.2026-10-17.0.log")) {
+            Files.writeString(directory.resolve(name), "");
+        }
+
+        // When
+        List<String> history = LogViewer.history(directory.resolve("app.log")).stream()
+                .map(file -> file.getFileName().toString())
+                .toList();
+
+        // Then
+        assertEquals(List.of("app.2026-10-16.0.log.gz", "app.2026-10-16.0-1.log.gz", "app.2026-10-17.0.log.gz",
+                "app.2026-10-17.0.log", "app.2026-10-17.1.log", "app.log"), history);
+    }
+}
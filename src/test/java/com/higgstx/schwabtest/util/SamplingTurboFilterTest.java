@@ -0,0 +1,116 @@
+package com.higgstx.schwabtest.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the log sampling turbo filter
+ */
+class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final SamplingTurboFilter filter = new SamplingTurboFilter();
+
+    @AfterEach
+    void tearDown() {
+        filter.stop();
+    }
+
+    @Test
+    @DisplayName("A flooding template is sampled while warnings and other templates pass")
+    void floodIsSampledPerTemplate() {
+        // Given
+        filter.setPerKeyPerSecond(5);
+        filter.setHighWatermark(1_000_000);
+        filter.setContext(context);
+        filter.start();
+        Logger chatty = context.getLogger("com.higgstx.schwabtest.Chatty");
+        chatty.setLevel(Level.DEBUG);
+
+        // When
+        int passed = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (filter.decide(null, chatty, Level.DEBUG, "Fetched {}", new Object[]{i}, null) != FilterReply.DENY) {
+                passed++;
+            }
+        }
+        FilterReply otherTemplate = filter.decide(null, chatty, Level.DEBUG, "Cache hit {}", null, null);
+        FilterReply warning = filter.decide(null, chatty, Level.WARN, "Fetched {}", null, null);
+        FilterReply withError = filter.decide(null, chatty, Level.DEBUG, "Fetched {}",
+                new Object[]{new IllegalStateException()}, null);
+
+        // Then
+        assertTrue(passed >= 5 && passed < 40, "passed " + passed);
+        assertEquals(FilterReply.NEUTRAL, otherTemplate);
+        assertEquals(FilterReply.NEUTRAL, warning);
+        assertEquals(FilterReply.NEUTRAL, withError);
+        SamplingTurboFilter.Stats stats = filter.stats(1);
+        assertEquals(1000 - passed, stats.suppressed());
+        assertEquals("Fetched {}", stats.topSuppressed().get(0).template());
+    }
+
+    @Test
+    @DisplayName("Per-key budget shrinks in proportion to volume over the high watermark")
+    void budgetScalesWithVolume() {
+        // Given
+        AtomicLong nanos = new AtomicLong();
+        SamplingTurboFilter scaled = new SamplingTurboFilter(nanos::get);
+        scaled.setPerKeyPerSecond(20);
+        scaled.setHighWatermark(100);
+        scaled.setContext(context);
+        scaled.start();
+        Logger chatty = context.getLogger("com.higgstx.schwabtest.Chatty");
+        chatty.setLevel(Level.DEBUG);
+        for (int i = 0; i < 400; i++) {
+            scaled.decide(null, chatty, Level.DEBUG, "Fetched {}", new Object[]{i}, null);
+        }
+
+        // When
+        nanos.set(1_000_000_000L);
+        scaled.decide(null, chatty, Level.DEBUG, "Fetched {}", new Object[]{0}, null);
+        int underLoad = scaled.budgetPerKey();
+        nanos.set(3_000_000_000L);
+        scaled.decide(null, chatty, Level.DEBUG, "Fetched {}", new Object[]{0}, null);
+        int afterGap = scaled.budgetPerKey();
+
+        // Then
+        assertEquals(20 * 100 / 400, underLoad);
+        assertEquals(20, afterGap);
+        scaled.stop();
+    }
+
+    @Test
+    @DisplayName("Messages without arguments share one key per logger")
+    void plainMessagesShareKey() {
+        // Given
+        filter.setPerKeyPerSecond(5);
+        filter.setHighWatermark(1_000_000);
+        filter.setContext(context);
+        filter.start();
+        Logger chatty = context.getLogger("com.higgstx.schwabtest.Chatty");
+        chatty.setLevel(Level.DEBUG);
+
+        // When
+        int passed = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (filter.decide(null, chatty, Level.DEBUG, "Fetched " + i, null, null) != FilterReply.DENY) {
+                passed++;
+            }
+        }
+
+        // Then
+        assertTrue(passed >= 5 && passed < 40, "passed " + passed);
+        SamplingTurboFilter.Stats stats = filter.stats(10);
+        assertEquals(1, stats.topSuppressed().size());
+        assertEquals(1000 - passed, stats.topSuppressed().get(0).count());
+    }
+}